@@ -1,6 +1,7 @@
 package com.fintech.payment.controller;
 
 import com.fintech.payment.service.PaymentService;
+import com.fintech.payment.service.TransferService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,10 +17,14 @@ import java.util.Map;
 @RequestMapping("/api/payments")
 public class PaymentController {
     
+    private static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+    
     private final PaymentService paymentService;
+    private final TransferService transferService;
     
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, TransferService transferService) {
         this.paymentService = paymentService;
+        this.transferService = transferService;
     }
     
     /**
@@ -33,7 +38,10 @@ public class PaymentController {
                 request.amount(), 
                 request.description()
             );
-            return ResponseEntity.ok("Payment processed successfully");
+            // Clients pass the token back so history reads include this payment
+            return ResponseEntity.ok()
+                .header(CONSISTENCY_TOKEN_HEADER, paymentService.getConsistencyToken(request.accountId()))
+                .body("Payment processed successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Payment failed: " + e.getMessage());
         }
@@ -58,15 +66,35 @@ public class PaymentController {
     @GetMapping("/history/{accountId}")
     public ResponseEntity<List<Map<String, Object>>> getHistory(
             @PathVariable long accountId,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(name = CONSISTENCY_TOKEN_HEADER, required = false) String consistencyToken) {
         try {
-            List<Map<String, Object>> history = paymentService.getTransactionHistory(accountId, limit);
+            List<Map<String, Object>> history = paymentService.getTransactionHistory(accountId, limit, consistencyToken);
             return ResponseEntity.ok(history);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
     
+    /**
+     * Transfer money between any two accounts
+     * Cross-shard transfers return PENDING until the destination is credited
+     */
+    @PostMapping("/transfer")
+    public ResponseEntity<String> transfer(@RequestBody TransferRequest request) {
+        try {
+            TransferService.TransferStatus status = transferService.transfer(
+                request.fromAccountId(),
+                request.toAccountId(),
+                request.amount(),
+                request.description()
+            );
+            return ResponseEntity.ok("Transfer " + status.name().toLowerCase());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Transfer failed: " + e.getMessage());
+        }
+    }
+    
     /**
      * Create new account
      */
@@ -93,6 +121,13 @@ public class PaymentController {
         BigDecimal balance
     ) {}
     
+    public record TransferRequest(
+        long fromAccountId,
+        long toAccountId,
+        BigDecimal amount,
+        String description
+    ) {}
+    
     public record CreateAccountRequest(
         long accountId,
         BigDecimal initialBalance
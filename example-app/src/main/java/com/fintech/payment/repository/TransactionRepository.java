@@ -1,9 +1,12 @@
 package com.fintech.payment.repository;
 
 import com.fintech.payment.entity.Transaction;
+import org.springframework.boot.starter.sharding.core.KeysetPage;
 import org.springframework.boot.starter.sharding.jpa.ShardJpaRepository;
+import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,6 +33,18 @@ public interface TransactionRepository extends ShardJpaRepository<Transaction, L
     @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId")
     Page<Transaction> findByAccountId(long shardKey, @Param("accountId") Long accountId, Pageable pageable);
     
+    /**
+     * Find transactions by account ID with keyset pagination (newest first)
+     * Prefer over the Pageable variant for deep paging
+     */
+    default KeysetPage<Transaction> findPageByAccountId(long shardKey, Long accountId, int pageSize, String token) {
+        Transaction probe = new Transaction();
+        probe.setAccountId(accountId);
+        probe.setStatus(null);
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt", "transactionId");
+        return findPage(shardKey, Example.of(probe), sort, pageSize, token);
+    }
+    
     /**
      * Find transactions by account ID and status
      */
@@ -4,6 +4,7 @@ import com.fintech.payment.entity.Account;
 import com.fintech.payment.entity.Transaction;
 import com.fintech.payment.repository.AccountRepository;
 import com.fintech.payment.repository.TransactionRepository;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,10 +22,13 @@ public class PaymentJpaService {
     
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
     
-    public PaymentJpaService(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    public PaymentJpaService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                             ShardRouter shardRouter) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.shardRouter = shardRouter;
     }
     
     /**
@@ -82,12 +86,13 @@ public class PaymentJpaService {
     
     /**
      * Transfer money between accounts (same shard only)
+     * The JPA transaction is bound to one shard; use TransferService for cross-shard transfers
      */
     @Transactional("shardJpaTransactionManager")
     public void transferMoney(long fromAccountId, long toAccountId, BigDecimal amount, String description) {
         // Verify both accounts are on the same shard
         if (!onSameShard(fromAccountId, toAccountId)) {
-            throw new IllegalArgumentException("Cross-shard transfers not supported");
+            throw new IllegalArgumentException("Cross-shard transfers not supported here, use TransferService");
         }
         
         // Get both accounts
@@ -149,7 +154,7 @@ public class PaymentJpaService {
      * Check if two accounts are on the same shard
      */
     private boolean onSameShard(long accountId1, long accountId2) {
-        // Simple hash-based check - in real implementation, use ShardRouter
-        return (accountId1 % 3) == (accountId2 % 3);
+        // Resolve through the router so overrides and the configured hash are honoured
+        return shardRouter.resolve(accountId1).index() == shardRouter.resolve(accountId2).index();
     }
 }
\ No newline at end of file
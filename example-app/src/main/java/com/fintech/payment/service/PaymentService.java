@@ -1,13 +1,35 @@
 package com.fintech.payment.service;
 
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+import org.springframework.boot.starter.sharding.core.KeysetPage;
+import org.springframework.boot.starter.sharding.jdbc.AsyncShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.KeysetQuery;
+import org.springframework.boot.starter.sharding.jdbc.ShardBatchResult;
+import org.springframework.boot.starter.sharding.jdbc.ShardCopyLoader;
+import org.springframework.boot.starter.sharding.jdbc.ShardCopyResult;
 import org.springframework.boot.starter.sharding.jdbc.ShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.ShardPipeline;
+import org.springframework.boot.starter.sharding.jdbc.ShardReadHedger;
+import org.springframework.boot.starter.sharding.jdbc.ShardScan;
+import org.springframework.boot.starter.sharding.jdbc.ShardScanResult;
+import org.springframework.boot.starter.sharding.jdbc.ShardScanner;
+import org.springframework.boot.starter.sharding.jdbc.SqlRoutingJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.WithShardSession;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Payment service demonstrating sharding usage
@@ -16,10 +38,33 @@ import java.util.Map;
 @Service
 public class PaymentService {
     
+    private static final KeysetQuery HISTORY_PAGE = KeysetQuery.of(
+        """
+        SELECT transaction_id, amount, description, created_at, status 
+        FROM transactions 
+        WHERE account_id = ?
+        """,
+        true, "created_at", "transaction_id"
+    );
+    
     private final ShardJdbcTemplate shardJdbc;
+    private final ShardReadHedger readHedger;
+    private final AsyncShardJdbcTemplate asyncShardJdbc;
+    private final ShardCopyLoader copyLoader;
+    private final ShardScanner scanner;
+    private final SqlRoutingJdbcTemplate sqlRoutingJdbc;
     
-    public PaymentService(ShardJdbcTemplate shardJdbc) {
+    public PaymentService(ShardJdbcTemplate shardJdbc, ObjectProvider<ShardReadHedger> readHedger,
+                          ObjectProvider<AsyncShardJdbcTemplate> asyncShardJdbc,
+                          ObjectProvider<ShardCopyLoader> copyLoader,
+                          ObjectProvider<ShardScanner> scanner,
+                          ObjectProvider<SqlRoutingJdbcTemplate> sqlRoutingJdbc) {
         this.shardJdbc = shardJdbc;
+        this.readHedger = readHedger.getIfAvailable();
+        this.asyncShardJdbc = asyncShardJdbc.getIfAvailable();
+        this.copyLoader = copyLoader.getIfAvailable();
+        this.scanner = scanner.getIfAvailable();
+        this.sqlRoutingJdbc = sqlRoutingJdbc.getIfAvailable();
     }
     
     /**
@@ -27,52 +72,115 @@ public class PaymentService {
      */
     @Transactional("shardTransactionManager")
     public void processPayment(long accountId, BigDecimal amount, String description) {
-        // Insert transaction record
-        shardJdbc.update(
-            accountId,
-            """
-            INSERT INTO transactions (account_id, amount, description, created_at, status) 
-            VALUES (?, ?, ?, ?, 'PENDING')
-            """,
-            accountId, amount, description, LocalDateTime.now()
-        );
+        LocalDateTime now = LocalDateTime.now();
         
-        // Update account balance
-        int updated = shardJdbc.update(
-            accountId,
-            "UPDATE accounts SET balance = balance - ?, updated_at = ? WHERE account_id = ?",
-            amount, LocalDateTime.now(), accountId
-        );
+        // Insert, balance update and status update in one round trip to the shard
+        ShardPipeline.PipelineResults results = shardJdbc.pipeline(accountId)
+            .update(
+                """
+                INSERT INTO transactions (account_id, amount, description, created_at, status) 
+                VALUES (?, ?, ?, ?, 'PENDING')
+                """,
+                accountId, amount, description, now
+            )
+            .update(
+                "UPDATE accounts SET balance = balance - ?, updated_at = ? WHERE account_id = ?",
+                amount, now, accountId
+            )
+            .update(
+                "UPDATE transactions SET status = 'COMPLETED' WHERE account_id = ? AND status = 'PENDING'",
+                accountId
+            )
+            .execute();
         
-        if (updated == 0) {
+        if (results.getUpdateCount(1) == 0) {
             throw new IllegalArgumentException("Account not found: " + accountId);
         }
-        
-        // Mark transaction as completed
-        shardJdbc.update(
-            accountId,
-            "UPDATE transactions SET status = 'COMPLETED' WHERE account_id = ? AND status = 'PENDING'",
-            accountId
-        );
+    }
+    
+    /**
+     * Get read-your-writes token for the account's shard
+     * Call after a payment committed and hand it back on later reads
+     */
+    public String getConsistencyToken(long accountId) {
+        return shardJdbc.currentToken(accountId).encode();
     }
     
     /**
      * Get account balance
+     * With hedging enabled a slow replica is raced against a second replica or the primary
      */
     public BigDecimal getBalance(long accountId) {
-        return shardJdbc.queryForObject(
-            accountId,
-            "SELECT balance FROM accounts WHERE account_id = ?",
-            BigDecimal.class,
-            accountId
+        String sql = "SELECT balance FROM accounts WHERE account_id = ?";
+        if (shardJdbc.getResultCache() != null) {
+            // Hot accounts are answered from memory; payments through the template invalidate them
+            return shardJdbc.cached().queryForObject(accountId, sql, BigDecimal.class, accountId);
+        }
+        if (readHedger != null) {
+            return readHedger.queryForObject(accountId, sql, BigDecimal.class, accountId);
+        }
+        return shardJdbc.queryForObject(accountId, sql, BigDecimal.class, accountId);
+    }
+    
+    /**
+     * Get balance and recent history in one pinned connection
+     * Both queries reuse the same connection instead of borrowing two
+     */
+    @WithShardSession("accountId")
+    public AccountSummary getAccountSummary(long accountId, int limit) {
+        return new AccountSummary(getBalance(accountId), getTransactionHistory(accountId, limit));
+    }
+    
+    /**
+     * Get balance and recent history with both reads in flight at once
+     * Without the async template the summary is read in one pinned session
+     */
+    public CompletableFuture<AccountSummary> getAccountSummaryAsync(long accountId, int limit) {
+        if (asyncShardJdbc == null) {
+            return CompletableFuture.completedFuture(getAccountSummary(accountId, limit));
+        }
+        CompletableFuture<BigDecimal> balance = asyncShardJdbc.queryForObject(
+            accountId, "SELECT balance FROM accounts WHERE account_id = ?", BigDecimal.class, accountId);
+        CompletableFuture<List<Map<String, Object>>> history = asyncShardJdbc.submit(
+            accountId, template -> getTransactionHistory(accountId, limit));
+        return balance.thenCombine(history, AccountSummary::new);
+    }
+    
+    /**
+     * Get balances for many accounts (statement runs, payroll files)
+     * One query per shard instead of one per account
+     */
+    public Map<Long, BigDecimal> getBalances(long[] accountIds) {
+        Map<Long, List<BigDecimal>> rows = shardJdbc.queryByKeys(
+            accountIds,
+            "SELECT account_id, balance FROM accounts WHERE account_id = ANY(?)",
+            (rs, rowNum) -> rs.getBigDecimal("balance")
         );
+        
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        rows.forEach((accountId, values) -> {
+            if (!values.isEmpty()) {
+                balances.put(accountId, values.get(0));
+            }
+        });
+        return balances;
     }
     
     /**
      * Get transaction history for account
+     * Served by a shard replica when configured; balances stay on the primary
      */
     public List<Map<String, Object>> getTransactionHistory(long accountId, int limit) {
-        return shardJdbc.queryForList(
+        return getTransactionHistory(accountId, limit, null);
+    }
+    
+    /**
+     * Get transaction history that includes the caller's own recent payments
+     * Only replicas that replayed the token's write are used, otherwise the primary
+     */
+    public List<Map<String, Object>> getTransactionHistory(long accountId, int limit, String consistencyToken) {
+        ConsistencyToken token = consistencyToken == null ? null : ConsistencyToken.decode(consistencyToken);
+        return shardJdbc.readOnly(token).queryForList(
             accountId,
             """
             SELECT transaction_id, amount, description, created_at, status 
@@ -85,6 +193,64 @@ public class PaymentService {
         );
     }
     
+    /**
+     * Get an account's pending transactions
+     * The account is taken from the WHERE clause, no shard key is passed separately
+     */
+    public List<Map<String, Object>> getPendingTransactions(long accountId) {
+        return sqlRouting().queryForList(
+            "SELECT transaction_id, amount, description, created_at FROM transactions WHERE account_id = ? AND status = 'PENDING'",
+            accountId
+        );
+    }
+    
+    /**
+     * Count pending transactions of all accounts, for operations dashboards
+     * Without an account in the statement it runs on every shard
+     */
+    public long countPendingTransactions() {
+        return sqlRouting().query(
+            "SELECT count(*) FROM transactions WHERE status = 'PENDING'",
+            (rs, rowNum) -> rs.getLong(1)
+        ).stream().mapToLong(Long::longValue).sum();
+    }
+    
+    private SqlRoutingJdbcTemplate sqlRouting() {
+        if (sqlRoutingJdbc == null) {
+            throw new IllegalStateException("SQL routing is not enabled (sharding.sql-routing.enabled)");
+        }
+        return sqlRoutingJdbc;
+    }
+    
+    /**
+     * Export an account's full transaction history, e.g. for statements
+     * Rows are streamed from a server-side cursor, so large accounts do not
+     * have to fit in memory
+     */
+    public void exportTransactions(long accountId, Consumer<Map<String, Object>> sink) {
+        try (Stream<Map<String, Object>> rows = shardJdbc.workload("reporting").queryForStream(
+            accountId,
+            """
+            SELECT transaction_id, amount, description, created_at, status 
+            FROM transactions 
+            WHERE account_id = ? 
+            ORDER BY transaction_id
+            """,
+            new ColumnMapRowMapper(),
+            accountId
+        )) {
+            rows.forEach(sink);
+        }
+    }
+    
+    /**
+     * Get transaction history page using keyset pagination
+     * Pass the returned token back to fetch the next page
+     */
+    public KeysetPage<Map<String, Object>> getTransactionHistoryPage(long accountId, int pageSize, String token) {
+        return shardJdbc.readOnly().queryPage(accountId, HISTORY_PAGE, new ColumnMapRowMapper(), pageSize, token, accountId);
+    }
+    
     /**
      * Create new account
      */
@@ -119,5 +285,97 @@ public class PaymentService {
         );
     }
     
+    /**
+     * Post fees for many accounts across all shards
+     * One JDBC batch per shard instead of one round trip per account, on the
+     * batch pools so a large fee run cannot starve payment traffic of connections
+     */
+    public ShardBatchResult postFees(List<FeePosting> fees) {
+        List<Object[]> batchArgs = fees.stream()
+            .map(f -> new Object[]{f.amount(), LocalDateTime.now(), f.accountId()})
+            .toList();
+        
+        return shardJdbc.workload("batch").batchUpdate(
+            "UPDATE accounts SET balance = balance - ?, updated_at = ? WHERE account_id = ?",
+            batchArgs,
+            args -> (Long) args[2]
+        );
+    }
+    
+    /**
+     * Load a settlement file's entries as completed transactions
+     * Streams every shard's rows through PostgreSQL COPY in parallel; a shard
+     * that rejects a row loads none of its rows and is reported in the result
+     */
+    public ShardCopyResult loadSettlements(Stream<SettlementEntry> entries) {
+        if (copyLoader == null) {
+            throw new IllegalStateException("COPY loading is not enabled (sharding.copy.enabled)");
+        }
+        return copyLoader.load(
+            "transactions",
+            List.of("account_id", "amount", "description", "created_at", "status"),
+            entries,
+            SettlementEntry::accountId,
+            (entry, row) -> row
+                .write(entry.accountId())
+                .write(entry.amount())
+                .write(entry.description())
+                .write(entry.settledAt())
+                .write("COMPLETED")
+        );
+    }
+    
+    /**
+     * Accrue one day of interest on every account with a positive balance
+     * Accounts are scanned in parallel chunks on all shards; a restarted run for
+     * the same date resumes at the first unfinished chunk, and the interest
+     * transaction is only posted once per account and date
+     */
+    public ShardScanResult accrueInterest(LocalDate businessDate, BigDecimal dailyRate) {
+        if (scanner == null) {
+            throw new IllegalStateException("Shard scans are not enabled (sharding.scan.enabled)");
+        }
+        String description = "Interest " + businessDate;
+        return scanner.scan(
+            ShardScan.of("interest-" + businessDate, "accounts", "account_id", "account_id, balance")
+                .where("balance > 0"),
+            (rs, rowNum) -> new AccountBalance(rs.getLong("account_id"), rs.getBigDecimal("balance")),
+            account -> {
+                BigDecimal interest = account.balance().multiply(dailyRate).setScale(2, RoundingMode.HALF_EVEN);
+                if (interest.signum() == 0) {
+                    return;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                shardJdbc.executeInTransaction(account.accountId(), status -> {
+                    int posted = shardJdbc.update(
+                        account.accountId(),
+                        """
+                        INSERT INTO transactions (account_id, amount, description, created_at, status) 
+                        SELECT ?, ?, ?, ?, 'COMPLETED' 
+                        WHERE NOT EXISTS (SELECT 1 FROM transactions WHERE account_id = ? AND description = ?)
+                        """,
+                        account.accountId(), interest.negate(), description, now, account.accountId(), description
+                    );
+                    if (posted == 1) {
+                        shardJdbc.update(
+                            account.accountId(),
+                            "UPDATE accounts SET balance = balance + ?, updated_at = ? WHERE account_id = ?",
+                            interest, now, account.accountId()
+                        );
+                    }
+                    return posted;
+                });
+            }
+        );
+    }
+    
+    public record AccountSummary(BigDecimal balance, List<Map<String, Object>> recentTransactions) {}
+    
+    public record FeePosting(long accountId, BigDecimal amount) {}
+    
+    public record AccountBalance(long accountId, BigDecimal balance) {}
+    
+    public record SettlementEntry(long accountId, BigDecimal amount, String description, LocalDateTime settledAt) {}
+    
     public record PaymentRequest(BigDecimal amount, String description) {}
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.fintech.payment.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.starter.sharding.jdbc.OutboxHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Outbox handlers applying the destination side of cross-shard transfers
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.outbox.enabled", havingValue = "true")
+public class TransferOutboxConfig {
+    
+    @Bean
+    public OutboxHandler transferCreditHandler(TransferService transferService) {
+        return OutboxHandler.of(TransferService.CREDIT, transferService::applyCredit);
+    }
+    
+    @Bean
+    public OutboxHandler transferRefundHandler(TransferService transferService) {
+        return OutboxHandler.of(TransferService.REFUND, transferService::applyRefund);
+    }
+}
\ No newline at end of file
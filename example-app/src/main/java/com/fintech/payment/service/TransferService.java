@@ -0,0 +1,155 @@
+package com.fintech.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.jdbc.OutboxMessage;
+import org.springframework.boot.starter.sharding.jdbc.ShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.ShardOutbox;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Money transfers between any two accounts
+ * Same-shard transfers run in one local transaction. Cross-shard transfers are a
+ * saga: the debit and an outbox message commit together on the source shard and
+ * the outbox relay credits the destination shard shortly after, refunding the
+ * source if the destination account does not exist
+ */
+@Service
+public class TransferService {
+    
+    static final String CREDIT = "transfer.credit";
+    static final String REFUND = "transfer.refund";
+    
+    private final ShardJdbcTemplate shardJdbc;
+    private final ShardOutbox outbox;
+    private final ObjectMapper objectMapper;
+    
+    public TransferService(ShardJdbcTemplate shardJdbc, ObjectProvider<ShardOutbox> outbox, ObjectMapper objectMapper) {
+        this.shardJdbc = shardJdbc;
+        this.outbox = outbox.getIfAvailable();
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Transfer money between accounts
+     * @return COMPLETED if the destination was credited, PENDING if the credit is queued
+     */
+    public TransferStatus transfer(long fromAccountId, long toAccountId, BigDecimal amount, String description) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        if (fromAccountId == toAccountId) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+        
+        ShardRouter router = shardJdbc.getShardRouter();
+        if (router.resolve(fromAccountId).index() == router.resolve(toAccountId).index()) {
+            shardJdbc.executeInTransaction(fromAccountId, status -> {
+                debit(fromAccountId, toAccountId, amount, description);
+                if (!credit(toAccountId, amount, "Transfer from " + fromAccountId + ": " + description)) {
+                    throw new IllegalArgumentException("Account not found: " + toAccountId);
+                }
+                return null;
+            });
+            return TransferStatus.COMPLETED;
+        }
+        
+        if (outbox == null) {
+            throw new IllegalStateException("Cross-shard transfers require sharding.outbox.enabled=true");
+        }
+        String payload = write(new TransferMessage(fromAccountId, toAccountId, amount, description));
+        shardJdbc.executeInTransaction(fromAccountId, status -> {
+            debit(fromAccountId, toAccountId, amount, description);
+            outbox.publish(fromAccountId, toAccountId, CREDIT, payload);
+            return null;
+        });
+        return TransferStatus.PENDING;
+    }
+    
+    /**
+     * Credit the destination of a cross-shard transfer, on the destination shard
+     */
+    void applyCredit(OutboxMessage message) {
+        TransferMessage transfer = read(message.payload());
+        String description = "Transfer from " + transfer.fromAccountId() + ": " + transfer.description();
+        if (!credit(transfer.toAccountId(), transfer.amount(), description)) {
+            // Destination account does not exist: compensate on the source shard
+            outbox.publish(transfer.toAccountId(), transfer.fromAccountId(), REFUND, message.payload());
+        }
+    }
+    
+    /**
+     * Return the amount of a failed cross-shard transfer, on the source shard
+     */
+    void applyRefund(OutboxMessage message) {
+        TransferMessage transfer = read(message.payload());
+        String description = "Refund of transfer to " + transfer.toAccountId() + ": " + transfer.description();
+        if (!credit(transfer.fromAccountId(), transfer.amount(), description)) {
+            throw new IllegalStateException("Refund account not found: " + transfer.fromAccountId());
+        }
+    }
+    
+    private void debit(long accountId, long toAccountId, BigDecimal amount, String description) {
+        int updated = shardJdbc.update(
+            accountId,
+            "UPDATE accounts SET balance = balance - ? WHERE account_id = ? AND balance >= ?",
+            amount, accountId, amount
+        );
+        if (updated == 0) {
+            throw new IllegalArgumentException("Account not found or insufficient balance: " + accountId);
+        }
+        recordTransaction(accountId, amount.negate(), "Transfer to " + toAccountId + ": " + description);
+    }
+    
+    private boolean credit(long accountId, BigDecimal amount, String description) {
+        int updated = shardJdbc.update(
+            accountId,
+            "UPDATE accounts SET balance = balance + ? WHERE account_id = ?",
+            amount, accountId
+        );
+        if (updated == 0) {
+            return false;
+        }
+        recordTransaction(accountId, amount, description);
+        return true;
+    }
+    
+    private void recordTransaction(long accountId, BigDecimal amount, String description) {
+        shardJdbc.update(
+            accountId,
+            """
+            INSERT INTO transactions (account_id, amount, description, created_at, status) 
+            VALUES (?, ?, ?, ?, 'COMPLETED')
+            """,
+            accountId, amount, description, LocalDateTime.now()
+        );
+    }
+    
+    private String write(TransferMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize transfer", e);
+        }
+    }
+    
+    private TransferMessage read(String payload) {
+        try {
+            return objectMapper.readValue(payload, TransferMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read transfer message", e);
+        }
+    }
+    
+    public enum TransferStatus {
+        COMPLETED,
+        PENDING
+    }
+    
+    record TransferMessage(long fromAccountId, long toAccountId, BigDecimal amount, String description) {}
+}
\ No newline at end of file
@@ -3,8 +3,21 @@ package com.fintech.payment;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.boot.starter.sharding.core.ShardReadCoalescer;
 import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.jdbc.LazyShardDataSource;
+import org.springframework.boot.starter.sharding.jdbc.LazyShardPools;
+import org.springframework.boot.starter.sharding.jdbc.ShardCopyLoader;
+import org.springframework.boot.starter.sharding.jdbc.ShardCopyResult;
 import org.springframework.boot.starter.sharding.jdbc.ShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.ShardPoolTuner;
+import org.springframework.boot.starter.sharding.jdbc.ShardPoolWarmer;
+import org.springframework.boot.starter.sharding.jdbc.ShardScan;
+import org.springframework.boot.starter.sharding.jdbc.ShardScanResult;
+import org.springframework.boot.starter.sharding.jdbc.ShardScanner;
+import org.springframework.boot.starter.sharding.jdbc.SqlRoutingJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -12,8 +25,17 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,6 +78,26 @@ class ShardingJdbcTest {
         // Test override
         registry.add("sharding.overrides.9999", () -> "0");
         
+        registry.add("sharding.copy.enabled", () -> "true");
+        registry.add("sharding.copy.chunk-size", () -> "1024");
+        registry.add("sharding.copy.max-chunks-per-shard", () -> "2");
+        registry.add("sharding.streaming.fetch-size", () -> "100");
+        registry.add("sharding.scan.enabled", () -> "true");
+        registry.add("sharding.scan.parallelism-per-shard", () -> "3");
+        registry.add("sharding.scan.chunks-per-shard", () -> "16");
+        registry.add("sharding.sql-routing.enabled", () -> "true");
+        registry.add("sharding.result-cache.enabled", () -> "true");
+        registry.add("sharding.result-cache.ttl", () -> "60000");
+        registry.add("sharding.read-coalescing.enabled", () -> "true");
+        registry.add("sharding.warmup.enabled", () -> "true");
+        registry.add("sharding.warmup.queries[0]", () -> "SELECT balance FROM accounts WHERE account_id = 0");
+        registry.add("sharding.warmup.query-executions", () -> "5");
+        registry.add("sharding.pool-tuning.enabled", () -> "true");
+        registry.add("sharding.pool-tuning.floor", () -> "2");
+        registry.add("sharding.pool-tuning.ceiling", () -> "20");
+        // Resized by the test only
+        registry.add("sharding.pool-tuning.interval", () -> "3600000");
+        
         // Disable JPA for this test
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
     }
@@ -66,6 +108,21 @@ class ShardingJdbcTest {
     @Autowired
     private ShardJdbcTemplate shardJdbcTemplate;
     
+    @Autowired
+    private ShardCopyLoader shardCopyLoader;
+    
+    @Autowired
+    private ShardScanner shardScanner;
+    
+    @Autowired
+    private SqlRoutingJdbcTemplate sqlRoutingJdbcTemplate;
+    
+    @Autowired
+    private ShardPoolWarmer shardPoolWarmer;
+    
+    @Autowired
+    private ShardPoolTuner shardPoolTuner;
+    
     @Test
     void shouldRouteToCorrectShard() {
         long accountId1 = 1001L;
@@ -226,4 +283,297 @@ class ShardingJdbcTest {
         assertTrue(((Number) summary.get("transaction_count")).intValue() >= 5);
         assertTrue(((BigDecimal) summary.get("total_amount")).compareTo(BigDecimal.ZERO) > 0);
     }
+    
+    @Test
+    void shouldBulkLoadWithCopyAcrossShards() {
+        // Small chunks and buffers force many chunks per shard through backpressure
+        int rows = 5000;
+        ShardCopyResult result = shardCopyLoader.load(
+            "transactions",
+            List.of("account_id", "amount", "description", "status"),
+            LongStream.range(0, rows).boxed(),
+            i -> 70000L + i % 50,
+            (i, row) -> row
+                .write(70000L + i % 50)
+                .write(new BigDecimal("0.05"))
+                .write("Settlement\tline " + i + " \u00e9")
+                .write("COMPLETED")
+        );
+        
+        assertFalse(result.hasFailures());
+        assertEquals(rows, result.getTotalLoadedRows());
+        assertEquals(2, result.getLoadedRows().size());
+        
+        long accountId = 70007L;
+        List<Map<String, Object>> loaded = shardJdbcTemplate.queryForList(
+            accountId,
+            "SELECT amount, description FROM transactions WHERE account_id = ? ORDER BY transaction_id",
+            accountId
+        );
+        assertEquals(rows / 50, loaded.size());
+        assertEquals(new BigDecimal("0.05"), loaded.get(0).get("amount"));
+        assertEquals("Settlement\tline 7 \u00e9", loaded.get(0).get("description"));
+    }
+    
+    @Test
+    void shouldReportCopyFailuresPerShard() {
+        // The status constraint rejects account 80001's row, failing only that account's shard
+        long badAccount = 80001L;
+        int badShard = shardRouter.resolve(badAccount).index();
+        ShardCopyResult result = shardCopyLoader.load(
+            "transactions",
+            List.of("account_id", "amount", "status"),
+            LongStream.rangeClosed(80000L, 80099L).boxed(),
+            accountId -> accountId,
+            (accountId, row) -> row
+                .write(accountId)
+                .write(BigDecimal.ONE)
+                .write(accountId == badAccount ? "UNKNOWN" : "COMPLETED")
+        );
+        
+        assertTrue(result.hasFailures());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().containsKey(badShard));
+        assertTrue(result.getFailedRowCount(badShard) > 0);
+        assertEquals(100, result.getTotalLoadedRows() + result.getFailedRowCount(badShard));
+        assertEquals(0, shardJdbcTemplate.queryForObject(badAccount,
+            "SELECT COUNT(*) FROM transactions WHERE account_id = ?", Integer.class, badAccount));
+    }
+    
+    @Test
+    void shouldStreamRowsThroughCursors() {
+        long accountId = 90001L;
+        int rows = 2500;
+        shardCopyLoader.load(
+            "transactions",
+            List.of("account_id", "amount", "status"),
+            LongStream.range(0, rows).boxed(),
+            i -> accountId,
+            (i, row) -> row.write(accountId).write(BigDecimal.valueOf(i)).write("COMPLETED")
+        );
+        
+        // Many more rows than the fetch size, read in cursor order
+        try (Stream<BigDecimal> amounts = shardJdbcTemplate.queryForStream(
+                accountId,
+                "SELECT amount FROM transactions WHERE account_id = ? ORDER BY transaction_id",
+                (rs, rowNum) -> rs.getBigDecimal("amount"),
+                accountId)) {
+            long[] expected = {0};
+            amounts.forEach(amount -> assertEquals(0, amount.compareTo(BigDecimal.valueOf(expected[0]++))));
+            assertEquals(rows, expected[0]);
+        }
+        
+        // Abandoned streams must release their connection on close: more than the pool size
+        for (int i = 0; i < 25; i++) {
+            try (Stream<Long> first = shardJdbcTemplate.queryForStream(
+                    accountId,
+                    "SELECT transaction_id FROM transactions WHERE account_id = ?",
+                    (rs, rowNum) -> rs.getLong(1),
+                    accountId)) {
+                assertTrue(first.findFirst().isPresent());
+            }
+        }
+        assertNull(ShardContext.get());
+        
+        try (Stream<Long> all = shardJdbcTemplate.streamAllShards(
+                "SELECT account_id FROM transactions WHERE account_id = ?",
+                (rs, rowNum) -> rs.getLong(1),
+                accountId)) {
+            assertEquals(rows, all.count());
+        }
+    }
+    
+    @Test
+    void shouldScanEveryShardInCheckpointedChunks() {
+        int accounts = 3000;
+        shardCopyLoader.load(
+            "accounts",
+            List.of("account_id", "balance"),
+            LongStream.range(100000L, 100000L + accounts).boxed(),
+            accountId -> accountId,
+            (accountId, row) -> row.write(accountId).write(BigDecimal.TEN)
+        );
+        ShardScan scan = ShardScan.of("scan-test", "accounts", "account_id", "account_id")
+            .where("account_id >= 100000");
+        
+        // Every account is handed to the consumer exactly once, from several threads
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ShardScanResult result = shardScanner.scan(scan, (rs, rowNum) -> rs.getLong(1), accountId -> {
+            assertTrue(seen.add(accountId), "Account scanned twice: " + accountId);
+            threads.add(Thread.currentThread().getName());
+        });
+        
+        assertFalse(result.hasFailures());
+        assertEquals(accounts, seen.size());
+        assertEquals(accounts, result.getTotalRows());
+        assertTrue(threads.size() > 2);
+        
+        // A second run resumes after the last completed chunk: nothing left
+        ShardScanResult rerun = shardScanner.scan(scan, (rs, rowNum) -> rs.getLong(1), accountId ->
+            fail("Completed chunk scanned again: " + accountId));
+        assertEquals(0, rerun.getTotalRows());
+        assertEquals(result.getCompletedChunks(), rerun.getSkippedChunks());
+        
+        shardScanner.reset("scan-test");
+        assertEquals(accounts, shardScanner.scan(scan, (rs, rowNum) -> rs.getLong(1), accountId -> {}).getTotalRows());
+    }
+    
+    @Test
+    void shouldRouteBySqlShardKey() {
+        long[] accounts = {85001L, 85002L, 85003L, 85004L};
+        for (long accountId : accounts) {
+            sqlRoutingJdbcTemplate.update(
+                "INSERT INTO accounts (account_id, balance) VALUES (?, ?)", accountId, new BigDecimal("10.00"));
+        }
+        
+        // Each row landed on its key's shard and is read back without passing a shard key
+        for (long accountId : accounts) {
+            assertEquals(1, shardJdbcTemplate.queryForObject(accountId,
+                "SELECT count(*) FROM accounts WHERE account_id = ?", Integer.class, accountId));
+            assertEquals(0, new BigDecimal("10.00").compareTo(sqlRoutingJdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE balance >= ? AND account_id = ?", BigDecimal.class, 0, accountId)));
+        }
+        
+        // No key predicate: gathered from every shard
+        List<Long> found = sqlRoutingJdbcTemplate.query(
+            "SELECT account_id FROM accounts WHERE account_id BETWEEN ? AND ?",
+            (rs, rowNum) -> rs.getLong(1), 85001L, 85004L);
+        assertEquals(accounts.length, found.size());
+        assertEquals(accounts.length, sqlRoutingJdbcTemplate.update(
+            "UPDATE accounts SET balance = balance + 1 WHERE account_id BETWEEN ? AND ?", 85001L, 85004L));
+        
+        assertThrows(IllegalArgumentException.class, () -> sqlRoutingJdbcTemplate.update(
+            "INSERT INTO accounts (balance) VALUES (?)", BigDecimal.ONE));
+        SqlRoutingJdbcTemplate.Stats stats = sqlRoutingJdbcTemplate.getStats();
+        assertTrue(stats.routed() >= 2 * accounts.length);
+        assertTrue(stats.scattered() >= 2);
+        assertTrue(stats.plans().hits() > 0);
+    }
+    
+    @Test
+    void shouldServeCachedReadsUntilWriteInvalidates() {
+        long accountId = 86001L;
+        String sql = "SELECT balance FROM accounts WHERE account_id = ?";
+        shardJdbcTemplate.update(accountId,
+            "INSERT INTO accounts (account_id, balance) VALUES (?, ?)", accountId, new BigDecimal("50.00"));
+        ShardJdbcTemplate cached = shardJdbcTemplate.cached();
+        
+        assertEquals(0, new BigDecimal("50.00").compareTo(cached.queryForObject(accountId, sql, BigDecimal.class, accountId)));
+        long hits = shardJdbcTemplate.getResultCache().getStats().hits();
+        assertEquals(0, new BigDecimal("50.00").compareTo(cached.queryForObject(accountId, sql, BigDecimal.class, accountId)));
+        assertEquals(hits + 1, shardJdbcTemplate.getResultCache().getStats().hits());
+        
+        // A write through the template invalidates the key's cached results
+        shardJdbcTemplate.update(accountId,
+            "UPDATE accounts SET balance = ? WHERE account_id = ?", new BigDecimal("75.00"), accountId);
+        assertEquals(0, new BigDecimal("75.00").compareTo(cached.queryForObject(accountId, sql, BigDecimal.class, accountId)));
+        
+        // Inside a transaction reads see its own uncommitted writes; invalidation waits for the commit
+        shardJdbcTemplate.executeInTransaction(accountId, status -> {
+            shardJdbcTemplate.update(accountId,
+                "UPDATE accounts SET balance = ? WHERE account_id = ?", new BigDecimal("90.00"), accountId);
+            assertEquals(0, new BigDecimal("90.00").compareTo(
+                cached.queryForObject(accountId, sql, BigDecimal.class, accountId)));
+            return null;
+        });
+        assertEquals(0, new BigDecimal("90.00").compareTo(cached.queryForObject(accountId, sql, BigDecimal.class, accountId)));
+    }
+    
+    @Test
+    void shouldCoalesceIdenticalConcurrentReads() {
+        long accountId = 87001L;
+        shardJdbcTemplate.update(accountId,
+            "INSERT INTO accounts (account_id, balance) VALUES (?, ?)", accountId, new BigDecimal("20.00"));
+        // Slow enough that the concurrent reads overlap the first one
+        String sql = "SELECT balance FROM accounts, (SELECT pg_sleep(0.5)) AS pause WHERE account_id = ?";
+        ShardReadCoalescer coalescer = shardJdbcTemplate.getReadCoalescer();
+        ShardReadCoalescer.Stats before = coalescer.getStats();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<BigDecimal>> reads = LongStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                    shardJdbcTemplate.queryForObject(accountId, sql, BigDecimal.class, accountId), executor))
+                .toList();
+            for (CompletableFuture<BigDecimal> read : reads) {
+                assertEquals(0, new BigDecimal("20.00").compareTo(read.join()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        ShardReadCoalescer.Stats after = coalescer.getStats();
+        assertTrue(after.coalesced() > before.coalesced());
+        assertTrue(after.executions() - before.executions() < 8);
+        
+        // Lists are shared between coalesced callers and cannot be modified
+        List<Map<String, Object>> rows = shardJdbcTemplate.queryForList(accountId,
+            "SELECT balance FROM accounts WHERE account_id = ?", accountId);
+        assertThrows(UnsupportedOperationException.class, rows::clear);
+    }
+    
+    @Test
+    void shouldWarmEveryShardPool() {
+        ShardPoolWarmer.Result result = shardPoolWarmer.warmUp(Duration.ofSeconds(30));
+        
+        assertTrue(result.complete());
+        assertEquals(0, result.failedPools());
+        assertEquals(result.pools(), result.warmedPools());
+        // Every pool holds at least one primed connection
+        assertTrue(result.connections() >= result.pools());
+    }
+    
+    @Test
+    void shouldOpenLazyPoolOnFirstUseAndCloseWhenIdle() throws Exception {
+        LazyShardPools pools = new LazyShardPools(Duration.ofMillis(50));
+        LazyShardDataSource dataSource = pools.create("lazy-shard-0", () -> new DriverManagerDataSource(
+            postgres0.getJdbcUrl(), postgres0.getUsername(), postgres0.getPassword()));
+        assertFalse(dataSource.isOpen());
+        
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(dataSource.isOpen());
+            // Never closed while a connection is borrowed
+            Thread.sleep(100);
+            pools.closeIdle();
+            assertTrue(connection.isValid(1));
+            assertTrue(dataSource.isOpen());
+        }
+        
+        Thread.sleep(100);
+        pools.closeIdle();
+        assertFalse(dataSource.isOpen());
+        
+        // Reopened on the next use
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+        LazyShardPools.Stats stats = pools.getStats();
+        assertEquals(1, stats.pools());
+        assertEquals(1, stats.openPools());
+        assertEquals(2, stats.opened());
+        assertEquals(1, stats.closed());
+        pools.close();
+        assertFalse(dataSource.isOpen());
+    }
+    
+    @Test
+    void shouldShrinkIdlePoolsWithinBounds() {
+        Map<String, Integer> before = shardPoolTuner.getPoolSizes();
+        assertFalse(before.isEmpty());
+        
+        // No load between samples: every pool above the floor gives back capacity
+        shardPoolTuner.tuneOnce();
+        shardPoolTuner.tuneOnce();
+        
+        Map<String, Integer> after = shardPoolTuner.getPoolSizes();
+        after.forEach((pool, size) -> {
+            assertTrue(size >= 2 && size <= 20, pool + " resized to " + size);
+            assertTrue(size <= before.get(pool));
+        });
+        assertTrue(shardPoolTuner.getStats().shrunk() > 0);
+        
+        // Shrunk pools still serve queries
+        assertEquals(1, shardJdbcTemplate.queryForObject(1L, "SELECT 1", Integer.class));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.fintech.payment;
+
+import com.fintech.payment.service.TransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.jdbc.ShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.ShardOutboxRelay;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for cross-shard transfers delivered through the transactional outbox
+ */
+@SpringBootTest
+@Testcontainers
+class ShardingOutboxTest {
+    
+    @Container
+    static PostgreSQLContainer<?> postgres0 = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test_db")
+            .withUsername("test_user")
+            .withPassword("test_pass")
+            .withInitScript("test-schema.sql");
+    
+    @Container
+    static PostgreSQLContainer<?> postgres1 = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test_db")
+            .withUsername("test_user")
+            .withPassword("test_pass")
+            .withInitScript("test-schema.sql");
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("sharding.enabled", () -> "true");
+        registry.add("sharding.strategy", () -> "HASH");
+        
+        registry.add("sharding.shards[0].name", () -> "shard-0");
+        registry.add("sharding.shards[0].datasource.jdbc-url", postgres0::getJdbcUrl);
+        registry.add("sharding.shards[0].datasource.username", postgres0::getUsername);
+        registry.add("sharding.shards[0].datasource.password", postgres0::getPassword);
+        
+        registry.add("sharding.shards[1].name", () -> "shard-1");
+        registry.add("sharding.shards[1].datasource.jdbc-url", postgres1::getJdbcUrl);
+        registry.add("sharding.shards[1].datasource.username", postgres1::getUsername);
+        registry.add("sharding.shards[1].datasource.password", postgres1::getPassword);
+        
+        registry.add("sharding.outbox.enabled", () -> "true");
+        // Delivered by the tests only: the relay polls once at startup, then not again during the run
+        registry.add("sharding.outbox.poll-interval", () -> "3600000");
+        
+        // Disable JPA for this test
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ShardJdbcTemplate shardJdbcTemplate;
+    
+    @Autowired
+    private ShardOutboxRelay shardOutboxRelay;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Test
+    void shouldDeliverCrossShardTransfer() {
+        long fromAccountId = 91001L;
+        long toAccountId = accountOnOtherShard(fromAccountId, 91002L);
+        createAccount(fromAccountId, new BigDecimal("500.00"));
+        createAccount(toAccountId, new BigDecimal("100.00"));
+        
+        TransferService.TransferStatus status =
+            transferService.transfer(fromAccountId, toAccountId, new BigDecimal("50.00"), "Rent");
+        
+        // Debit and outbox message committed together; the credit waits for the relay
+        assertEquals(TransferService.TransferStatus.PENDING, status);
+        assertEquals(0, new BigDecimal("450.00").compareTo(balance(fromAccountId)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(toAccountId)));
+        assertEquals(1, pendingMessages(fromAccountId, toAccountId));
+        
+        long delivered = shardOutboxRelay.getStats().delivered();
+        shardOutboxRelay.pollOnce();
+        
+        assertEquals(0, new BigDecimal("150.00").compareTo(balance(toAccountId)));
+        assertEquals(0, pendingMessages(fromAccountId, toAccountId));
+        assertEquals(delivered + 1, shardOutboxRelay.getStats().delivered());
+    }
+    
+    @Test
+    void shouldNotCreditTwiceWhenRedeliveredAfterCrash() {
+        long fromAccountId = 92001L;
+        long toAccountId = accountOnOtherShard(fromAccountId, 92002L);
+        createAccount(fromAccountId, new BigDecimal("500.00"));
+        createAccount(toAccountId, new BigDecimal("100.00"));
+        
+        transferService.transfer(fromAccountId, toAccountId, new BigDecimal("75.00"), "Invoice");
+        shardOutboxRelay.pollOnce();
+        assertEquals(0, new BigDecimal("175.00").compareTo(balance(toAccountId)));
+        
+        // Relay crashed after the credit committed but before the source marked the message delivered:
+        // the message is pending again and its lease has expired
+        int reset = shardJdbcTemplate.update(
+            fromAccountId,
+            "UPDATE shard_outbox SET delivered_at = NULL, next_attempt_at = CURRENT_TIMESTAMP WHERE target_key = ?",
+            toAccountId
+        );
+        assertEquals(1, reset);
+        
+        long duplicates = shardOutboxRelay.getStats().duplicates();
+        shardOutboxRelay.pollOnce();
+        
+        // The inbox on the destination shard already holds the message id, so the credit is skipped
+        assertEquals(0, new BigDecimal("175.00").compareTo(balance(toAccountId)));
+        assertEquals(0, pendingMessages(fromAccountId, toAccountId));
+        assertEquals(duplicates + 1, shardOutboxRelay.getStats().duplicates());
+    }
+    
+    @Test
+    void shouldRefundWhenDestinationAccountIsMissing() {
+        long fromAccountId = 93001L;
+        long missingAccountId = accountOnOtherShard(fromAccountId, 93002L);
+        createAccount(fromAccountId, new BigDecimal("500.00"));
+        
+        TransferService.TransferStatus status =
+            transferService.transfer(fromAccountId, missingAccountId, new BigDecimal("120.00"), "Typo");
+        
+        assertEquals(TransferService.TransferStatus.PENDING, status);
+        assertEquals(0, new BigDecimal("380.00").compareTo(balance(fromAccountId)));
+        
+        // First poll finds no destination account and publishes the refund on its shard,
+        // the second delivers the refund back to the source shard
+        shardOutboxRelay.pollOnce();
+        shardOutboxRelay.pollOnce();
+        
+        assertEquals(0, new BigDecimal("500.00").compareTo(balance(fromAccountId)));
+        Integer refunds = shardJdbcTemplate.queryForObject(
+            fromAccountId,
+            "SELECT COUNT(*) FROM transactions WHERE account_id = ? AND description LIKE 'Refund of transfer%'",
+            Integer.class,
+            fromAccountId
+        );
+        assertEquals(1, refunds);
+    }
+    
+    /**
+     * First key from the candidate on that lives on another shard than the given key
+     */
+    private long accountOnOtherShard(long accountId, long candidate) {
+        int shard = shardRouter.resolve(accountId).index();
+        while (shardRouter.resolve(candidate).index() == shard) {
+            candidate++;
+        }
+        return candidate;
+    }
+    
+    private void createAccount(long accountId, BigDecimal balance) {
+        shardJdbcTemplate.update(
+            accountId,
+            "INSERT INTO accounts (account_id, balance, created_at, updated_at) VALUES (?, ?, NOW(), NOW())",
+            accountId, balance
+        );
+    }
+    
+    private BigDecimal balance(long accountId) {
+        return shardJdbcTemplate.queryForObject(
+            accountId,
+            "SELECT balance FROM accounts WHERE account_id = ?",
+            BigDecimal.class,
+            accountId
+        );
+    }
+    
+    private int pendingMessages(long sourceKey, long targetKey) {
+        return shardJdbcTemplate.queryForObject(
+            sourceKey,
+            "SELECT COUNT(*) FROM shard_outbox WHERE target_key = ? AND delivered_at IS NULL",
+            Integer.class,
+            targetKey
+        );
+    }
+}
\ No newline at end of file
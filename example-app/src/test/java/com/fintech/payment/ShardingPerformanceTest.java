@@ -4,19 +4,34 @@ import com.fintech.payment.service.PaymentJpaService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.starter.sharding.core.HashShardRouter;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardContext;
 import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.jdbc.AsyncShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.RoutingDataSource;
+import org.springframework.boot.starter.sharding.jdbc.ShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.ShardTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -78,6 +93,9 @@ class ShardingPerformanceTest {
     @Autowired
     private PaymentJpaService paymentJpaService;
     
+    @Autowired
+    private ShardJdbcTemplate shardJdbcTemplate;
+    
     @Test
     void shouldDistributeLoadAcrossShards() {
         // Create accounts across different shards
@@ -221,4 +239,121 @@ class ShardingPerformanceTest {
             fail("Operations should continue working on available shards: " + e.getMessage());
         }
     }
+    
+    @Test
+    void shouldBorrowOneConnectionPerTransaction() {
+        long accountId = 50001L;
+        try {
+            paymentJpaService.createAccount(accountId, new BigDecimal("1000.00"));
+        } catch (Exception e) {
+            // Ignore if exists
+        }
+        
+        // Wrap every shard pool with a borrow counter
+        AtomicInteger borrows = new AtomicInteger();
+        List<Shard> countingShards = new ArrayList<>();
+        for (int i = 0; i < shardRouter.getShardCount(); i++) {
+            Shard shard = shardRouter.getShard(i);
+            countingShards.add(Shard.of(shard.name(), shard.index(), new DelegatingDataSource(shard.dataSource()) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    borrows.incrementAndGet();
+                    return super.getConnection();
+                }
+            }));
+        }
+        RoutingDataSource routingDataSource = new RoutingDataSource(new HashShardRouter(countingShards));
+        ShardJdbcTemplate template = new ShardJdbcTemplate(routingDataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new ShardTransactionManager(routingDataSource));
+        
+        int iterations = 500;
+        Runnable work = () -> transaction.executeWithoutResult(status -> {
+            template.queryForObject(accountId, "SELECT balance FROM accounts WHERE account_id = ?", BigDecimal.class, accountId);
+            template.update(accountId, "UPDATE accounts SET balance = balance WHERE account_id = ?", accountId);
+            template.queryForObject(accountId, "SELECT balance FROM accounts WHERE account_id = ?", BigDecimal.class, accountId);
+        });
+        
+        // Legacy begin: probe connection borrowed and returned before the real one
+        borrows.set(0);
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            ShardContext.execute(accountId, () -> {
+                try {
+                    routingDataSource.getConnection().close();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                work.run();
+            });
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+        int legacyBorrows = borrows.get();
+        
+        borrows.set(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            ShardContext.execute(accountId, work);
+        }
+        long nanos = System.nanoTime() - start;
+        
+        System.out.println("Probe + transaction: " + legacyBorrows + " borrows, "
+            + (legacyNanos / iterations / 1000) + "us per transaction");
+        System.out.println("Context-only begin:  " + borrows.get() + " borrows, "
+            + (nanos / iterations / 1000) + "us per transaction");
+        
+        // One borrow per transaction, reused by all three template calls
+        assertEquals(iterations, borrows.get());
+        assertEquals(2 * iterations, legacyBorrows);
+    }
+    
+    @Test
+    void shouldBoundAsyncCallsPerShard() throws InterruptedException {
+        long[] accountIds = LongStream.rangeClosed(60001L, 60030L).toArray();
+        for (long accountId : accountIds) {
+            try {
+                paymentJpaService.createAccount(accountId, new BigDecimal("1000.00"));
+            } catch (Exception e) {
+                // Ignore if exists
+            }
+        }
+        String sql = "SELECT balance FROM accounts WHERE account_id = ?";
+        int calls = 3000;
+        
+        // Baseline: platform thread pool, every task blocks on the shard pool directly
+        ExecutorService platformPool = Executors.newFixedThreadPool(100);
+        long platformStart = System.nanoTime();
+        List<CompletableFuture<BigDecimal>> platformResults = IntStream.range(0, calls)
+            .mapToObj(i -> accountIds[i % accountIds.length])
+            .map(accountId -> CompletableFuture.supplyAsync(
+                () -> shardJdbcTemplate.queryForObject(accountId, sql, BigDecimal.class, accountId), platformPool))
+            .toList();
+        CompletableFuture.allOf(platformResults.toArray(CompletableFuture[]::new)).join();
+        long platformNanos = System.nanoTime() - platformStart;
+        platformPool.shutdown();
+        assertTrue(platformPool.awaitTermination(30, TimeUnit.SECONDS));
+        
+        // Async template: thread per task (virtual on Java 21+), at most the pool size running per shard
+        AsyncShardJdbcTemplate async = new AsyncShardJdbcTemplate(shardJdbcTemplate, 10);
+        long asyncStart = System.nanoTime();
+        List<CompletableFuture<BigDecimal>> asyncResults = IntStream.range(0, calls)
+            .mapToObj(i -> accountIds[i % accountIds.length])
+            .map(accountId -> async.queryForObject(accountId, sql, BigDecimal.class, accountId))
+            .toList();
+        CompletableFuture.allOf(asyncResults.toArray(CompletableFuture[]::new)).join();
+        long asyncNanos = System.nanoTime() - asyncStart;
+        
+        System.out.println("Platform pool (100 threads): " + (platformNanos / 1_000_000) + "ms for " + calls + " reads");
+        System.out.println("Async template (10 per shard): " + (asyncNanos / 1_000_000) + "ms for " + calls + " reads, "
+            + async.getStats());
+        
+        for (int i = 0; i < calls; i++) {
+            assertEquals(new BigDecimal("1000.00"), asyncResults.get(i).join());
+            assertEquals(platformResults.get(i).join(), asyncResults.get(i).join());
+        }
+        AsyncShardJdbcTemplate.Stats stats = async.getStats();
+        assertEquals(calls, stats.completed());
+        assertEquals(0, stats.running());
+        assertEquals(0, stats.waiting());
+        assertNull(ShardContext.get());
+    }
 }
\ No newline at end of file
@@ -27,6 +27,37 @@ CREATE TABLE IF NOT EXISTS transactions (
 CREATE INDEX IF NOT EXISTS idx_transactions_account_created ON transactions(account_id, created_at DESC);
 CREATE INDEX IF NOT EXISTS idx_transactions_status_created ON transactions(status, created_at);
 
+-- Transactional outbox: cross-shard messages written with the source shard's changes
+CREATE TABLE IF NOT EXISTS shard_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    target_key BIGINT NOT NULL,
+    message_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    delivered_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_shard_outbox_pending ON shard_outbox(id) WHERE delivered_at IS NULL;
+
+-- Inbox: ids of messages delivered to this shard, makes redelivery a no-op
+CREATE TABLE IF NOT EXISTS shard_inbox (
+    source_shard INT NOT NULL,
+    message_id BIGINT NOT NULL,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (source_shard, message_id)
+);
+
+-- Scan checkpoints: chunk plan and progress of ShardScanner jobs
+CREATE TABLE IF NOT EXISTS shard_scan_checkpoint (
+    job_name VARCHAR(200) NOT NULL,
+    chunk_start BIGINT NOT NULL,
+    chunk_end BIGINT NOT NULL,
+    completed_at TIMESTAMP,
+    PRIMARY KEY (job_name, chunk_start)
+);
+
 -- Update trigger for accounts.updated_at
 CREATE OR REPLACE FUNCTION update_updated_at_column()
 RETURNS TRIGGER AS $$
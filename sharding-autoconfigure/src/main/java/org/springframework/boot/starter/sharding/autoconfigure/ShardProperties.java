@@ -4,6 +4,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,6 +36,102 @@ public class ShardProperties {
      */
     private Map<Long, Integer> overrides = new HashMap<>();
     
+    /**
+     * Group commit of single-row writes
+     */
+    private WriteCoalescing writeCoalescing = new WriteCoalescing();
+    
+    /**
+     * Replica selection for read-only work on shards with replicas
+     */
+    private ReplicaLoadBalancing replicaLoadBalancing = ReplicaLoadBalancing.ROUND_ROBIN;
+    
+    /**
+     * Replica lag tracking for read-your-writes routing
+     */
+    private ReplicaLag replicaLag = new ReplicaLag();
+    
+    /**
+     * Hedged replica reads
+     */
+    private Hedging hedging = new Hedging();
+    
+    /**
+     * Per-shard circuit breaker
+     */
+    private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+    
+    /**
+     * Adaptive per-shard concurrency limit
+     */
+    private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    
+    /**
+     * Workload classes with their own primary pool per shard, e.g. batch and reporting
+     * The default class "oltp" always uses the shard's datasource pool
+     */
+    private Map<String, WorkloadClass> workloads = new LinkedHashMap<>();
+    
+    /**
+     * Transactional outbox and relay for cross-shard messages
+     */
+    private Outbox outbox = new Outbox();
+    
+    /**
+     * Reactive R2DBC pools per shard
+     */
+    private R2dbc r2dbc = new R2dbc();
+    
+    /**
+     * CompletableFuture API with per-shard concurrency bounds
+     */
+    private Async async = new Async();
+    
+    /**
+     * PostgreSQL COPY bulk loading
+     */
+    private Copy copy = new Copy();
+    
+    /**
+     * Streaming queries (ShardJdbcTemplate#queryForStream)
+     */
+    private Streaming streaming = new Streaming();
+    
+    /**
+     * Chunked full-shard scans for batch jobs
+     */
+    private Scan scan = new Scan();
+    
+    /**
+     * Routing by the shard key found in the SQL text
+     */
+    private SqlRouting sqlRouting = new SqlRouting();
+    
+    /**
+     * Query result cache behind ShardJdbcTemplate.cached()
+     */
+    private ResultCache resultCache = new ResultCache();
+    
+    /**
+     * Single-flight execution of identical concurrent reads
+     */
+    private ReadCoalescing readCoalescing = new ReadCoalescing();
+    
+    /**
+     * Shard pool creation and warm-up at startup
+     */
+    private Warmup warmup = new Warmup();
+    
+    /**
+     * Shard pools opened on first use and closed when idle
+     */
+    private LazyPools lazyPools = new LazyPools();
+    
+    /**
+     * Runtime resizing of the shard pools from their load
+     */
+    private PoolTuning poolTuning = new PoolTuning();
+    
     // Getters and setters
     
     public boolean isEnabled() {
@@ -69,6 +166,158 @@ public class ShardProperties {
         this.overrides = overrides;
     }
     
+    public WriteCoalescing getWriteCoalescing() {
+        return writeCoalescing;
+    }
+    
+    public void setWriteCoalescing(WriteCoalescing writeCoalescing) {
+        this.writeCoalescing = writeCoalescing;
+    }
+    
+    public ReplicaLoadBalancing getReplicaLoadBalancing() {
+        return replicaLoadBalancing;
+    }
+    
+    public void setReplicaLoadBalancing(ReplicaLoadBalancing replicaLoadBalancing) {
+        this.replicaLoadBalancing = replicaLoadBalancing;
+    }
+    
+    public ReplicaLag getReplicaLag() {
+        return replicaLag;
+    }
+    
+    public void setReplicaLag(ReplicaLag replicaLag) {
+        this.replicaLag = replicaLag;
+    }
+    
+    public Hedging getHedging() {
+        return hedging;
+    }
+    
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+    
+    public CircuitBreakerSettings getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public void setCircuitBreaker(CircuitBreakerSettings circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+    
+    public void setConcurrencyLimit(ConcurrencyLimit concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+    
+    public Map<String, WorkloadClass> getWorkloads() {
+        return workloads;
+    }
+    
+    public void setWorkloads(Map<String, WorkloadClass> workloads) {
+        this.workloads = workloads;
+    }
+    
+    public Outbox getOutbox() {
+        return outbox;
+    }
+    
+    public void setOutbox(Outbox outbox) {
+        this.outbox = outbox;
+    }
+    
+    public R2dbc getR2dbc() {
+        return r2dbc;
+    }
+    
+    public void setR2dbc(R2dbc r2dbc) {
+        this.r2dbc = r2dbc;
+    }
+    
+    public Async getAsync() {
+        return async;
+    }
+    
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+    
+    public Copy getCopy() {
+        return copy;
+    }
+    
+    public void setCopy(Copy copy) {
+        this.copy = copy;
+    }
+    
+    public Streaming getStreaming() {
+        return streaming;
+    }
+    
+    public void setStreaming(Streaming streaming) {
+        this.streaming = streaming;
+    }
+    
+    public Scan getScan() {
+        return scan;
+    }
+    
+    public void setScan(Scan scan) {
+        this.scan = scan;
+    }
+    
+    public SqlRouting getSqlRouting() {
+        return sqlRouting;
+    }
+    
+    public void setSqlRouting(SqlRouting sqlRouting) {
+        this.sqlRouting = sqlRouting;
+    }
+    
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+    
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+    
+    public ReadCoalescing getReadCoalescing() {
+        return readCoalescing;
+    }
+    
+    public void setReadCoalescing(ReadCoalescing readCoalescing) {
+        this.readCoalescing = readCoalescing;
+    }
+    
+    public Warmup getWarmup() {
+        return warmup;
+    }
+    
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+    
+    public LazyPools getLazyPools() {
+        return lazyPools;
+    }
+    
+    public void setLazyPools(LazyPools lazyPools) {
+        this.lazyPools = lazyPools;
+    }
+    
+    public PoolTuning getPoolTuning() {
+        return poolTuning;
+    }
+    
+    public void setPoolTuning(PoolTuning poolTuning) {
+        this.poolTuning = poolTuning;
+    }
+    
     /**
      * Sharding strategy enum
      */
@@ -76,6 +325,14 @@ public class ShardProperties {
         HASH
     }
     
+    /**
+     * Replica load balancing enum
+     */
+    public enum ReplicaLoadBalancing {
+        ROUND_ROBIN,
+        LEAST_OUTSTANDING
+    }
+    
     /**
      * Individual shard configuration
      */
@@ -91,6 +348,16 @@ public class ShardProperties {
          */
         private DataSourceConfig datasource;
         
+        /**
+         * Read replicas of this shard, used for read-only work
+         */
+        private List<DataSourceConfig> replicas = new ArrayList<>();
+        
+        /**
+         * Pool size per workload class on this shard, overriding the class's maximum pool size
+         */
+        private Map<String, Integer> workloadPoolSizes = new HashMap<>();
+        
         // Getters and setters
         
         public String getName() {
@@ -108,6 +375,22 @@ public class ShardProperties {
         public void setDatasource(DataSourceConfig datasource) {
             this.datasource = datasource;
         }
+        
+        public List<DataSourceConfig> getReplicas() {
+            return replicas;
+        }
+        
+        public void setReplicas(List<DataSourceConfig> replicas) {
+            this.replicas = replicas;
+        }
+        
+        public Map<String, Integer> getWorkloadPoolSizes() {
+            return workloadPoolSizes;
+        }
+        
+        public void setWorkloadPoolSizes(Map<String, Integer> workloadPoolSizes) {
+            this.workloadPoolSizes = workloadPoolSizes;
+        }
     }
     
     /**
@@ -120,6 +403,11 @@ public class ShardProperties {
         private String password;
         private String driverClassName = "org.postgresql.Driver";
         
+        /**
+         * R2DBC URL, derived from the JDBC URL when not set
+         */
+        private String r2dbcUrl;
+        
         // HikariCP specific settings
         private int maximumPoolSize = 10;
         private int minimumIdle = 5;
@@ -161,6 +449,14 @@ public class ShardProperties {
             this.driverClassName = driverClassName;
         }
         
+        public String getR2dbcUrl() {
+            return r2dbcUrl;
+        }
+        
+        public void setR2dbcUrl(String r2dbcUrl) {
+            this.r2dbcUrl = r2dbcUrl;
+        }
+        
         public int getMaximumPoolSize() {
             return maximumPoolSize;
         }
@@ -201,4 +497,1130 @@ public class ShardProperties {
             this.maxLifetime = maxLifetime;
         }
     }
+    
+    /**
+     * Write coalescing (group commit) configuration
+     */
+    public static class WriteCoalescing {
+        
+        /**
+         * Coalesce single-row updates issued outside a transaction
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Flush when this many rows are queued for a shard
+         */
+        private int maxBatchSize = 100;
+        
+        /**
+         * Flush when the oldest queued row waited this many microseconds
+         */
+        private long maxDelayMicros = 500;
+        
+        /**
+         * Bounded queue size per shard
+         */
+        private int queueCapacity = 10000;
+        
+        /**
+         * How long a caller blocks on a full queue before rejection (ms)
+         */
+        private long enqueueTimeout = 1000;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+        
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+        
+        public long getMaxDelayMicros() {
+            return maxDelayMicros;
+        }
+        
+        public void setMaxDelayMicros(long maxDelayMicros) {
+            this.maxDelayMicros = maxDelayMicros;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public long getEnqueueTimeout() {
+            return enqueueTimeout;
+        }
+        
+        public void setEnqueueTimeout(long enqueueTimeout) {
+            this.enqueueTimeout = enqueueTimeout;
+        }
+    }
+    
+    /**
+     * Replica lag tracking configuration
+     */
+    public static class ReplicaLag {
+        
+        /**
+         * Poll replica replay positions; without it reads with a consistency token use the primary
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Delay between polls of every replica (ms)
+         */
+        private long pollInterval = 1000;
+        
+        /**
+         * Skip replicas lagging more than this (ms), 0 for no limit
+         */
+        private long maxLag = 0;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public long getPollInterval() {
+            return pollInterval;
+        }
+        
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+        
+        public long getMaxLag() {
+            return maxLag;
+        }
+        
+        public void setMaxLag(long maxLag) {
+            this.maxLag = maxLag;
+        }
+    }
+    
+    /**
+     * Hedged read configuration
+     */
+    public static class Hedging {
+        
+        /**
+         * Create ShardReadHedger for idempotent replica reads
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Hedge reads slower than this latency percentile of their shard
+         */
+        private double percentile = 95.0;
+        
+        /**
+         * Maximum hedges as a percentage of reads
+         */
+        private double budgetPercent = 5.0;
+        
+        /**
+         * Lower bound of the hedge delay (ms)
+         */
+        private long minDelay = 1;
+        
+        /**
+         * Hedge delay until enough latencies are observed for a shard (ms)
+         */
+        private long initialDelay = 20;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public double getPercentile() {
+            return percentile;
+        }
+        
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+        
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+        
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+        
+        public long getMinDelay() {
+            return minDelay;
+        }
+        
+        public void setMinDelay(long minDelay) {
+            this.minDelay = minDelay;
+        }
+        
+        public long getInitialDelay() {
+            return initialDelay;
+        }
+        
+        public void setInitialDelay(long initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+    }
+    
+    /**
+     * Circuit breaker configuration
+     */
+    public static class CircuitBreakerSettings {
+        
+        /**
+         * Fail fast on shards whose primary keeps failing or is slow
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Number of most recent connection leases evaluated
+         */
+        private int windowSize = 100;
+        
+        /**
+         * Leases required before the breaker may open
+         */
+        private int minimumCalls = 20;
+        
+        /**
+         * Percentage of failed leases that opens the breaker
+         */
+        private double failureRateThreshold = 50;
+        
+        /**
+         * Percentage of slow leases that opens the breaker
+         */
+        private double slowCallRateThreshold = 80;
+        
+        /**
+         * Acquisition or statement at least this long makes a lease slow (ms)
+         */
+        private long slowCallDuration = 2000;
+        
+        /**
+         * How long an open breaker rejects calls before probing (ms)
+         */
+        private long openDuration = 10000;
+        
+        /**
+         * Probe leases allowed while half-open
+         */
+        private int halfOpenCalls = 5;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getWindowSize() {
+            return windowSize;
+        }
+        
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+        
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+        
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+        
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+        
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+        
+        public double getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+        
+        public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+        
+        public long getSlowCallDuration() {
+            return slowCallDuration;
+        }
+        
+        public void setSlowCallDuration(long slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+        
+        public long getOpenDuration() {
+            return openDuration;
+        }
+        
+        public void setOpenDuration(long openDuration) {
+            this.openDuration = openDuration;
+        }
+        
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+        
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
+    
+    /**
+     * Concurrency limit configuration
+     */
+    public static class ConcurrencyLimit {
+        
+        /**
+         * Cap concurrent primary connections per shard with an adaptive limit
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Starting limit, capped at the maximum
+         */
+        private int initialLimit = 10;
+        
+        /**
+         * Lower bound of the limit
+         */
+        private int minLimit = 1;
+        
+        /**
+         * Upper bound of the limit, 0 to use the shard's maximum pool size,
+         * or the pool-tuning ceiling when pool tuning is enabled
+         */
+        private int maxLimit = 0;
+        
+        /**
+         * Factor applied to the limit when a call fails with a resource error
+         */
+        private double backoffRatio = 0.9;
+        
+        /**
+         * How much slower than the long-term latency calls may get before the limit shrinks
+         */
+        private double tolerance = 1.5;
+        
+        /**
+         * Callers allowed to wait for a slot per shard
+         */
+        private int maxQueue = 100;
+        
+        /**
+         * Longest wait for a slot before rejection (ms)
+         */
+        private long maxWait = 50;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+        
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+        
+        public int getMinLimit() {
+            return minLimit;
+        }
+        
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+        
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+        
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+        
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+        
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+        
+        public double getTolerance() {
+            return tolerance;
+        }
+        
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+        
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+        
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+        
+        public long getMaxWait() {
+            return maxWait;
+        }
+        
+        public void setMaxWait(long maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+    
+    /**
+     * Workload class pool configuration
+     * Pools connect with the shard's datasource settings and these sizes
+     */
+    public static class WorkloadClass {
+        
+        /**
+         * Pool size per shard
+         */
+        private int maximumPoolSize = 2;
+        
+        /**
+         * Idle connections kept per shard
+         */
+        private int minimumIdle = 0;
+        
+        /**
+         * Longest wait for a connection of this class (ms)
+         */
+        private long connectionTimeout = 30000;
+        
+        /**
+         * Serve this class from shard replicas when the shard has any, e.g. for reporting
+         */
+        private boolean replicas = false;
+        
+        // Getters and setters
+        
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+        
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+        
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+        
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+        
+        public long getConnectionTimeout() {
+            return connectionTimeout;
+        }
+        
+        public void setConnectionTimeout(long connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+        
+        public boolean isReplicas() {
+            return replicas;
+        }
+        
+        public void setReplicas(boolean replicas) {
+            this.replicas = replicas;
+        }
+    }
+    
+    /**
+     * Outbox configuration
+     */
+    public static class Outbox {
+        
+        /**
+         * Relay outbox messages to their target shards
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Outbox table on every shard
+         */
+        private String table = "shard_outbox";
+        
+        /**
+         * Inbox table of delivered message ids on every shard
+         */
+        private String inboxTable = "shard_inbox";
+        
+        /**
+         * Messages leased per shard and poll
+         */
+        private int batchSize = 100;
+        
+        /**
+         * Delay between polls of an idle shard (ms)
+         */
+        private long pollInterval = 200;
+        
+        /**
+         * Delay before a failed message is retried (ms)
+         */
+        private long retryDelay = 5000;
+        
+        /**
+         * Deliveries tried before a message is left for manual repair
+         */
+        private int maxAttempts = 10;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getTable() {
+            return table;
+        }
+        
+        public void setTable(String table) {
+            this.table = table;
+        }
+        
+        public String getInboxTable() {
+            return inboxTable;
+        }
+        
+        public void setInboxTable(String inboxTable) {
+            this.inboxTable = inboxTable;
+        }
+        
+        public int getBatchSize() {
+            return batchSize;
+        }
+        
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+        
+        public long getPollInterval() {
+            return pollInterval;
+        }
+        
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+        
+        public long getRetryDelay() {
+            return retryDelay;
+        }
+        
+        public void setRetryDelay(long retryDelay) {
+            this.retryDelay = retryDelay;
+        }
+        
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+    
+    /**
+     * R2DBC configuration
+     * Pools use each shard datasource's URL, credentials and pool sizes
+     */
+    public static class R2dbc {
+        
+        /**
+         * Create a reactive connection pool per shard and a ShardDatabaseClient
+         * The JDBC shard pools then open on first use, see {@link LazyPools}
+         */
+        private boolean enabled = false;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+    
+    /**
+     * Async template configuration
+     */
+    public static class Async {
+        
+        /**
+         * Create an AsyncShardJdbcTemplate
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Calls running at once per shard, 0 to use the shard's maximum pool size,
+         * its current tuned size when pool tuning is enabled
+         */
+        private int maxConcurrencyPerShard = 0;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxConcurrencyPerShard() {
+            return maxConcurrencyPerShard;
+        }
+        
+        public void setMaxConcurrencyPerShard(int maxConcurrencyPerShard) {
+            this.maxConcurrencyPerShard = maxConcurrencyPerShard;
+        }
+    }
+    
+    /**
+     * COPY loader configuration
+     */
+    public static class Copy {
+        
+        /**
+         * Create a ShardCopyLoader
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Workload class whose pools run the COPY streams, empty for the default pools
+         */
+        private String workload;
+        
+        /**
+         * Bytes encoded per chunk sent to a shard
+         */
+        private int chunkSize = 65536;
+        
+        /**
+         * Chunks buffered per shard before the loader waits for the shard
+         */
+        private int maxChunksPerShard = 8;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getWorkload() {
+            return workload;
+        }
+        
+        public void setWorkload(String workload) {
+            this.workload = workload;
+        }
+        
+        public int getChunkSize() {
+            return chunkSize;
+        }
+        
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+        
+        public int getMaxChunksPerShard() {
+            return maxChunksPerShard;
+        }
+        
+        public void setMaxChunksPerShard(int maxChunksPerShard) {
+            this.maxChunksPerShard = maxChunksPerShard;
+        }
+    }
+    
+    /**
+     * Streaming query configuration
+     */
+    public static class Streaming {
+        
+        /**
+         * Rows fetched per round trip by server-side cursors
+         */
+        private int fetchSize = 1000;
+        
+        // Getters and setters
+        
+        public int getFetchSize() {
+            return fetchSize;
+        }
+        
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+    
+    /**
+     * Scan engine configuration
+     */
+    public static class Scan {
+        
+        /**
+         * Create a ShardScanner with checkpoints stored on each shard
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Chunks scanned concurrently per shard
+         */
+        private int parallelismPerShard = 4;
+        
+        /**
+         * Chunks each shard's key range is split into
+         */
+        private int chunksPerShard = 64;
+        
+        /**
+         * Workload class whose pools are scanned, empty for the default pools
+         */
+        private String workload;
+        
+        /**
+         * Checkpoint table name on every shard
+         */
+        private String checkpointTable = "shard_scan_checkpoint";
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getParallelismPerShard() {
+            return parallelismPerShard;
+        }
+        
+        public void setParallelismPerShard(int parallelismPerShard) {
+            this.parallelismPerShard = parallelismPerShard;
+        }
+        
+        public int getChunksPerShard() {
+            return chunksPerShard;
+        }
+        
+        public void setChunksPerShard(int chunksPerShard) {
+            this.chunksPerShard = chunksPerShard;
+        }
+        
+        public String getWorkload() {
+            return workload;
+        }
+        
+        public void setWorkload(String workload) {
+            this.workload = workload;
+        }
+        
+        public String getCheckpointTable() {
+            return checkpointTable;
+        }
+        
+        public void setCheckpointTable(String checkpointTable) {
+            this.checkpointTable = checkpointTable;
+        }
+    }
+    
+    /**
+     * SQL-aware routing configuration
+     */
+    public static class SqlRouting {
+        
+        /**
+         * Enable SqlRoutingJdbcTemplate
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Shard key column names looked for in statements
+         */
+        private List<String> keyColumns = new ArrayList<>(List.of("account_id"));
+        
+        /**
+         * Distinct statements whose route plans are cached
+         */
+        private int maxCachedPlans = 2048;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public List<String> getKeyColumns() {
+            return keyColumns;
+        }
+        
+        public void setKeyColumns(List<String> keyColumns) {
+            this.keyColumns = keyColumns;
+        }
+        
+        public int getMaxCachedPlans() {
+            return maxCachedPlans;
+        }
+        
+        public void setMaxCachedPlans(int maxCachedPlans) {
+            this.maxCachedPlans = maxCachedPlans;
+        }
+    }
+    
+    /**
+     * Query result cache configuration
+     */
+    public static class ResultCache {
+        
+        /**
+         * Enable the result cache
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Results kept at most
+         */
+        private int maxEntries = 10000;
+        
+        /**
+         * Longest time a result is served (ms), bounds staleness from writes of other instances
+         */
+        private long ttl = 5000;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+        
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+        
+        public long getTtl() {
+            return ttl;
+        }
+        
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+    }
+    
+    /**
+     * Read coalescing configuration
+     */
+    public static class ReadCoalescing {
+        
+        /**
+         * Share one execution between identical concurrent single-key queries
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Distinct queries tracked in flight at most, further reads run uncoalesced
+         */
+        private int maxInFlight = 10000;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+        
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+    
+    /**
+     * Startup pool configuration
+     */
+    public static class Warmup {
+        
+        /**
+         * Open and prime the shard pools' connections before the application reports ready
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Pools created, and warmed, concurrently at startup
+         */
+        private int parallelism = 16;
+        
+        /**
+         * Open minimumIdle connections per pool, otherwise one
+         */
+        private boolean fillMinimumIdle = true;
+        
+        /**
+         * Statements run on every warmed connection, e.g. the hot queries without parameters
+         */
+        private List<String> queries = new ArrayList<>(List.of("SELECT 1"));
+        
+        /**
+         * Times each statement runs per connection, the driver's prepare threshold
+         * (PgJDBC: 5) leaves a server-side prepared statement
+         */
+        private int queryExecutions = 1;
+        
+        /**
+         * Longest time startup waits for the warm-up (ms)
+         */
+        private long timeout = 30000;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getParallelism() {
+            return parallelism;
+        }
+        
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+        
+        public boolean isFillMinimumIdle() {
+            return fillMinimumIdle;
+        }
+        
+        public void setFillMinimumIdle(boolean fillMinimumIdle) {
+            this.fillMinimumIdle = fillMinimumIdle;
+        }
+        
+        public List<String> getQueries() {
+            return queries;
+        }
+        
+        public void setQueries(List<String> queries) {
+            this.queries = queries;
+        }
+        
+        public int getQueryExecutions() {
+            return queryExecutions;
+        }
+        
+        public void setQueryExecutions(int queryExecutions) {
+            this.queryExecutions = queryExecutions;
+        }
+        
+        public long getTimeout() {
+            return timeout;
+        }
+        
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+    }
+    
+    /**
+     * Lazy pool configuration
+     */
+    public static class LazyPools {
+        
+        /**
+         * Open each shard pool on its first connection instead of at startup
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Time without borrowed connections after which a pool is closed (ms);
+         * below it, idle connections above minimumIdle are retired by the pool's idleTimeout
+         */
+        private long idleTimeout = 300000;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+        
+        public void setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+    
+    /**
+     * Pool tuning configuration
+     */
+    public static class PoolTuning {
+        
+        /**
+         * Resize each shard pool between floor and ceiling from its load
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Smallest pool size
+         */
+        private int floor = 2;
+        
+        /**
+         * Largest pool size
+         */
+        private int ceiling = 50;
+        
+        /**
+         * Connections of this instance's pools to one database host at most
+         */
+        private int maxConnectionsPerHost = 100;
+        
+        /**
+         * Average connection acquisition time above which a pool grows (ms)
+         */
+        private long targetAcquireTime = 5;
+        
+        /**
+         * Delay between resizes (ms)
+         */
+        private long interval = 5000;
+        
+        // Getters and setters
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getFloor() {
+            return floor;
+        }
+        
+        public void setFloor(int floor) {
+            this.floor = floor;
+        }
+        
+        public int getCeiling() {
+            return ceiling;
+        }
+        
+        public void setCeiling(int ceiling) {
+            this.ceiling = ceiling;
+        }
+        
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+        
+        public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+        
+        public long getTargetAcquireTime() {
+            return targetAcquireTime;
+        }
+        
+        public void setTargetAcquireTime(long targetAcquireTime) {
+            this.targetAcquireTime = targetAcquireTime;
+        }
+        
+        public long getInterval() {
+            return interval;
+        }
+        
+        public void setInterval(long interval) {
+            this.interval = interval;
+        }
+    }
 }
\ No newline at end of file
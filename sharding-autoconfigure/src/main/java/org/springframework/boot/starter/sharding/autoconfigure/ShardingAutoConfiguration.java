@@ -1,23 +1,75 @@
 package org.springframework.boot.starter.sharding.autoconfigure;
 
+import org.springframework.boot.starter.sharding.core.AdaptiveConcurrencyLimiter;
+import org.springframework.boot.starter.sharding.core.CircuitBreaker;
 import org.springframework.boot.starter.sharding.core.HashShardRouter;
+import org.springframework.boot.starter.sharding.core.LeastOutstandingReplicaLoadBalancer;
+import org.springframework.boot.starter.sharding.core.PoolSizeController;
+import org.springframework.boot.starter.sharding.core.ReplicaLagTracker;
+import org.springframework.boot.starter.sharding.core.ReplicaLoadBalancer;
+import org.springframework.boot.starter.sharding.core.RoundRobinReplicaLoadBalancer;
 import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardCircuitBreakers;
+import org.springframework.boot.starter.sharding.core.ShardConcurrencyLimiters;
+import org.springframework.boot.starter.sharding.core.ShardReadCoalescer;
+import org.springframework.boot.starter.sharding.core.ShardResultCache;
 import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.core.SqlRoutePlanner;
+import org.springframework.boot.starter.sharding.jdbc.AsyncShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.JdbcScanCheckpointStore;
+import org.springframework.boot.starter.sharding.jdbc.LazyShardPools;
+import org.springframework.boot.starter.sharding.jdbc.OutboxHandler;
+import org.springframework.boot.starter.sharding.jdbc.PostgresReplicationPositionProbe;
+import org.springframework.boot.starter.sharding.jdbc.ReplicaLagMonitor;
+import org.springframework.boot.starter.sharding.jdbc.ReplicationPositionProbe;
 import org.springframework.boot.starter.sharding.jdbc.RoutingDataSource;
+import org.springframework.boot.starter.sharding.jdbc.ScanCheckpointStore;
+import org.springframework.boot.starter.sharding.jdbc.ShardCopyLoader;
 import org.springframework.boot.starter.sharding.jdbc.ShardJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.ShardOutbox;
+import org.springframework.boot.starter.sharding.jdbc.ShardOutboxRelay;
+import org.springframework.boot.starter.sharding.jdbc.ShardPoolTuner;
+import org.springframework.boot.starter.sharding.jdbc.ShardPoolWarmer;
+import org.springframework.boot.starter.sharding.jdbc.ShardReadHedger;
+import org.springframework.boot.starter.sharding.jdbc.ShardScanner;
+import org.springframework.boot.starter.sharding.jdbc.ShardSessionInterceptor;
 import org.springframework.boot.starter.sharding.jdbc.ShardTransactionManager;
+import org.springframework.boot.starter.sharding.jdbc.ShardWriteCoalescer;
+import org.springframework.boot.starter.sharding.jdbc.SqlRoutingJdbcTemplate;
+import org.springframework.boot.starter.sharding.jdbc.WithShardSession;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Role;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Spring Boot auto-configuration for sharding
@@ -33,18 +85,191 @@ public class ShardingAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean
-    public ShardRouter shardRouter(ShardProperties properties) {
-        List<Shard> shards = createShards(properties);
+    public ShardRouter shardRouter(ShardProperties properties, ObjectProvider<LazyShardPools> lazyShardPools,
+                                   ObjectProvider<ShardPoolTuner> shardPoolTuner) {
+        List<Shard> shards = createShards(properties, lazyShardPools.getIfAvailable(),
+            shardPoolTuner.getIfAvailable());
         return new HashShardRouter(shards, properties.getOverrides());
     }
     
+    /**
+     * Create lazily opened shard pools, closed again when idle (opt-in)
+     * Always used with R2DBC, whose key resolution goes through the JDBC shard router:
+     * a reactive-only service then never opens the JDBC pools
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @Conditional(LazyPoolsCondition.class)
+    public LazyShardPools lazyShardPools(ShardProperties properties) {
+        return new LazyShardPools(Duration.ofMillis(properties.getLazyPools().getIdleTimeout()));
+    }
+    
+    /**
+     * Create tuner resizing the shard pools from their load (opt-in)
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.pool-tuning.enabled", havingValue = "true")
+    public ShardPoolTuner shardPoolTuner(ShardProperties properties) {
+        ShardProperties.PoolTuning config = properties.getPoolTuning();
+        PoolSizeController controller = new PoolSizeController(config.getFloor(), config.getCeiling(),
+            config.getMaxConnectionsPerHost(), Duration.ofMillis(config.getTargetAcquireTime()));
+        return new ShardPoolTuner(controller, Duration.ofMillis(config.getInterval()));
+    }
+    
+    /**
+     * Create replica load balancer for read-only work
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaLoadBalancer replicaLoadBalancer(ShardProperties properties) {
+        return switch (properties.getReplicaLoadBalancing()) {
+            case ROUND_ROBIN -> new RoundRobinReplicaLoadBalancer();
+            case LEAST_OUTSTANDING -> new LeastOutstandingReplicaLoadBalancer();
+        };
+    }
+    
     /**
      * Create routing data source
      */
     @Bean
     @ConditionalOnMissingBean(name = "shardingDataSource")
-    public DataSource shardingDataSource(ShardRouter shardRouter) {
-        return new RoutingDataSource(shardRouter);
+    public DataSource shardingDataSource(ShardRouter shardRouter, ReplicaLoadBalancer replicaLoadBalancer,
+                                         ObjectProvider<ReplicaLagTracker> replicaLagTracker,
+                                         ObjectProvider<ShardCircuitBreakers> shardCircuitBreakers,
+                                         ObjectProvider<ShardConcurrencyLimiters> shardConcurrencyLimiters,
+                                         ShardProperties properties) {
+        RoutingDataSource dataSource = new RoutingDataSource(shardRouter, replicaLoadBalancer);
+        Set<String> replicaWorkloads = properties.getWorkloads().entrySet().stream()
+            .filter(entry -> entry.getValue().isReplicas())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+        dataSource.setReplicaWorkloads(replicaWorkloads);
+        replicaLagTracker.ifAvailable(dataSource::setReplicaLagTracker);
+        shardCircuitBreakers.ifAvailable(dataSource::setCircuitBreakers);
+        shardConcurrencyLimiters.ifAvailable(dataSource::setConcurrencyLimiters);
+        return dataSource;
+    }
+    
+    /**
+     * Create adaptive per-shard concurrency limiters (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.concurrency-limit.enabled", havingValue = "true")
+    public ShardConcurrencyLimiters shardConcurrencyLimiters(ShardProperties properties) {
+        ShardProperties.ConcurrencyLimit config = properties.getConcurrencyLimit();
+        return new ShardConcurrencyLimiters(shard -> {
+            // A tuned pool can grow up to the tuning ceiling; the limiter adapts within its bounds
+            int poolSize = properties.getPoolTuning().isEnabled() ? properties.getPoolTuning().getCeiling()
+                : properties.getShards().get(shard.index()).getDatasource().getMaximumPoolSize();
+            int maxLimit = config.getMaxLimit() > 0 ? config.getMaxLimit() : poolSize;
+            return new AdaptiveConcurrencyLimiter.Config(
+                Math.min(config.getInitialLimit(), maxLimit),
+                Math.min(config.getMinLimit(), maxLimit),
+                maxLimit,
+                config.getBackoffRatio(),
+                config.getTolerance(),
+                config.getMaxQueue(),
+                Duration.ofMillis(config.getMaxWait())
+            );
+        });
+    }
+    
+    /**
+     * Create per-shard circuit breakers (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.circuit-breaker.enabled", havingValue = "true")
+    public ShardCircuitBreakers shardCircuitBreakers(ShardProperties properties) {
+        ShardProperties.CircuitBreakerSettings config = properties.getCircuitBreaker();
+        return new ShardCircuitBreakers(new CircuitBreaker.Config(
+            config.getWindowSize(),
+            config.getMinimumCalls(),
+            config.getFailureRateThreshold(),
+            config.getSlowCallRateThreshold(),
+            Duration.ofMillis(config.getSlowCallDuration()),
+            Duration.ofMillis(config.getOpenDuration()),
+            config.getHalfOpenCalls()
+        ));
+    }
+    
+    /**
+     * Create probe reading WAL positions for lag tracking and consistency tokens
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicationPositionProbe replicationPositionProbe() {
+        return new PostgresReplicationPositionProbe();
+    }
+    
+    /**
+     * Create replica lag tracker (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.replica-lag.enabled", havingValue = "true")
+    public ReplicaLagTracker replicaLagTracker(ShardProperties properties) {
+        return new ReplicaLagTracker(Duration.ofMillis(properties.getReplicaLag().getMaxLag()));
+    }
+    
+    /**
+     * Create poller feeding the replica lag tracker (opt-in)
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.replica-lag.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(ShardRouter shardRouter, ReplicationPositionProbe replicationPositionProbe,
+                                              ReplicaLagTracker replicaLagTracker, ShardProperties properties) {
+        return new ReplicaLagMonitor(shardRouter, replicationPositionProbe, replicaLagTracker,
+            Duration.ofMillis(properties.getReplicaLag().getPollInterval()));
+    }
+    
+    /**
+     * Create query result cache (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.result-cache.enabled", havingValue = "true")
+    public ShardResultCache shardResultCache(ShardProperties properties) {
+        ShardProperties.ResultCache resultCache = properties.getResultCache();
+        return new ShardResultCache(resultCache.getMaxEntries(), Duration.ofMillis(resultCache.getTtl()));
+    }
+    
+    /**
+     * Create single-flight coalescer for identical concurrent reads (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.read-coalescing.enabled", havingValue = "true")
+    public ShardReadCoalescer shardReadCoalescer(ShardProperties properties) {
+        return new ShardReadCoalescer(properties.getReadCoalescing().getMaxInFlight());
+    }
+    
+    /**
+     * Create warmer opening the shard pools' connections (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.warmup.enabled", havingValue = "true")
+    public ShardPoolWarmer shardPoolWarmer(ShardRouter shardRouter, ShardProperties properties) {
+        ShardProperties.Warmup config = properties.getWarmup();
+        return new ShardPoolWarmer(shardRouter, config.getQueries(), config.getQueryExecutions(),
+            config.getParallelism(), dataSource -> config.isFillMinimumIdle()
+                && dataSource instanceof HikariDataSource hikari ? hikari.getMinimumIdle() : 1);
+    }
+    
+    /**
+     * Warm the shard pools during startup
+     * Spring Boot only moves the readiness state to ACCEPTING_TRAFFIC after the
+     * application runners completed, so the instance joins the load balancer hot
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "shardPoolWarmupRunner")
+    @ConditionalOnProperty(name = "sharding.warmup.enabled", havingValue = "true")
+    public ApplicationRunner shardPoolWarmupRunner(ShardPoolWarmer shardPoolWarmer, ShardProperties properties) {
+        return args -> shardPoolWarmer.warmUp(Duration.ofMillis(properties.getWarmup().getTimeout()));
     }
     
     /**
@@ -52,8 +277,181 @@ public class ShardingAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean
-    public ShardJdbcTemplate shardJdbcTemplate(DataSource shardingDataSource) {
-        return new ShardJdbcTemplate(shardingDataSource);
+    public ShardJdbcTemplate shardJdbcTemplate(DataSource shardingDataSource,
+                                               ObjectProvider<ShardWriteCoalescer> shardWriteCoalescer,
+                                               ObjectProvider<ShardResultCache> shardResultCache,
+                                               ObjectProvider<ShardReadCoalescer> shardReadCoalescer,
+                                               ReplicationPositionProbe replicationPositionProbe,
+                                               ShardProperties properties) {
+        ShardJdbcTemplate template = new ShardJdbcTemplate(shardingDataSource);
+        shardWriteCoalescer.ifAvailable(template::setWriteCoalescer);
+        shardResultCache.ifAvailable(template::setResultCache);
+        shardReadCoalescer.ifAvailable(template::setReadCoalescer);
+        template.setPositionProbe(replicationPositionProbe);
+        template.setStreamFetchSize(properties.getStreaming().getFetchSize());
+        return template;
+    }
+    
+    /**
+     * Create CompletableFuture template bounded per shard (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.async.enabled", havingValue = "true")
+    public AsyncShardJdbcTemplate asyncShardJdbcTemplate(ShardJdbcTemplate shardJdbcTemplate,
+                                                         ObjectProvider<ShardPoolTuner> poolTuner,
+                                                         ShardProperties properties) {
+        int maxConcurrency = properties.getAsync().getMaxConcurrencyPerShard();
+        if (maxConcurrency > 0) {
+            return new AsyncShardJdbcTemplate(shardJdbcTemplate, maxConcurrency);
+        }
+        ShardPoolTuner tuner = poolTuner.getIfAvailable();
+        return new AsyncShardJdbcTemplate(shardJdbcTemplate, AsyncShardJdbcTemplate.defaultExecutor(), shardIndex -> {
+            ShardProperties.ShardConfig shard = properties.getShards().get(shardIndex);
+            // Follow the tuned size of the shard's pool once it is open
+            int tuned = tuner == null ? 0 : tuner.getPoolSize("shard-" + shard.getName());
+            return tuned > 0 ? tuned : shard.getDatasource().getMaximumPoolSize();
+        });
+    }
+    
+    /**
+     * Create template routing by the shard key found in the SQL (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.sql-routing.enabled", havingValue = "true")
+    public SqlRoutingJdbcTemplate sqlRoutingJdbcTemplate(ShardJdbcTemplate shardJdbcTemplate,
+                                                         ShardProperties properties) {
+        ShardProperties.SqlRouting sqlRouting = properties.getSqlRouting();
+        return new SqlRoutingJdbcTemplate(shardJdbcTemplate,
+            new SqlRoutePlanner(sqlRouting.getKeyColumns(), sqlRouting.getMaxCachedPlans()));
+    }
+    
+    /**
+     * Create advisor applying {@link WithShardSession} to annotated methods
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnMissingBean(name = "shardSessionAdvisor")
+    public static Advisor shardSessionAdvisor(ObjectProvider<ShardJdbcTemplate> shardJdbcTemplate) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+            AnnotationMatchingPointcut.forMethodAnnotation(WithShardSession.class),
+            new ShardSessionInterceptor(shardJdbcTemplate::getObject));
+        advisor.setOrder(0);
+        return advisor;
+    }
+    
+    /**
+     * Create write coalescer for group commit of single-row writes (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.write-coalescing.enabled", havingValue = "true")
+    public ShardWriteCoalescer shardWriteCoalescer(DataSource shardingDataSource, ShardProperties properties) {
+        ShardProperties.WriteCoalescing config = properties.getWriteCoalescing();
+        return new ShardWriteCoalescer(
+            (RoutingDataSource) shardingDataSource,
+            config.getMaxBatchSize(),
+            config.getMaxDelayMicros(),
+            config.getQueueCapacity(),
+            config.getEnqueueTimeout()
+        );
+    }
+    
+    /**
+     * Create PostgreSQL COPY bulk loader (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.copy.enabled", havingValue = "true")
+    public ShardCopyLoader shardCopyLoader(DataSource shardingDataSource, ShardProperties properties) {
+        ShardProperties.Copy config = properties.getCopy();
+        return new ShardCopyLoader(
+            (RoutingDataSource) shardingDataSource,
+            config.getWorkload() == null || config.getWorkload().isEmpty() ? null : config.getWorkload(),
+            config.getChunkSize(),
+            config.getMaxChunksPerShard()
+        );
+    }
+    
+    /**
+     * Create checkpoint store for scan jobs (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.scan.enabled", havingValue = "true")
+    public ScanCheckpointStore scanCheckpointStore(DataSource shardingDataSource, ShardProperties properties) {
+        return new JdbcScanCheckpointStore((RoutingDataSource) shardingDataSource,
+            properties.getScan().getCheckpointTable());
+    }
+    
+    /**
+     * Create chunked full-shard scan engine (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.scan.enabled", havingValue = "true")
+    public ShardScanner shardScanner(DataSource shardingDataSource, ScanCheckpointStore scanCheckpointStore,
+                                     ShardProperties properties) {
+        ShardProperties.Scan config = properties.getScan();
+        ShardScanner scanner = new ShardScanner(
+            (RoutingDataSource) shardingDataSource,
+            scanCheckpointStore,
+            config.getWorkload() == null || config.getWorkload().isEmpty() ? null : config.getWorkload(),
+            config.getParallelismPerShard(),
+            config.getChunksPerShard()
+        );
+        scanner.setFetchSize(properties.getStreaming().getFetchSize());
+        return scanner;
+    }
+    
+    /**
+     * Create per-shard transactional outbox (opt-in)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.outbox.enabled", havingValue = "true")
+    public ShardOutbox shardOutbox(ShardJdbcTemplate shardJdbcTemplate, ShardProperties properties) {
+        ShardProperties.Outbox config = properties.getOutbox();
+        return new ShardOutbox(shardJdbcTemplate, config.getTable(), config.getInboxTable());
+    }
+    
+    /**
+     * Create relay delivering outbox messages to their target shards (opt-in)
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.outbox.enabled", havingValue = "true")
+    public ShardOutboxRelay shardOutboxRelay(DataSource shardingDataSource, ShardOutbox shardOutbox,
+                                             ObjectProvider<OutboxHandler> outboxHandlers,
+                                             ShardProperties properties) {
+        ShardProperties.Outbox config = properties.getOutbox();
+        return new ShardOutboxRelay(
+            (RoutingDataSource) shardingDataSource,
+            shardOutbox,
+            outboxHandlers.orderedStream().toList(),
+            config.getBatchSize(),
+            config.getMaxAttempts(),
+            Duration.ofMillis(config.getPollInterval()),
+            Duration.ofMillis(config.getRetryDelay())
+        );
+    }
+    
+    /**
+     * Create hedger for idempotent replica reads (opt-in)
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "sharding.hedging.enabled", havingValue = "true")
+    public ShardReadHedger shardReadHedger(DataSource shardingDataSource, ShardProperties properties) {
+        ShardProperties.Hedging config = properties.getHedging();
+        return new ShardReadHedger(
+            (RoutingDataSource) shardingDataSource,
+            config.getPercentile(),
+            config.getBudgetPercent(),
+            Duration.ofMillis(config.getMinDelay()),
+            Duration.ofMillis(config.getInitialDelay())
+        );
     }
     
     /**
@@ -67,29 +465,109 @@ public class ShardingAutoConfiguration {
     
     /**
      * Create individual shard data sources and wrap them in Shard objects
+     * With lazy pools, each data source only opens its pool on first use;
+     * with a pool tuner, the pools are opened through it
      */
-    private List<Shard> createShards(ShardProperties properties) {
+    private List<Shard> createShards(ShardProperties properties, LazyShardPools lazyPools, ShardPoolTuner poolTuner) {
         List<ShardProperties.ShardConfig> shardConfigs = properties.getShards();
         if (shardConfigs.isEmpty()) {
             throw new IllegalArgumentException("At least one shard must be configured");
         }
         
-        List<Shard> shards = new ArrayList<>();
-        for (int i = 0; i < shardConfigs.size(); i++) {
-            ShardProperties.ShardConfig config = shardConfigs.get(i);
-            DataSource dataSource = createDataSource(config);
-            shards.add(Shard.of(config.getName(), i, dataSource));
+        if (properties.getWarmup().getParallelism() <= 0) {
+            throw new IllegalArgumentException("Pool creation parallelism must be positive");
         }
         
-        return shards;
+        // Every pool opens its first connection when created: create them concurrently
+        List<CompletableFuture<DataSource>> pools = new ArrayList<>();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getWarmup().getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-pool-init-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Supplier<Shard>> shards = new ArrayList<>();
+            for (int i = 0; i < shardConfigs.size(); i++) {
+                ShardProperties.ShardConfig config = shardConfigs.get(i);
+                int index = i;
+                CompletableFuture<DataSource> dataSource = createPool(pools, executor, lazyPools, poolTuner,
+                    config.getDatasource(), "shard-" + config.getName());
+                List<CompletableFuture<DataSource>> replicas = new ArrayList<>();
+                for (int r = 0; r < config.getReplicas().size(); r++) {
+                    replicas.add(createPool(pools, executor, lazyPools, poolTuner, config.getReplicas().get(r),
+                        "shard-" + config.getName() + "-replica-" + r));
+                }
+                Map<String, CompletableFuture<DataSource>> workloadPools = new HashMap<>();
+                properties.getWorkloads().forEach((workload, workloadConfig) ->
+                    workloadPools.put(workload, createPool(pools, executor, lazyPools, poolTuner,
+                        workloadDataSource(config, workload, workloadConfig),
+                        "shard-" + config.getName() + "-" + workload)));
+                shards.add(() -> Shard.of(config.getName(), index, dataSource.join(),
+                    replicas.stream().map(CompletableFuture::join).toList(),
+                    workloadPools.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().join()))));
+            }
+            CompletableFuture.allOf(pools.toArray(CompletableFuture[]::new)).join();
+            return shards.stream().map(Supplier::get).toList();
+        } catch (RuntimeException e) {
+            // Close the pools that did start before failing the startup
+            CompletableFuture.allOf(pools.toArray(CompletableFuture[]::new)).exceptionally(failure -> null).join();
+            pools.stream()
+                .filter(pool -> !pool.isCompletedExceptionally())
+                .map(CompletableFuture::join)
+                .forEach(pool -> ((HikariDataSource) pool).close());
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private CompletableFuture<DataSource> createPool(List<CompletableFuture<DataSource>> pools, Executor executor,
+                                                     LazyShardPools lazyPools, ShardPoolTuner poolTuner,
+                                                     ShardProperties.DataSourceConfig dsConfig, String poolName) {
+        if (lazyPools != null) {
+            return CompletableFuture.completedFuture(
+                lazyPools.create(poolName, () -> createDataSource(dsConfig, poolName, poolTuner)));
+        }
+        CompletableFuture<DataSource> pool = CompletableFuture.supplyAsync(() ->
+            createDataSource(dsConfig, poolName, poolTuner), executor);
+        pools.add(pool);
+        return pool;
+    }
+    
+    /**
+     * Derive a workload class pool's configuration from the shard's datasource
+     */
+    private ShardProperties.DataSourceConfig workloadDataSource(ShardProperties.ShardConfig shardConfig, String workload,
+                                                                ShardProperties.WorkloadClass workloadConfig) {
+        if (Shard.DEFAULT_WORKLOAD.equals(workload)) {
+            throw new IllegalArgumentException(
+                "Workload '" + workload + "' uses the shard datasource; configure it under sharding.shards");
+        }
+        ShardProperties.DataSourceConfig base = shardConfig.getDatasource();
+        ShardProperties.DataSourceConfig config = new ShardProperties.DataSourceConfig();
+        config.setJdbcUrl(base.getJdbcUrl());
+        config.setUsername(base.getUsername());
+        config.setPassword(base.getPassword());
+        config.setDriverClassName(base.getDriverClassName());
+        config.setIdleTimeout(base.getIdleTimeout());
+        config.setMaxLifetime(base.getMaxLifetime());
+        int poolSize = shardConfig.getWorkloadPoolSizes().getOrDefault(workload, workloadConfig.getMaximumPoolSize());
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(Math.min(workloadConfig.getMinimumIdle(), poolSize));
+        config.setConnectionTimeout(workloadConfig.getConnectionTimeout());
+        return config;
     }
     
     /**
      * Create HikariCP data source for individual shard
      */
-    private DataSource createDataSource(ShardProperties.ShardConfig shardConfig) {
-        ShardProperties.DataSourceConfig dsConfig = shardConfig.getDatasource();
-        
+    private DataSource createDataSource(ShardProperties.DataSourceConfig dsConfig, String poolName,
+                                        ShardPoolTuner poolTuner) {
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(dsConfig.getJdbcUrl());
         config.setUsername(dsConfig.getUsername());
@@ -104,12 +582,48 @@ public class ShardingAutoConfiguration {
         config.setMaxLifetime(dsConfig.getMaxLifetime());
         
         // Pool name for monitoring
-        config.setPoolName("shard-" + shardConfig.getName());
+        config.setPoolName(poolName);
         
         // Finance-grade settings
         config.setLeakDetectionThreshold(60000); // 1 minute
-        config.setConnectionTestQuery("SELECT 1");
+        // No connectionTestQuery: the JDBC4 driver's isValid() avoids a SELECT 1 round trip per borrow
         
+        if (poolTuner != null) {
+            return poolTuner.open(config, databaseHost(dsConfig.getJdbcUrl()));
+        }
         return new HikariDataSource(config);
     }
+    
+    /**
+     * Get the host part of a JDBC URL, e.g. {@code db-1:5432} of {@code jdbc:postgresql://db-1:5432/payments}
+     */
+    private static String databaseHost(String jdbcUrl) {
+        int start = jdbcUrl.indexOf("//");
+        if (start < 0) {
+            return jdbcUrl;
+        }
+        int end = start + 2;
+        while (end < jdbcUrl.length() && "/?;".indexOf(jdbcUrl.charAt(end)) < 0) {
+            end++;
+        }
+        return jdbcUrl.substring(start + 2, end);
+    }
+    
+    /**
+     * Lazy pools requested, or R2DBC enabled
+     */
+    static class LazyPoolsCondition extends AnyNestedCondition {
+        
+        LazyPoolsCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+        
+        @ConditionalOnProperty(name = "sharding.lazy-pools.enabled", havingValue = "true")
+        static class LazyPoolsEnabled {
+        }
+        
+        @ConditionalOnProperty(name = "sharding.r2dbc.enabled", havingValue = "true")
+        static class R2dbcEnabled {
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package org.springframework.boot.starter.sharding.autoconfigure;
+
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.r2dbc.R2dbcShard;
+import org.springframework.boot.starter.sharding.r2dbc.R2dbcShardRouter;
+import org.springframework.boot.starter.sharding.r2dbc.RoutingConnectionFactory;
+import org.springframework.boot.starter.sharding.r2dbc.ShardDatabaseClient;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Auto-configuration for reactive R2DBC sharding support
+ * Activated when sharding-r2dbc and r2dbc-pool are on classpath and sharding.r2dbc.enabled is set
+ */
+@AutoConfiguration
+@ConditionalOnClass({ShardDatabaseClient.class, ConnectionPool.class})
+@ConditionalOnProperty(name = {"sharding.enabled", "sharding.r2dbc.enabled"}, havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingR2dbcAutoConfiguration {
+    
+    /**
+     * Create R2DBC shard router with one connection pool per shard
+     * Keys are resolved by the shared ShardRouter so JDBC and R2DBC agree on placement;
+     * its JDBC pools are lazy with R2DBC enabled and stay closed unless JDBC is used
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public R2dbcShardRouter r2dbcShardRouter(ShardProperties properties, ShardRouter shardRouter) {
+        List<ShardProperties.ShardConfig> shardConfigs = properties.getShards();
+        if (shardConfigs.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        
+        List<R2dbcShard> shards = new ArrayList<>();
+        for (int i = 0; i < shardConfigs.size(); i++) {
+            ShardProperties.ShardConfig config = shardConfigs.get(i);
+            shards.add(new R2dbcShard(config.getName(), i,
+                createConnectionPool(config.getDatasource(), "shard-" + config.getName() + "-r2dbc")));
+        }
+        return new R2dbcShardRouter(shardRouter, shards);
+    }
+    
+    /**
+     * Create routing connection factory resolving the shard from the Reactor context
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RoutingConnectionFactory shardingConnectionFactory(R2dbcShardRouter r2dbcShardRouter) {
+        return new RoutingConnectionFactory(r2dbcShardRouter);
+    }
+    
+    /**
+     * Create shard-aware reactive database client
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ShardDatabaseClient shardDatabaseClient(RoutingConnectionFactory shardingConnectionFactory) {
+        return new ShardDatabaseClient(shardingConnectionFactory);
+    }
+    
+    /**
+     * Create reactive transaction manager for single-shard transactions
+     * The shard key must be in the Reactor context when the transaction starts
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "shardR2dbcTransactionManager")
+    public ReactiveTransactionManager shardR2dbcTransactionManager(RoutingConnectionFactory shardingConnectionFactory) {
+        return new R2dbcTransactionManager(shardingConnectionFactory);
+    }
+    
+    /**
+     * Create R2DBC connection pool for individual shard
+     */
+    private ConnectionFactory createConnectionPool(ShardProperties.DataSourceConfig dsConfig, String poolName) {
+        String url = dsConfig.getR2dbcUrl() != null ? dsConfig.getR2dbcUrl() : toR2dbcUrl(dsConfig.getJdbcUrl());
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (dsConfig.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, dsConfig.getUsername());
+        }
+        if (dsConfig.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, dsConfig.getPassword());
+        }
+        
+        // Same sizing and lifetimes as the shard's HikariCP pool
+        ConnectionPoolConfiguration config = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+            .name(poolName)
+            .maxSize(dsConfig.getMaximumPoolSize())
+            .initialSize(Math.min(dsConfig.getMinimumIdle(), dsConfig.getMaximumPoolSize()))
+            .minIdle(Math.min(dsConfig.getMinimumIdle(), dsConfig.getMaximumPoolSize()))
+            .maxAcquireTime(Duration.ofMillis(dsConfig.getConnectionTimeout()))
+            .maxIdleTime(Duration.ofMillis(dsConfig.getIdleTimeout()))
+            .maxLifeTime(Duration.ofMillis(dsConfig.getMaxLifetime()))
+            .build();
+        return new ConnectionPool(config);
+    }
+    
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:")) {
+            throw new IllegalArgumentException("Cannot derive R2DBC URL from JDBC URL: " + jdbcUrl
+                + ". Set sharding.shards[].datasource.r2dbc-url");
+        }
+        return "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+    }
+}
\ No newline at end of file
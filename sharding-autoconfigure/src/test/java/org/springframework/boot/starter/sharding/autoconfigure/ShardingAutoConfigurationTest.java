@@ -0,0 +1,44 @@
+package org.springframework.boot.starter.sharding.autoconfigure;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.boot.starter.sharding.jdbc.LazyShardPools;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardingAutoConfiguration
+ */
+class ShardingAutoConfigurationTest {
+
+    @Test
+    void shouldKeepJdbcPoolsClosedWhenR2dbcIsEnabled() {
+        try (AnnotationConfigApplicationContext context = context(Map.of("sharding.r2dbc.enabled", "true"))) {
+            LazyShardPools lazyShardPools = context.getBean(LazyShardPools.class);
+
+            assertEquals(2, context.getBean(ShardRouter.class).getShardCount());
+            assertEquals(2, lazyShardPools.getStats().pools());
+            assertEquals(0, lazyShardPools.getStats().openPools());
+        }
+    }
+
+    private static AnnotationConfigApplicationContext context(Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        Map<String, Object> environment = new HashMap<>(properties);
+        environment.put("sharding.enabled", "true");
+        // Unreachable databases: nothing may connect while the context starts
+        environment.put("sharding.shards[0].name", "shard-0");
+        environment.put("sharding.shards[0].datasource.jdbc-url", "jdbc:postgresql://127.0.0.1:1/payments");
+        environment.put("sharding.shards[1].name", "shard-1");
+        environment.put("sharding.shards[1].datasource.jdbc-url", "jdbc:postgresql://127.0.0.1:1/payments");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", environment));
+        context.register(ShardingAutoConfiguration.class);
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,24 @@
+package org.springframework.boot.starter.sharding.autoconfigure;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardingR2dbcAutoConfiguration
+ */
+class ShardingR2dbcAutoConfigurationTest {
+
+    @Test
+    void shouldDeriveR2dbcUrlFromJdbcUrl() {
+        assertEquals("r2dbc:postgresql://db-0:5432/payments?sslmode=require",
+            ShardingR2dbcAutoConfiguration.toR2dbcUrl("jdbc:postgresql://db-0:5432/payments?sslmode=require"));
+    }
+
+    @Test
+    void shouldRejectUrlThatIsNotJdbc() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ShardingR2dbcAutoConfiguration.toR2dbcUrl("postgresql://db-0:5432/payments"));
+        assertThrows(IllegalArgumentException.class, () -> ShardingR2dbcAutoConfiguration.toR2dbcUrl(null));
+    }
+}
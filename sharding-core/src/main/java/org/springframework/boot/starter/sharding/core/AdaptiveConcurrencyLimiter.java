@@ -0,0 +1,180 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit for one shard
+ * Gradient algorithm: the limit follows longRtt / rtt, shrinking when calls get
+ * slower than the long-term average and growing by a small queue allowance while
+ * they are not; a dropped call (resource failure) backs the limit off
+ * multiplicatively. Excess calls wait up to maxWait in a bounded queue
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+
+    private final Config config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inflight;
+    private int waiting;
+    private double longRtt;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(Config config) {
+        this.config = config;
+        this.limit = config.initialLimit();
+    }
+
+    /**
+     * Acquire a slot, waiting up to maxWait when the limit is reached
+     * @return true if acquired; the caller must then call {@link #onComplete} or {@link #cancel}
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inflight < (int) limit) {
+                inflight++;
+                accepted.increment();
+                return true;
+            }
+            if (waiting >= config.maxQueue()) {
+                rejected.increment();
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = config.maxWait().toNanos();
+                while (inflight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                inflight++;
+                accepted.increment();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release slot and feed the call's round trip time into the limit
+     * @param rttNanos call duration
+     * @param drop call failed because the shard is overloaded or unreachable
+     */
+    public void onComplete(long rttNanos, boolean drop) {
+        lock.lock();
+        try {
+            int observedInflight = inflight;
+            inflight--;
+            if (drop) {
+                dropped.increment();
+                limit = clamp(limit * config.backoffRatio());
+            } else if (rttNanos > 0) {
+                adjust(rttNanos, observedInflight);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release slot without a sample, e.g. when the call never reached the shard
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            inflight--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get limiter metrics
+     * @return snapshot of limit, in-flight calls and counters
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats((int) limit, inflight, waiting, accepted.sum(), rejected.sum(), dropped.sum(),
+                Duration.ofNanos((long) longRtt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long rtt, int observedInflight) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            longRtt += (rtt - longRtt) / LONG_WINDOW;
+        }
+        // Let the baseline recover quickly after a sustained slowdown ends
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        // Only grow when the limit is actually being used
+        if (observedInflight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, config.tolerance() * longRtt / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(config.minLimit(), Math.min(config.maxLimit(), value));
+    }
+
+    /**
+     * Limiter configuration
+     * @param initialLimit starting concurrency
+     * @param minLimit lower bound of the limit
+     * @param maxLimit upper bound of the limit, e.g. the pool size
+     * @param backoffRatio factor applied to the limit on a dropped call
+     * @param tolerance how much slower than the long-term RTT a call may be before the limit shrinks
+     * @param maxQueue callers allowed to wait for a slot
+     * @param maxWait longest wait for a slot
+     */
+    public record Config(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                         int maxQueue, Duration maxWait) {
+
+        public Config {
+            if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+            }
+            if (backoffRatio <= 0 || backoffRatio >= 1 || tolerance < 1) {
+                throw new IllegalArgumentException("Backoff ratio must be in (0, 1) and tolerance at least 1");
+            }
+        }
+    }
+
+    /**
+     * Limiter statistics
+     */
+    public record Stats(int limit, int inflight, int waiting, long accepted, long rejected, long dropped,
+                        Duration longRtt) {
+    }
+}
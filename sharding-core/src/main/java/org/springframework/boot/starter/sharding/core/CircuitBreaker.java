@@ -0,0 +1,189 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker guarding one shard
+ * Opens when the failure or slow-call rate over the last windowSize calls
+ * reaches its threshold, rejects calls while open, then lets halfOpenCalls
+ * probe calls through and closes again if they are healthy
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final Config config;
+    private final LongSupplier clock;
+    private final byte[] outcomes;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private int halfOpenPermits;
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreaker(Config config) {
+        this(config, System::nanoTime);
+    }
+
+    /**
+     * @param config thresholds
+     * @param clock nano time source
+     */
+    public CircuitBreaker(Config config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+        this.outcomes = new byte[config.windowSize()];
+    }
+
+    /**
+     * Ask permission for a call
+     * While open this returns false without locking
+     * @return true if the call may proceed and must report {@link #onComplete}
+     */
+    public boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openUntil < 0) {
+            rejected.increment();
+            return false;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (clock.getAsLong() - openUntil < 0) {
+                    rejected.increment();
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    rejected.increment();
+                    return false;
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Check if a duration counts as a slow call
+     * @param nanos call or statement duration
+     * @return true if at least slowCallDuration
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= config.slowCallDuration().toNanos();
+    }
+
+    /**
+     * Record outcome of a permitted call
+     * @param failure call failed with a resource error
+     * @param slow call was slow
+     */
+    public synchronized void onComplete(boolean failure, boolean slow) {
+        if (state == State.OPEN) {
+            return;
+        }
+        if (calls == outcomes.length) {
+            byte evicted = outcomes[next];
+            failures -= evicted & FAILURE;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        byte outcome = (byte) ((failure ? FAILURE : 0) | (slow ? SLOW : 0));
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & FAILURE;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (state == State.HALF_OPEN) {
+            if (calls >= config.halfOpenCalls()) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (calls >= config.minimumCalls() && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openUntil >= 0) {
+            // Next call will probe
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Get failure and slow-call rates of the current window
+     * @return snapshot of breaker metrics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(getState(), calls, rate(failures), rate(slowCalls), rejected.sum());
+    }
+
+    private boolean exceedsThresholds() {
+        return rate(failures) >= config.failureRateThreshold() || rate(slowCalls) >= config.slowCallRateThreshold();
+    }
+
+    private double rate(int count) {
+        return calls == 0 ? 0 : count * 100.0 / calls;
+    }
+
+    private void transitionTo(State target) {
+        state = target;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+        if (target == State.OPEN) {
+            openUntil = clock.getAsLong() + config.openDuration().toNanos();
+        } else if (target == State.HALF_OPEN) {
+            halfOpenPermits = config.halfOpenCalls();
+        }
+    }
+
+    /**
+     * Breaker thresholds
+     * @param windowSize number of most recent calls evaluated
+     * @param minimumCalls calls required before the breaker may open
+     * @param failureRateThreshold failure percentage that opens the breaker
+     * @param slowCallRateThreshold slow-call percentage that opens the breaker
+     * @param slowCallDuration calls at least this long are slow
+     * @param openDuration how long the breaker rejects calls before probing
+     * @param halfOpenCalls probe calls allowed while half-open
+     */
+    public record Config(int windowSize, int minimumCalls, double failureRateThreshold, double slowCallRateThreshold,
+                         Duration slowCallDuration, Duration openDuration, int halfOpenCalls) {
+
+        public Config {
+            if (windowSize <= 0 || minimumCalls <= 0 || halfOpenCalls <= 0) {
+                throw new IllegalArgumentException("Window size, minimum calls and half-open calls must be positive");
+            }
+            if (halfOpenCalls > windowSize) {
+                throw new IllegalArgumentException("Half-open calls must fit in the window");
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(100, 20, 50, 80, Duration.ofSeconds(2), Duration.ofSeconds(10), 5);
+        }
+    }
+
+    /**
+     * Circuit breaker statistics
+     */
+    public record Stats(State state, int calls, double failureRate, double slowCallRate, long rejected) {
+    }
+}
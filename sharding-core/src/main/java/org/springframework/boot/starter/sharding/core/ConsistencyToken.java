@@ -0,0 +1,64 @@
+package org.springframework.boot.starter.sharding.core;
+
+/**
+ * Read-your-writes token returned after a write
+ * Holds the shard and the WAL position (LSN) the write committed at; a read
+ * presenting the token is only served by replicas that replayed up to it
+ */
+public record ConsistencyToken(int shardIndex, long position) {
+    
+    /**
+     * Encode token as text, e.g. {@code 2:16/B374D848}
+     * @return shard index and LSN in PostgreSQL notation
+     */
+    public String encode() {
+        return shardIndex + ":" + formatLsn(position);
+    }
+    
+    /**
+     * Decode token produced by {@link #encode()}
+     * @param token encoded token
+     * @return decoded token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ConsistencyToken decode(String token) {
+        int separator = token == null ? -1 : token.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed consistency token: " + token);
+        }
+        try {
+            return new ConsistencyToken(Integer.parseInt(token.substring(0, separator)),
+                parseLsn(token.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed consistency token: " + token, e);
+        }
+    }
+    
+    /**
+     * Parse PostgreSQL LSN text ({@code pg_lsn}) into a comparable position
+     * @param lsn LSN such as {@code 16/B374D848}
+     * @return 64-bit WAL position
+     * @throws IllegalArgumentException if the LSN is malformed
+     */
+    public static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        if (slash <= 0 || slash == lsn.length() - 1) {
+            throw new IllegalArgumentException("Malformed LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn.substring(0, slash), 16);
+        long low = Long.parseLong(lsn.substring(slash + 1), 16);
+        if (high > 0xFFFFFFFFL || low > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Malformed LSN: " + lsn);
+        }
+        return (high << 32) | low;
+    }
+    
+    /**
+     * Format position in PostgreSQL LSN notation
+     * @param position 64-bit WAL position
+     * @return LSN text
+     */
+    public static String formatLsn(long position) {
+        return Long.toHexString(position >>> 32).toUpperCase() + "/" + Long.toHexString(position & 0xFFFFFFFFL).toUpperCase();
+    }
+}
@@ -0,0 +1,17 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.List;
+
+/**
+ * Page of results fetched with keyset pagination
+ * The continuation token is opaque and null when there are no more rows
+ */
+public record KeysetPage<T>(
+    List<T> content,
+    String nextToken
+) {
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,61 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of recent latencies with a cached percentile
+ * The percentile is recomputed every refreshInterval samples, so reading it is O(1)
+ */
+public class LatencyTracker {
+    
+    private static final int MIN_SAMPLES = 20;
+    
+    private final long[] samples;
+    private final double percentile;
+    private final int refreshInterval;
+    private int next;
+    private int count;
+    private int sinceRefresh;
+    private volatile long cachedPercentile = -1;
+    
+    /**
+     * @param windowSize number of most recent samples kept
+     * @param percentile percentile to track, e.g. 95.0
+     */
+    public LatencyTracker(int windowSize, double percentile) {
+        if (windowSize < MIN_SAMPLES || percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException(
+                "Window must hold at least " + MIN_SAMPLES + " samples and percentile must be in (0, 100]");
+        }
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+        this.refreshInterval = Math.max(1, windowSize / 16);
+    }
+    
+    /**
+     * Record one latency sample
+     * @param nanos observed latency
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (++sinceRefresh >= refreshInterval && count >= MIN_SAMPLES) {
+            sinceRefresh = 0;
+            long[] window = Arrays.copyOf(samples, count);
+            Arrays.sort(window);
+            int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+            cachedPercentile = window[Math.max(0, rank)];
+        }
+    }
+    
+    /**
+     * Get tracked percentile of the window
+     * @return latency in nanos, or -1 until enough samples were recorded
+     */
+    public long getPercentile() {
+        return cachedPercentile;
+    }
+}
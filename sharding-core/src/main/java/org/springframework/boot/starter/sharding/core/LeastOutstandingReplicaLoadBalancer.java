@@ -0,0 +1,60 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntPredicate;
+
+/**
+ * Least-outstanding-requests replica selection per shard
+ * Picks the replica with the fewest connections in use; ties rotate so idle replicas share load
+ */
+public class LeastOutstandingReplicaLoadBalancer implements ReplicaLoadBalancer {
+    
+    private final Map<Integer, AtomicIntegerArray> outstanding = new ConcurrentHashMap<>();
+    private final AtomicInteger rotation = new AtomicInteger();
+    
+    @Override
+    public int select(Shard shard, IntPredicate eligible) {
+        AtomicIntegerArray counts = counts(shard);
+        int size = counts.length();
+        int offset = Math.floorMod(rotation.getAndIncrement(), size);
+        
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            int candidate = (offset + i) % size;
+            if (eligible.test(candidate) && (best < 0 || counts.get(candidate) < counts.get(best))) {
+                best = candidate;
+            }
+        }
+        if (best >= 0) {
+            counts.incrementAndGet(best);
+        }
+        return best;
+    }
+    
+    @Override
+    public void release(Shard shard, int replicaIndex) {
+        counts(shard).decrementAndGet(replicaIndex);
+    }
+    
+    @Override
+    public boolean tracksOutstanding() {
+        return true;
+    }
+    
+    /**
+     * Get connections currently in use on a replica
+     * @param shard the shard
+     * @param replicaIndex replica index
+     * @return outstanding count
+     */
+    public int getOutstanding(Shard shard, int replicaIndex) {
+        return counts(shard).get(replicaIndex);
+    }
+    
+    private AtomicIntegerArray counts(Shard shard) {
+        return outstanding.computeIfAbsent(shard.index(), index -> new AtomicIntegerArray(shard.replicas().size()));
+    }
+}
@@ -0,0 +1,142 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes connection pool sizes from observed load
+ * A pool with callers waiting for a connection, or whose connections took longer
+ * than the target to acquire, grows by its waiters at once; a pool using less
+ * than half its connections shrinks by half its idle excess per round, so load
+ * spikes are absorbed quickly and capacity is returned gradually. Sizes stay
+ * within floor and ceiling, and the pools of one database host share its budget:
+ * every pool keeps its floor and the remainder is split in proportion to demand.
+ * A host with more pools than its budget holds floors is split evenly instead,
+ * never below one connection per pool
+ */
+public class PoolSizeController {
+
+    private static final Log logger = LogFactory.getLog(PoolSizeController.class);
+
+    private final int floor;
+    private final int ceiling;
+    private final int hostBudget;
+    private final long targetAcquireNanos;
+    private final Set<String> overcommittedHosts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param floor smallest pool size
+     * @param ceiling largest pool size
+     * @param hostBudget connections of all pools of one host at most
+     * @param targetAcquireTime average connection acquisition time above which a pool grows
+     */
+    public PoolSizeController(int floor, int ceiling, int hostBudget, Duration targetAcquireTime) {
+        if (floor <= 0 || ceiling < floor || hostBudget < floor) {
+            throw new IllegalArgumentException("Pool sizes require 0 < floor <= ceiling and floor <= host budget");
+        }
+        this.floor = floor;
+        this.ceiling = ceiling;
+        this.hostBudget = hostBudget;
+        this.targetAcquireNanos = targetAcquireTime.toNanos();
+    }
+
+    /**
+     * Compute the next size of every pool
+     * @param loads current size and load of each pool
+     * @return pool name -> size, for every pool
+     */
+    public Map<String, Integer> resize(List<PoolLoad> loads) {
+        Map<String, List<PoolLoad>> hosts = new LinkedHashMap<>();
+        for (PoolLoad load : loads) {
+            hosts.computeIfAbsent(load.host(), host -> new ArrayList<>()).add(load);
+        }
+        Map<String, Integer> sizes = new HashMap<>();
+        hosts.forEach((host, pools) -> sizes.putAll(withinBudget(host, pools)));
+        return sizes;
+    }
+
+    private int desiredSize(PoolLoad load, int hostFloor) {
+        int size = load.size();
+        int desired = size;
+        if (load.pending() > 0 || load.averageAcquireNanos() > targetAcquireNanos) {
+            desired = Math.max(size + Math.max(1, load.pending()), load.active() + load.pending());
+        } else if (load.active() * 2 < size) {
+            desired = size - Math.max(1, (size - load.active()) / 2);
+        }
+        return Math.min(ceiling, Math.max(hostFloor, desired));
+    }
+
+    /**
+     * Keep every pool's floor and share the rest of the host budget by demand above it
+     * Units left by rounding go to the pools with the most waiters
+     */
+    private Map<String, Integer> withinBudget(String host, List<PoolLoad> pools) {
+        int hostFloor = hostFloor(host, pools.size());
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        long demand = 0;
+        for (PoolLoad pool : pools) {
+            int desired = desiredSize(pool, hostFloor);
+            sizes.put(pool.pool(), desired);
+            demand += desired - hostFloor;
+        }
+        long available = Math.max(0, hostBudget - (long) hostFloor * pools.size());
+        if (demand <= available) {
+            return sizes;
+        }
+        long granted = 0;
+        for (PoolLoad pool : pools) {
+            long extra = (sizes.get(pool.pool()) - hostFloor) * available / demand;
+            sizes.put(pool.pool(), hostFloor + (int) extra);
+            granted += extra;
+        }
+        List<PoolLoad> byWaiters = new ArrayList<>(pools);
+        byWaiters.sort(Comparator.comparingInt(PoolLoad::pending).reversed());
+        for (int i = 0; granted < available && i < byWaiters.size(); i++) {
+            String name = byWaiters.get(i).pool();
+            if (sizes.get(name) < desiredSize(byWaiters.get(i), hostFloor)) {
+                sizes.merge(name, 1, Integer::sum);
+                granted++;
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Get the floor the host's budget can hold for all of its pools, warning once per host
+     * when the configured floor does not fit
+     */
+    private int hostFloor(String host, int pools) {
+        if ((long) floor * pools <= hostBudget) {
+            return floor;
+        }
+        int hostFloor = Math.max(1, hostBudget / pools);
+        if (overcommittedHosts.add(host)) {
+            logger.warn(pools + " pools on host " + host + " cannot keep the floor of " + floor
+                + " within the budget of " + hostBudget + " connections; using a floor of " + hostFloor
+                + (hostFloor * pools > hostBudget ? ", which still exceeds the budget" : ""));
+        }
+        return hostFloor;
+    }
+
+    /**
+     * Load of one pool over the last sampling interval
+     * @param pool pool name
+     * @param host database host the pool connects to
+     * @param size current maximum pool size
+     * @param active connections in use
+     * @param pending callers waiting for a connection
+     * @param averageAcquireNanos average time to acquire a connection
+     */
+    public record PoolLoad(String pool, String host, int size, int active, int pending, long averageAcquireNanos) {
+    }
+}
@@ -0,0 +1,40 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Identity of a query execution: shard key, SQL, result shape and parameters
+ * Parameters are copied so later changes by the caller do not alter the key
+ */
+final class QueryKey {
+
+    private final long shardKey;
+    private final String sql;
+    private final Object shape;
+    private final Object[] args;
+    private final int hash;
+
+    QueryKey(long shardKey, String sql, Object shape, Object[] args) {
+        this.shardKey = shardKey;
+        this.sql = sql;
+        this.shape = shape;
+        this.args = args == null ? new Object[0] : args.clone();
+        this.hash = Objects.hash(shardKey, sql, shape) * 31 + Arrays.deepHashCode(this.args);
+    }
+
+    long shardKey() {
+        return shardKey;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof QueryKey key && shardKey == key.shardKey && hash == key.hash && sql.equals(key.sql)
+            && Objects.equals(shape, key.shape) && Arrays.deepEquals(args, key.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
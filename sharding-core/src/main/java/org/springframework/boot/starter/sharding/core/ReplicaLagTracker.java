@@ -0,0 +1,91 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Last observed replay position and lag of each shard replica
+ * Fed by a poller; consulted when choosing a replica for a read. Replicas
+ * never sampled, failing to answer, or lagging more than maxLag are not eligible
+ */
+public class ReplicaLagTracker {
+    
+    private final Duration maxLag;
+    private final Map<Integer, AtomicReferenceArray<Sample>> samples = new ConcurrentHashMap<>();
+    
+    /**
+     * @param maxLag replicas lagging more than this are skipped, null or zero for no limit
+     */
+    public ReplicaLagTracker(Duration maxLag) {
+        this.maxLag = maxLag == null || maxLag.isZero() ? null : maxLag;
+    }
+    
+    /**
+     * Record a successful poll of a replica
+     * @param shard the shard
+     * @param replicaIndex replica index
+     * @param replayPosition last replayed WAL position
+     * @param lag time since the last replayed transaction, zero if fully caught up
+     */
+    public void record(Shard shard, int replicaIndex, long replayPosition, Duration lag) {
+        samples(shard).set(replicaIndex, new Sample(replayPosition, lag));
+    }
+    
+    /**
+     * Record a failed poll; the replica is not eligible until the next successful poll
+     * @param shard the shard
+     * @param replicaIndex replica index
+     */
+    public void recordFailure(Shard shard, int replicaIndex) {
+        samples(shard).set(replicaIndex, null);
+    }
+    
+    /**
+     * Check if a replica may serve a read
+     * @param shard the shard
+     * @param replicaIndex replica index
+     * @param requiredPosition WAL position the replica must have replayed, 0 for any
+     * @return true if the replica is within maxLag and has replayed requiredPosition
+     */
+    public boolean isCaughtUp(Shard shard, int replicaIndex, long requiredPosition) {
+        Sample sample = samples(shard).get(replicaIndex);
+        if (sample == null) {
+            return false;
+        }
+        if (maxLag != null && sample.lag().compareTo(maxLag) > 0) {
+            return false;
+        }
+        return Long.compareUnsigned(sample.replayPosition(), requiredPosition) >= 0;
+    }
+    
+    /**
+     * Get last observed replay lag of a replica
+     * @param shard the shard
+     * @param replicaIndex replica index
+     * @return lag, or null if the replica has not been polled successfully
+     */
+    public Duration getLag(Shard shard, int replicaIndex) {
+        Sample sample = samples(shard).get(replicaIndex);
+        return sample == null ? null : sample.lag();
+    }
+    
+    /**
+     * Get last observed replay position of a replica
+     * @param shard the shard
+     * @param replicaIndex replica index
+     * @return WAL position, or null if the replica has not been polled successfully
+     */
+    public Long getReplayPosition(Shard shard, int replicaIndex) {
+        Sample sample = samples(shard).get(replicaIndex);
+        return sample == null ? null : sample.replayPosition();
+    }
+    
+    private AtomicReferenceArray<Sample> samples(Shard shard) {
+        return samples.computeIfAbsent(shard.index(), index -> new AtomicReferenceArray<>(shard.replicas().size()));
+    }
+    
+    private record Sample(long replayPosition, Duration lag) {
+    }
+}
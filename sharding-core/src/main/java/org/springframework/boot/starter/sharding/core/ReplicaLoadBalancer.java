@@ -0,0 +1,42 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Policy choosing which read replica of a shard serves a read
+ */
+public interface ReplicaLoadBalancer {
+    
+    /**
+     * Select replica for a read
+     * @param shard shard with at least one replica
+     * @return index into {@link Shard#replicas()}
+     */
+    default int select(Shard shard) {
+        return select(shard, replicaIndex -> true);
+    }
+    
+    /**
+     * Select replica for a read among eligible replicas
+     * @param shard shard with at least one replica
+     * @param eligible replicas allowed to serve the read (e.g. caught up with a write)
+     * @return index into {@link Shard#replicas()}, or -1 if no replica is eligible
+     */
+    int select(Shard shard, IntPredicate eligible);
+    
+    /**
+     * Notify that work on a selected replica finished (connection returned)
+     * Only called when {@link #tracksOutstanding()} is true
+     * @param shard the shard
+     * @param replicaIndex replica index returned by {@link #select(Shard)}
+     */
+    default void release(Shard shard, int replicaIndex) {
+    }
+    
+    /**
+     * Whether the policy needs {@link #release(Shard, int)} callbacks
+     */
+    default boolean tracksOutstanding() {
+        return false;
+    }
+}
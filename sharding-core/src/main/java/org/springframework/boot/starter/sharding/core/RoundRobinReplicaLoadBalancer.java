@@ -0,0 +1,28 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Round-robin replica selection per shard
+ */
+public class RoundRobinReplicaLoadBalancer implements ReplicaLoadBalancer {
+    
+    private final Map<Integer, AtomicInteger> counters = new ConcurrentHashMap<>();
+    
+    @Override
+    public int select(Shard shard, IntPredicate eligible) {
+        AtomicInteger counter = counters.computeIfAbsent(shard.index(), index -> new AtomicInteger());
+        int size = shard.replicas().size();
+        int start = Math.floorMod(counter.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (eligible.test(candidate)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,17 +1,78 @@
 package org.springframework.boot.starter.sharding.core;
 
 import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a single shard with its metadata and data source
+ * Optional read replicas serve read-only work routed away from the primary;
+ * optional workload pools are separate pools to the primary for non-OLTP work
  */
 public record Shard(
     String name,
     int index,
-    DataSource dataSource
+    DataSource dataSource,
+    List<DataSource> replicas,
+    Map<String, DataSource> workloadPools
 ) {
     
+    /**
+     * Workload class served by the main primary pool
+     */
+    public static final String DEFAULT_WORKLOAD = "oltp";
+    
+    public Shard {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+        workloadPools = workloadPools == null ? Map.of() : Map.copyOf(workloadPools);
+        if (workloadPools.containsKey(DEFAULT_WORKLOAD)) {
+            throw new IllegalArgumentException("Workload '" + DEFAULT_WORKLOAD + "' uses the shard's main pool");
+        }
+    }
+    
+    public Shard(String name, int index, DataSource dataSource) {
+        this(name, index, dataSource, List.of(), Map.of());
+    }
+    
+    public Shard(String name, int index, DataSource dataSource, List<DataSource> replicas) {
+        this(name, index, dataSource, replicas, Map.of());
+    }
+    
     public static Shard of(String name, int index, DataSource dataSource) {
         return new Shard(name, index, dataSource);
     }
-}
\ No newline at end of file
+    
+    public static Shard of(String name, int index, DataSource dataSource, List<DataSource> replicas) {
+        return new Shard(name, index, dataSource, replicas);
+    }
+    
+    public static Shard of(String name, int index, DataSource dataSource, List<DataSource> replicas,
+                           Map<String, DataSource> workloadPools) {
+        return new Shard(name, index, dataSource, replicas, workloadPools);
+    }
+    
+    /**
+     * Get primary pool serving a workload class
+     * @param workload workload class, or null for the default class
+     * @return the class's pool, or the main pool for the default class
+     * @throws IllegalArgumentException if the shard has no pool for the class
+     */
+    public DataSource dataSource(String workload) {
+        if (workload == null || DEFAULT_WORKLOAD.equals(workload)) {
+            return dataSource;
+        }
+        DataSource pool = workloadPools.get(workload);
+        if (pool == null) {
+            throw new IllegalArgumentException("Unknown workload class '" + workload + "' for shard: " + name);
+        }
+        return pool;
+    }
+    
+    /**
+     * Check if shard has read replicas
+     * @return true if at least one replica is configured
+     */
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One circuit breaker per shard, so an unhealthy shard fails fast
+ * while the other shards stay fully available
+ */
+public class ShardCircuitBreakers {
+    
+    private final CircuitBreaker.Config config;
+    private final Map<Integer, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    
+    public ShardCircuitBreakers(CircuitBreaker.Config config) {
+        this.config = config;
+    }
+    
+    /**
+     * Get breaker of a shard
+     * @param shard the shard
+     * @return breaker, created on first use
+     */
+    public CircuitBreaker get(Shard shard) {
+        return breakers.computeIfAbsent(shard.index(), index -> new CircuitBreaker(config));
+    }
+    
+    /**
+     * Get state of every shard
+     * @param router router listing the shards
+     * @return shard name -> breaker statistics, in shard order
+     */
+    public Map<String, CircuitBreaker.Stats> getStats(ShardRouter router) {
+        Map<String, CircuitBreaker.Stats> stats = new LinkedHashMap<>();
+        for (int i = 0; i < router.getShardCount(); i++) {
+            Shard shard = router.getShard(i);
+            stats.put(shard.name(), get(shard).getStats());
+        }
+        return stats;
+    }
+}
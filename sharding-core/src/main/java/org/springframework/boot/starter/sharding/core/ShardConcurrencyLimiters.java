@@ -0,0 +1,49 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * One adaptive concurrency limiter per shard
+ */
+public class ShardConcurrencyLimiters {
+    
+    private final Function<Shard, AdaptiveConcurrencyLimiter.Config> configs;
+    private final Map<Integer, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    
+    public ShardConcurrencyLimiters(AdaptiveConcurrencyLimiter.Config config) {
+        this(shard -> config);
+    }
+    
+    /**
+     * @param configs limiter configuration per shard, e.g. to cap each limit at the shard's pool size
+     */
+    public ShardConcurrencyLimiters(Function<Shard, AdaptiveConcurrencyLimiter.Config> configs) {
+        this.configs = configs;
+    }
+    
+    /**
+     * Get limiter of a shard
+     * @param shard the shard
+     * @return limiter, created on first use
+     */
+    public AdaptiveConcurrencyLimiter get(Shard shard) {
+        return limiters.computeIfAbsent(shard.index(), index -> new AdaptiveConcurrencyLimiter(configs.apply(shard)));
+    }
+    
+    /**
+     * Get limits of every shard
+     * @param router router listing the shards
+     * @return shard name -> limiter statistics, in shard order
+     */
+    public Map<String, AdaptiveConcurrencyLimiter.Stats> getStats(ShardRouter router) {
+        Map<String, AdaptiveConcurrencyLimiter.Stats> stats = new LinkedHashMap<>();
+        for (int i = 0; i < router.getShardCount(); i++) {
+            Shard shard = router.getShard(i);
+            stats.put(shard.name(), get(shard).getStats());
+        }
+        return stats;
+    }
+}
@@ -1,5 +1,7 @@
 package org.springframework.boot.starter.sharding.core;
 
+import java.util.function.Supplier;
+
 /**
  * Thread-local context for shard key management
  * Ensures shard key is available throughout the request lifecycle
@@ -8,6 +10,12 @@ public class ShardContext {
     
     private static final ThreadLocal<Long> SHARD_KEY = new ThreadLocal<>();
     
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    
+    private static final ThreadLocal<ConsistencyToken> CONSISTENCY_TOKEN = new ThreadLocal<>();
+    
+    private static final ThreadLocal<String> WORKLOAD = new ThreadLocal<>();
+    
     /**
      * Set shard key for current thread
      * @param key the shard key
@@ -54,4 +62,100 @@ public class ShardContext {
     public static boolean isSet() {
         return SHARD_KEY.get() != null;
     }
+    
+    /**
+     * Mark work on current thread as read-only
+     * Read-only connections are served by shard replicas when configured
+     * @param readOnly true to route reads to replicas
+     */
+    public static void setReadOnly(boolean readOnly) {
+        if (readOnly) {
+            READ_ONLY.set(Boolean.TRUE);
+        } else {
+            READ_ONLY.remove();
+        }
+    }
+    
+    /**
+     * Check if work on current thread is read-only
+     * @return true if reads may be served by replicas
+     */
+    public static boolean isReadOnly() {
+        return READ_ONLY.get() != null;
+    }
+    
+    /**
+     * Execute code block as read-only work
+     * Restores the previous read-only flag after execution
+     * @param supplier code to execute
+     * @return supplier result
+     */
+    public static <T> T executeReadOnly(Supplier<T> supplier) {
+        boolean previous = isReadOnly();
+        try {
+            setReadOnly(true);
+            return supplier.get();
+        } finally {
+            setReadOnly(previous);
+        }
+    }
+    
+    /**
+     * Require read-only work on current thread to observe a prior write
+     * Replicas that have not replayed the token's position are skipped
+     * @param token consistency token, or null to clear
+     */
+    public static void setConsistencyToken(ConsistencyToken token) {
+        if (token != null) {
+            CONSISTENCY_TOKEN.set(token);
+        } else {
+            CONSISTENCY_TOKEN.remove();
+        }
+    }
+    
+    /**
+     * Get consistency token for current thread
+     * @return token or null if reads may be served by any replica
+     */
+    public static ConsistencyToken getConsistencyToken() {
+        return CONSISTENCY_TOKEN.get();
+    }
+    
+    /**
+     * Set workload class of work on current thread
+     * Connections come from the shard's pool for that class, e.g. batch or reporting
+     * @param workload workload class, or null for the default class
+     */
+    public static void setWorkload(String workload) {
+        if (workload != null) {
+            WORKLOAD.set(workload);
+        } else {
+            WORKLOAD.remove();
+        }
+    }
+    
+    /**
+     * Get workload class for current thread
+     * @return workload class or null for the default class
+     */
+    public static String getWorkload() {
+        return WORKLOAD.get();
+    }
+    
+    /**
+     * Execute code block as work of a workload class
+     * Restores the previous workload class after execution
+     * @param workload workload class
+     * @param supplier code to execute
+     * @return supplier result
+     */
+    public static <T> T executeWithWorkload(String workload, Supplier<T> supplier) {
+        String previous = getWorkload();
+        try {
+            setWorkload(workload);
+            return supplier.get();
+        } finally {
+            setWorkload(previous);
+        }
+    }
 }
\ No newline at end of file
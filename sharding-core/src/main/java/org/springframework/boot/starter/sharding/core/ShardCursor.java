@@ -0,0 +1,202 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Continuation state for keyset (cursor) pagination across shards
+ * Tracks the last emitted sort key per shard slot and encodes it as an opaque URL-safe token
+ */
+public class ShardCursor {
+
+    private static final byte VERSION = 1;
+
+    private final Map<Integer, Position> positions = new TreeMap<>();
+
+    /**
+     * Create cursor positioned before the first row of every shard
+     * @return empty cursor
+     */
+    public static ShardCursor start() {
+        return new ShardCursor();
+    }
+
+    /**
+     * Decode continuation token produced by {@link #encode()}
+     * @param token the token, null or empty for the first page
+     * @return decoded cursor
+     * @throws IllegalArgumentException if token is malformed
+     */
+    public static ShardCursor decode(String token) {
+        ShardCursor cursor = new ShardCursor();
+        if (token == null || token.isEmpty()) {
+            return cursor;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported continuation token version");
+            }
+            int slots = in.readInt();
+            for (int i = 0; i < slots; i++) {
+                int slot = in.readInt();
+                boolean exhausted = in.readBoolean();
+                int keyCount = in.readInt();
+                Map<String, Object> keys = new LinkedHashMap<>();
+                for (int k = 0; k < keyCount; k++) {
+                    keys.put(in.readUTF(), readValue(in));
+                }
+                cursor.positions.put(slot, new Position(keys, exhausted));
+            }
+            return cursor;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+    /**
+     * Get last emitted sort key for shard slot
+     * @param slot shard index
+     * @return ordered column -> value map, or null if slot starts from the beginning
+     */
+    public Map<String, Object> position(int slot) {
+        Position position = positions.get(slot);
+        return position == null || position.keys().isEmpty() ? null : position.keys();
+    }
+
+    /**
+     * Check whether shard slot has no more rows
+     * @param slot shard index
+     * @return true if the slot was fully consumed
+     */
+    public boolean isExhausted(int slot) {
+        Position position = positions.get(slot);
+        return position != null && position.exhausted();
+    }
+
+    /**
+     * Record last emitted sort key for shard slot
+     * @param slot shard index
+     * @param keys ordered column -> value map
+     */
+    public void advance(int slot, Map<String, Object> keys) {
+        positions.put(slot, new Position(new LinkedHashMap<>(keys), false));
+    }
+
+    /**
+     * Mark shard slot as fully consumed
+     * @param slot shard index
+     */
+    public void exhaust(int slot) {
+        positions.put(slot, new Position(Collections.emptyMap(), true));
+    }
+
+    /**
+     * Encode cursor as opaque token
+     * @return URL-safe token
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(positions.size());
+            for (Map.Entry<Integer, Position> entry : positions.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeBoolean(entry.getValue().exhausted());
+                out.writeInt(entry.getValue().keys().size());
+                for (Map.Entry<String, Object> key : entry.getValue().keys().entrySet()) {
+                    out.writeUTF(key.getKey());
+                    writeValue(out, key.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode continuation token", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte('N');
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            out.writeByte('L');
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte('F');
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal decimal) {
+            out.writeByte('D');
+            out.writeUTF(decimal.toPlainString());
+        } else if (value instanceof String string) {
+            out.writeByte('S');
+            out.writeUTF(string);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte('B');
+            out.writeBoolean(bool);
+        } else if (value instanceof Timestamp timestamp) {
+            out.writeByte('T');
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte('t');
+            out.writeUTF(dateTime.toString());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte('d');
+            out.writeUTF(date.toString());
+        } else if (value instanceof OffsetDateTime dateTime) {
+            out.writeByte('o');
+            out.writeUTF(dateTime.toString());
+        } else if (value instanceof Instant instant) {
+            out.writeByte('I');
+            out.writeUTF(instant.toString());
+        } else if (value instanceof UUID uuid) {
+            out.writeByte('U');
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            throw new IllegalArgumentException("Unsupported sort key type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case 'N' -> null;
+            case 'L' -> in.readLong();
+            case 'F' -> in.readDouble();
+            case 'D' -> new BigDecimal(in.readUTF());
+            case 'S' -> in.readUTF();
+            case 'B' -> in.readBoolean();
+            case 'T' -> {
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                yield timestamp;
+            }
+            case 't' -> LocalDateTime.parse(in.readUTF());
+            case 'd' -> LocalDate.parse(in.readUTF());
+            case 'o' -> OffsetDateTime.parse(in.readUTF());
+            case 'I' -> Instant.parse(in.readUTF());
+            case 'U' -> new UUID(in.readLong(), in.readLong());
+            default -> throw new IllegalArgumentException("Unknown sort key type tag: " + type);
+        };
+    }
+
+    private record Position(Map<String, Object> keys, boolean exhausted) {
+    }
+}
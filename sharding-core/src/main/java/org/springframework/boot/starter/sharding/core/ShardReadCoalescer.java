@@ -0,0 +1,155 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent reads
+ * The first caller of a query (shard key, SQL, result shape and parameters) runs
+ * it; callers arriving while it is in flight wait for its result instead of
+ * running it again, so a burst of identical reads costs one query. The in-flight
+ * table only changes through compare-and-set operations and holds at most
+ * maxInFlight queries, beyond that reads run uncoalesced. Invalidating a shard
+ * key stops later callers from joining reads of that key started before, so a
+ * caller never gets rows older than a write that completed before it arrived
+ */
+public class ShardReadCoalescer {
+
+    private static final int MIN_STRIPES = 1024;
+
+    private final int maxInFlight;
+    private final AtomicLongArray versions;
+    private final int stripeMask;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<QueryKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    /**
+     * @param maxInFlight distinct queries tracked at most
+     */
+    public ShardReadCoalescer(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight queries must be positive");
+        }
+        this.maxInFlight = maxInFlight;
+        int stripes = Integer.highestOneBit(Math.max(MIN_STRIPES, maxInFlight) - 1) << 1;
+        this.versions = new AtomicLongArray(stripes);
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * Run query, or wait for the identical query already in flight
+     * Exceptions of the query propagate to every waiting caller
+     * @param shardKey shard key the query reads
+     * @param sql statement text
+     * @param shape what the rows are mapped to, e.g. the required type or row mapper
+     * @param args statement parameters
+     * @param query runs the query
+     * @return result, shared between the coalesced callers
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(long shardKey, String sql, Object shape, Object[] args, Supplier<T> query) {
+        QueryKey key = new QueryKey(shardKey, sql, shape, args);
+        Flight own = new Flight(versions.get(stripe(shardKey)), generation.get());
+        while (true) {
+            Flight current = inFlight.get(key);
+            if (current == null) {
+                if (inFlight.size() >= maxInFlight) {
+                    bypassed.increment();
+                    return query.get();
+                }
+                if (inFlight.putIfAbsent(key, own) == null) {
+                    break;
+                }
+            } else if (current.version >= own.version && current.generation >= own.generation) {
+                coalesced.increment();
+                return (T) current.await();
+            } else if (inFlight.replace(key, current, own)) {
+                // Started before a write this caller must observe
+                break;
+            }
+        }
+        executions.increment();
+        try {
+            T value = query.get();
+            own.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Stop sharing reads of a shard key that are in flight, e.g. after a committed write
+     * @param shardKey the shard key
+     */
+    public void invalidate(long shardKey) {
+        versions.incrementAndGet(stripe(shardKey));
+    }
+
+    /**
+     * Stop sharing every read in flight, e.g. after a write spanning all shards
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    private int stripe(long shardKey) {
+        return Long.hashCode(shardKey * 0x9E3779B97F4A7C15L) & stripeMask;
+    }
+
+    /**
+     * Get coalescing metrics
+     * @return snapshot of the coalescer counters
+     */
+    public Stats getStats() {
+        return new Stats(inFlight.size(), executions.sum(), coalesced.sum(), bypassed.sum());
+    }
+
+    private static final class Flight {
+
+        private final long version;
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(long version, long generation) {
+            this.version = version;
+            this.generation = generation;
+        }
+
+        Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Read coalescing statistics
+     * @param inFlight queries currently running
+     * @param executions queries run on behalf of one or more callers
+     * @param coalesced calls answered by a query another caller started
+     * @param bypassed calls run uncoalesced because the in-flight table was full
+     */
+    public record Stats(int inFlight, long executions, long coalesced, long bypassed) {
+    }
+}
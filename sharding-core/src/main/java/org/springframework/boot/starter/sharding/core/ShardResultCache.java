@@ -0,0 +1,173 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded query result cache keyed by shard key, SQL and parameters
+ * Every shard key maps to a version counter; an entry is only served while
+ * the version it was loaded under is current and its TTL has not passed, so
+ * invalidating all of a key's entries is a single increment. Versions are
+ * striped over a fixed array: keys sharing a stripe invalidate each other,
+ * which costs a miss but never serves stale data. The version is read before
+ * the query runs, so a result loaded concurrently with a write is never served
+ * after the write's invalidation. Full caches drop entries that are stale or
+ * not read since the last sweep (second chance)
+ */
+public class ShardResultCache {
+
+    private static final int MIN_STRIPES = 1024;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final AtomicLongArray versions;
+    private final int stripeMask;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<QueryKey, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxEntries results kept at most
+     * @param ttl longest time a result is served, bounding staleness from writes this cache does not see
+     */
+    public ShardResultCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    ShardResultCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Max entries and TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        int stripes = Integer.highestOneBit(Math.max(MIN_STRIPES, maxEntries) - 1) << 1;
+        this.versions = new AtomicLongArray(stripes);
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * Get cached result, or load and cache it
+     * Exceptions of the loader propagate and nothing is cached
+     * @param shardKey shard key the result belongs to
+     * @param sql statement text
+     * @param shape what the rows are mapped to, e.g. the required type or row mapper
+     * @param args statement parameters
+     * @param loader runs the query on a miss
+     * @return cached or loaded result, shared between callers
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(long shardKey, String sql, Object shape, Object[] args, Supplier<T> loader) {
+        QueryKey key = new QueryKey(shardKey, sql, shape, args);
+        int stripe = stripe(shardKey);
+        long now = clock.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (isCurrent(entry, stripe, now)) {
+                entry.referenced = true;
+                hits.increment();
+                return (T) entry.value;
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        long version = versions.get(stripe);
+        long loadedGeneration = generation.get();
+        T value = loader.get();
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key, new Entry(value, version, loadedGeneration, now + ttlNanos));
+        return value;
+    }
+
+    /**
+     * Invalidate every result of a shard key, e.g. after a committed write
+     * @param shardKey the shard key
+     */
+    public void invalidate(long shardKey) {
+        versions.incrementAndGet(stripe(shardKey));
+        invalidations.increment();
+    }
+
+    /**
+     * Invalidate every result, e.g. after a write spanning all shards
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    private boolean isCurrent(Entry entry, int stripe, long now) {
+        return entry.version == versions.get(stripe) && entry.generation == generation.get()
+            && now - entry.expiresAt < 0;
+    }
+
+    private void evict(long now) {
+        for (int pass = 0; pass < 2; pass++) {
+            Iterator<Map.Entry<QueryKey, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<QueryKey, Entry> candidate = iterator.next();
+                Entry entry = candidate.getValue();
+                if (entry.referenced && isCurrent(entry, stripe(candidate.getKey().shardKey()), now)) {
+                    entry.referenced = false;
+                } else {
+                    iterator.remove();
+                    evictions.increment();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int stripe(long shardKey) {
+        return Long.hashCode(shardKey * 0x9E3779B97F4A7C15L) & stripeMask;
+    }
+
+    /**
+     * Get cache metrics
+     * @return snapshot of the cache counters
+     */
+    public Stats getStats() {
+        return new Stats(entries.size(), hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long version;
+        private final long generation;
+        private final long expiresAt;
+        private volatile boolean referenced;
+
+        Entry(Object value, long version, long generation, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Result cache statistics
+     * @param entries results currently cached, including stale ones not swept yet
+     * @param hits lookups answered from the cache
+     * @param misses lookups that ran the query
+     * @param evictions results dropped to stay within the size bound
+     * @param invalidations shard key and full invalidations
+     */
+    public record Stats(int entries, long hits, long misses, long evictions, long invalidations) {
+    }
+}
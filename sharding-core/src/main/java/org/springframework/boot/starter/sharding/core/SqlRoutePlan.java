@@ -0,0 +1,160 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Shard routing decision for one SQL statement
+ * Derived from the statement text only, so one plan serves every execution of
+ * the statement: the shard key is read from each execution's parameters
+ */
+public final class SqlRoutePlan {
+
+    public enum Type {
+        /**
+         * Shard key bound as a parameter
+         */
+        KEY_PARAMETER,
+        /**
+         * Shard key written into the statement as a literal
+         */
+        KEY_LITERAL,
+        /**
+         * No shard key predicate, the statement runs on every shard
+         */
+        SCATTER,
+        /**
+         * No shard key and running on every shard would be wrong, e.g. an INSERT
+         */
+        UNROUTABLE
+    }
+
+    private static final SqlRoutePlan SCATTER = new SqlRoutePlan(Type.SCATTER, -1, null, 0, null);
+
+    private final Type type;
+    private final int parameterIndex;
+    private final String parameterName;
+    private final long literalKey;
+    private final String reason;
+
+    private SqlRoutePlan(Type type, int parameterIndex, String parameterName, long literalKey, String reason) {
+        this.type = type;
+        this.parameterIndex = parameterIndex;
+        this.parameterName = parameterName;
+        this.literalKey = literalKey;
+        this.reason = reason;
+    }
+
+    static SqlRoutePlan parameter(int parameterIndex) {
+        return new SqlRoutePlan(Type.KEY_PARAMETER, parameterIndex, null, 0, null);
+    }
+
+    static SqlRoutePlan namedParameter(String parameterName) {
+        return new SqlRoutePlan(Type.KEY_PARAMETER, -1, parameterName, 0, null);
+    }
+
+    static SqlRoutePlan literal(long shardKey) {
+        return new SqlRoutePlan(Type.KEY_LITERAL, -1, null, shardKey, null);
+    }
+
+    static SqlRoutePlan scatter() {
+        return SCATTER;
+    }
+
+    static SqlRoutePlan unroutable(String reason) {
+        return new SqlRoutePlan(Type.UNROUTABLE, -1, null, 0, reason);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isScatter() {
+        return type == Type.SCATTER;
+    }
+
+    /**
+     * @return 0-based index of the shard key among positional parameters, or -1
+     */
+    public int getParameterIndex() {
+        return parameterIndex;
+    }
+
+    /**
+     * @return name of the named parameter holding the shard key, or null
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * Get shard key of one execution with positional parameters
+     * @param args statement parameters in placeholder order
+     * @return shard key, or null when the statement runs on every shard
+     * @throws IllegalArgumentException if the statement cannot be routed or the key parameter is missing
+     */
+    public Long shardKey(Object[] args) {
+        return switch (type) {
+            case KEY_LITERAL -> literalKey;
+            case SCATTER -> null;
+            case UNROUTABLE -> throw new IllegalArgumentException(reason);
+            case KEY_PARAMETER -> {
+                if (parameterName != null) {
+                    throw new IllegalArgumentException(
+                        "Shard key is the named parameter :" + parameterName + ", pass parameters by name");
+                }
+                if (args == null || parameterIndex >= args.length) {
+                    throw new IllegalArgumentException("Missing shard key parameter " + (parameterIndex + 1));
+                }
+                yield toShardKey(args[parameterIndex]);
+            }
+        };
+    }
+
+    /**
+     * Get shard key of one execution with named parameters
+     * @param args statement parameters by name
+     * @return shard key, or null when the statement runs on every shard
+     * @throws IllegalArgumentException if the statement cannot be routed or the key parameter is missing
+     */
+    public Long shardKey(Map<String, ?> args) {
+        if (type != Type.KEY_PARAMETER) {
+            return shardKey((Object[]) null);
+        }
+        if (parameterName == null) {
+            throw new IllegalArgumentException(
+                "Shard key is positional parameter " + (parameterIndex + 1) + ", pass parameters in order");
+        }
+        if (args == null || !args.containsKey(parameterName)) {
+            throw new IllegalArgumentException("Missing shard key parameter :" + parameterName);
+        }
+        return toShardKey(args.get(parameterName));
+    }
+
+    private static long toShardKey(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger integer) {
+            return integer.longValueExact();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.longValueExact();
+        }
+        if (value instanceof String text) {
+            return Long.parseLong(text.trim());
+        }
+        throw new IllegalArgumentException("Shard key parameter must be an integer, got: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case KEY_PARAMETER -> "KEY_PARAMETER(" + (parameterName != null ? ":" + parameterName : parameterIndex) + ")";
+            case KEY_LITERAL -> "KEY_LITERAL(" + literalKey + ")";
+            case SCATTER -> "SCATTER";
+            case UNROUTABLE -> "UNROUTABLE(" + reason + ")";
+        };
+    }
+}
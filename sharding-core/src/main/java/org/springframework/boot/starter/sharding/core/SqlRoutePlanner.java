@@ -0,0 +1,361 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.springframework.boot.starter.sharding.core.SqlTokenizer.Token;
+import org.springframework.boot.starter.sharding.core.SqlTokenizer.Type;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the shard key of SQL statements, with plans cached per statement text
+ * A statement is routed by an equality on a key column in the top-level AND
+ * chain of its WHERE clause ({@code account_id = ?}, {@code t.account_id = :id},
+ * {@code account_id = 42}) or, for a single-row INSERT, by the key column's value.
+ * Predicates under OR, in parentheses or in subqueries are not used, so a plan
+ * never routes a statement that could match rows of other shards. Joined tables
+ * and subqueries of a routed statement only see the routed shard's rows.
+ * Statements without a key run on every shard, except INSERTs which are rejected
+ */
+public class SqlRoutePlanner {
+
+    private static final Set<String> STATEMENTS = Set.of("select", "insert", "update", "delete", "merge");
+    private static final Set<String> SET_OPERATIONS = Set.of("union", "intersect", "except");
+    private static final Set<String> WHERE_END = Set.of("group", "order", "limit", "offset", "having", "returning",
+        "for", "window", "fetch", "on", "do", "union", "intersect", "except");
+
+    private final Set<String> keyColumns;
+    private final int maxCachedPlans;
+    private final Map<String, CachedPlan> plans = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param keyColumns shard key column names, e.g. "account_id"
+     * @param maxCachedPlans distinct statements whose plans are kept
+     */
+    public SqlRoutePlanner(Collection<String> keyColumns, int maxCachedPlans) {
+        if (keyColumns.isEmpty() || maxCachedPlans <= 0) {
+            throw new IllegalArgumentException("At least one key column and a positive plan cache size are required");
+        }
+        this.keyColumns = keyColumns.stream()
+            .map(column -> column.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+        this.maxCachedPlans = maxCachedPlans;
+    }
+
+    /**
+     * Get route plan of a statement, parsing it on first use
+     * @param sql statement text
+     * @return cached plan
+     */
+    public SqlRoutePlan plan(String sql) {
+        CachedPlan cached = plans.get(sql);
+        if (cached != null) {
+            cached.referenced = true;
+            hits.increment();
+            return cached.plan;
+        }
+        misses.increment();
+        SqlRoutePlan plan = analyze(sql);
+        if (plans.size() >= maxCachedPlans) {
+            evict();
+        }
+        CachedPlan raced = plans.putIfAbsent(sql, new CachedPlan(plan));
+        return raced != null ? raced.plan : plan;
+    }
+
+    /**
+     * Drop one plan not used since the last sweep (second chance), so statements
+     * built with inlined values cannot push out the hot ones
+     */
+    private void evict() {
+        for (int pass = 0; pass < 2; pass++) {
+            Iterator<CachedPlan> iterator = plans.values().iterator();
+            while (iterator.hasNext()) {
+                CachedPlan cached = iterator.next();
+                if (cached.referenced) {
+                    cached.referenced = false;
+                } else {
+                    iterator.remove();
+                    evictions.increment();
+                    return;
+                }
+            }
+        }
+    }
+
+    SqlRoutePlan analyze(String sql) {
+        List<Token> tokens = SqlTokenizer.tokenize(sql);
+        String statement = statementType(tokens);
+        boolean insert = "insert".equals(statement) || "merge".equals(statement);
+        for (Token token : tokens) {
+            if (token.depth() == 0 && token.type() == Type.WORD && SET_OPERATIONS.contains(token.text())) {
+                return insert ? unroutable(sql) : SqlRoutePlan.scatter();
+            }
+        }
+        SqlRoutePlan plan = "insert".equals(statement) ? insertKey(tokens) : null;
+        if (plan == null) {
+            plan = whereKey(tokens);
+        }
+        if (plan != null) {
+            return plan;
+        }
+        return insert ? unroutable(sql) : SqlRoutePlan.scatter();
+    }
+
+    private static SqlRoutePlan unroutable(String sql) {
+        return SqlRoutePlan.unroutable("No shard key value in statement, it cannot run on every shard: " + sql);
+    }
+
+    /**
+     * First statement keyword, skipping the common table expressions of a WITH
+     */
+    private static String statementType(List<Token> tokens) {
+        boolean with = !tokens.isEmpty() && tokens.get(0).is("with");
+        for (Token token : tokens) {
+            if (token.depth() == 0 && token.type() == Type.WORD && (!with || STATEMENTS.contains(token.text()))) {
+                return token.text();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Key column value of a single-row {@code INSERT INTO t (columns) VALUES (values)}
+     * @return plan, unroutable for several rows, or null without a VALUES list holding the key
+     */
+    private SqlRoutePlan insertKey(List<Token> tokens) {
+        int open = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).depth() == 0 && tokens.get(i).isSymbol("(")) {
+                open = i;
+                break;
+            }
+        }
+        if (open < 0) {
+            return null;
+        }
+        int keyPosition = -1;
+        int position = 0;
+        int i = open + 1;
+        for (; i < tokens.size() && !tokens.get(i).isSymbol(")"); i++) {
+            Token token = tokens.get(i);
+            if (token.isSymbol(",")) {
+                position++;
+            } else if (token.isIdentifier() && keyColumns.contains(token.text())) {
+                keyPosition = position;
+            }
+        }
+        if (keyPosition < 0 || i + 1 >= tokens.size() || !tokens.get(i + 1).is("values")) {
+            return null;
+        }
+        SqlRoutePlan plan = null;
+        int rows = 0;
+        for (i += 2; i < tokens.size() && tokens.get(i).depth() == 0 && tokens.get(i).isSymbol("("); ) {
+            int start = i + 1;
+            int valuePosition = 0;
+            SqlRoutePlan rowPlan = null;
+            for (i = start; i < tokens.size() && tokens.get(i).depth() > 0; i++) {
+                Token token = tokens.get(i);
+                if (token.depth() != 1) {
+                    continue;
+                }
+                if (token.isSymbol(",")) {
+                    valuePosition++;
+                } else if (valuePosition == keyPosition && (i == start || tokens.get(i - 1).isSymbol(","))) {
+                    int end = valueEnd(tokens, i);
+                    if (end >= 0 && (end == tokens.size() || tokens.get(end).isSymbol(",")
+                            || tokens.get(end).isSymbol(")") && tokens.get(end).depth() == 0)) {
+                        rowPlan = valuePlan(tokens, i);
+                    }
+                }
+            }
+            rows++;
+            plan = rowPlan;
+            // Skip the closing parenthesis and the comma to the next row
+            i++;
+            if (i < tokens.size() && tokens.get(i).isSymbol(",")) {
+                i++;
+            }
+        }
+        if (rows > 1) {
+            return SqlRoutePlan.unroutable(
+                "Multi-row INSERT may span shards, use a batch update with a shard key extractor");
+        }
+        return plan;
+    }
+
+    /**
+     * Key equality in the top-level AND chain of the first top-level WHERE
+     */
+    private SqlRoutePlan whereKey(List<Token> tokens) {
+        int where = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).depth() == 0 && tokens.get(i).is("where")) {
+                where = i;
+                break;
+            }
+        }
+        if (where < 0) {
+            return null;
+        }
+        SqlRoutePlan plan = null;
+        for (int i = where + 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.depth() > 0) {
+                continue;
+            }
+            if (token.type() == Type.WORD && WHERE_END.contains(token.text()) || token.isSymbol(";")) {
+                break;
+            }
+            if (token.is("or")) {
+                return null;
+            }
+            if (plan != null || !isConjunctStart(tokens, i, where)) {
+                continue;
+            }
+            int column = columnEnd(tokens, i);
+            if (column > 0 && isKeyColumn(tokens, column) && column < tokens.size()
+                    && tokens.get(column).isSymbol("=")) {
+                // account_id = value
+                int end = valueEnd(tokens, column + 1);
+                if (end >= 0 && isConjunctEnd(tokens, end)) {
+                    plan = valuePlan(tokens, column + 1);
+                }
+            } else if (column < 0) {
+                // value = account_id
+                int end = valueEnd(tokens, i);
+                if (end >= 0 && end < tokens.size() && tokens.get(end).isSymbol("=")) {
+                    int reversed = columnEnd(tokens, end + 1);
+                    if (reversed > 0 && isKeyColumn(tokens, reversed) && isConjunctEnd(tokens, reversed)) {
+                        plan = valuePlan(tokens, i);
+                    }
+                }
+            }
+        }
+        return plan;
+    }
+
+    private static boolean isConjunctStart(List<Token> tokens, int index, int where) {
+        return index == where + 1 || tokens.get(index - 1).is("and") && !isBetweenBound(tokens, index - 1);
+    }
+
+    /**
+     * AND of {@code x BETWEEN a AND b} does not start a predicate
+     */
+    private static boolean isBetweenBound(List<Token> tokens, int and) {
+        for (int i = and - 1; i >= 0; i--) {
+            Token token = tokens.get(i);
+            if (token.depth() > 0) {
+                continue;
+            }
+            if (token.is("between")) {
+                return true;
+            }
+            if (token.is("and") || token.is("where") || token.is("or")) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConjunctEnd(List<Token> tokens, int index) {
+        if (index >= tokens.size()) {
+            return true;
+        }
+        Token token = tokens.get(index);
+        return token.depth() == 0 && (token.is("and") || token.isSymbol(";")
+            || token.type() == Type.WORD && WHERE_END.contains(token.text()));
+    }
+
+    /**
+     * @return index after a possibly qualified column name at index, or -1
+     */
+    private static int columnEnd(List<Token> tokens, int index) {
+        if (index >= tokens.size() || !tokens.get(index).isIdentifier()) {
+            return -1;
+        }
+        int end = index + 1;
+        while (end + 1 < tokens.size() && tokens.get(end).isSymbol(".") && tokens.get(end + 1).isIdentifier()) {
+            end += 2;
+        }
+        return end;
+    }
+
+    private boolean isKeyColumn(List<Token> tokens, int columnEnd) {
+        return keyColumns.contains(tokens.get(columnEnd - 1).text());
+    }
+
+    /**
+     * A parameter or integer literal, optionally negated and cast
+     * @return index after the value, or -1 if index holds another expression
+     */
+    private static int valueEnd(List<Token> tokens, int index) {
+        int i = index;
+        boolean negative = i < tokens.size() && tokens.get(i).isSymbol("-");
+        if (negative) {
+            i++;
+        }
+        if (i >= tokens.size()) {
+            return -1;
+        }
+        Token value = tokens.get(i++);
+        boolean integer = value.type() == Type.NUMBER && value.text().length() <= 18
+            && value.text().chars().allMatch(Character::isDigit);
+        if (!integer && (negative || value.type() != Type.PARAMETER)) {
+            return -1;
+        }
+        while (i + 1 < tokens.size() && tokens.get(i).isSymbol("::") && tokens.get(i + 1).isIdentifier()) {
+            i += 2;
+        }
+        return i;
+    }
+
+    private static SqlRoutePlan valuePlan(List<Token> tokens, int index) {
+        boolean negative = tokens.get(index).isSymbol("-");
+        Token value = tokens.get(negative ? index + 1 : index);
+        if (value.type() == Type.NUMBER) {
+            long key = Long.parseLong(value.text());
+            return SqlRoutePlan.literal(negative ? -key : key);
+        }
+        return value.parameterIndex() >= 0
+            ? SqlRoutePlan.parameter(value.parameterIndex())
+            : SqlRoutePlan.namedParameter(value.text());
+    }
+
+    /**
+     * Get plan cache metrics
+     * @return snapshot of the cache counters
+     */
+    public Stats getStats() {
+        return new Stats(plans.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private static final class CachedPlan {
+
+        private final SqlRoutePlan plan;
+        private volatile boolean referenced;
+
+        CachedPlan(SqlRoutePlan plan) {
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Plan cache statistics
+     * @param cachedPlans plans currently cached
+     * @param hits lookups answered from the cache
+     * @param misses lookups that parsed the statement
+     * @param evictions plans dropped to stay within the cache size
+     */
+    public record Stats(int cachedPlans, long hits, long misses, long evictions) {
+    }
+}
@@ -0,0 +1,217 @@
+package org.springframework.boot.starter.sharding.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal SQL lexer for shard routing
+ * Splits a statement into words, parameters, literals and symbols with their
+ * parenthesis depth. Comments, string literals, quoted identifiers and
+ * PostgreSQL dollar-quoted bodies are consumed whole, so a {@code ?} inside them
+ * is never counted as a parameter
+ */
+final class SqlTokenizer {
+
+    enum Type {
+        WORD, QUOTED, PARAMETER, NUMBER, STRING, SYMBOL
+    }
+
+    /**
+     * @param text word lowercased, quoted identifier unquoted, parameter name for named parameters
+     * @param depth parenthesis depth, parentheses themselves carry the outer depth
+     * @param parameterIndex 0-based positional index, -1 for named parameters and other tokens
+     */
+    record Token(Type type, String text, int depth, int parameterIndex) {
+
+        boolean is(String word) {
+            return type == Type.WORD && text.equals(word);
+        }
+
+        boolean isSymbol(String symbol) {
+            return type == Type.SYMBOL && text.equals(symbol);
+        }
+
+        boolean isIdentifier() {
+            return type == Type.WORD || type == Type.QUOTED;
+        }
+    }
+
+    private SqlTokenizer() {
+    }
+
+    static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int length = sql.length();
+        int depth = 0;
+        int nextParameter = 0;
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && next == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && next == '*') {
+                i = skipBlockComment(sql, i);
+            } else if (c == '\'') {
+                i = skipString(sql, i, false);
+                tokens.add(new Token(Type.STRING, "", depth, -1));
+            } else if ((c == 'e' || c == 'E') && next == '\'') {
+                i = skipString(sql, i + 1, true);
+                tokens.add(new Token(Type.STRING, "", depth, -1));
+            } else if (c == '"') {
+                StringBuilder name = new StringBuilder();
+                i++;
+                while (i < length) {
+                    char q = sql.charAt(i++);
+                    if (q == '"') {
+                        if (i < length && sql.charAt(i) == '"') {
+                            name.append('"');
+                            i++;
+                            continue;
+                        }
+                        break;
+                    }
+                    name.append(q);
+                }
+                tokens.add(new Token(Type.QUOTED, name.toString(), depth, -1));
+            } else if (c == '$' && dollarTagEnd(sql, i) > 0) {
+                int tagEnd = dollarTagEnd(sql, i);
+                String tag = sql.substring(i, tagEnd);
+                int close = sql.indexOf(tag, tagEnd);
+                i = close < 0 ? length : close + tag.length();
+                tokens.add(new Token(Type.STRING, "", depth, -1));
+            } else if (c == '?') {
+                if (next == '?') {
+                    // Escaped question mark operator, e.g. jsonb ??
+                    tokens.add(new Token(Type.SYMBOL, "??", depth, -1));
+                    i += 2;
+                } else if (Character.isDigit(next)) {
+                    // JPA ordinal parameter ?1
+                    int end = i + 1;
+                    while (end < length && Character.isDigit(sql.charAt(end))) {
+                        end++;
+                    }
+                    int ordinal = Integer.parseInt(sql.substring(i + 1, end));
+                    tokens.add(new Token(Type.PARAMETER, "?", depth, ordinal - 1));
+                    i = end;
+                } else {
+                    tokens.add(new Token(Type.PARAMETER, "?", depth, nextParameter++));
+                    i++;
+                }
+            } else if (c == ':') {
+                if (next == ':') {
+                    tokens.add(new Token(Type.SYMBOL, "::", depth, -1));
+                    i += 2;
+                } else if (Character.isLetter(next) || next == '_') {
+                    int end = identifierEnd(sql, i + 1);
+                    tokens.add(new Token(Type.PARAMETER, sql.substring(i + 1, end), depth, -1));
+                    i = end;
+                } else {
+                    tokens.add(new Token(Type.SYMBOL, ":", depth, -1));
+                    i++;
+                }
+            } else if (Character.isDigit(c) || c == '.' && Character.isDigit(next)) {
+                int end = i;
+                while (end < length && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new Token(Type.NUMBER, sql.substring(i, end), depth, -1));
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = identifierEnd(sql, i);
+                tokens.add(new Token(Type.WORD, sql.substring(i, end).toLowerCase(Locale.ROOT), depth, -1));
+                i = end;
+            } else if (c == '(') {
+                tokens.add(new Token(Type.SYMBOL, "(", depth++, -1));
+                i++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+                tokens.add(new Token(Type.SYMBOL, ")", depth, -1));
+                i++;
+            } else {
+                String pair = sql.substring(i, Math.min(length, i + 2));
+                boolean twoChars = pair.equals("<=") || pair.equals(">=") || pair.equals("<>")
+                    || pair.equals("!=") || pair.equals("||");
+                tokens.add(new Token(Type.SYMBOL, twoChars ? pair : String.valueOf(c), depth, -1));
+                i += twoChars ? 2 : 1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int identifierEnd(String sql, int start) {
+        int end = start;
+        while (end < sql.length()) {
+            char c = sql.charAt(end);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '$') {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * PostgreSQL nests block comments
+     */
+    private static int skipBlockComment(String sql, int start) {
+        int level = 0;
+        int i = start;
+        while (i < sql.length() - 1) {
+            if (sql.startsWith("/*", i)) {
+                level++;
+                i += 2;
+            } else if (sql.startsWith("*/", i)) {
+                i += 2;
+                if (--level == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private static int skipString(String sql, int quote, boolean backslashEscapes) {
+        int i = quote + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i++);
+            if (backslashEscapes && c == '\\') {
+                i++;
+            } else if (c == '\'') {
+                if (i < sql.length() && sql.charAt(i) == '\'') {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return sql.length();
+    }
+
+    /**
+     * @return index after the opening $tag$ of a dollar-quoted string, or -1 for e.g. a $1 parameter
+     */
+    private static int dollarTagEnd(String sql, int start) {
+        int i = start + 1;
+        if (i < sql.length() && Character.isDigit(sql.charAt(i))) {
+            return -1;
+        }
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '$') {
+                return i + 1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,82 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(2).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+        new AdaptiveConcurrencyLimiter.Config(4, 1, 20, 0.5, 1.5, 0, Duration.ZERO));
+
+    @Test
+    void shouldRejectBeyondLimitWithoutQueue() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(4, limiter.getStats().inflight());
+        assertEquals(1, limiter.getStats().rejected());
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsStableUnderLoad() {
+        for (int round = 0; round < 50; round++) {
+            saturate(FAST);
+        }
+
+        assertTrue(limiter.getStats().limit() > 4);
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        for (int round = 0; round < 50; round++) {
+            saturate(FAST);
+        }
+        int grown = limiter.getStats().limit();
+
+        for (int round = 0; round < 10; round++) {
+            saturate(SLOW);
+        }
+
+        assertTrue(limiter.getStats().limit() < grown);
+    }
+
+    @Test
+    void shouldBackOffOnDroppedCalls() {
+        assertTrue(limiter.tryAcquire());
+        limiter.onComplete(FAST, true);
+
+        assertEquals(2, limiter.getStats().limit());
+        assertEquals(1, limiter.getStats().dropped());
+    }
+
+    @Test
+    void shouldNotGrowWhenLimitIsUnused() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onComplete(FAST, false);
+        }
+
+        assertEquals(4, limiter.getStats().limit());
+    }
+
+    private void saturate(long rtt) {
+        int slots = 0;
+        while (limiter.tryAcquire()) {
+            slots++;
+        }
+        for (int i = 0; i < slots; i++) {
+            limiter.onComplete(rtt, false);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(
+        new CircuitBreaker.Config(10, 4, 50, 80, Duration.ofMillis(100), Duration.ofSeconds(5), 2),
+        clock::get);
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        record(3, true, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldOpenOnFailureRateAndRejectCalls() {
+        record(2, false, false);
+        record(2, true, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getStats().rejected());
+    }
+
+    @Test
+    void shouldOpenOnSlowCallRate() {
+        record(4, false, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void shouldCloseAfterHealthyProbes() {
+        record(4, true, false);
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onComplete(false, false);
+        breaker.onComplete(false, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldReopenAfterFailedProbe() {
+        record(4, true, false);
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        record(2, true, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldClassifySlowCalls() {
+        assertTrue(breaker.isSlow(Duration.ofMillis(100).toNanos()));
+        assertFalse(breaker.isSlow(Duration.ofMillis(99).toNanos()));
+    }
+
+    private void record(int calls, boolean failure, boolean slow) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onComplete(failure, slow);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyTracker
+ */
+class LatencyTrackerTest {
+
+    @Test
+    void shouldReportNothingUntilEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(100, 95);
+        for (int i = 0; i < 10; i++) {
+            tracker.record(1_000);
+        }
+
+        assertEquals(-1, tracker.getPercentile());
+    }
+
+    @Test
+    void shouldTrackPercentileOfWindow() {
+        LatencyTracker p95 = new LatencyTracker(320, 95);
+        LatencyTracker p99 = new LatencyTracker(320, 99);
+        // One slow sample in twenty
+        for (int i = 0; i < 320; i++) {
+            long latency = i % 20 == 19 ? 1000 : 10;
+            p95.record(latency);
+            p99.record(latency);
+        }
+
+        assertEquals(10, p95.getPercentile());
+        assertEquals(1000, p99.getPercentile());
+    }
+
+    @Test
+    void shouldForgetSamplesOutsideWindow() {
+        LatencyTracker tracker = new LatencyTracker(32, 50);
+        for (int i = 0; i < 32; i++) {
+            tracker.record(1_000_000);
+        }
+        for (int i = 0; i < 32; i++) {
+            tracker.record(10);
+        }
+
+        assertEquals(10, tracker.getPercentile());
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyTracker(5, 95));
+        assertThrows(IllegalArgumentException.class, () -> new LatencyTracker(100, 0));
+    }
+}
@@ -0,0 +1,103 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PoolSizeController
+ */
+class PoolSizeControllerTest {
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    private final PoolSizeController controller = new PoolSizeController(2, 40, 100, Duration.ofMillis(10));
+
+    private static PoolSizeController.PoolLoad load(String pool, String host, int size, int active, int pending,
+                                                    long acquireNanos) {
+        return new PoolSizeController.PoolLoad(pool, host, size, active, pending, acquireNanos);
+    }
+
+    @Test
+    void shouldGrowPoolWithWaitersOrSlowAcquisition() {
+        Map<String, Integer> sizes = controller.resize(List.of(
+            load("shard-0", "db-0", 10, 10, 6, SLOW),
+            load("shard-1", "db-1", 10, 10, 0, SLOW)));
+
+        assertEquals(16, sizes.get("shard-0"));
+        assertEquals(11, sizes.get("shard-1"));
+    }
+
+    @Test
+    void shouldShrinkIdlePoolGradually() {
+        Map<String, Integer> sizes = controller.resize(List.of(
+            load("shard-0", "db-0", 20, 2, 0, FAST),
+            load("shard-1", "db-1", 20, 15, 0, FAST)));
+
+        assertEquals(11, sizes.get("shard-0"));
+        assertEquals(20, sizes.get("shard-1"));
+    }
+
+    @Test
+    void shouldStayWithinFloorAndCeiling() {
+        Map<String, Integer> sizes = controller.resize(List.of(
+            load("shard-0", "db-0", 3, 0, 0, FAST),
+            load("shard-1", "db-1", 38, 38, 30, SLOW)));
+
+        assertEquals(2, sizes.get("shard-0"));
+        assertEquals(40, sizes.get("shard-1"));
+    }
+
+    @Test
+    void shouldShareHostBudgetByDemand() {
+        Map<String, Integer> sizes = controller.resize(List.of(
+            load("shard-0", "db-0", 30, 30, 30, SLOW),
+            load("shard-1", "db-0", 30, 30, 10, SLOW),
+            load("shard-2", "db-0", 30, 30, 10, SLOW),
+            load("shard-3", "db-1", 30, 30, 10, SLOW)));
+
+        int hostTotal = sizes.get("shard-0") + sizes.get("shard-1") + sizes.get("shard-2");
+        assertEquals(100, hostTotal);
+        assertTrue(sizes.get("shard-0") > sizes.get("shard-1"));
+        // Another host has its own budget
+        assertEquals(40, sizes.get("shard-3"));
+    }
+
+    @Test
+    void shouldScaleFloorsDownWhenHostBudgetCannotHoldThem() {
+        PoolSizeController tight = new PoolSizeController(10, 40, 25, Duration.ofMillis(10));
+
+        Map<String, Integer> sizes = tight.resize(List.of(
+            load("shard-0", "db-0", 10, 10, 5, SLOW),
+            load("shard-1", "db-0", 10, 0, 0, FAST),
+            load("shard-2", "db-0", 10, 0, 0, FAST)));
+
+        assertEquals(9, sizes.get("shard-0"));
+        assertEquals(8, sizes.get("shard-1"));
+        assertEquals(8, sizes.get("shard-2"));
+    }
+
+    @Test
+    void shouldKeepOneConnectionPerPoolWhenHostHasMorePoolsThanBudget() {
+        PoolSizeController tight = new PoolSizeController(2, 40, 2, Duration.ofMillis(10));
+
+        Map<String, Integer> sizes = tight.resize(List.of(
+            load("shard-0", "db-0", 2, 2, 4, SLOW),
+            load("shard-1", "db-0", 2, 0, 0, FAST),
+            load("shard-2", "db-0", 2, 0, 0, FAST)));
+
+        assertEquals(Map.of("shard-0", 1, "shard-1", 1, "shard-2", 1), sizes);
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new PoolSizeController(0, 10, 100, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new PoolSizeController(5, 4, 100, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new PoolSizeController(5, 10, 4, Duration.ZERO));
+    }
+}
@@ -0,0 +1,76 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for ReplicaLagTracker and ConsistencyToken
+ */
+class ReplicaLagTrackerTest {
+
+    private final Shard shard = Shard.of("shard-0", 0, mock(DataSource.class),
+        List.of(mock(DataSource.class), mock(DataSource.class)));
+
+    @Test
+    void shouldOnlyUseReplicasThatReplayedToken() {
+        ReplicaLagTracker tracker = new ReplicaLagTracker(null);
+        tracker.record(shard, 0, 100, Duration.ZERO);
+        tracker.record(shard, 1, 250, Duration.ZERO);
+
+        assertFalse(tracker.isCaughtUp(shard, 0, 200));
+        assertTrue(tracker.isCaughtUp(shard, 1, 200));
+        assertTrue(tracker.isCaughtUp(shard, 0, 0));
+    }
+
+    @Test
+    void shouldSkipReplicasNotPolledOrFailing() {
+        ReplicaLagTracker tracker = new ReplicaLagTracker(null);
+        assertFalse(tracker.isCaughtUp(shard, 0, 0));
+
+        tracker.record(shard, 0, 100, Duration.ZERO);
+        tracker.recordFailure(shard, 0);
+
+        assertFalse(tracker.isCaughtUp(shard, 0, 0));
+        assertNull(tracker.getLag(shard, 0));
+    }
+
+    @Test
+    void shouldSkipReplicasBeyondMaxLag() {
+        ReplicaLagTracker tracker = new ReplicaLagTracker(Duration.ofSeconds(5));
+        tracker.record(shard, 0, 100, Duration.ofSeconds(30));
+        tracker.record(shard, 1, 100, Duration.ofMillis(200));
+
+        assertFalse(tracker.isCaughtUp(shard, 0, 0));
+        assertTrue(tracker.isCaughtUp(shard, 1, 0));
+    }
+
+    @Test
+    void shouldSelectOnlyEligibleReplicas() {
+        RoundRobinReplicaLoadBalancer balancer = new RoundRobinReplicaLoadBalancer();
+
+        assertEquals(1, balancer.select(shard, replicaIndex -> replicaIndex == 1));
+        assertEquals(1, balancer.select(shard, replicaIndex -> replicaIndex == 1));
+        assertEquals(-1, balancer.select(shard, replicaIndex -> false));
+    }
+
+    @Test
+    void shouldRoundTripTokenInLsnNotation() {
+        ConsistencyToken token = new ConsistencyToken(2, ConsistencyToken.parseLsn("16/B374D848"));
+
+        assertEquals("2:16/B374D848", token.encode());
+        assertEquals(token, ConsistencyToken.decode(token.encode()));
+        assertEquals(0x16B374D848L, token.position());
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.decode("garbage"));
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.decode("1:XYZ"));
+    }
+}
@@ -0,0 +1,49 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for replica load balancers
+ */
+class ReplicaLoadBalancerTest {
+
+    private final Shard shard = Shard.of("shard-0", 0, mock(DataSource.class),
+        List.of(mock(DataSource.class), mock(DataSource.class), mock(DataSource.class)));
+
+    @Test
+    void shouldRotateReplicasRoundRobin() {
+        RoundRobinReplicaLoadBalancer balancer = new RoundRobinReplicaLoadBalancer();
+
+        assertEquals(0, balancer.select(shard));
+        assertEquals(1, balancer.select(shard));
+        assertEquals(2, balancer.select(shard));
+        assertEquals(0, balancer.select(shard));
+    }
+
+    @Test
+    void shouldPreferReplicaWithFewestOutstandingConnections() {
+        LeastOutstandingReplicaLoadBalancer balancer = new LeastOutstandingReplicaLoadBalancer();
+
+        int first = balancer.select(shard);
+        int second = balancer.select(shard);
+        int third = balancer.select(shard);
+
+        assertEquals(3, List.of(first, second, third).stream().distinct().count());
+
+        balancer.release(shard, second);
+        assertEquals(second, balancer.select(shard));
+        assertEquals(1, balancer.getOutstanding(shard, second));
+    }
+
+    @Test
+    void shouldTreatMissingReplicaListAsNoReplicas() {
+        assertFalse(Shard.of("shard-1", 1, mock(DataSource.class)).hasReplicas());
+        assertTrue(shard.hasReplicas());
+    }
+}
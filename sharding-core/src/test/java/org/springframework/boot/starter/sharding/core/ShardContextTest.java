@@ -111,4 +111,23 @@ class ShardContextTest {
         ShardContext.set(333L);
         assertEquals(333L, ShardContext.get());
     }
+    
+    @Test
+    void shouldRestorePreviousWorkloadAfterScope() {
+        assertNull(ShardContext.getWorkload());
+        
+        String inner = ShardContext.executeWithWorkload("batch", () ->
+            ShardContext.executeWithWorkload("reporting", ShardContext::getWorkload));
+        assertEquals("reporting", inner);
+        assertNull(ShardContext.getWorkload());
+        
+        ShardContext.setWorkload("batch");
+        assertThrows(IllegalStateException.class, () -> ShardContext.executeWithWorkload("reporting", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("batch", ShardContext.getWorkload());
+        
+        ShardContext.setWorkload(null);
+        assertNull(ShardContext.getWorkload());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardCursor
+ */
+class ShardCursorTest {
+
+    @Test
+    void shouldStartWithoutPositions() {
+        ShardCursor cursor = ShardCursor.decode(null);
+
+        assertNull(cursor.position(0));
+        assertFalse(cursor.isExhausted(0));
+    }
+
+    @Test
+    void shouldRoundTripPositionsPerShard() {
+        Timestamp timestamp = Timestamp.valueOf("2026-01-15 10:30:00.123456789");
+        Map<String, Object> shard0 = new LinkedHashMap<>();
+        shard0.put("created_at", timestamp);
+        shard0.put("transaction_id", 42L);
+        Map<String, Object> shard2 = new LinkedHashMap<>();
+        shard2.put("createdAt", LocalDateTime.of(2026, 1, 15, 9, 0));
+        shard2.put("amount", new BigDecimal("10.50"));
+
+        ShardCursor cursor = ShardCursor.start();
+        cursor.advance(0, shard0);
+        cursor.exhaust(1);
+        cursor.advance(2, shard2);
+
+        ShardCursor decoded = ShardCursor.decode(cursor.encode());
+
+        assertEquals(shard0, decoded.position(0));
+        assertTrue(decoded.isExhausted(1));
+        assertNull(decoded.position(1));
+        assertEquals(shard2, decoded.position(2));
+        assertFalse(decoded.isExhausted(2));
+    }
+
+    @Test
+    void shouldPreserveKeyOrder() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("b", "x");
+        keys.put("a", 1L);
+
+        ShardCursor cursor = ShardCursor.start();
+        cursor.advance(0, keys);
+
+        assertEquals("b", ShardCursor.decode(cursor.encode()).position(0).keySet().iterator().next());
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> ShardCursor.decode("not-a-token"));
+    }
+
+    @Test
+    void shouldRejectUnsupportedKeyType() {
+        ShardCursor cursor = ShardCursor.start();
+        cursor.advance(0, Map.of("key", new Object()));
+
+        assertThrows(IllegalArgumentException.class, cursor::encode);
+    }
+}
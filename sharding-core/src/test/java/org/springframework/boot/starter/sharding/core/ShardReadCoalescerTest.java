@@ -0,0 +1,166 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardReadCoalescer
+ */
+class ShardReadCoalescerTest {
+
+    private static final String BALANCE = "SELECT balance FROM accounts WHERE account_id = ?";
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Query that blocks until released, so callers pile up behind it
+     */
+    private Supplier<BigDecimal> blockingQuery(BigDecimal value) {
+        return () -> {
+            queries.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+    }
+
+    private CompletableFuture<BigDecimal> read(ExecutorService executor, ShardReadCoalescer coalescer,
+                                               long accountId, Supplier<BigDecimal> query) {
+        return CompletableFuture.supplyAsync(() ->
+            coalescer.execute(accountId, BALANCE, BigDecimal.class, new Object[]{accountId}, query), executor);
+    }
+
+    private void awaitWaiters(ShardReadCoalescer coalescer, long waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getStats().coalesced() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void shouldShareOneExecutionBetweenIdenticalReads() throws Exception {
+        ShardReadCoalescer coalescer = new ShardReadCoalescer(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<BigDecimal>> reads = new ArrayList<>();
+            reads.add(read(executor, coalescer, 7, blockingQuery(BigDecimal.TEN)));
+            started.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                reads.add(read(executor, coalescer, 7, blockingQuery(BigDecimal.ONE)));
+            }
+            awaitWaiters(coalescer, 7);
+            release.countDown();
+
+            for (CompletableFuture<BigDecimal> read : reads) {
+                assertEquals(BigDecimal.TEN, read.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, queries.get());
+            assertEquals(7, coalescer.getStats().coalesced());
+            assertEquals(0, coalescer.getStats().inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRunDistinctReadsSeparately() {
+        ShardReadCoalescer coalescer = new ShardReadCoalescer(100);
+
+        assertEquals(BigDecimal.ONE, coalescer.execute(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> BigDecimal.ONE));
+        assertEquals(BigDecimal.TEN, coalescer.execute(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> BigDecimal.TEN));
+        assertEquals("8", coalescer.execute(8, BALANCE, String.class, new Object[]{8L}, () -> "8"));
+
+        assertEquals(3, coalescer.getStats().executions());
+        assertEquals(0, coalescer.getStats().coalesced());
+    }
+
+    @Test
+    void shouldNotJoinReadStartedBeforeInvalidation() throws Exception {
+        ShardReadCoalescer coalescer = new ShardReadCoalescer(100);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<BigDecimal> before = read(executor, coalescer, 7, blockingQuery(BigDecimal.ONE));
+            started.await(5, TimeUnit.SECONDS);
+
+            // A write completes while the first read is running
+            coalescer.invalidate(7);
+            BigDecimal after = coalescer.execute(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> BigDecimal.TEN);
+            release.countDown();
+
+            assertEquals(BigDecimal.TEN, after);
+            assertEquals(BigDecimal.ONE, before.get(5, TimeUnit.SECONDS));
+            assertEquals(0, coalescer.getStats().coalesced());
+            assertEquals(0, coalescer.getStats().inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateFailureToWaiters() throws Exception {
+        ShardReadCoalescer coalescer = new ShardReadCoalescer(100);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Supplier<BigDecimal> failing = () -> {
+                blockingQuery(BigDecimal.ONE).get();
+                throw new IllegalStateException("database down");
+            };
+            CompletableFuture<BigDecimal> leader = read(executor, coalescer, 7, failing);
+            started.await(5, TimeUnit.SECONDS);
+            CompletableFuture<BigDecimal> waiter = read(executor, coalescer, 7, blockingQuery(BigDecimal.TEN));
+            awaitWaiters(coalescer, 1);
+            release.countDown();
+
+            for (CompletableFuture<BigDecimal> read : List.of(leader, waiter)) {
+                Exception e = assertThrows(Exception.class, () -> read.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+            assertEquals(BigDecimal.ONE,
+                coalescer.execute(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> BigDecimal.ONE));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldBypassWhenInFlightTableIsFull() throws Exception {
+        ShardReadCoalescer coalescer = new ShardReadCoalescer(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<BigDecimal> running = read(executor, coalescer, 7, blockingQuery(BigDecimal.ONE));
+            started.await(5, TimeUnit.SECONDS);
+
+            assertEquals(BigDecimal.TEN,
+                coalescer.execute(8, BALANCE, BigDecimal.class, new Object[]{8L}, () -> BigDecimal.TEN));
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, coalescer.getStats().bypassed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardReadCoalescer(0));
+    }
+}
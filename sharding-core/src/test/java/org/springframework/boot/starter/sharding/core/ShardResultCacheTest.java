@@ -0,0 +1,129 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardResultCache
+ */
+class ShardResultCacheTest {
+
+    private static final String BALANCE = "SELECT balance FROM accounts WHERE account_id = ?";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ShardResultCache cache(int maxEntries) {
+        return new ShardResultCache(maxEntries, Duration.ofSeconds(10), clock::get);
+    }
+
+    private BigDecimal balance(ShardResultCache cache, long accountId) {
+        return cache.get(accountId, BALANCE, BigDecimal.class, new Object[]{accountId}, () -> {
+            loads.incrementAndGet();
+            return BigDecimal.valueOf(accountId);
+        });
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        ShardResultCache cache = cache(100);
+
+        assertEquals(BigDecimal.valueOf(7), balance(cache, 7));
+        assertEquals(BigDecimal.valueOf(7), balance(cache, 7));
+        assertEquals(BigDecimal.valueOf(8), balance(cache, 8));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().hits());
+        assertEquals(2, cache.getStats().misses());
+    }
+
+    @Test
+    void shouldKeyEntriesByParametersAndShape() {
+        ShardResultCache cache = cache(100);
+        cache.get(1, BALANCE, BigDecimal.class, new Object[]{1L}, () -> BigDecimal.ONE);
+
+        assertEquals("other", cache.get(1, BALANCE, String.class, new Object[]{1L}, () -> "other"));
+        assertEquals(BigDecimal.TEN, cache.get(1, BALANCE, BigDecimal.class, new Object[]{2L}, () -> BigDecimal.TEN));
+        assertEquals(BigDecimal.ONE, cache.get(1, BALANCE, BigDecimal.class, new Object[]{1L}, () -> BigDecimal.ZERO));
+    }
+
+    @Test
+    void shouldInvalidateAllEntriesOfKey() {
+        ShardResultCache cache = cache(100);
+        balance(cache, 7);
+        balance(cache, 8);
+
+        cache.invalidate(7);
+        balance(cache, 7);
+        balance(cache, 8);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getStats().invalidations());
+    }
+
+    @Test
+    void shouldNotServeResultLoadedDuringInvalidation() {
+        ShardResultCache cache = cache(100);
+
+        // A write commits and invalidates while the read is still running
+        cache.get(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> {
+            cache.invalidate(7);
+            return BigDecimal.ONE;
+        });
+
+        assertEquals(BigDecimal.TEN, cache.get(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> BigDecimal.TEN));
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        ShardResultCache cache = cache(100);
+        balance(cache, 7);
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        balance(cache, 7);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldStayBoundedAndKeepHotEntries() {
+        ShardResultCache cache = cache(8);
+        balance(cache, 1);
+        for (long accountId = 100; accountId < 200; accountId++) {
+            balance(cache, 1);
+            balance(cache, accountId);
+        }
+        int loadsBefore = loads.get();
+
+        balance(cache, 1);
+
+        assertTrue(cache.getStats().entries() <= 8);
+        assertTrue(cache.getStats().evictions() > 0);
+        assertEquals(loadsBefore, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheFailedLoads() {
+        ShardResultCache cache = cache(100);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(7, BALANCE, BigDecimal.class, new Object[]{7L}, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        balance(cache, 7);
+
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.getStats().hits());
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardResultCache(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new ShardResultCache(10, Duration.ZERO));
+    }
+}
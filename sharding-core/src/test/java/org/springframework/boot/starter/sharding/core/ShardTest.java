@@ -0,0 +1,43 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for Shard workload pool selection
+ */
+class ShardTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource batch = mock(DataSource.class);
+    private final Shard shard = Shard.of("shard-0", 0, primary, List.of(), Map.of("batch", batch));
+
+    @Test
+    void shouldUseMainPoolForDefaultWorkload() {
+        assertSame(primary, shard.dataSource(null));
+        assertSame(primary, shard.dataSource(Shard.DEFAULT_WORKLOAD));
+    }
+
+    @Test
+    void shouldUseWorkloadPool() {
+        assertSame(batch, shard.dataSource("batch"));
+    }
+
+    @Test
+    void shouldRejectUnknownWorkload() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> shard.dataSource("reporting"));
+        assertTrue(e.getMessage().contains("reporting"));
+    }
+
+    @Test
+    void shouldRejectPoolForDefaultWorkload() {
+        assertThrows(IllegalArgumentException.class,
+            () -> Shard.of("shard-1", 1, primary, List.of(), Map.of(Shard.DEFAULT_WORKLOAD, batch)));
+    }
+}
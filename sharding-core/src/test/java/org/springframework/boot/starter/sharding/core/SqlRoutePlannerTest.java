@@ -0,0 +1,136 @@
+package org.springframework.boot.starter.sharding.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SqlRoutePlanner
+ */
+class SqlRoutePlannerTest {
+
+    private final SqlRoutePlanner planner = new SqlRoutePlanner(List.of("account_id"), 100);
+
+    @Test
+    void shouldRouteByKeyParameterInWhereClause() {
+        SqlRoutePlan plan = planner.plan(
+            "SELECT * FROM transactions WHERE status = ? AND account_id = ? ORDER BY created_at DESC LIMIT ?");
+
+        assertEquals(SqlRoutePlan.Type.KEY_PARAMETER, plan.getType());
+        assertEquals(1, plan.getParameterIndex());
+        assertEquals(42L, plan.shardKey(new Object[]{"COMPLETED", 42L, 10}));
+    }
+
+    @Test
+    void shouldRouteUpdatesAndQualifiedOrReversedPredicates() {
+        assertEquals(1, planner.plan(
+            "UPDATE accounts SET balance = balance - ? WHERE account_id = ?").getParameterIndex());
+        assertEquals(0, planner.plan(
+            "SELECT t.amount FROM transactions t WHERE ? = t.account_id").getParameterIndex());
+        assertEquals(0, planner.plan(
+            "DELETE FROM transactions WHERE account_id = ?::bigint AND created_at < ?").getParameterIndex());
+        assertEquals(2, planner.plan(
+            "SELECT * FROM transactions WHERE amount BETWEEN ? AND ? AND account_id = ?").getParameterIndex());
+    }
+
+    @Test
+    void shouldRouteByLiteralKey() {
+        SqlRoutePlan plan = planner.plan("SELECT balance FROM accounts WHERE account_id = -17");
+
+        assertEquals(SqlRoutePlan.Type.KEY_LITERAL, plan.getType());
+        assertEquals(-17L, plan.shardKey(new Object[0]));
+    }
+
+    @Test
+    void shouldIgnorePlaceholdersInLiteralsAndComments() {
+        SqlRoutePlan plan = planner.plan("""
+            SELECT '?' AS mark, $$ account_id = ? $$ AS body, "what?" FROM transactions
+            -- account_id = ?
+            WHERE /* account_id = ? */ description = 'it''s ?' AND account_id = ?
+            """);
+
+        assertEquals(0, plan.getParameterIndex());
+    }
+
+    @Test
+    void shouldRouteInsertByKeyColumnValue() {
+        SqlRoutePlan parameter = planner.plan(
+            "INSERT INTO transactions (amount, account_id, status) VALUES (?, ?, 'PENDING')");
+        SqlRoutePlan literal = planner.plan("INSERT INTO accounts (account_id, balance) VALUES (7, ?)");
+
+        assertEquals(1, parameter.getParameterIndex());
+        assertEquals(7L, literal.shardKey(new Object[]{1}));
+    }
+
+    @Test
+    void shouldScatterWithoutTopLevelKeyPredicate() {
+        assertTrue(planner.plan("SELECT count(*) FROM accounts").isScatter());
+        assertTrue(planner.plan("SELECT * FROM accounts WHERE account_id = ? OR balance > ?").isScatter());
+        assertTrue(planner.plan("SELECT * FROM accounts WHERE (account_id = ?)").isScatter());
+        assertTrue(planner.plan(
+            "SELECT * FROM transactions WHERE id IN (SELECT id FROM audit WHERE account_id = ?)").isScatter());
+        assertTrue(planner.plan("SELECT * FROM accounts WHERE account_id = ? + 1").isScatter());
+        assertTrue(planner.plan(
+            "SELECT id FROM accounts WHERE account_id = ? UNION SELECT id FROM archive").isScatter());
+        assertNull(planner.plan("UPDATE accounts SET status = ?").shardKey(new Object[]{"CLOSED"}));
+    }
+
+    @Test
+    void shouldRejectInsertsWithoutSingleKey() {
+        SqlRoutePlan noKey = planner.plan("INSERT INTO audit (message) VALUES (?)");
+        SqlRoutePlan multiRow = planner.plan("INSERT INTO accounts (account_id, balance) VALUES (?, ?), (?, ?)");
+
+        assertEquals(SqlRoutePlan.Type.UNROUTABLE, noKey.getType());
+        assertThrows(IllegalArgumentException.class, () -> noKey.shardKey(new Object[]{"x"}));
+        assertThrows(IllegalArgumentException.class, () -> multiRow.shardKey(new Object[]{1, 2, 3, 4}));
+    }
+
+    @Test
+    void shouldResolveNamedAndOrdinalParameters() {
+        SqlRoutePlan named = planner.plan("SELECT * FROM accounts a WHERE a.account_id = :accountId");
+        SqlRoutePlan ordinal = planner.plan("SELECT * FROM accounts WHERE balance > ?1 AND account_id = ?2");
+
+        assertEquals("accountId", named.getParameterName());
+        assertEquals(5L, named.shardKey(Map.of("accountId", 5)));
+        assertEquals(9L, ordinal.shardKey(new Object[]{0, "9"}));
+        assertThrows(IllegalArgumentException.class, () -> named.shardKey(new Object[]{5}));
+    }
+
+    @Test
+    void shouldCachePlansPerStatement() {
+        String sql = "SELECT balance FROM accounts WHERE account_id = ?";
+
+        SqlRoutePlan first = planner.plan(sql);
+        SqlRoutePlan second = planner.plan(sql);
+
+        assertSame(first, second);
+        assertEquals(1, planner.getStats().hits());
+        assertEquals(1, planner.getStats().misses());
+    }
+
+    @Test
+    void shouldKeepHotPlansWhenCacheIsFull() {
+        SqlRoutePlanner bounded = new SqlRoutePlanner(List.of("account_id"), 4);
+        String hot = "SELECT balance FROM accounts WHERE account_id = ?";
+        bounded.plan(hot);
+        for (int i = 0; i < 50; i++) {
+            bounded.plan(hot);
+            bounded.plan("SELECT balance FROM accounts WHERE account_id = " + i);
+        }
+
+        assertTrue(bounded.getStats().cachedPlans() <= 4);
+        assertTrue(bounded.getStats().evictions() > 0);
+        long hits = bounded.getStats().hits();
+        bounded.plan(hot);
+        assertEquals(hits + 1, bounded.getStats().hits());
+    }
+
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new SqlRoutePlanner(List.of(), 10));
+        assertThrows(IllegalArgumentException.class, () -> new SqlRoutePlanner(List.of("account_id"), 0));
+    }
+}
@@ -0,0 +1,309 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * CompletableFuture API over ShardJdbcTemplate
+ * Each call runs as its own task on the executor, with the shard context bound
+ * inside the task and restored when it ends, so nothing leaks between tasks sharing
+ * a pooled thread. Running calls are capped per shard, usually at the shard's pool
+ * size; excess calls queue here without occupying a thread, so a burst cannot pile
+ * up threads blocked on the connection pool. Calls run outside the caller's
+ * transaction and shard session
+ */
+public class AsyncShardJdbcTemplate {
+
+    private final ShardJdbcTemplate shardJdbc;
+    private final Executor executor;
+    private final IntUnaryOperator maxConcurrency;
+    private final Map<Integer, ShardLane> lanes;
+    private final LongAdder submitted;
+    private final LongAdder queued;
+    private final LongAdder completed;
+
+    /**
+     * @param shardJdbc template executing the calls
+     * @param maxConcurrencyPerShard running calls allowed per shard
+     */
+    public AsyncShardJdbcTemplate(ShardJdbcTemplate shardJdbc, int maxConcurrencyPerShard) {
+        this(shardJdbc, defaultExecutor(), shardIndex -> maxConcurrencyPerShard);
+    }
+
+    /**
+     * @param shardJdbc template executing the calls
+     * @param executor executor running one task per call
+     * @param maxConcurrency shard index -> running calls allowed on that shard, read on every call
+     * so the limit can follow a pool resized at runtime
+     */
+    public AsyncShardJdbcTemplate(ShardJdbcTemplate shardJdbc, Executor executor, IntUnaryOperator maxConcurrency) {
+        this.shardJdbc = shardJdbc;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.lanes = new ConcurrentHashMap<>();
+        this.submitted = new LongAdder();
+        this.queued = new LongAdder();
+        this.completed = new LongAdder();
+    }
+
+    private AsyncShardJdbcTemplate(AsyncShardJdbcTemplate primary, ShardJdbcTemplate shardJdbc) {
+        this.shardJdbc = shardJdbc;
+        this.executor = primary.executor;
+        this.maxConcurrency = primary.maxConcurrency;
+        this.lanes = primary.lanes;
+        this.submitted = primary.submitted;
+        this.queued = primary.queued;
+        this.completed = primary.completed;
+    }
+
+    /**
+     * Thread per task: virtual threads on Java 21+, daemon platform threads before.
+     * Either way the number of running tasks is bounded by the shard limits
+     */
+    public static Executor defaultExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("shard-async-");
+        executor.setDaemon(true);
+        try {
+            executor.setVirtualThreads(true);
+        } catch (UnsupportedOperationException e) {
+            // Virtual threads need Java 21
+        }
+        return executor;
+    }
+
+    /**
+     * Get view whose calls are read-only work, see {@link ShardJdbcTemplate#readOnly()}
+     * Shares the per-shard limits with this template
+     */
+    public AsyncShardJdbcTemplate readOnly() {
+        return new AsyncShardJdbcTemplate(this, shardJdbc.readOnly());
+    }
+
+    /**
+     * Get view whose calls use a workload class's pools, see {@link ShardJdbcTemplate#workload(String)}
+     * Shares the per-shard limits with this template
+     */
+    public AsyncShardJdbcTemplate workload(String workload) {
+        return new AsyncShardJdbcTemplate(this, shardJdbc.workload(workload));
+    }
+
+    public CompletableFuture<Integer> update(long shardKey, String sql, Object... args) {
+        return submit(shardKey, template -> template.update(shardKey, sql, args));
+    }
+
+    public <T> CompletableFuture<T> queryForObject(long shardKey, String sql, Class<T> requiredType, Object... args) {
+        return submit(shardKey, template -> template.queryForObject(shardKey, sql, requiredType, args));
+    }
+
+    public <T> CompletableFuture<T> queryForObject(long shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
+        return submit(shardKey, template -> template.queryForObject(shardKey, sql, rowMapper, args));
+    }
+
+    public <T> CompletableFuture<List<T>> query(long shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
+        return submit(shardKey, template -> template.query(shardKey, sql, rowMapper, args));
+    }
+
+    public CompletableFuture<List<Map<String, Object>>> queryForList(long shardKey, String sql, Object... args) {
+        return submit(shardKey, template -> template.queryForList(shardKey, sql, args));
+    }
+
+    /**
+     * Run work on the key's shard asynchronously
+     * The shard context holds the key while the action runs, so several calls
+     * through the template, or its JdbcTemplate, all reach the key's shard
+     * @param shardKey the shard key
+     * @param action work against the underlying ShardJdbcTemplate
+     * @return future completed with the action's result, or its DataAccessException
+     */
+    public <T> CompletableFuture<T> submit(long shardKey, Function<ShardJdbcTemplate, T> action) {
+        int shardIndex = shardJdbc.getShardRouter().resolve(shardKey).index();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        submitted.increment();
+        lane(shardIndex).offer(new Call() {
+            @Override
+            public void run() {
+                AsyncShardJdbcTemplate.this.run(shardKey, action, future);
+            }
+
+            @Override
+            public void reject(RuntimeException e) {
+                completed.increment();
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private <T> void run(long shardKey, Function<ShardJdbcTemplate, T> action, CompletableFuture<T> future) {
+        if (future.isDone()) {
+            // Cancelled while queued
+            completed.increment();
+            return;
+        }
+        // Restore what the thread held before: a caller-runs executor runs the task on the caller's thread
+        Long previousKey = ShardContext.get();
+        boolean previousReadOnly = ShardContext.isReadOnly();
+        ConsistencyToken previousToken = ShardContext.getConsistencyToken();
+        String previousWorkload = ShardContext.getWorkload();
+        try {
+            ShardContext.set(shardKey);
+            future.complete(action.apply(shardJdbc));
+        } catch (DataAccessException e) {
+            future.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(new DataAccessException("Shard operation failed for key: " + shardKey, e) {});
+        } finally {
+            if (previousKey != null) {
+                ShardContext.set(previousKey);
+            } else {
+                ShardContext.clear();
+            }
+            ShardContext.setReadOnly(previousReadOnly);
+            ShardContext.setConsistencyToken(previousToken);
+            ShardContext.setWorkload(previousWorkload);
+            completed.increment();
+        }
+    }
+
+    private ShardLane lane(int shardIndex) {
+        return lanes.computeIfAbsent(shardIndex, index -> {
+            int limit = maxConcurrency.applyAsInt(index);
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Max concurrency must be positive for shard index " + index);
+            }
+            return new ShardLane(index);
+        });
+    }
+
+    /**
+     * Get async execution metrics
+     * @return snapshot of call counters and current per-shard occupancy
+     */
+    public Stats getStats() {
+        int running = 0;
+        int waiting = 0;
+        for (ShardLane lane : lanes.values()) {
+            synchronized (lane) {
+                running += lane.running;
+                waiting += lane.waiting.size();
+            }
+        }
+        return new Stats(submitted.sum(), queued.sum(), completed.sum(), running, waiting);
+    }
+
+    public ShardJdbcTemplate getShardJdbcTemplate() {
+        return shardJdbc;
+    }
+
+    /**
+     * Calls of one shard: at most limit run at a time, the rest wait in FIFO order
+     * A finishing task hands its slot straight to the next waiting call, unless the
+     * limit was lowered below the running calls since
+     */
+    private final class ShardLane {
+
+        private final int shardIndex;
+        private final ArrayDeque<Call> waiting = new ArrayDeque<>();
+        private int running;
+
+        ShardLane(int shardIndex) {
+            this.shardIndex = shardIndex;
+        }
+
+        private int limit() {
+            return Math.max(1, maxConcurrency.applyAsInt(shardIndex));
+        }
+
+        void offer(Call call) {
+            Call next;
+            synchronized (this) {
+                if (running >= limit()) {
+                    waiting.add(call);
+                    queued.increment();
+                    return;
+                }
+                running++;
+                // A slot freed by a raised limit goes to the oldest waiting call
+                next = waiting.poll();
+                if (next == null) {
+                    next = call;
+                } else {
+                    waiting.add(call);
+                    queued.increment();
+                }
+            }
+            dispatch(next);
+        }
+
+        private void dispatch(Call call) {
+            while (call != null) {
+                Call current = call;
+                try {
+                    executor.execute(() -> {
+                        try {
+                            current.run();
+                        } finally {
+                            release();
+                        }
+                    });
+                    return;
+                } catch (RuntimeException e) {
+                    // Executor rejected the call: fail it and hand the slot to the next one
+                    current.reject(e);
+                    call = next();
+                }
+            }
+        }
+
+        private void release() {
+            Call next = next();
+            if (next != null) {
+                dispatch(next);
+            }
+        }
+
+        /**
+         * @return next waiting call keeping the slot, or null after freeing it
+         */
+        private Call next() {
+            synchronized (this) {
+                Call next = running > limit() ? null : waiting.poll();
+                if (next == null) {
+                    running--;
+                }
+                return next;
+            }
+        }
+    }
+
+    private interface Call {
+
+        void run();
+
+        void reject(RuntimeException e);
+    }
+
+    /**
+     * Async execution statistics
+     * @param submitted calls submitted
+     * @param queued calls that had to wait for a free slot on their shard
+     * @param completed calls finished, successfully or not
+     * @param running calls currently running
+     * @param waiting calls currently waiting for a slot
+     */
+    public record Stats(long submitted, long queued, long completed, int running, int waiting) {
+    }
+}
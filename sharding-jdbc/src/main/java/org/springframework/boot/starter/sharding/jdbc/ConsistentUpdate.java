@@ -0,0 +1,11 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+
+/**
+ * Result of a committed update together with its read-your-writes token
+ * @param updateCount rows affected
+ * @param token token to present on later reads of the same shard
+ */
+public record ConsistentUpdate(int updateCount, ConsistencyToken token) {
+}
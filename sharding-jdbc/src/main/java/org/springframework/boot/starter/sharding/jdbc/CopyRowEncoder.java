@@ -0,0 +1,15 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+/**
+ * Encodes one row for ShardCopyLoader
+ */
+@FunctionalInterface
+public interface CopyRowEncoder<T> {
+
+    /**
+     * Write the row's values in the order of the COPY column list
+     * @param row row to encode
+     * @param writer writer of the row's shard, reused across rows
+     */
+    void encode(T row, CopyRowWriter writer);
+}
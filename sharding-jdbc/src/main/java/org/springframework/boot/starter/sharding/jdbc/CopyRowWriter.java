@@ -0,0 +1,193 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Encodes rows in PostgreSQL COPY text format straight into a byte buffer
+ * Numbers are written digit by digit and strings are escaped and UTF-8 encoded
+ * in place, so encoding a row does not build intermediate Strings. Write the
+ * row's fields in column order; the loader ends the row
+ */
+public final class CopyRowWriter {
+
+    private static final byte[] NULL = {'\\', 'N'};
+    private static final byte[] MIN_LONG = "-9223372036854775808".getBytes();
+
+    private byte[] buffer;
+    private int length;
+    private boolean rowStarted;
+
+    CopyRowWriter(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public CopyRowWriter writeNull() {
+        separator();
+        ensure(NULL.length);
+        System.arraycopy(NULL, 0, buffer, length, NULL.length);
+        length += NULL.length;
+        return this;
+    }
+
+    public CopyRowWriter write(long value) {
+        separator();
+        if (value == Long.MIN_VALUE) {
+            ensure(MIN_LONG.length);
+            System.arraycopy(MIN_LONG, 0, buffer, length, MIN_LONG.length);
+            length += MIN_LONG.length;
+            return this;
+        }
+        writeDecimal(value, 0);
+        return this;
+    }
+
+    public CopyRowWriter write(boolean value) {
+        separator();
+        ensure(1);
+        buffer[length++] = (byte) (value ? 't' : 'f');
+        return this;
+    }
+
+    public CopyRowWriter write(BigDecimal value) {
+        if (value == null) {
+            return writeNull();
+        }
+        if (value.scale() >= 0 && value.precision() <= 18) {
+            separator();
+            writeDecimal(value.unscaledValue().longValue(), value.scale());
+            return this;
+        }
+        return write(value.toPlainString());
+    }
+
+    public CopyRowWriter write(CharSequence value) {
+        if (value == null) {
+            return writeNull();
+        }
+        separator();
+        int count = value.length();
+        // Worst case: 3 bytes per char, or 2 bytes for an escaped control char
+        ensure(count * 3);
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '\\' -> escape('\\');
+                    case '\n' -> escape('n');
+                    case '\r' -> escape('r');
+                    case '\t' -> escape('t');
+                    default -> buffer[length++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | c >> 6);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, not encodable
+                buffer[length++] = '?';
+            } else {
+                buffer[length++] = (byte) (0xE0 | c >> 12);
+                buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write any other value by its toString(), e.g. dates and timestamps
+     * whose ISO form PostgreSQL accepts
+     */
+    public CopyRowWriter write(Object value) {
+        if (value == null) {
+            return writeNull();
+        }
+        if (value instanceof CharSequence text) {
+            return write(text);
+        }
+        if (value instanceof BigDecimal decimal) {
+            return write(decimal);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return write(((Number) value).longValue());
+        }
+        if (value instanceof Boolean bool) {
+            return write(bool.booleanValue());
+        }
+        return write(value.toString());
+    }
+
+    void endRow() {
+        ensure(1);
+        buffer[length++] = '\n';
+        rowStarted = false;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Continue in another buffer, e.g. after handing the filled one to COPY
+     */
+    void reset(byte[] buffer) {
+        this.buffer = buffer;
+        this.length = 0;
+        this.rowStarted = false;
+    }
+
+    private void separator() {
+        if (rowStarted) {
+            ensure(1);
+            buffer[length++] = '\t';
+        }
+        rowStarted = true;
+    }
+
+    private void escape(char c) {
+        buffer[length++] = '\\';
+        buffer[length++] = (byte) c;
+    }
+
+    /**
+     * Digits written least significant first, then reversed in place
+     */
+    private void writeDecimal(long unscaled, int scale) {
+        ensure(22 + scale);
+        if (unscaled < 0) {
+            buffer[length++] = '-';
+            unscaled = -unscaled;
+        }
+        int start = length;
+        int digits = 0;
+        do {
+            buffer[length++] = (byte) ('0' + unscaled % 10);
+            unscaled /= 10;
+            if (++digits == scale) {
+                buffer[length++] = '.';
+            }
+        } while (unscaled != 0 || digits <= scale);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte b = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = b;
+        }
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            // A row larger than the chunk size grows this buffer
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
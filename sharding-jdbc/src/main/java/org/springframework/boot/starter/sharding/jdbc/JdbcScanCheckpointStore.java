@@ -0,0 +1,82 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Scan checkpoints kept in a table on each shard, next to the data scanned
+ *
+ * Table (per shard):
+ * checkpoint (job_name, chunk_start, chunk_end, completed_at) with primary key (job_name, chunk_start)
+ */
+public class JdbcScanCheckpointStore implements ScanCheckpointStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final RoutingDataSource routingDataSource;
+    private final String table;
+    private final Map<Integer, JdbcTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<Integer, TransactionTemplate> transactions = new ConcurrentHashMap<>();
+
+    public JdbcScanCheckpointStore(RoutingDataSource routingDataSource) {
+        this(routingDataSource, "shard_scan_checkpoint");
+    }
+
+    /**
+     * @param routingDataSource routing data source
+     * @param table checkpoint table name on every shard
+     */
+    public JdbcScanCheckpointStore(RoutingDataSource routingDataSource, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid checkpoint table name: " + table);
+        }
+        this.routingDataSource = routingDataSource;
+        this.table = table;
+    }
+
+    @Override
+    public List<ScanChunk> loadPlan(String jobName, int shardIndex) {
+        return template(shardIndex).query(
+            "SELECT chunk_start, chunk_end, completed_at IS NOT NULL FROM " + table
+                + " WHERE job_name = ? ORDER BY chunk_start",
+            (rs, rowNum) -> new ScanChunk(rs.getLong(1), rs.getLong(2), rs.getBoolean(3)),
+            jobName);
+    }
+
+    @Override
+    public void savePlan(String jobName, int shardIndex, List<ScanChunk> chunks) {
+        List<Object[]> rows = chunks.stream()
+            .map(chunk -> new Object[]{jobName, chunk.start(), chunk.end()})
+            .toList();
+        transaction(shardIndex).executeWithoutResult(status -> template(shardIndex).batchUpdate(
+            "INSERT INTO " + table + " (job_name, chunk_start, chunk_end) VALUES (?, ?, ?)", rows));
+    }
+
+    @Override
+    public void markCompleted(String jobName, int shardIndex, ScanChunk chunk) {
+        template(shardIndex).update(
+            "UPDATE " + table + " SET completed_at = CURRENT_TIMESTAMP WHERE job_name = ? AND chunk_start = ?",
+            jobName, chunk.start());
+    }
+
+    @Override
+    public void clear(String jobName, int shardIndex) {
+        template(shardIndex).update("DELETE FROM " + table + " WHERE job_name = ?", jobName);
+    }
+
+    private JdbcTemplate template(int shardIndex) {
+        return templates.computeIfAbsent(shardIndex,
+            index -> new JdbcTemplate(routingDataSource.getShardDataSource(index)));
+    }
+
+    private TransactionTemplate transaction(int shardIndex) {
+        return transactions.computeIfAbsent(shardIndex, index ->
+            new TransactionTemplate(new DataSourceTransactionManager(routingDataSource.getShardDataSource(index))));
+    }
+}
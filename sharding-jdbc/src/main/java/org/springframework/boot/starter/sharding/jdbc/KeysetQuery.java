@@ -0,0 +1,165 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset (seek) query definition used by ShardJdbcTemplate pagination
+ * The base SQL is a single SELECT without ORDER BY / LIMIT; the seek predicate,
+ * ordering and limit are appended so every page is an index range scan.
+ * An existing top-level WHERE is AND-combined with the seek predicate, so OR
+ * conditions in the base SQL must be parenthesized; WHERE clauses inside
+ * subqueries and CTEs are left alone. Sort columns must be NOT NULL
+ */
+public class KeysetQuery {
+
+    private final String sql;
+    private final List<String> sortColumns;
+    private final boolean descending;
+
+    private KeysetQuery(String sql, List<String> sortColumns, boolean descending) {
+        this.sql = sql;
+        this.sortColumns = sortColumns;
+        this.descending = descending;
+    }
+
+    /**
+     * Create keyset query
+     * @param sql base SELECT statement
+     * @param descending sort direction applied to all sort columns
+     * @param sortColumns NOT NULL sort columns, the last one must make the ordering unique (e.g. primary key)
+     */
+    public static KeysetQuery of(String sql, boolean descending, String... sortColumns) {
+        if (sortColumns == null || sortColumns.length == 0) {
+            throw new IllegalArgumentException("At least one sort column is required");
+        }
+        return new KeysetQuery(sql.strip(), List.of(sortColumns), descending);
+    }
+
+    public List<String> getSortColumns() {
+        return sortColumns;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Render SQL for one page
+     * @param seek whether to append the seek predicate (false for the first page)
+     * @return SQL with seek predicate, ordering and limit placeholder
+     */
+    String render(boolean seek) {
+        StringBuilder sb = new StringBuilder(sql);
+        if (seek) {
+            sb.append(hasTopLevelWhere(sql) ? " AND (" : " WHERE (");
+            sb.append(String.join(", ", sortColumns));
+            sb.append(descending ? ") < (" : ") > (");
+            sb.append(String.join(", ", Collections.nCopies(sortColumns.size(), "?")));
+            sb.append(')');
+        }
+        sb.append(" ORDER BY ");
+        String direction = descending ? " DESC" : " ASC";
+        for (int i = 0; i < sortColumns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(sortColumns.get(i)).append(direction);
+        }
+        sb.append(" LIMIT ?");
+        return sb.toString();
+    }
+
+    /**
+     * Check if the statement has a WHERE outside parentheses, string literals,
+     * quoted identifiers and comments, i.e. one belonging to the outer SELECT
+     */
+    private static boolean hasTopLevelWhere(String sql) {
+        int depth = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = sql.indexOf(c, i + 1);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                depth--;
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < sql.length() && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                if (depth == 0 && end - i == 5 && sql.regionMatches(true, i, "where", 0, 5)) {
+                    return true;
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build statement arguments: caller arguments, seek values, limit
+     */
+    Object[] arguments(Object[] args, Map<String, Object> position, int limit) {
+        List<Object> all = new ArrayList<>(Arrays.asList(args));
+        if (position != null) {
+            for (String column : sortColumns) {
+                all.add(position.get(column));
+            }
+        }
+        all.add(limit);
+        return all.toArray();
+    }
+
+    /**
+     * Read sort key of current row
+     * @throws IllegalStateException if a sort column is null: the row tuple comparison
+     * of the seek predicate never matches null, so pages after it would silently skip rows
+     */
+    Map<String, Object> extractKey(ResultSet rs) throws SQLException {
+        Map<String, Object> key = new LinkedHashMap<>();
+        for (String column : sortColumns) {
+            int dot = column.lastIndexOf('.');
+            Object value = rs.getObject(dot >= 0 ? column.substring(dot + 1) : column);
+            if (value == null) {
+                throw new IllegalStateException("Sort column " + column
+                    + " is null; keyset pagination requires NOT NULL sort columns");
+            }
+            key.put(column, value);
+        }
+        return key;
+    }
+
+    /**
+     * Compare two sort keys in page order
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    int compare(Map<String, Object> left, Map<String, Object> right) {
+        for (String column : sortColumns) {
+            int result = ((Comparable) left.get(column)).compareTo(right.get(column));
+            if (result != 0) {
+                return descending ? -result : result;
+            }
+        }
+        return 0;
+    }
+}
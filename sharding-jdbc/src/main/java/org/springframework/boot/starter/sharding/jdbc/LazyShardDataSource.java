@@ -0,0 +1,168 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Shard pool opened on its first connection and closed again once idle
+ * The wrapper stays in the Shard for the application's lifetime while the pool
+ * behind it comes and goes, so transactions and templates keyed by the data
+ * source keep working across reopens. Borrowed connections are counted: a pool
+ * is only closed with none outstanding
+ */
+public class LazyShardDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final String name;
+    private final Supplier<? extends DataSource> factory;
+    private final Object lock = new Object();
+    private final AtomicInteger borrowed = new AtomicInteger();
+    private volatile DataSource pool;
+    private volatile long lastUsed = System.nanoTime();
+    private int opened;
+
+    /**
+     * @param name pool name, for errors
+     * @param factory creates and starts the pool
+     */
+    public LazyShardDataSource(String name, Supplier<? extends DataSource> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return borrow(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return borrow(username, password);
+    }
+
+    private Connection borrow(String username, String password) throws SQLException {
+        // Counted before the pool is read, so a concurrent closeIfIdle sees the borrower
+        borrowed.incrementAndGet();
+        Connection connection;
+        try {
+            DataSource current = open();
+            connection = username == null ? current.getConnection() : current.getConnection(username, password);
+        } catch (SQLException | RuntimeException e) {
+            release();
+            throw e;
+        }
+        lastUsed = System.nanoTime();
+        return ObservedConnection.wrap(connection, this::release, false);
+    }
+
+    private void release() {
+        lastUsed = System.nanoTime();
+        borrowed.decrementAndGet();
+    }
+
+    private DataSource open() throws SQLException {
+        DataSource current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (pool == null) {
+                try {
+                    pool = factory.get();
+                    opened++;
+                } catch (RuntimeException e) {
+                    throw new SQLTransientConnectionException("Failed to open pool " + name, e);
+                }
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Close the pool if no connection is borrowed and none was for the idle time
+     * @param idleNanos time without borrowed connections before closing
+     * @return true if the pool was closed
+     */
+    public boolean closeIfIdle(long idleNanos) {
+        synchronized (lock) {
+            DataSource current = pool;
+            if (current == null || borrowed.get() > 0 || System.nanoTime() - lastUsed < idleNanos) {
+                return false;
+            }
+            pool = null;
+            if (borrowed.get() > 0) {
+                // A borrower got the pool before it was detached
+                pool = current;
+                return false;
+            }
+            closePool(current);
+            return true;
+        }
+    }
+
+    /**
+     * Check if the pool is open
+     * @return true between the first connection and the next idle close
+     */
+    public boolean isOpen() {
+        return pool != null;
+    }
+
+    /**
+     * Get times the pool was opened, counting reopens after idle closes
+     */
+    public int getOpenCount() {
+        synchronized (lock) {
+            return opened;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Unwrap to the open pool, e.g. the HikariDataSource for its metrics
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        DataSource current = pool;
+        if (current != null && iface.isInstance(current)) {
+            return (T) current;
+        }
+        return super.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        DataSource current = pool;
+        return (current != null && iface.isInstance(current)) || super.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            DataSource current = pool;
+            pool = null;
+            if (current != null) {
+                closePool(current);
+            }
+        }
+    }
+
+    private static void closePool(DataSource pool) {
+        if (pool instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close pool", e);
+            }
+        }
+    }
+}
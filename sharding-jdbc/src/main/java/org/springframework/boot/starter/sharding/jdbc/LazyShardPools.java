@@ -0,0 +1,122 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Creates shard pools lazily and closes the ones left idle
+ * With hundreds of shards most pools are rarely used; opening them on first use
+ * and closing them after idleTimeout without a borrowed connection makes the
+ * database connections and pool memory scale with the shards in use rather than
+ * the shards configured. One background thread sweeps all pools
+ */
+public class LazyShardPools implements AutoCloseable {
+
+    private static final Log logger = LogFactory.getLog(LazyShardPools.class);
+
+    private final Duration idleTimeout;
+    private final List<LazyShardDataSource> pools = new CopyOnWriteArrayList<>();
+    private final LongAdder closed = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param idleTimeout time without borrowed connections after which a pool is closed
+     */
+    public LazyShardPools(Duration idleTimeout) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Create pool wrapper; the pool itself is created on the first connection
+     * @param name pool name
+     * @param factory creates and starts the pool
+     * @return lazily opened data source
+     */
+    public LazyShardDataSource create(String name, Supplier<? extends DataSource> factory) {
+        LazyShardDataSource pool = new LazyShardDataSource(name, factory);
+        pools.add(pool);
+        return pool;
+    }
+
+    /**
+     * Start closing idle pools in the background
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-pool-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, idleTimeout.toMillis() / 4);
+        scheduler.scheduleWithFixedDelay(this::closeIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Close every pool idle for longer than the idle timeout
+     */
+    public void closeIdle() {
+        long idleNanos = idleTimeout.toNanos();
+        for (LazyShardDataSource pool : pools) {
+            try {
+                if (pool.closeIfIdle(idleNanos)) {
+                    closed.increment();
+                    logger.debug("Closed idle pool " + pool.getName());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to close idle pool " + pool.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Get pool metrics
+     * @return snapshot of configured and open pools
+     */
+    public Stats getStats() {
+        int open = 0;
+        long opened = 0;
+        for (LazyShardDataSource pool : pools) {
+            open += pool.isOpen() ? 1 : 0;
+            opened += pool.getOpenCount();
+        }
+        return new Stats(pools.size(), open, opened, closed.sum());
+    }
+
+    /**
+     * Stop sweeping and close every open pool
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        pools.forEach(LazyShardDataSource::close);
+    }
+
+    /**
+     * Lazy pool statistics
+     * @param pools pools configured
+     * @param openPools pools currently open
+     * @param opened pool openings, including reopens
+     * @param closed pools closed after being idle
+     */
+    public record Stats(int pools, int openPools, long opened, long closed) {
+    }
+}
@@ -0,0 +1,43 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.Shard;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for tests and local setups without streaming replication
+ * Positions are set by the test; connections are ignored. Unset replicas
+ * report position 0, so reads with a token fall back to the primary
+ */
+public class LocalReplicationPositionProbe implements ReplicationPositionProbe {
+    
+    private final Map<Integer, Long> primaryPositions = new ConcurrentHashMap<>();
+    private final Map<String, ReplayState> replayStates = new ConcurrentHashMap<>();
+    
+    /**
+     * Set position returned for a shard primary, i.e. the next consistency token
+     */
+    public void setPrimaryPosition(int shardIndex, long position) {
+        primaryPositions.put(shardIndex, position);
+    }
+    
+    /**
+     * Set replay state reported for a replica on the next poll
+     */
+    public void setReplayState(int shardIndex, int replicaIndex, long position, Duration lag) {
+        replayStates.put(shardIndex + "/" + replicaIndex, new ReplayState(position, lag));
+    }
+    
+    @Override
+    public long currentPosition(Shard shard, Connection primary) {
+        return primaryPositions.getOrDefault(shard.index(), 0L);
+    }
+    
+    @Override
+    public ReplayState replayState(Shard shard, int replicaIndex, Connection replica) {
+        return replayStates.getOrDefault(shard.index() + "/" + replicaIndex, new ReplayState(0, Duration.ZERO));
+    }
+}
@@ -0,0 +1,140 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection proxy reporting statement executions and the close of the connection
+ */
+final class ObservedConnection implements InvocationHandler {
+    
+    private static final String QUERY_CANCELED = "57014";
+    
+    /**
+     * Callbacks of an observed connection
+     */
+    interface Listener {
+        
+        /**
+         * Called after every statement execution
+         * @param nanos execution time
+         * @param failure exception thrown by the execution, or null
+         */
+        default void onExecute(long nanos, SQLException failure) {
+        }
+        
+        /**
+         * Called once when the connection is closed
+         */
+        void onClose();
+    }
+    
+    private final Connection target;
+    private final Listener listener;
+    private final boolean observeStatements;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    
+    private ObservedConnection(Connection target, Listener listener, boolean observeStatements) {
+        this.target = target;
+        this.listener = listener;
+        this.observeStatements = observeStatements;
+    }
+    
+    /**
+     * Wrap connection
+     * @param target connection to wrap
+     * @param listener callbacks
+     * @param observeStatements also wrap created statements to report executions
+     * @return proxy connection
+     */
+    static Connection wrap(Connection target, Listener listener, boolean observeStatements) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new ObservedConnection(target, listener, observeStatements));
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+            try {
+                return invokeTarget(target, method, args);
+            } finally {
+                listener.onClose();
+            }
+        }
+        Object result = invokeTarget(target, method, args);
+        if (observeStatements && result instanceof Statement statement) {
+            return wrapStatement(statement);
+        }
+        return result;
+    }
+    
+    private Object wrapStatement(Statement statement) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invokeTarget(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invokeTarget(statement, method, args);
+                listener.onExecute(System.nanoTime() - start, null);
+                return result;
+            } catch (SQLException e) {
+                listener.onExecute(System.nanoTime() - start, e);
+                throw e;
+            }
+        });
+    }
+    
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    /**
+     * Check if an error means the database is unreachable, timing out or out of resources
+     * Constraint violations and other application errors return false, and so do
+     * cancelled statements (57014): hedged reads cancel their losing attempt and statement
+     * timeouts end one slow query, neither says anything about the shard's health
+     * @param e exception from the driver
+     * @return true for connection, timeout and server resource errors
+     */
+    static boolean isResourceFailure(SQLException e) {
+        if (QUERY_CANCELED.equals(e.getSQLState())) {
+            return false;
+        }
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException || e instanceof SQLTimeoutException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("53")
+            || state.startsWith("57") || state.startsWith("58"));
+    }
+}
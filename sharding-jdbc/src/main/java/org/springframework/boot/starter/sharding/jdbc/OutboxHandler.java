@@ -0,0 +1,44 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.util.function.Consumer;
+
+/**
+ * Applies outbox messages of one type on their target shard
+ */
+public interface OutboxHandler {
+
+    /**
+     * Get message type handled
+     * @return type passed to {@link ShardOutbox#publish}
+     */
+    String messageType();
+
+    /**
+     * Apply message inside a transaction on the shard owning its target key
+     * Called once per message: duplicates are filtered by the target shard's inbox
+     * in the same transaction. Throwing rolls the delivery back for a later retry;
+     * the handler may publish follow-up messages, e.g. a compensation, on the target shard
+     * @param message message to apply
+     */
+    void handle(OutboxMessage message);
+
+    /**
+     * Create handler from a callback
+     * @param messageType type handled
+     * @param handler applies one message
+     * @return handler
+     */
+    static OutboxHandler of(String messageType, Consumer<OutboxMessage> handler) {
+        return new OutboxHandler() {
+            @Override
+            public String messageType() {
+                return messageType;
+            }
+
+            @Override
+            public void handle(OutboxMessage message) {
+                handler.accept(message);
+            }
+        };
+    }
+}
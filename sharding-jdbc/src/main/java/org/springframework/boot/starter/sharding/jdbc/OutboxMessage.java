@@ -0,0 +1,12 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+/**
+ * Message read from a shard's outbox for delivery to its target shard
+ * @param sourceShard index of the shard that published the message
+ * @param id message id, unique within the source shard
+ * @param targetKey shard key the message is delivered to
+ * @param messageType type selecting the OutboxHandler
+ * @param payload message body
+ */
+public record OutboxMessage(int sourceShard, long id, long targetKey, String messageType, String payload) {
+}
@@ -0,0 +1,49 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+import org.springframework.boot.starter.sharding.core.Shard;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * PostgreSQL streaming replication probe
+ * Primary position is pg_current_wal_lsn(); replicas report pg_last_wal_replay_lsn()
+ * and the age of the last replayed transaction, or zero lag once everything received is replayed
+ */
+public class PostgresReplicationPositionProbe implements ReplicationPositionProbe {
+    
+    private static final String PRIMARY_POSITION = "SELECT pg_current_wal_lsn()::text";
+    
+    private static final String REPLAY_STATE = """
+        SELECT pg_last_wal_replay_lsn()::text,
+               CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                    ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+               END
+        """;
+    
+    @Override
+    public long currentPosition(Shard shard, Connection primary) throws SQLException {
+        try (Statement statement = primary.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_POSITION)) {
+            rs.next();
+            return ConsistencyToken.parseLsn(rs.getString(1));
+        }
+    }
+    
+    @Override
+    public ReplayState replayState(Shard shard, int replicaIndex, Connection replica) throws SQLException {
+        try (Statement statement = replica.createStatement();
+             ResultSet rs = statement.executeQuery(REPLAY_STATE)) {
+            rs.next();
+            String lsn = rs.getString(1);
+            if (lsn == null) {
+                throw new SQLException("Replica " + replicaIndex + " of " + shard.name() + " is not in recovery");
+            }
+            return new ReplayState(ConsistencyToken.parseLsn(lsn), Duration.ofMillis(rs.getLong(2)));
+        }
+    }
+}
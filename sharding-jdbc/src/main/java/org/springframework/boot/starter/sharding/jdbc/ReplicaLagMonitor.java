@@ -0,0 +1,91 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.starter.sharding.core.ReplicaLagTracker;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls every shard replica for its replay position and lag
+ * Results feed the ReplicaLagTracker used by RoutingDataSource to pick replicas
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+    
+    private static final Log logger = LogFactory.getLog(ReplicaLagMonitor.class);
+    
+    private final ShardRouter shardRouter;
+    private final ReplicationPositionProbe probe;
+    private final ReplicaLagTracker tracker;
+    private final Duration pollInterval;
+    private ScheduledExecutorService scheduler;
+    
+    /**
+     * @param shardRouter router listing the shards
+     * @param probe reads replica replay state
+     * @param tracker receives the samples
+     * @param pollInterval delay between polls
+     */
+    public ReplicaLagMonitor(ShardRouter shardRouter, ReplicationPositionProbe probe,
+                             ReplicaLagTracker tracker, Duration pollInterval) {
+        this.shardRouter = shardRouter;
+        this.probe = probe;
+        this.tracker = tracker;
+        this.pollInterval = pollInterval;
+    }
+    
+    /**
+     * Poll once, then keep polling in the background
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        pollOnce();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::pollOnce, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Sample every replica of every shard
+     */
+    public void pollOnce() {
+        for (int i = 0; i < shardRouter.getShardCount(); i++) {
+            Shard shard = shardRouter.getShard(i);
+            for (int r = 0; r < shard.replicas().size(); r++) {
+                poll(shard, r, shard.replicas().get(r));
+            }
+        }
+    }
+    
+    private void poll(Shard shard, int replicaIndex, DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            ReplicationPositionProbe.ReplayState state = probe.replayState(shard, replicaIndex, connection);
+            tracker.record(shard, replicaIndex, state.position(), state.lag());
+        } catch (SQLException | RuntimeException e) {
+            tracker.recordFailure(shard, replicaIndex);
+            logger.debug("Lag poll failed for replica " + replicaIndex + " of shard " + shard.name(), e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
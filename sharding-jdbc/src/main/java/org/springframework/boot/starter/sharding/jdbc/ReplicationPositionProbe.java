@@ -0,0 +1,39 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.Shard;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Reads WAL positions used for replica lag tracking and consistency tokens
+ */
+public interface ReplicationPositionProbe {
+    
+    /**
+     * Get current WAL position of a shard primary
+     * Read after commit, it is at or past the commit position of the caller's writes
+     * @param shard the shard
+     * @param primary connection to the shard primary
+     * @return WAL position
+     */
+    long currentPosition(Shard shard, Connection primary) throws SQLException;
+    
+    /**
+     * Get replay state of a replica
+     * @param shard the shard
+     * @param replicaIndex replica index
+     * @param replica connection to the replica
+     * @return last replayed position and lag
+     */
+    ReplayState replayState(Shard shard, int replicaIndex, Connection replica) throws SQLException;
+    
+    /**
+     * Replica replay state
+     * @param position last replayed WAL position
+     * @param lag time since the last replayed transaction, zero when nothing is pending
+     */
+    record ReplayState(long position, Duration lag) {
+    }
+}
@@ -1,41 +1,88 @@
 package org.springframework.boot.starter.sharding.jdbc;
 
+import org.springframework.boot.starter.sharding.core.AdaptiveConcurrencyLimiter;
+import org.springframework.boot.starter.sharding.core.CircuitBreaker;
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+import org.springframework.boot.starter.sharding.core.ReplicaLagTracker;
+import org.springframework.boot.starter.sharding.core.ReplicaLoadBalancer;
+import org.springframework.boot.starter.sharding.core.RoundRobinReplicaLoadBalancer;
 import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardCircuitBreakers;
+import org.springframework.boot.starter.sharding.core.ShardConcurrencyLimiters;
 import org.springframework.boot.starter.sharding.core.ShardContext;
 import org.springframework.boot.starter.sharding.core.ShardRouter;
 import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
 
 /**
  * Routing DataSource that delegates to shard-specific DataSource
  * Based on ThreadLocal shard key context
+ *
+ * Read-only work (ShardContext read-only flag, set by read-only transactions
+ * and ShardJdbcTemplate#readOnly()) is served by a replica chosen by the
+ * ReplicaLoadBalancer when the shard has replicas; everything else uses the primary.
+ * With a ReplicaLagTracker, only replicas within the lag limit that replayed the
+ * current ConsistencyToken are used; when none qualifies the read goes to the primary.
+ * With ShardCircuitBreakers, primary connections of a shard whose breaker is open
+ * fail fast with ShardUnavailableException instead of waiting for the pool timeout.
+ * With ShardConcurrencyLimiters, primary connections per shard are capped by an
+ * adaptive limit; excess callers wait briefly, then get ShardOverloadedException.
+ * The ShardContext workload class selects the shard's pool for that class; the
+ * concurrency limit applies to the default OLTP pool, workload pools are bounded by their size
  */
 public class RoutingDataSource extends AbstractDataSource {
     
     private final ShardRouter shardRouter;
+    private final ReplicaLoadBalancer replicaLoadBalancer;
+    private volatile ReplicaLagTracker replicaLagTracker;
+    private volatile ShardCircuitBreakers circuitBreakers;
+    private volatile ShardConcurrencyLimiters concurrencyLimiters;
+    private volatile Set<String> replicaWorkloads = Set.of();
+    private final Map<String, DataSource> guardedShardDataSources = new ConcurrentHashMap<>();
     
     public RoutingDataSource(ShardRouter shardRouter) {
+        this(shardRouter, new RoundRobinReplicaLoadBalancer());
+    }
+    
+    public RoutingDataSource(ShardRouter shardRouter, ReplicaLoadBalancer replicaLoadBalancer) {
         this.shardRouter = shardRouter;
+        this.replicaLoadBalancer = replicaLoadBalancer;
     }
     
     @Override
     public Connection getConnection() throws SQLException {
-        return getTargetDataSource().getConnection();
+        Shard shard = resolveShard();
+        String workload = ShardContext.getWorkload();
+        boolean readOnly = ShardContext.isReadOnly() || (workload != null && replicaWorkloads.contains(workload));
+        if (readOnly && shard.hasReplicas()) {
+            int replicaIndex = replicaLoadBalancer.select(shard, eligibleReplicas(shard));
+            if (replicaIndex >= 0) {
+                return getReplicaConnection(shard, replicaIndex);
+            }
+        }
+        return getPrimaryConnection(shard, workload);
     }
     
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        return getTargetDataSource().getConnection(username, password);
+        return resolveShard().dataSource(ShardContext.getWorkload()).getConnection(username, password);
     }
     
     /**
-     * Resolve target DataSource based on current shard context
-     * @return target DataSource for current shard
+     * Resolve target shard based on current shard context
+     * @return target shard
      * @throws IllegalStateException if shard key is not set
      */
-    private javax.sql.DataSource getTargetDataSource() {
+    private Shard resolveShard() {
         Long shardKey = ShardContext.get();
         if (shardKey == null) {
             throw new IllegalStateException(
@@ -43,11 +90,214 @@ public class RoutingDataSource extends AbstractDataSource {
             );
         }
         
-        Shard shard = shardRouter.resolve(shardKey);
-        return shard.dataSource();
+        return shardRouter.resolve(shardKey);
+    }
+    
+    IntPredicate eligibleReplicas(Shard shard) {
+        ConsistencyToken token = ShardContext.getConsistencyToken();
+        long requiredPosition = token != null && token.shardIndex() == shard.index() ? token.position() : 0;
+        ReplicaLagTracker tracker = replicaLagTracker;
+        if (tracker == null) {
+            // Without lag tracking a replica can never be proven caught up with a write
+            return requiredPosition == 0 ? replicaIndex -> true : replicaIndex -> false;
+        }
+        return replicaIndex -> tracker.isCaughtUp(shard, replicaIndex, requiredPosition);
+    }
+    
+    private Connection getReplicaConnection(Shard shard, int replicaIndex) throws SQLException {
+        Connection connection;
+        try {
+            connection = shard.replicas().get(replicaIndex).getConnection();
+        } catch (SQLException | RuntimeException e) {
+            if (replicaLoadBalancer.tracksOutstanding()) {
+                replicaLoadBalancer.release(shard, replicaIndex);
+            }
+            throw e;
+        }
+        if (!replicaLoadBalancer.tracksOutstanding()) {
+            return connection;
+        }
+        return ObservedConnection.wrap(connection, () -> replicaLoadBalancer.release(shard, replicaIndex), false);
+    }
+    
+    private Connection getPrimaryConnection(Shard shard, String workload) throws SQLException {
+        DataSource pool = shard.dataSource(workload);
+        ShardCircuitBreakers breakers = circuitBreakers;
+        ShardConcurrencyLimiters limiters = pool == shard.dataSource() ? concurrencyLimiters : null;
+        if (breakers == null && limiters == null) {
+            return pool.getConnection();
+        }
+        CircuitBreaker breaker = breakers != null ? breakers.get(shard) : null;
+        if (breaker != null && breaker.getState() == CircuitBreaker.State.OPEN) {
+            throw new ShardUnavailableException(shard.name());
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters != null ? limiters.get(shard) : null;
+        if (limiter != null && !limiter.tryAcquire()) {
+            throw new ShardOverloadedException(shard.name());
+        }
+        if (breaker != null && !breaker.tryAcquire()) {
+            if (limiter != null) {
+                limiter.cancel();
+            }
+            throw new ShardUnavailableException(shard.name());
+        }
+        
+        LeaseListener lease = new LeaseListener(breaker, limiter);
+        Connection connection;
+        try {
+            connection = pool.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            lease.failed = true;
+            lease.onClose();
+            throw e;
+        }
+        lease.onAcquired();
+        return ObservedConnection.wrap(connection, lease, true);
+    }
+    
+    /**
+     * Get DataSource of a specific shard, bypassing shard key resolution
+     * Used for scatter-gather operations that visit every shard; guarded by the
+     * shard's circuit breaker and concurrency limiter when configured
+     * @param index shard index
+     * @return DataSource for the shard
+     */
+    public DataSource getShardDataSource(int index) {
+        return getShardDataSource(index, null);
+    }
+    
+    /**
+     * Get DataSource of a workload class's pool on a specific shard
+     * @param index shard index
+     * @param workload workload class, or null for the default class
+     * @return DataSource for the shard and workload class
+     */
+    public DataSource getShardDataSource(int index, String workload) {
+        Shard shard = shardRouter.getShard(index);
+        DataSource pool = shard.dataSource(workload);
+        if (circuitBreakers == null && concurrencyLimiters == null) {
+            return pool;
+        }
+        // Same instance per shard and class so templates and transaction managers share connection binding
+        String key = pool == shard.dataSource() ? String.valueOf(index) : index + "/" + workload;
+        return guardedShardDataSources.computeIfAbsent(key, k -> new DelegatingDataSource(pool) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return getPrimaryConnection(shard, workload);
+            }
+        });
+    }
+    
+    /**
+     * Route workload classes to replicas like read-only work, e.g. reporting
+     * @param replicaWorkloads workload classes whose connections come from replicas when the shard has any
+     */
+    public void setReplicaWorkloads(Set<String> replicaWorkloads) {
+        this.replicaWorkloads = replicaWorkloads == null ? Set.of() : Set.copyOf(replicaWorkloads);
+    }
+    
+    public Set<String> getReplicaWorkloads() {
+        return replicaWorkloads;
+    }
+    
+    /**
+     * Guard primary connections with a circuit breaker per shard
+     * Set before the data source is used
+     * @param circuitBreakers breakers, or null to disable
+     */
+    public void setCircuitBreakers(ShardCircuitBreakers circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+        this.guardedShardDataSources.clear();
+    }
+    
+    public ShardCircuitBreakers getCircuitBreakers() {
+        return circuitBreakers;
+    }
+    
+    /**
+     * Cap concurrent primary connections per shard with an adaptive limit
+     * Set before the data source is used
+     * @param concurrencyLimiters limiters, or null to disable
+     */
+    public void setConcurrencyLimiters(ShardConcurrencyLimiters concurrencyLimiters) {
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.guardedShardDataSources.clear();
+    }
+    
+    public ShardConcurrencyLimiters getConcurrencyLimiters() {
+        return concurrencyLimiters;
     }
     
     public ShardRouter getShardRouter() {
         return shardRouter;
     }
+    
+    public ReplicaLoadBalancer getReplicaLoadBalancer() {
+        return replicaLoadBalancer;
+    }
+    
+    /**
+     * Restrict replica reads to replicas the tracker reports as caught up
+     * @param replicaLagTracker tracker fed by a ReplicaLagMonitor, or null to use every replica
+     */
+    public void setReplicaLagTracker(ReplicaLagTracker replicaLagTracker) {
+        this.replicaLagTracker = replicaLagTracker;
+    }
+    
+    public ReplicaLagTracker getReplicaLagTracker() {
+        return replicaLagTracker;
+    }
+    
+    /**
+     * Reports one connection lease when the connection is closed. To the breaker:
+     * failed if acquisition or any execution hit a resource error, slow if acquisition
+     * or any execution was slow. To the limiter: mean statement execution time of the
+     * lease, dropped on failure. Time the caller holds the connection between statements
+     * is left out, so it does not shrink the limit; a lease without statements only
+     * releases its slot
+     */
+    private static final class LeaseListener implements ObservedConnection.Listener {
+        
+        private final CircuitBreaker breaker;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long start = System.nanoTime();
+        private final LongAdder executionNanos = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private volatile boolean failed;
+        private volatile boolean slow;
+        
+        LeaseListener(CircuitBreaker breaker, AdaptiveConcurrencyLimiter limiter) {
+            this.breaker = breaker;
+            this.limiter = limiter;
+        }
+        
+        void onAcquired() {
+            if (breaker != null && breaker.isSlow(System.nanoTime() - start)) {
+                slow = true;
+            }
+        }
+        
+        @Override
+        public void onExecute(long nanos, SQLException failure) {
+            executionNanos.add(nanos);
+            executions.increment();
+            if (breaker != null && breaker.isSlow(nanos)) {
+                slow = true;
+            }
+            if (failure != null && ObservedConnection.isResourceFailure(failure)) {
+                failed = true;
+            }
+        }
+        
+        @Override
+        public void onClose() {
+            if (breaker != null) {
+                breaker.onComplete(failed, slow);
+            }
+            if (limiter != null) {
+                long count = executions.sum();
+                limiter.onComplete(count == 0 ? 0 : executionNanos.sum() / count, failed);
+            }
+        }
+    }
 }
\ No newline at end of file
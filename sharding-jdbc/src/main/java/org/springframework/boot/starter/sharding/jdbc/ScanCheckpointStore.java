@@ -0,0 +1,43 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.util.List;
+
+/**
+ * Persists the chunk plan and progress of ShardScanner jobs
+ * The plan is stored once per job and shard, so a restarted job reuses the same
+ * key ranges and only scans the chunks that were not completed
+ */
+public interface ScanCheckpointStore {
+
+    /**
+     * Load the job's plan on a shard
+     * @param jobName job name
+     * @param shardIndex shard index
+     * @return chunks ordered by start key, empty if the job was not planned on the shard
+     */
+    List<ScanChunk> loadPlan(String jobName, int shardIndex);
+
+    /**
+     * Store the job's plan on a shard, all chunks pending
+     * Must be atomic: a partially stored plan would skip key ranges on restart
+     * @param jobName job name
+     * @param shardIndex shard index
+     * @param chunks chunks covering the shard's key range
+     */
+    void savePlan(String jobName, int shardIndex, List<ScanChunk> chunks);
+
+    /**
+     * Record that a chunk was scanned completely
+     * @param jobName job name
+     * @param shardIndex shard index
+     * @param chunk completed chunk
+     */
+    void markCompleted(String jobName, int shardIndex, ScanChunk chunk);
+
+    /**
+     * Forget the job's plan and progress on a shard, so the next run starts over
+     * @param jobName job name
+     * @param shardIndex shard index
+     */
+    void clear(String jobName, int shardIndex);
+}
@@ -0,0 +1,10 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+/**
+ * Primary-key range of one shard scanned as a unit
+ * @param start first key, inclusive
+ * @param end last key, inclusive
+ * @param completed whether a previous run already scanned the range
+ */
+public record ScanChunk(long start, long end, boolean completed) {
+}
@@ -0,0 +1,73 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.dao.DataAccessException;
+
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a multi-shard batch update
+ * Each shard batch runs in its own transaction, so a shard either applied all
+ * of its rows (update counts) or none of them (failure with the rejected rows)
+ */
+public class ShardBatchResult {
+
+    private final Map<Integer, int[]> updateCounts = new TreeMap<>();
+    private final Map<Integer, DataAccessException> failures = new TreeMap<>();
+    private final Map<Integer, List<Object[]>> failedArgs = new TreeMap<>();
+
+    void recordSuccess(int shardIndex, int[] counts) {
+        updateCounts.put(shardIndex, counts);
+    }
+
+    void recordFailure(int shardIndex, List<Object[]> batchArgs, DataAccessException exception) {
+        failures.put(shardIndex, exception);
+        failedArgs.put(shardIndex, batchArgs);
+    }
+
+    /**
+     * Get JDBC update counts per successful shard
+     * @return shard index -> update counts, in batch order
+     */
+    public Map<Integer, int[]> getUpdateCounts() {
+        return Collections.unmodifiableMap(updateCounts);
+    }
+
+    /**
+     * Get failures per shard
+     * @return shard index -> cause
+     */
+    public Map<Integer, DataAccessException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Get rows that were not applied on a failed shard, e.g. for retry
+     * @param shardIndex shard index
+     * @return rejected batch arguments, empty if the shard succeeded
+     */
+    public List<Object[]> getFailedArgs(int shardIndex) {
+        return failedArgs.getOrDefault(shardIndex, List.of());
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Total rows affected across successful shards
+     * Drivers reporting SUCCESS_NO_INFO are counted as one row per statement
+     */
+    public long getTotalUpdateCount() {
+        long total = 0;
+        for (int[] counts : updateCounts.values()) {
+            for (int count : counts) {
+                total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,263 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Bulk loader using PostgreSQL COPY, partitioned by shard
+ * Rows are routed through the shard router and encoded by the calling thread
+ * into per-shard chunks; every shard streams its chunks into its own
+ * {@code COPY ... FROM STDIN} on a separate thread, so all shards load in parallel.
+ * Each shard owns at most maxChunksPerShard buffers, which are recycled once
+ * written: when a shard falls behind, the caller blocks on it (backpressure)
+ * and memory stays bounded by shards x maxChunksPerShard x chunkSize
+ */
+public class ShardCopyLoader {
+
+    private static final Chunk END = new Chunk(null, 0);
+    private static final Chunk ABORT = new Chunk(null, 0);
+
+    private final RoutingDataSource routingDataSource;
+    private final String workload;
+    private final int chunkSize;
+    private final int maxChunksPerShard;
+    private Executor executor;
+
+    public ShardCopyLoader(RoutingDataSource routingDataSource) {
+        this(routingDataSource, null, 64 * 1024, 8);
+    }
+
+    /**
+     * @param routingDataSource routing data source
+     * @param workload workload class whose pools run the COPY, e.g. "batch", or null for the default pools
+     * @param chunkSize bytes encoded before a chunk is handed to its shard's COPY
+     * @param maxChunksPerShard buffers per shard, filled or being written
+     */
+    public ShardCopyLoader(RoutingDataSource routingDataSource, String workload, int chunkSize, int maxChunksPerShard) {
+        if (chunkSize <= 0 || maxChunksPerShard < 2) {
+            throw new IllegalArgumentException("Chunk size must be positive and at least two chunks are required per shard");
+        }
+        this.routingDataSource = routingDataSource;
+        this.workload = workload;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerShard = maxChunksPerShard;
+        SimpleAsyncTaskExecutor copyExecutor = new SimpleAsyncTaskExecutor("shard-copy-");
+        copyExecutor.setDaemon(true);
+        this.executor = copyExecutor;
+    }
+
+    /**
+     * Set executor running the per-shard COPY streams
+     * @param executor executor, one long-running task per shard of a load
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Load rows into a table on every shard
+     * Each shard's rows go through one COPY statement in autocommit, so a shard
+     * loads all of its rows or none; once a shard fails, its remaining rows are
+     * skipped and counted as failed while the other shards keep loading.
+     * If the row source or encoder throws, every shard's COPY is cancelled
+     * @param table target table
+     * @param columns target columns, in the order the encoder writes them
+     * @param rows rows to load, consumed once by the calling thread
+     * @param shardKeyExtractor extracts the shard key from a row
+     * @param encoder writes a row's values
+     * @return per-shard row counts and failures
+     */
+    public <T> ShardCopyResult load(String table, List<String> columns, Stream<? extends T> rows,
+                                    ToLongFunction<? super T> shardKeyExtractor, CopyRowEncoder<? super T> encoder) {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN";
+        ShardRouter router = routingDataSource.getShardRouter();
+        Map<Integer, ShardStream> streams = new TreeMap<>();
+        try {
+            Iterator<? extends T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                int shardIndex = router.resolve(shardKeyExtractor.applyAsLong(row)).index();
+                ShardStream stream = streams.computeIfAbsent(shardIndex, index -> open(index, sql));
+                if (stream.failed) {
+                    stream.rows++;
+                    continue;
+                }
+                encoder.encode(row, stream.writer);
+                stream.writer.endRow();
+                stream.rows++;
+                if (stream.writer.length() >= chunkSize) {
+                    stream.flush();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            streams.values().forEach(stream -> stream.filled.add(ABORT));
+            streams.values().forEach(stream -> stream.copy.exceptionally(failure -> null).join());
+            throw e;
+        }
+        streams.values().forEach(ShardStream::finish);
+
+        ShardCopyResult result = new ShardCopyResult();
+        streams.forEach((index, stream) -> {
+            try {
+                result.recordSuccess(index, stream.copy.join());
+            } catch (CompletionException e) {
+                result.recordFailure(index, stream.rows, unwrap(index, e));
+            }
+        });
+        return result;
+    }
+
+    private ShardStream open(int shardIndex, String sql) {
+        ShardStream stream = new ShardStream(shardIndex);
+        stream.copy = CompletableFuture.supplyAsync(() -> copy(stream, sql), executor);
+        return stream;
+    }
+
+    private long copy(ShardStream stream, String sql) {
+        try {
+            return copyChunks(stream, sql);
+        } catch (Exception e) {
+            stream.failed = true;
+            stream.drain();
+            if (e instanceof DataAccessException dataAccessException) {
+                throw dataAccessException;
+            }
+            throw new DataAccessException("Shard operation failed for shard index: " + stream.shardIndex, e) {};
+        }
+    }
+
+    private long copyChunks(ShardStream stream, String sql) throws SQLException, InterruptedException {
+        DataSource dataSource = routingDataSource.getShardDataSource(stream.shardIndex, workload);
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                while (true) {
+                    Chunk chunk = stream.filled.take();
+                    stream.ended = chunk == END || chunk == ABORT;
+                    if (chunk == END) {
+                        long loaded = copyIn.endCopy();
+                        if (!connection.getAutoCommit()) {
+                            connection.commit();
+                        }
+                        return loaded;
+                    }
+                    if (chunk == ABORT) {
+                        throw new IllegalStateException("Load aborted by the row source");
+                    }
+                    copyIn.writeToCopy(chunk.data(), 0, chunk.length());
+                    stream.free.add(chunk.data());
+                }
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    private static DataAccessException unwrap(int shardIndex, CompletionException e) {
+        if (e.getCause() instanceof DataAccessException dataAccessException) {
+            return dataAccessException;
+        }
+        return new DataAccessException("Shard operation failed for shard index: " + shardIndex, e.getCause()) {};
+    }
+
+    private record Chunk(byte[] data, int length) {
+    }
+
+    /**
+     * Rows of one shard: encoded by the loading thread, written to COPY by the shard's task
+     */
+    private final class ShardStream {
+
+        private final int shardIndex;
+        private final BlockingQueue<Chunk> filled = new LinkedBlockingQueue<>();
+        private final BlockingQueue<byte[]> free = new LinkedBlockingQueue<>();
+        private final CopyRowWriter writer = new CopyRowWriter(new byte[chunkSize]);
+        private int allocated = 1;
+        private long rows;
+        private volatile boolean failed;
+        private boolean ended;
+        private CompletableFuture<Long> copy;
+
+        ShardStream(int shardIndex) {
+            this.shardIndex = shardIndex;
+        }
+
+        void flush() {
+            filled.add(new Chunk(writer.buffer(), writer.length()));
+            writer.reset(nextBuffer());
+        }
+
+        void finish() {
+            if (!failed && writer.length() > 0) {
+                filled.add(new Chunk(writer.buffer(), writer.length()));
+            }
+            filled.add(END);
+        }
+
+        private byte[] nextBuffer() {
+            byte[] buffer = free.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (allocated < maxChunksPerShard) {
+                allocated++;
+                return new byte[chunkSize];
+            }
+            try {
+                // Every buffer is queued or being written: wait for the shard's COPY to catch up
+                return free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("Interrupted while loading shard index: " + shardIndex, e) {};
+            }
+        }
+
+        /**
+         * After a failure, recycle chunks until the loading thread ends the stream
+         * so it never blocks on this shard
+         */
+        void drain() {
+            if (ended) {
+                return;
+            }
+            boolean interrupted = Thread.interrupted();
+            try {
+                while (true) {
+                    try {
+                        Chunk chunk = filled.take();
+                        if (chunk == END || chunk == ABORT) {
+                            return;
+                        }
+                        free.add(chunk.data());
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.dao.DataAccessException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a multi-shard COPY load
+ * Each shard's rows are loaded by one COPY statement, so a shard either loaded
+ * all of its rows or none of them; the failure message of PostgreSQL names the
+ * offending line of that shard's stream
+ */
+public class ShardCopyResult {
+
+    private final Map<Integer, Long> loadedRows = new TreeMap<>();
+    private final Map<Integer, DataAccessException> failures = new TreeMap<>();
+    private final Map<Integer, Long> failedRows = new TreeMap<>();
+
+    void recordSuccess(int shardIndex, long rows) {
+        loadedRows.put(shardIndex, rows);
+    }
+
+    void recordFailure(int shardIndex, long rows, DataAccessException exception) {
+        failures.put(shardIndex, exception);
+        failedRows.put(shardIndex, rows);
+    }
+
+    /**
+     * Get rows loaded per successful shard
+     * @return shard index -> rows reported by COPY
+     */
+    public Map<Integer, Long> getLoadedRows() {
+        return Collections.unmodifiableMap(loadedRows);
+    }
+
+    /**
+     * Get failures per shard
+     * @return shard index -> cause
+     */
+    public Map<Integer, DataAccessException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Get number of rows routed to a failed shard, none of which were loaded
+     * @param shardIndex shard index
+     * @return rejected row count, 0 if the shard succeeded
+     */
+    public long getFailedRowCount(int shardIndex) {
+        return failedRows.getOrDefault(shardIndex, 0L);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Total rows loaded across successful shards
+     */
+    public long getTotalLoadedRows() {
+        return loadedRows.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -1,15 +1,51 @@
 package org.springframework.boot.starter.sharding.jdbc;
 
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+import org.springframework.boot.starter.sharding.core.KeysetPage;
+import org.springframework.boot.starter.sharding.core.Shard;
 import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.boot.starter.sharding.core.ShardCursor;
+import org.springframework.boot.starter.sharding.core.ShardReadCoalescer;
+import org.springframework.boot.starter.sharding.core.ShardResultCache;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Shard-aware JdbcTemplate that automatically manages shard context
@@ -17,48 +53,399 @@ import java.util.Map;
  */
 public class ShardJdbcTemplate {
     
+    private final DataSource routingDataSource;
     private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, JdbcTemplate> shardTemplates = new ConcurrentHashMap<>();
+    private final Map<Integer, TransactionTemplate> shardTransactions = new ConcurrentHashMap<>();
+    private Executor executor;
+    private ShardWriteCoalescer writeCoalescer;
+    private ReplicationPositionProbe positionProbe = new PostgresReplicationPositionProbe();
+    private int streamFetchSize = 1000;
+    private ShardResultCache resultCache;
+    private ShardReadCoalescer readCoalescer;
+    private final boolean readOnly;
+    private final ConsistencyToken consistencyToken;
+    private final String workload;
+    private final boolean cacheReads;
+    private volatile ShardJdbcTemplate readOnlyView;
+    private volatile ShardJdbcTemplate cachedView;
+    private volatile TransactionTemplate keyTransaction;
+    private final Map<String, ShardJdbcTemplate> workloadViews = new ConcurrentHashMap<>();
     
     public ShardJdbcTemplate(DataSource routingDataSource) {
+        this(routingDataSource, defaultExecutor());
+    }
+    
+    public ShardJdbcTemplate(DataSource routingDataSource, Executor executor) {
+        this.routingDataSource = routingDataSource;
         this.jdbcTemplate = new JdbcTemplate(routingDataSource);
+        this.executor = executor;
+        this.readOnly = false;
+        this.consistencyToken = null;
+        this.workload = null;
+        this.cacheReads = false;
+    }
+    
+    private ShardJdbcTemplate(ShardJdbcTemplate primary, boolean readOnly, ConsistencyToken consistencyToken,
+                              String workload, boolean cacheReads) {
+        this.routingDataSource = primary.routingDataSource;
+        this.jdbcTemplate = primary.jdbcTemplate;
+        this.executor = primary.executor;
+        this.positionProbe = primary.positionProbe;
+        this.streamFetchSize = primary.streamFetchSize;
+        this.resultCache = primary.resultCache;
+        this.readCoalescer = primary.readCoalescer;
+        this.readOnly = readOnly;
+        this.consistencyToken = consistencyToken;
+        this.workload = workload;
+        this.cacheReads = cacheReads;
+    }
+    
+    private boolean isView() {
+        return readOnly || workload != null || cacheReads;
+    }
+    
+    /**
+     * Get view of this template whose shard-key calls are read-only work
+     * Outside a transaction they are served by a shard replica when one is configured;
+     * only use it for queries, replicas reject writes. Multi-shard calls still read the primaries
+     * @return read-only template sharing this template's configuration
+     */
+    public ShardJdbcTemplate readOnly() {
+        if (readOnly) {
+            return this;
+        }
+        if (isView()) {
+            return new ShardJdbcTemplate(this, true, null, workload, cacheReads);
+        }
+        ShardJdbcTemplate view = readOnlyView;
+        if (view == null) {
+            view = new ShardJdbcTemplate(this, true, null, null, false);
+            readOnlyView = view;
+        }
+        return view;
+    }
+    
+    /**
+     * Get read-only view that observes a prior write
+     * Reads on the token's shard only use replicas that replayed the token's
+     * position, falling back to the primary
+     * @param token token from {@link #updateWithToken} or {@link #currentToken}, may be null
+     * @return read-only template bound to the token
+     */
+    public ShardJdbcTemplate readOnly(ConsistencyToken token) {
+        return token == null ? readOnly() : new ShardJdbcTemplate(this, true, token, workload, cacheReads);
+    }
+    
+    /**
+     * Get view of this template whose calls use a workload class's pools
+     * e.g. {@code "batch"} or {@code "reporting"} so long scans cannot exhaust the
+     * connections of the default {@code "oltp"} pool; multi-shard calls use the class's pools too
+     * @param workload workload class configured on the shards
+     * @return template bound to the workload class
+     */
+    public ShardJdbcTemplate workload(String workload) {
+        if (workload == null) {
+            throw new IllegalArgumentException("Workload class must not be null");
+        }
+        if (workload.equals(this.workload)) {
+            return this;
+        }
+        if (isView()) {
+            return new ShardJdbcTemplate(this, readOnly, consistencyToken, workload, cacheReads);
+        }
+        return workloadViews.computeIfAbsent(workload, name -> new ShardJdbcTemplate(this, false, null, name, false));
+    }
+    
+    /**
+     * Get view of this template whose single-key queries are served from the result cache
+     * Results are cached per shard key, SQL and arguments and shared between callers, so
+     * they must not be modified. Writes through this template, and its views, invalidate
+     * the key's results once committed; writes made elsewhere, e.g. by other instances
+     * or through {@link #getJdbcTemplate()}, are only seen after the cache TTL. Inside a
+     * transaction queries bypass the cache. Cached replica reads may keep a lagging
+     * replica's rows for up to the TTL; they are cached apart from primary, workload and
+     * token-bound reads, which never see them
+     * @return caching template sharing this template's configuration
+     * @throws IllegalStateException if no result cache is set
+     */
+    public ShardJdbcTemplate cached() {
+        if (resultCache == null) {
+            throw new IllegalStateException("Result cache is not enabled");
+        }
+        if (cacheReads) {
+            return this;
+        }
+        if (isView()) {
+            return new ShardJdbcTemplate(this, readOnly, consistencyToken, workload, true);
+        }
+        ShardJdbcTemplate view = cachedView;
+        if (view == null) {
+            view = new ShardJdbcTemplate(this, false, null, null, true);
+            cachedView = view;
+        }
+        return view;
+    }
+    
+    private static Executor defaultExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("shard-exec-");
+        executor.setDaemon(true);
+        return executor;
+    }
+    
+    /**
+     * Set executor used to run multi-shard operations in parallel
+     * @param executor executor, one task is submitted per shard
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+        this.readOnlyView = null;
+        this.cachedView = null;
+        this.workloadViews.clear();
+    }
+    
+    /**
+     * Set probe reading primary WAL positions for consistency tokens
+     * @param positionProbe probe, PostgreSQL by default
+     */
+    public void setPositionProbe(ReplicationPositionProbe positionProbe) {
+        this.positionProbe = positionProbe;
+        this.readOnlyView = null;
+        this.cachedView = null;
+        this.workloadViews.clear();
+    }
+    
+    /**
+     * Set rows fetched per round trip by streaming queries
+     * @param streamFetchSize fetch size of the server-side cursors
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("Stream fetch size must be positive");
+        }
+        this.streamFetchSize = streamFetchSize;
+        this.readOnlyView = null;
+        this.cachedView = null;
+        this.workloadViews.clear();
+    }
+    
+    /**
+     * Enable group commit of single-row updates issued outside a transaction
+     * @param writeCoalescer coalescer, or null to execute every update directly
+     */
+    public void setWriteCoalescer(ShardWriteCoalescer writeCoalescer) {
+        this.writeCoalescer = writeCoalescer;
+    }
+    
+    /**
+     * Set cache serving the queries of {@link #cached()} views
+     * @param resultCache cache, or null to disable result caching
+     */
+    public void setResultCache(ShardResultCache resultCache) {
+        this.resultCache = resultCache;
+        this.readOnlyView = null;
+        this.cachedView = null;
+        this.workloadViews.clear();
+    }
+    
+    public ShardResultCache getResultCache() {
+        return resultCache;
+    }
+    
+    /**
+     * Enable single-flight execution of identical concurrent single-key queries
+     * Outside transactions and shard sessions, a query already running with the same
+     * shard key, SQL and arguments is awaited instead of executed again; its result is
+     * shared between the callers, so it must not be modified and lists are unmodifiable
+     * @param readCoalescer coalescer, or null to execute every query directly
+     */
+    public void setReadCoalescer(ShardReadCoalescer readCoalescer) {
+        this.readCoalescer = readCoalescer;
+        this.readOnlyView = null;
+        this.cachedView = null;
+        this.workloadViews.clear();
+    }
+    
+    public ShardReadCoalescer getReadCoalescer() {
+        return readCoalescer;
     }
     
     // UPDATE operations
     
+    /**
+     * Execute single update
+     * When a write coalescer is set and no transaction is active, the row is
+     * group-committed with concurrent writes to the same shard
+     */
     public int update(long shardKey, String sql, Object... args) {
-        return executeWithShardKey(shardKey, () -> jdbcTemplate.update(sql, args));
+        int updated;
+        if (writeCoalescer != null && !TransactionSynchronizationManager.isActualTransactionActive()
+                && ShardSession.getCurrentShard() == null) {
+            updated = awaitCoalesced(shardKey, writeCoalescer.submit(shardKey, sql, args));
+        } else {
+            updated = executeWithShardKey(shardKey, () -> jdbcTemplate.update(sql, args));
+        }
+        invalidate(shardKey);
+        return updated;
+    }
+    
+    /**
+     * Queue single update for group commit without blocking on the result
+     * @throws IllegalStateException if no write coalescer is configured
+     */
+    public CompletableFuture<Integer> updateAsync(long shardKey, String sql, Object... args) {
+        if (writeCoalescer == null) {
+            throw new IllegalStateException("Write coalescing is not enabled");
+        }
+        return writeCoalescer.submit(shardKey, sql, args).whenComplete((updated, failure) -> invalidate(shardKey));
+    }
+    
+    /**
+     * Execute single update and return a token for reading it back from replicas
+     * Runs in autocommit on one pinned connection; the token is read after the commit
+     * @throws IllegalStateException inside a transaction, use {@link #currentToken} after it completes
+     */
+    public ConsistentUpdate updateWithToken(long shardKey, String sql, Object... args) {
+        checkTokenScope();
+        return withShard(shardKey, session -> {
+            int updateCount = session.update(sql, args);
+            return new ConsistentUpdate(updateCount, currentToken(shardKey));
+        });
+    }
+    
+    /**
+     * Get token covering every write committed so far on the key's shard
+     * @param shardKey the shard key
+     * @return token with the shard primary's current WAL position
+     * @throws IllegalStateException inside a transaction, where the commit position is not known yet
+     */
+    public ConsistencyToken currentToken(long shardKey) {
+        checkTokenScope();
+        Shard shard = getShardRouter().resolve(shardKey);
+        return executeWithShardKey(shardKey, () -> jdbcTemplate.execute((ConnectionCallback<ConsistencyToken>)
+            connection -> new ConsistencyToken(shard.index(), positionProbe.currentPosition(shard, connection))));
+    }
+    
+    private void checkTokenScope() {
+        if (readOnly) {
+            throw new IllegalStateException("Consistency tokens are taken on the primary, not a read-only view");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(
+                "Commit position is not known inside a transaction. Call currentToken after it completes.");
+        }
+    }
+    
+    private int awaitCoalesced(long shardKey, CompletableFuture<Integer> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DataAccessException dataAccessException) {
+                throw dataAccessException;
+            }
+            throw new DataAccessException("Shard operation failed for key: " + shardKey, e.getCause()) {};
+        }
     }
     
     public int[] batchUpdate(long shardKey, String sql, List<Object[]> batchArgs) {
-        return executeWithShardKey(shardKey, () -> 
+        int[] updated = executeWithShardKey(shardKey, () -> 
             jdbcTemplate.batchUpdate(sql, batchArgs));
+        invalidate(shardKey);
+        return updated;
+    }
+    
+    /**
+     * Batch update spanning many shard keys
+     * Rows are partitioned by shard through the router and each shard runs one
+     * JDBC batch in its own transaction; shards are processed concurrently
+     * @param sql the SQL statement
+     * @param batchArgs rows of statement arguments
+     * @param shardKeyExtractor extracts the shard key from a row
+     * @return per-shard update counts and failures
+     */
+    public ShardBatchResult batchUpdate(String sql, List<Object[]> batchArgs,
+                                        ToLongFunction<Object[]> shardKeyExtractor) {
+        ShardRouter router = getShardRouter();
+        Map<Integer, List<Object[]>> partitions = new TreeMap<>();
+        for (Object[] args : batchArgs) {
+            int shardIndex = router.resolve(shardKeyExtractor.applyAsLong(args)).index();
+            partitions.computeIfAbsent(shardIndex, index -> new ArrayList<>()).add(args);
+        }
+        
+        Map<Integer, CompletableFuture<int[]>> futures = executeOnShards(partitions.keySet(), (index, template) ->
+            shardTransaction(index).execute(status -> template.batchUpdate(sql, partitions.get(index))));
+        CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        batchArgs.forEach(args -> evict(shardKeyExtractor.applyAsLong(args)));
+        
+        ShardBatchResult result = new ShardBatchResult();
+        futures.forEach((index, future) -> {
+            try {
+                result.recordSuccess(index, future.join());
+            } catch (CompletionException e) {
+                result.recordFailure(index, partitions.get(index), unwrap(index, e));
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Execute update on every shard
+     * Shards run concurrently, each in autocommit: a failing shard does not undo
+     * the others. Rejected inside a shard transaction or session, which it could not join
+     * @return rows updated on all shards
+     * @throws DataAccessException of the first failed shard, after all shards finished
+     */
+    public int updateAllShards(String sql, Object... args) {
+        Shard bound = getBoundShard();
+        if (bound != null) {
+            throw new IllegalStateException("Multi-shard update cannot join the current scope bound to " + bound.name());
+        }
+        Map<Integer, CompletableFuture<Integer>> futures = executeOnShards(allShardIndexes(), (index, template) ->
+            template.update(sql, args));
+        CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        evictAll();
+        int updated = 0;
+        DataAccessException failure = null;
+        for (Map.Entry<Integer, CompletableFuture<Integer>> entry : futures.entrySet()) {
+            try {
+                updated += entry.getValue().join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = unwrap(entry.getKey(), e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return updated;
     }
     
     // QUERY operations
     
     public <T> T queryForObject(long shardKey, String sql, Class<T> requiredType, Object... args) {
-        return executeWithShardKey(shardKey, () -> 
-            jdbcTemplate.queryForObject(sql, requiredType, args));
+        return sharedQuery(shardKey, sql, new ReadShape("object", requiredType), args, () ->
+            executeWithShardKey(shardKey, () -> jdbcTemplate.queryForObject(sql, requiredType, args)));
     }
     
     public <T> T queryForObject(long shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
-        return executeWithShardKey(shardKey, () -> 
-            jdbcTemplate.queryForObject(sql, rowMapper, args));
+        return sharedQuery(shardKey, sql, new ReadShape("object", rowMapper), args, () ->
+            executeWithShardKey(shardKey, () -> jdbcTemplate.queryForObject(sql, rowMapper, args)));
     }
     
     public <T> List<T> query(long shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
-        return executeWithShardKey(shardKey, () -> 
-            jdbcTemplate.query(sql, rowMapper, args));
+        return sharedQuery(shardKey, sql, new ReadShape("list", rowMapper), args, () ->
+            executeWithShardKey(shardKey, () -> shareable(jdbcTemplate.query(sql, rowMapper, args))));
     }
     
     public List<Map<String, Object>> queryForList(long shardKey, String sql, Object... args) {
-        return executeWithShardKey(shardKey, () -> 
-            jdbcTemplate.queryForList(sql, args));
+        return sharedQuery(shardKey, sql, new ReadShape("list", Map.class), args, () ->
+            executeWithShardKey(shardKey, () -> shareable(jdbcTemplate.queryForList(sql, args))));
     }
     
     public Map<String, Object> queryForMap(long shardKey, String sql, Object... args) {
-        return executeWithShardKey(shardKey, () -> 
-            jdbcTemplate.queryForMap(sql, args));
+        return sharedQuery(shardKey, sql, new ReadShape("object", Map.class), args, () ->
+            executeWithShardKey(shardKey, () -> jdbcTemplate.queryForMap(sql, args)));
     }
     
     public <T> T query(long shardKey, String sql, ResultSetExtractor<T> rse, Object... args) {
@@ -66,18 +453,497 @@ public class ShardJdbcTemplate {
             jdbcTemplate.query(sql, rse, args));
     }
     
+    /**
+     * Run single-key query through the read coalescer and, in a {@link #cached()} view, the result cache
+     * Inside a transaction queries run on their own, they must see the transaction's writes;
+     * in a shard session they are not coalesced either, they read the pinned connection
+     * @param shape what the result is mapped to, part of the cache and coalescing keys
+     */
+    private <T> T sharedQuery(long shardKey, String sql, ReadShape shape, Object[] args, Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        // Replica and primary reads of the same statement are not interchangeable: rows loaded
+        // from a lagging replica must never answer a primary or token-bound read
+        ReadTarget target = new ReadTarget(shape, readOnly, consistencyToken, workload);
+        Supplier<T> load = query;
+        ShardReadCoalescer coalescer = readCoalescer;
+        if (coalescer != null && ShardSession.getCurrentShard() == null) {
+            load = () -> coalescer.execute(shardKey, sql, target, args, query);
+        }
+        return cacheReads ? resultCache.get(shardKey, sql, target, args, load) : load.get();
+    }
+    
+    /**
+     * Single result or list, and the type or row mapper producing it
+     */
+    private record ReadShape(String result, Object mapping) {
+    }
+    
+    /**
+     * Read shape and the pools serving it
+     */
+    private record ReadTarget(ReadShape shape, boolean readOnly, ConsistencyToken token, String workload) {
+    }
+    
+    private <T> List<T> shareable(List<T> rows) {
+        return cacheReads || readCoalescer != null ? Collections.unmodifiableList(rows) : rows;
+    }
+    
+    /**
+     * Invalidate the key's cached and in-flight results once the write is visible to other connections
+     * Inside a transaction that is after its completion: until then readers still see
+     * the old rows and may cache them again
+     */
+    private void invalidate(long shardKey) {
+        if (resultCache == null && readCoalescer == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(shardKey);
+                }
+            });
+        } else {
+            evict(shardKey);
+        }
+    }
+    
+    private void evict(long shardKey) {
+        if (resultCache != null) {
+            resultCache.invalidate(shardKey);
+        }
+        if (readCoalescer != null) {
+            readCoalescer.invalidate(shardKey);
+        }
+    }
+    
+    private void evictAll() {
+        if (resultCache != null) {
+            resultCache.invalidateAll();
+        }
+        if (readCoalescer != null) {
+            readCoalescer.invalidateAll();
+        }
+    }
+    
+    /**
+     * Query the key's shard as a lazily consumed stream
+     * Rows are read through a server-side cursor, streamFetchSize rows per round
+     * trip, so memory stays constant regardless of the result size. The cursor's
+     * connection stays pinned to the key's shard until the stream is exhausted or
+     * closed: always close it, e.g. with try-with-resources. Inside a transaction or
+     * shard session the bound connection is used and the stream must be consumed
+     * before the scope ends
+     * @return stream of mapped rows, must be closed
+     */
+    public <T> Stream<T> queryForStream(long shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
+        return executeWithShardKey(shardKey, () -> ShardResultStream.open(routingDataSource, sql, rowMapper, args,
+            streamFetchSize, jdbcTemplate.getExceptionTranslator()));
+    }
+    
+    /**
+     * Query every shard concurrently and concatenate the rows in shard order
+     * The whole result is held in memory, see {@link #streamAllShards} for large results
+     * @return rows of all shards
+     */
+    public <T> List<T> queryAllShards(String sql, RowMapper<T> rowMapper, Object... args) {
+        Map<Integer, CompletableFuture<List<T>>> futures = executeOnShards(allShardIndexes(), (index, template) ->
+            template.query(sql, rowMapper, args));
+        List<T> rows = new ArrayList<>();
+        futures.forEach((index, future) -> {
+            try {
+                rows.addAll(future.join());
+            } catch (CompletionException e) {
+                throw unwrap(index, e);
+            }
+        });
+        return rows;
+    }
+    
+    /**
+     * Query every shard as one lazily consumed stream
+     * Shards are read one after the other through server-side cursors; only the
+     * shard being read holds a connection, so memory and connections stay constant
+     * regardless of the result size
+     * @return stream of mapped rows, shard by shard, must be closed
+     */
+    public <T> Stream<T> streamAllShards(String sql, RowMapper<T> rowMapper, Object... args) {
+        RoutingDataSource routing = getRoutingDataSource();
+        int shardCount = routing.getShardRouter().getShardCount();
+        Iterator<Supplier<Stream<T>>> cursors = new Iterator<>() {
+            private int next;
+            
+            @Override
+            public boolean hasNext() {
+                return next < shardCount;
+            }
+            
+            @Override
+            public Supplier<Stream<T>> next() {
+                int shardIndex = next++;
+                return () -> executeOnShard(shardIndex, template -> ShardResultStream.open(
+                    routing.getShardDataSource(shardIndex, workload), sql, rowMapper, args,
+                    streamFetchSize, jdbcTemplate.getExceptionTranslator()));
+            }
+        };
+        return ShardResultStream.concat(cursors);
+    }
+    
+    /**
+     * Query many shard keys with one round trip per shard
+     * Keys are grouped by shard and bound as a single array parameter, so the SQL
+     * must filter with {@code WHERE account_id = ANY(?)} and select the shard key
+     * as its first column; shards are queried concurrently
+     * @param keys shard keys to fetch
+     * @param sql the SQL query with one array placeholder
+     * @param rowMapper row mapper
+     * @return shard key -> rows, every requested key is present (possibly empty)
+     */
+    public <T> Map<Long, List<T>> queryByKeys(long[] keys, String sql, RowMapper<T> rowMapper) {
+        ShardRouter router = getShardRouter();
+        Map<Integer, List<Long>> partitions = new TreeMap<>();
+        Map<Long, List<T>> results = new LinkedHashMap<>();
+        for (long key : keys) {
+            if (results.putIfAbsent(key, new ArrayList<>()) == null) {
+                partitions.computeIfAbsent(router.resolve(key).index(), index -> new ArrayList<>()).add(key);
+            }
+        }
+        
+        Map<Integer, CompletableFuture<List<KeyedValue<T>>>> futures = executeOnShards(partitions.keySet(),
+            (index, template) -> template.query(sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", partitions.get(index).toArray())),
+                (rs, rowNum) -> new KeyedValue<>(rs.getLong(1), rowMapper.mapRow(rs, rowNum))));
+        
+        futures.forEach((index, future) -> {
+            List<KeyedValue<T>> rows;
+            try {
+                rows = future.join();
+            } catch (CompletionException e) {
+                throw unwrap(index, e);
+            }
+            for (KeyedValue<T> row : rows) {
+                List<T> values = results.get(row.key());
+                if (values == null) {
+                    throw new IllegalStateException(
+                        "Unexpected shard key " + row.key() + " in first column. Select the shard key first.");
+                }
+                values.add(row.value());
+            }
+        });
+        return results;
+    }
+    
+    private record KeyedValue<T>(long key, T value) {
+    }
+    
     // EXECUTE operations
     
     public <T> T execute(long shardKey, String sql, PreparedStatementCallback<T> action) {
-        return executeWithShardKey(shardKey, () -> 
+        T result = executeWithShardKey(shardKey, () -> 
             jdbcTemplate.execute(sql, action));
+        invalidate(shardKey);
+        return result;
+    }
+    
+    // KEYSET pagination
+    
+    /**
+     * Fetch one page from a single shard using keyset pagination
+     * Each page is a seek on the sort key, so cost stays O(pageSize) at any depth
+     * @param shardKey the shard key
+     * @param query keyset query definition
+     * @param rowMapper row mapper
+     * @param pageSize maximum rows per page
+     * @param token continuation token from the previous page, null for the first page
+     * @param args arguments for the base SQL
+     * @return page with continuation token
+     */
+    public <T> KeysetPage<T> queryPage(long shardKey, KeysetQuery query, RowMapper<T> rowMapper,
+                                       int pageSize, String token, Object... args) {
+        validatePageSize(pageSize);
+        ShardCursor cursor = ShardCursor.decode(token);
+        Map<Integer, List<KeyedRow<T>>> fetched = new LinkedHashMap<>();
+        if (!cursor.isExhausted(0)) {
+            fetched.put(0, executeWithShardKey(shardKey, () ->
+                fetchPage(jdbcTemplate, 0, query, rowMapper, cursor.position(0), pageSize, args)));
+        }
+        return mergePages(query, cursor, fetched, pageSize);
+    }
+    
+    /**
+     * Fetch one page across all shards using keyset pagination
+     * Shards are queried concurrently, each returning at most pageSize + 1 rows after
+     * its own last emitted key; results are merged in sort order and the token tracks the position per shard
+     * @param query keyset query definition
+     * @param rowMapper row mapper
+     * @param pageSize maximum rows per page
+     * @param token continuation token from the previous page, null for the first page
+     * @param args arguments for the base SQL
+     * @return merged page with continuation token
+     */
+    public <T> KeysetPage<T> queryPageAllShards(KeysetQuery query, RowMapper<T> rowMapper,
+                                                int pageSize, String token, Object... args) {
+        validatePageSize(pageSize);
+        ShardCursor cursor = ShardCursor.decode(token);
+        List<Integer> open = allShardIndexes().stream().filter(slot -> !cursor.isExhausted(slot)).toList();
+        Map<Integer, CompletableFuture<List<KeyedRow<T>>>> futures = executeOnShards(open, (slot, template) ->
+            fetchPage(template, slot, query, rowMapper, cursor.position(slot), pageSize, args));
+        Map<Integer, List<KeyedRow<T>>> fetched = new LinkedHashMap<>();
+        futures.forEach((slot, future) -> {
+            try {
+                fetched.put(slot, future.join());
+            } catch (CompletionException e) {
+                throw unwrap(slot, e);
+            }
+        });
+        return mergePages(query, cursor, fetched, pageSize);
+    }
+    
+    private <T> List<KeyedRow<T>> fetchPage(JdbcTemplate template, int slot, KeysetQuery query,
+                                            RowMapper<T> rowMapper, Map<String, Object> position,
+                                            int pageSize, Object[] args) {
+        // Fetch one extra row to know whether the shard has more data
+        return template.query(
+            query.render(position != null),
+            (rs, rowNum) -> new KeyedRow<>(slot, query.extractKey(rs), rowMapper.mapRow(rs, rowNum)),
+            query.arguments(args, position, pageSize + 1));
+    }
+    
+    private <T> KeysetPage<T> mergePages(KeysetQuery query, ShardCursor cursor,
+                                         Map<Integer, List<KeyedRow<T>>> fetched, int pageSize) {
+        List<KeyedRow<T>> merged = new ArrayList<>();
+        fetched.values().forEach(merged::addAll);
+        merged.sort((left, right) -> query.compare(left.key(), right.key()));
+        
+        List<KeyedRow<T>> page = merged.subList(0, Math.min(pageSize, merged.size()));
+        Map<Integer, KeyedRow<T>> lastConsumed = new LinkedHashMap<>();
+        Map<Integer, Integer> consumedCount = new LinkedHashMap<>();
+        List<T> content = new ArrayList<>(page.size());
+        for (KeyedRow<T> row : page) {
+            content.add(row.value());
+            lastConsumed.put(row.slot(), row);
+            consumedCount.merge(row.slot(), 1, Integer::sum);
+        }
+        
+        boolean hasNext = false;
+        for (Map.Entry<Integer, List<KeyedRow<T>>> entry : fetched.entrySet()) {
+            int slot = entry.getKey();
+            int rows = entry.getValue().size();
+            int consumed = consumedCount.getOrDefault(slot, 0);
+            if (rows <= pageSize && consumed == rows) {
+                cursor.exhaust(slot);
+                continue;
+            }
+            if (consumed > 0) {
+                cursor.advance(slot, lastConsumed.get(slot).key());
+            }
+            hasNext = true;
+        }
+        return new KeysetPage<>(content, hasNext ? cursor.encode() : null);
+    }
+    
+    private static void validatePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+    }
+    
+    private record KeyedRow<T>(int slot, Map<String, Object> key, T value) {
+    }
+    
+    // PIPELINE operations
+    
+    /**
+     * Start statement pipeline for one shard key
+     * Queued statements are sent together on execute, e.g. INSERT + UPDATE + UPDATE
+     * of a payment in one network round trip on PostgreSQL
+     * @param shardKey the shard key
+     * @return empty pipeline
+     */
+    public ShardPipeline pipeline(long shardKey) {
+        return new ShardPipeline(this, shardKey);
+    }
+    
+    ShardPipeline.PipelineResults executePipeline(long shardKey, List<ShardPipeline.Statement> statements) {
+        if (statements.isEmpty()) {
+            return new ShardPipeline.PipelineResults(List.of());
+        }
+        ShardPipeline.PipelineResults pipelineResults = executeWithShardKey(shardKey, () -> jdbcTemplate.execute((ConnectionCallback<ShardPipeline.PipelineResults>) con -> {
+            boolean multiStatement = statements.size() > 1
+                && "PostgreSQL".equals(con.getMetaData().getDatabaseProductName());
+            List<Object> results = multiStatement
+                ? executeMultiStatement(con, statements)
+                : executeSequentially(con, statements);
+            return new ShardPipeline.PipelineResults(results);
+        }));
+        if (statements.stream().anyMatch(statement -> !statement.isQuery())) {
+            invalidate(shardKey);
+        }
+        return pipelineResults;
+    }
+    
+    private static List<Object> executeMultiStatement(Connection con, List<ShardPipeline.Statement> statements)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (ShardPipeline.Statement statement : statements) {
+            if (sql.length() > 0) {
+                sql.append(";\n");
+            }
+            sql.append(stripTerminator(statement.sql()));
+            if (statement.args() != null) {
+                // List.of rejects null elements, and null is a valid bind value
+                Collections.addAll(args, statement.args());
+            }
+        }
+        
+        // PgJDBC sends every sub-statement (Parse/Bind/Execute) before a single Sync
+        List<Object> results = new ArrayList<>(statements.size());
+        try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            boolean hasResultSet = ps.execute();
+            for (ShardPipeline.Statement statement : statements) {
+                if (hasResultSet) {
+                    try (ResultSet rs = ps.getResultSet()) {
+                        results.add(statement.isQuery() ? mapRows(rs, statement.rowMapper()) : List.of());
+                    }
+                } else {
+                    results.add(ps.getUpdateCount());
+                }
+                hasResultSet = ps.getMoreResults();
+            }
+        }
+        return results;
+    }
+    
+    private static List<Object> executeSequentially(Connection con, List<ShardPipeline.Statement> statements)
+            throws SQLException {
+        List<Object> results = new ArrayList<>(statements.size());
+        for (ShardPipeline.Statement statement : statements) {
+            try (PreparedStatement ps = con.prepareStatement(stripTerminator(statement.sql()))) {
+                new ArgumentPreparedStatementSetter(statement.args()).setValues(ps);
+                if (statement.isQuery()) {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        results.add(mapRows(rs, statement.rowMapper()));
+                    }
+                } else {
+                    results.add(ps.executeUpdate());
+                }
+            }
+        }
+        return results;
+    }
+    
+    private static List<Object> mapRows(ResultSet rs, RowMapper<?> rowMapper) throws SQLException {
+        List<Object> rows = new ArrayList<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            rows.add(rowMapper.mapRow(rs, rowNum++));
+        }
+        return rows;
+    }
+    
+    private static String stripTerminator(String sql) {
+        String stripped = sql.strip();
+        return stripped.endsWith(";") ? stripped.substring(0, stripped.length() - 1) : stripped;
+    }
+    
+    // TRANSACTION scope
+    
+    /**
+     * Execute work in a local transaction on the shard owning the key
+     * Calls for keys on the same shard inside the callback join the transaction,
+     * keys on other shards are rejected. Within an existing transaction on the
+     * same shard, that transaction is joined. Exceptions thrown by the callback
+     * roll back and propagate unchanged
+     * @param shardKey the shard key
+     * @param action transactional work
+     * @return callback result
+     */
+    public <T> T executeInTransaction(long shardKey, TransactionCallback<T> action) {
+        TransactionTemplate transaction = keyTransaction;
+        if (transaction == null) {
+            transaction = new TransactionTemplate(new ShardTransactionManager(routingDataSource));
+            keyTransaction = transaction;
+        }
+        verifyTransactionShard(shardKey);
+        Long previousKey = ShardContext.get();
+        RoutingState previousRouting = RoutingState.capture();
+        try {
+            ShardContext.set(shardKey);
+            applyRouting(previousRouting);
+            return transaction.execute(action);
+        } finally {
+            restoreShardKey(previousKey);
+            previousRouting.restore();
+        }
+    }
+    
+    // SESSION scope
+    
+    /**
+     * Execute work with one pinned connection for the shard key
+     * Outside a transaction each call would borrow and return its own connection;
+     * inside the session all calls for the shard reuse one autocommit connection
+     * that is released when the callback returns. Within an existing transaction
+     * or session on the same shard, its connection is reused.
+     * @param shardKey the shard key
+     * @param callback work to execute
+     * @return callback result
+     */
+    public <T> T withShard(long shardKey, ShardSessionCallback<T> callback) {
+        RoutingDataSource routing = getRoutingDataSource();
+        Shard shard = routing.getShardRouter().resolve(shardKey);
+        ShardSession session = new ShardSession(this, shardKey);
+        
+        Shard bound = getBoundShard();
+        if (bound != null) {
+            if (bound.index() != shard.index()) {
+                throw new IllegalStateException("Shard key " + shardKey + " resolves to " + shard.name()
+                    + " but the current scope is bound to " + bound.name());
+            }
+            return callback.doInSession(session);
+        }
+        
+        Long previousKey = ShardContext.get();
+        RoutingState previousRouting = RoutingState.capture();
+        ShardContext.set(shardKey);
+        Connection connection;
+        try {
+            applyRouting(previousRouting);
+            connection = routing.getConnection();
+        } catch (SQLException e) {
+            restoreShardKey(previousKey);
+            throw new CannotGetJdbcConnectionException("Failed to obtain connection for key: " + shardKey, e);
+        } finally {
+            previousRouting.restore();
+        }
+        
+        TransactionSynchronizationManager.bindResource(routing, new ConnectionHolder(connection));
+        ShardSession.bind(shard);
+        try {
+            return callback.doInSession(session);
+        } finally {
+            ShardSession.unbind();
+            TransactionSynchronizationManager.unbindResourceIfPossible(routing);
+            DataSourceUtils.releaseConnection(connection, null);
+            restoreShardKey(previousKey);
+        }
     }
     
     // Core execution method with shard context management
     
     private <T> T executeWithShardKey(long shardKey, ShardOperation<T> operation) {
+        verifyTransactionShard(shardKey);
+        // Restore the caller's key afterwards so an enclosing transaction keeps its context
+        Long previousKey = ShardContext.get();
+        RoutingState previousRouting = RoutingState.capture();
         try {
             ShardContext.set(shardKey);
+            applyRouting(previousRouting);
             return operation.execute();
         } catch (DataAccessException e) {
             // Re-throw Spring's DataAccessException as-is
@@ -86,18 +952,149 @@ public class ShardJdbcTemplate {
             // Wrap other exceptions
             throw new DataAccessException("Shard operation failed for key: " + shardKey, e) {};
         } finally {
+            restoreShardKey(previousKey);
+            previousRouting.restore();
+        }
+    }
+    
+    private void applyRouting(RoutingState previous) {
+        ShardContext.setReadOnly(readOnly || previous.readOnly());
+        if (consistencyToken != null) {
+            ShardContext.setConsistencyToken(consistencyToken);
+        }
+        if (workload != null) {
+            ShardContext.setWorkload(workload);
+        }
+    }
+    
+    /**
+     * Replica and pool routing flags of the calling thread, restored after each call
+     */
+    private record RoutingState(boolean readOnly, ConsistencyToken token, String workload) {
+        
+        static RoutingState capture() {
+            return new RoutingState(ShardContext.isReadOnly(), ShardContext.getConsistencyToken(),
+                ShardContext.getWorkload());
+        }
+        
+        void restore() {
+            ShardContext.setReadOnly(readOnly);
+            ShardContext.setConsistencyToken(token);
+            ShardContext.setWorkload(workload);
+        }
+    }
+    
+    private static void restoreShardKey(Long previousKey) {
+        if (previousKey != null) {
+            ShardContext.set(previousKey);
+        } else {
             ShardContext.clear();
         }
     }
     
+    /**
+     * Inside a shard transaction or session the bound connection is reused for every call,
+     * so a key that lives on another shard would silently hit the wrong database
+     */
+    private void verifyTransactionShard(long shardKey) {
+        Shard boundShard = getBoundShard();
+        if (boundShard == null || !(routingDataSource instanceof RoutingDataSource routing)) {
+            return;
+        }
+        Shard target = routing.getShardRouter().resolve(shardKey);
+        if (target.index() != boundShard.index()) {
+            throw new IllegalStateException("Shard key " + shardKey + " resolves to " + target.name()
+                + " but the current scope is bound to " + boundShard.name());
+        }
+    }
+    
+    private static Shard getBoundShard() {
+        Shard transactionShard = ShardTransactionManager.getTransactionShard();
+        return transactionShard != null ? transactionShard : ShardSession.getCurrentShard();
+    }
+    
     @FunctionalInterface
     private interface ShardOperation<T> {
         T execute() throws Exception;
     }
     
+    /**
+     * Execute operation directly against one shard by index
+     * Used by scatter-gather operations that do not have a shard key
+     */
+    private <T> T executeOnShard(int shardIndex, ShardTemplateOperation<T> operation) {
+        RoutingDataSource routing = getRoutingDataSource();
+        JdbcTemplate template = shardTemplates.computeIfAbsent(shardIndex,
+            index -> new JdbcTemplate(routing.getShardDataSource(index, workload)));
+        try {
+            return operation.execute(template);
+        } catch (DataAccessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DataAccessException("Shard operation failed for shard index: " + shardIndex, e) {};
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ShardTemplateOperation<T> {
+        T execute(JdbcTemplate template) throws Exception;
+    }
+    
+    /**
+     * Execute operation on several shards concurrently
+     * @return shard index -> future completed with the shard result
+     */
+    private <T> Map<Integer, CompletableFuture<T>> executeOnShards(Collection<Integer> shardIndexes,
+                                                                   ShardIndexOperation<T> operation) {
+        Map<Integer, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (int shardIndex : shardIndexes) {
+            futures.put(shardIndex, CompletableFuture.supplyAsync(() ->
+                executeOnShard(shardIndex, template -> operation.execute(shardIndex, template)), executor));
+        }
+        return futures;
+    }
+    
+    @FunctionalInterface
+    private interface ShardIndexOperation<T> {
+        T execute(int shardIndex, JdbcTemplate template) throws Exception;
+    }
+    
+    private List<Integer> allShardIndexes() {
+        return IntStream.range(0, getShardRouter().getShardCount()).boxed().toList();
+    }
+    
+    private TransactionTemplate shardTransaction(int shardIndex) {
+        return shardTransactions.computeIfAbsent(shardIndex, index ->
+            new TransactionTemplate(new DataSourceTransactionManager(
+                getRoutingDataSource().getShardDataSource(index, workload))));
+    }
+    
+    private static DataAccessException unwrap(int shardIndex, CompletionException e) {
+        if (e.getCause() instanceof DataAccessException dataAccessException) {
+            return dataAccessException;
+        }
+        return new DataAccessException("Shard operation failed for shard index: " + shardIndex, e.getCause()) {};
+    }
+    
+    /**
+     * Get shard router of the underlying RoutingDataSource
+     * @throws IllegalStateException if template is not backed by RoutingDataSource
+     */
+    public ShardRouter getShardRouter() {
+        return getRoutingDataSource().getShardRouter();
+    }
+    
+    private RoutingDataSource getRoutingDataSource() {
+        if (routingDataSource instanceof RoutingDataSource routing) {
+            return routing;
+        }
+        throw new IllegalStateException("Cross-shard operations require a RoutingDataSource");
+    }
+    
     /**
      * Get underlying JdbcTemplate for advanced operations
-     * Note: Shard context must be managed manually when using this
+     * Note: Shard context must be managed manually when using this,
+     * or use {@link SqlRoutingJdbcTemplate} which finds the shard key in the SQL
      */
     public JdbcTemplate getJdbcTemplate() {
         return jdbcTemplate;
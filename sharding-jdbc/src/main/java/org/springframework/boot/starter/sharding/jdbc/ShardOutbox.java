@@ -0,0 +1,118 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Per-shard transactional outbox for cross-shard work without two-phase commit
+ * A message is inserted in the same local transaction as the source shard's
+ * changes, so it exists exactly when they commit. ShardOutboxRelay delivers it
+ * to the shard owning its target key, where the inbox table records delivered
+ * message ids in the delivery transaction, so redelivery is a no-op.
+ *
+ * Tables (per shard):
+ * outbox (id BIGSERIAL, target_key, message_type, payload, attempts, next_attempt_at, delivered_at),
+ * inbox (source_shard, message_id) with that primary key
+ */
+public class ShardOutbox {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final ShardJdbcTemplate shardJdbc;
+    private final String outboxTable;
+    private final String inboxTable;
+
+    public ShardOutbox(ShardJdbcTemplate shardJdbc) {
+        this(shardJdbc, "shard_outbox", "shard_inbox");
+    }
+
+    /**
+     * @param shardJdbc template used to publish and to record deliveries
+     * @param outboxTable outbox table name on every shard
+     * @param inboxTable inbox table name on every shard
+     */
+    public ShardOutbox(ShardJdbcTemplate shardJdbc, String outboxTable, String inboxTable) {
+        if (!TABLE_NAME.matcher(outboxTable).matches() || !TABLE_NAME.matcher(inboxTable).matches()) {
+            throw new IllegalArgumentException("Invalid outbox or inbox table name");
+        }
+        this.shardJdbc = shardJdbc;
+        this.outboxTable = outboxTable;
+        this.inboxTable = inboxTable;
+    }
+
+    /**
+     * Write message in the current transaction on the source key's shard
+     * @param sourceKey shard key whose shard stores the message
+     * @param targetKey shard key the message is delivered to
+     * @param messageType type selecting the OutboxHandler
+     * @param payload message body
+     * @return message id, unique within the source shard
+     * @throws IllegalStateException if no transaction is active
+     */
+    public long publish(long sourceKey, long targetKey, String messageType, String payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox messages must be published inside a transaction on the source shard");
+        }
+        return shardJdbc.queryForObject(
+            sourceKey,
+            "INSERT INTO " + outboxTable + " (target_key, message_type, payload) VALUES (?, ?, ?) RETURNING id",
+            Long.class,
+            targetKey, messageType, payload
+        );
+    }
+
+    ShardJdbcTemplate getShardJdbcTemplate() {
+        return shardJdbc;
+    }
+
+    /**
+     * Lease due messages of one shard: they are hidden from other relays until
+     * the lease expires, which is also the retry delay if delivery fails
+     */
+    List<OutboxMessage> lease(JdbcTemplate source, int sourceShard, int limit, int maxAttempts, Duration lease) {
+        List<OutboxMessage> messages = source.query(
+            "UPDATE " + outboxTable + " SET attempts = attempts + 1, "
+                + "next_attempt_at = CURRENT_TIMESTAMP + CAST(? AS DOUBLE PRECISION) * INTERVAL '1 millisecond' "
+                + "WHERE id IN (SELECT id FROM " + outboxTable + " "
+                + "WHERE delivered_at IS NULL AND attempts < ? AND next_attempt_at <= CURRENT_TIMESTAMP "
+                + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) "
+                + "RETURNING id, target_key, message_type, payload",
+            (rs, rowNum) -> new OutboxMessage(sourceShard, rs.getLong("id"), rs.getLong("target_key"),
+                rs.getString("message_type"), rs.getString("payload")),
+            lease.toMillis(), maxAttempts, limit
+        );
+        // RETURNING does not preserve the subquery order
+        return messages.stream().sorted(Comparator.comparingLong(OutboxMessage::id)).toList();
+    }
+
+    void markDelivered(JdbcTemplate source, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        source.update(
+            "UPDATE " + outboxTable + " SET delivered_at = CURRENT_TIMESTAMP WHERE id = ANY(?)",
+            ps -> {
+                Array array = ps.getConnection().createArrayOf("bigint", ids.toArray());
+                ps.setArray(1, array);
+            }
+        );
+    }
+
+    /**
+     * Record delivery on the target shard inside the delivery transaction
+     * @return false if the message was already delivered
+     */
+    boolean claim(OutboxMessage message) {
+        return shardJdbc.update(
+            message.targetKey(),
+            "INSERT INTO " + inboxTable + " (source_shard, message_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+            message.sourceShard(), message.id()
+        ) == 1;
+    }
+}
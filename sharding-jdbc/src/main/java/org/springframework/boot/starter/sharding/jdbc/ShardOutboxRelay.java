@@ -0,0 +1,211 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers ShardOutbox messages to their target shards
+ * Every source shard is drained by its own relay thread, so throughput grows
+ * with the shard count. Leased messages are grouped by target shard and applied
+ * in one transaction per target shard; if that fails, its messages are retried
+ * one by one so a bad message only delays itself. Failed messages are retried
+ * after the lease expires, up to maxAttempts; ordering is not kept across retries
+ */
+public class ShardOutboxRelay implements AutoCloseable {
+
+    private static final Log logger = LogFactory.getLog(ShardOutboxRelay.class);
+
+    private final RoutingDataSource routingDataSource;
+    private final ShardOutbox outbox;
+    private final ShardJdbcTemplate shardJdbc;
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final Map<Integer, JdbcTemplate> sourceTemplates = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param routingDataSource routing data source
+     * @param outbox outbox the messages were published to
+     * @param handlers one handler per message type
+     * @param batchSize messages leased per source shard and poll
+     * @param maxAttempts deliveries tried before a message is left for manual repair
+     * @param pollInterval delay between polls of an idle shard
+     * @param retryDelay lease duration, after which a failed message is retried
+     */
+    public ShardOutboxRelay(RoutingDataSource routingDataSource, ShardOutbox outbox, List<OutboxHandler> handlers,
+                            int batchSize, int maxAttempts, Duration pollInterval, Duration retryDelay) {
+        if (batchSize <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Batch size and max attempts must be positive");
+        }
+        for (OutboxHandler handler : handlers) {
+            if (this.handlers.putIfAbsent(handler.messageType(), handler) != null) {
+                throw new IllegalArgumentException("Duplicate outbox handler for message type: " + handler.messageType());
+            }
+        }
+        this.routingDataSource = routingDataSource;
+        this.outbox = outbox;
+        this.shardJdbc = outbox.getShardJdbcTemplate();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Start one relay thread per shard
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        int shardCount = routingDataSource.getShardRouter().getShardCount();
+        AtomicInteger threads = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "shard-outbox-relay-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        for (int i = 0; i < shardCount; i++) {
+            int shardIndex = i;
+            scheduler.scheduleWithFixedDelay(() -> drain(shardIndex), 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Deliver due messages of every shard once
+     */
+    public void pollOnce() {
+        for (int i = 0; i < routingDataSource.getShardRouter().getShardCount(); i++) {
+            drain(i);
+        }
+    }
+
+    /**
+     * Get relay metrics
+     * @return snapshot of delivery counters
+     */
+    public Stats getStats() {
+        return new Stats(delivered.sum(), duplicates.sum(), failures.sum(), batches.sum());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void drain(int shardIndex) {
+        try {
+            // Keep going while full batches come back so a backlog is not paced by the poll interval
+            int leased;
+            do {
+                leased = relayBatch(shardIndex);
+            } while (leased == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay failed for shard index " + shardIndex, e);
+        }
+    }
+
+    private int relayBatch(int shardIndex) {
+        JdbcTemplate source = sourceTemplates.computeIfAbsent(shardIndex,
+            index -> new JdbcTemplate(routingDataSource.getShardDataSource(index)));
+        List<OutboxMessage> messages = outbox.lease(source, shardIndex, batchSize, maxAttempts, retryDelay);
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        batches.increment();
+
+        Map<Integer, List<OutboxMessage>> byTarget = new LinkedHashMap<>();
+        for (OutboxMessage message : messages) {
+            int target = routingDataSource.getShardRouter().resolve(message.targetKey()).index();
+            byTarget.computeIfAbsent(target, index -> new ArrayList<>()).add(message);
+        }
+        List<Long> deliveredIds = new ArrayList<>(messages.size());
+        byTarget.values().forEach(group -> deliver(group, deliveredIds));
+        outbox.markDelivered(source, deliveredIds);
+        delivered.add(deliveredIds.size());
+        return messages.size();
+    }
+
+    private void deliver(List<OutboxMessage> group, List<Long> deliveredIds) {
+        try {
+            int duplicateCount = shardJdbc.executeInTransaction(group.get(0).targetKey(), status -> {
+                int count = 0;
+                for (OutboxMessage message : group) {
+                    count += apply(message) ? 0 : 1;
+                }
+                return count;
+            });
+            duplicates.add(duplicateCount);
+            group.forEach(message -> deliveredIds.add(message.id()));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                failed(group.get(0), e);
+                return;
+            }
+            // Isolate the failing message(s): retry individually so the rest of the group is delivered
+            for (OutboxMessage message : group) {
+                try {
+                    if (!shardJdbc.executeInTransaction(message.targetKey(), status -> apply(message))) {
+                        duplicates.increment();
+                    }
+                    deliveredIds.add(message.id());
+                } catch (RuntimeException messageFailure) {
+                    failed(message, messageFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if the message had already been delivered
+     */
+    private boolean apply(OutboxMessage message) {
+        OutboxHandler handler = handlers.get(message.messageType());
+        if (handler == null) {
+            throw new IllegalStateException("No outbox handler for message type: " + message.messageType());
+        }
+        if (!outbox.claim(message)) {
+            return false;
+        }
+        handler.handle(message);
+        return true;
+    }
+
+    private void failed(OutboxMessage message, RuntimeException e) {
+        failures.increment();
+        logger.warn("Outbox message " + message.id() + " from shard index " + message.sourceShard()
+            + " failed, retrying in " + retryDelay.toMillis() + " ms", e);
+    }
+
+    /**
+     * Relay statistics
+     */
+    public record Stats(long delivered, long duplicates, long failures, long batches) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown when a shard's concurrency limit stayed exhausted for the maximum wait
+ */
+public class ShardOverloadedException extends TransientDataAccessResourceException {
+    
+    private final String shardName;
+    
+    public ShardOverloadedException(String shardName) {
+        super("Shard " + shardName + " is overloaded (concurrency limit reached)");
+        this.shardName = shardName;
+    }
+    
+    public String getShardName() {
+        return shardName;
+    }
+}
@@ -0,0 +1,102 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queue of heterogeneous statements for one shard key, sent with minimal round trips
+ * On PostgreSQL the statements are sent as one multi-statement execution
+ * (one network round trip, implicitly atomic in autocommit mode);
+ * other databases run them back to back on a single connection
+ *
+ * @see ShardJdbcTemplate#pipeline(long)
+ */
+public class ShardPipeline {
+
+    private final ShardJdbcTemplate template;
+    private final long shardKey;
+    private final List<Statement> statements = new ArrayList<>();
+
+    ShardPipeline(ShardJdbcTemplate template, long shardKey) {
+        this.template = template;
+        this.shardKey = shardKey;
+    }
+
+    /**
+     * Queue INSERT / UPDATE / DELETE statement
+     * @return this pipeline
+     */
+    public ShardPipeline update(String sql, Object... args) {
+        statements.add(new Statement(sql, args, null));
+        return this;
+    }
+
+    /**
+     * Queue query statement
+     * @return this pipeline
+     */
+    public <T> ShardPipeline query(String sql, RowMapper<T> rowMapper, Object... args) {
+        statements.add(new Statement(sql, args, rowMapper));
+        return this;
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Send all queued statements
+     * @return results in queue order
+     */
+    public PipelineResults execute() {
+        return template.executePipeline(shardKey, List.copyOf(statements));
+    }
+
+    record Statement(String sql, Object[] args, RowMapper<?> rowMapper) {
+
+        boolean isQuery() {
+            return rowMapper != null;
+        }
+    }
+
+    /**
+     * Per-statement results of a pipeline, in queue order
+     */
+    public static class PipelineResults {
+
+        private final List<Object> results;
+
+        PipelineResults(List<Object> results) {
+            this.results = results;
+        }
+
+        public int size() {
+            return results.size();
+        }
+
+        /**
+         * Get update count of an update statement
+         * @param index statement position in the pipeline
+         */
+        public int getUpdateCount(int index) {
+            if (!(results.get(index) instanceof Integer count)) {
+                throw new IllegalArgumentException("Statement " + index + " is a query");
+            }
+            return count;
+        }
+
+        /**
+         * Get rows of a query statement
+         * @param index statement position in the pipeline
+         */
+        @SuppressWarnings("unchecked")
+        public <T> List<T> getRows(int index) {
+            if (!(results.get(index) instanceof List<?> rows)) {
+                throw new IllegalArgumentException("Statement " + index + " is an update");
+            }
+            return (List<T>) rows;
+        }
+    }
+}
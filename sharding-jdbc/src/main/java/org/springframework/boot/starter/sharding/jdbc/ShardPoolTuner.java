@@ -0,0 +1,232 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.starter.sharding.core.PoolSizeController;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resizes the shards' Hikari pools at runtime from their observed load
+ * Pools opened through the tuner report their statistics and connection
+ * acquisition times to it; every interval the PoolSizeController turns active
+ * connections, waiting callers and acquisition time into new sizes, applied
+ * through HikariConfigMXBean. Grown pools open connections as callers need them;
+ * shrunk pools retire idle connections through their idleTimeout
+ */
+public class ShardPoolTuner implements MetricsTrackerFactory, AutoCloseable {
+
+    private static final Log logger = LogFactory.getLog(ShardPoolTuner.class);
+
+    private final PoolSizeController controller;
+    private final Duration interval;
+    private final Map<String, TunedPool> pools = new ConcurrentHashMap<>();
+    private final LongAdder grown = new LongAdder();
+    private final LongAdder shrunk = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param controller computes the pool sizes
+     * @param interval delay between resizes
+     */
+    public ShardPoolTuner(PoolSizeController controller, Duration interval) {
+        this.controller = controller;
+        this.interval = interval;
+    }
+
+    /**
+     * Start a tuned pool
+     * @param config pool configuration, its pool name must be unique
+     * @param host database host, pools of one host share its connection budget
+     * @return started pool
+     */
+    public HikariDataSource open(HikariConfig config, String host) {
+        String name = config.getPoolName();
+        TunedPool pool = new TunedPool(name, host);
+        if (name == null || pools.putIfAbsent(name, pool) != null) {
+            throw new IllegalArgumentException("Tuned pools need a unique pool name: " + name);
+        }
+        config.setMetricsTrackerFactory(this);
+        try {
+            HikariDataSource dataSource = new HikariDataSource(config);
+            pool.config = dataSource.getHikariConfigMXBean();
+            return dataSource;
+        } catch (RuntimeException e) {
+            pools.remove(name, pool);
+            throw e;
+        }
+    }
+
+    /**
+     * Called by Hikari when a pool opened through {@link #open} starts
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        TunedPool pool = pools.get(poolName);
+        if (pool == null) {
+            return new IMetricsTracker() {
+            };
+        }
+        pool.stats = poolStats;
+        return pool;
+    }
+
+    /**
+     * Resize every pool once, then keep resizing in the background
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-pool-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long delay = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tuneOnce();
+            } catch (RuntimeException e) {
+                logger.warn("Pool tuning failed", e);
+            }
+        }, delay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sample every open pool and apply the sizes computed from the samples
+     */
+    public void tuneOnce() {
+        List<PoolSizeController.PoolLoad> loads = new ArrayList<>();
+        for (TunedPool pool : pools.values()) {
+            if (pool.config != null && pool.stats != null) {
+                loads.add(new PoolSizeController.PoolLoad(pool.name, pool.host, pool.config.getMaximumPoolSize(),
+                    pool.stats.getActiveConnections(), pool.stats.getPendingThreads(), pool.averageAcquireNanos()));
+            }
+        }
+        controller.resize(loads).forEach((name, size) -> {
+            TunedPool pool = pools.get(name);
+            if (pool != null) {
+                resize(pool.config, size);
+            }
+        });
+    }
+
+    private void resize(HikariConfigMXBean config, int size) {
+        int current = config.getMaximumPoolSize();
+        if (size == current) {
+            return;
+        }
+        if (config.getMinimumIdle() > size) {
+            config.setMinimumIdle(size);
+        }
+        config.setMaximumPoolSize(size);
+        (size > current ? grown : shrunk).increment();
+        logger.debug("Resized pool " + config.getPoolName() + " from " + current + " to " + size);
+    }
+
+    /**
+     * Get the current size of every tuned pool
+     * @return pool name -> maximum pool size
+     */
+    public Map<String, Integer> getPoolSizes() {
+        Map<String, Integer> sizes = new ConcurrentHashMap<>();
+        pools.forEach((name, pool) -> {
+            if (pool.config != null) {
+                sizes.put(name, pool.config.getMaximumPoolSize());
+            }
+        });
+        return sizes;
+    }
+
+    /**
+     * Get the current size of one tuned pool
+     * @param poolName pool name
+     * @return maximum pool size, or 0 if the pool is not open
+     */
+    public int getPoolSize(String poolName) {
+        TunedPool pool = pools.get(poolName);
+        HikariConfigMXBean config = pool == null ? null : pool.config;
+        return config == null ? 0 : config.getMaximumPoolSize();
+    }
+
+    /**
+     * Get tuning metrics
+     * @return snapshot of tuned pools and resizes
+     */
+    public Stats getStats() {
+        return new Stats(pools.size(), grown.sum(), shrunk.sum());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Pool opened through the tuner, also its Hikari metrics tracker
+     */
+    private final class TunedPool implements IMetricsTracker {
+
+        private final String name;
+        private final String host;
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAdder acquires = new LongAdder();
+        private volatile HikariConfigMXBean config;
+        private volatile PoolStats stats;
+
+        TunedPool(String name, String host) {
+            this.name = name;
+            this.host = host;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireNanos.add(elapsedAcquiredNanos);
+            acquires.increment();
+        }
+
+        /**
+         * Average acquisition time since the previous call
+         */
+        long averageAcquireNanos() {
+            long count = acquires.sumThenReset();
+            long total = acquireNanos.sumThenReset();
+            return count == 0 ? 0 : total / count;
+        }
+
+        /**
+         * Called by Hikari when the pool shuts down, e.g. an idle lazy pool
+         */
+        @Override
+        public void close() {
+            pools.remove(name, this);
+        }
+    }
+
+    /**
+     * Pool tuning statistics
+     * @param pools pools currently tuned
+     * @param grown resizes to a larger pool
+     * @param shrunk resizes to a smaller pool
+     */
+    public record Stats(int pools, long grown, long shrunk) {
+    }
+}
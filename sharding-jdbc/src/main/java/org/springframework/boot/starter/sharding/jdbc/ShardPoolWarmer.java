@@ -0,0 +1,184 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Opens and primes the connections of every shard pool before traffic arrives
+ * Each pool, primaries, replicas and workload pools alike, has its connections
+ * borrowed at once so the pool establishes them (TCP, TLS, authentication) now
+ * rather than on the first requests; every connection then runs the warm-up
+ * queries, leaving the driver's prepared statements in place. Pools are warmed
+ * concurrently, and warm-up stops waiting at the time budget: pools not done
+ * by then finish warming in the background
+ */
+public class ShardPoolWarmer {
+
+    private static final Log logger = LogFactory.getLog(ShardPoolWarmer.class);
+
+    private final ShardRouter shardRouter;
+    private final List<String> queries;
+    private final int queryExecutions;
+    private final int parallelism;
+    private final ToIntFunction<DataSource> connectionsPerPool;
+
+    /**
+     * @param shardRouter router listing the shards
+     * @param queries statements run on every warmed connection, e.g. {@code SELECT 1}
+     * @param queryExecutions times each statement runs per connection; the driver's prepare
+     *                        threshold (PgJDBC: 5) makes it a server-side prepared statement
+     * @param parallelism pools warmed at once
+     * @param connectionsPerPool connections to open in a pool, e.g. its minimum idle
+     */
+    public ShardPoolWarmer(ShardRouter shardRouter, List<String> queries, int queryExecutions, int parallelism,
+                           ToIntFunction<DataSource> connectionsPerPool) {
+        if (queryExecutions <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Query executions and parallelism must be positive");
+        }
+        this.shardRouter = shardRouter;
+        this.queries = List.copyOf(queries);
+        this.queryExecutions = queryExecutions;
+        this.parallelism = parallelism;
+        this.connectionsPerPool = connectionsPerPool;
+    }
+
+    /**
+     * Warm every pool of every shard
+     * Failing pools are logged and counted, they do not stop the others
+     * @param budget longest time to wait for the pools
+     * @return warmed pools and connections
+     */
+    public Result warmUp(Duration budget) {
+        long start = System.nanoTime();
+        List<Pool> pools = pools();
+        AtomicInteger warmedPools = new AtomicInteger();
+        AtomicInteger connections = new AtomicInteger();
+        AtomicInteger failedPools = new AtomicInteger();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, pools.size())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "shard-warmup-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        boolean complete = true;
+        try {
+            CompletableFuture<?>[] futures = pools.stream()
+                .map(pool -> CompletableFuture.runAsync(() -> {
+                    try {
+                        connections.addAndGet(warm(pool.dataSource()));
+                        warmedPools.incrementAndGet();
+                    } catch (SQLException | RuntimeException e) {
+                        failedPools.incrementAndGet();
+                        logger.warn("Warm-up failed for pool " + pool.name(), e);
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).get(budget.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            complete = false;
+            logger.warn("Shard pool warm-up exceeded its budget of " + budget.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            complete = false;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Pool failures are handled per pool
+        } finally {
+            // Not shutdownNow: pools still warming, or not started, finish on the daemon threads
+            executor.shutdown();
+        }
+        Result result = new Result(pools.size(), warmedPools.get(), failedPools.get(), connections.get(), complete,
+            Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Warmed " + result.warmedPools() + " of " + result.pools() + " shard pools with "
+            + result.connections() + " connections in " + result.elapsed().toMillis() + " ms");
+        return result;
+    }
+
+    /**
+     * Hold the pool's connections together so each borrow opens a new one, then prime them
+     * @return connections warmed
+     */
+    private int warm(DataSource dataSource) throws SQLException {
+        int target = Math.max(1, connectionsPerPool.applyAsInt(dataSource));
+        List<Connection> held = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                for (String sql : queries) {
+                    for (int n = 0; n < queryExecutions; n++) {
+                        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                            statement.execute();
+                        }
+                    }
+                }
+            }
+            return held.size();
+        } finally {
+            for (Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.debug("Failed to return warmed connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * List the pools to warm; lazy pools not opened yet stay closed
+     */
+    private List<Pool> pools() {
+        List<Pool> pools = new ArrayList<>();
+        for (int i = 0; i < shardRouter.getShardCount(); i++) {
+            Shard shard = shardRouter.getShard(i);
+            addPool(pools, shard.name(), shard.dataSource());
+            for (int r = 0; r < shard.replicas().size(); r++) {
+                addPool(pools, shard.name() + "-replica-" + r, shard.replicas().get(r));
+            }
+            shard.workloadPools().forEach((workload, dataSource) ->
+                addPool(pools, shard.name() + "-" + workload, dataSource));
+        }
+        return pools;
+    }
+
+    private static void addPool(List<Pool> pools, String name, DataSource dataSource) {
+        if (!(dataSource instanceof LazyShardDataSource lazy) || lazy.isOpen()) {
+            pools.add(new Pool(name, dataSource));
+        }
+    }
+
+    private record Pool(String name, DataSource dataSource) {
+    }
+
+    /**
+     * Outcome of a warm-up
+     * @param pools pools of all shards
+     * @param warmedPools pools whose connections were all opened and primed
+     * @param failedPools pools that failed to open a connection or run a warm-up query
+     * @param connections connections opened and primed
+     * @param complete whether every pool finished within the budget
+     * @param elapsed time spent
+     */
+    public record Result(int pools, int warmedPools, int failedPools, int connections, boolean complete,
+                         Duration elapsed) {
+    }
+}
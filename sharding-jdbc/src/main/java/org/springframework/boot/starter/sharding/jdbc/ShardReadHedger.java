@@ -0,0 +1,337 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.LatencyTracker;
+import org.springframework.boot.starter.sharding.core.ReplicaLoadBalancer;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Hedged reads against shard replicas
+ * The read runs on a replica in the calling thread; if it has not answered
+ * within the shard's observed latency percentile, the same read is sent to a
+ * second replica (or the primary) and the first answer wins, the other
+ * statement is cancelled. Hedges are limited to budgetPercent of reads.
+ * Only use for idempotent reads: both attempts may execute
+ */
+public class ShardReadHedger implements AutoCloseable {
+
+    private static final int LATENCY_WINDOW = 1024;
+    private static final long CREDIT_UNIT = 1000;
+    private static final long MAX_CREDIT = 10 * CREDIT_UNIT;
+
+    private final RoutingDataSource routingDataSource;
+    private final JdbcTemplate routingTemplate;
+    private final double percentile;
+    private final long creditPerRead;
+    private final long minDelayNanos;
+    private final long initialDelayNanos;
+    private final Map<Integer, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong credit = new AtomicLong(MAX_CREDIT);
+    private final ScheduledExecutorService scheduler;
+    private Executor executor;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    /**
+     * @param routingDataSource routing data source with replicas
+     * @param percentile latency percentile after which a read is hedged, e.g. 95.0
+     * @param budgetPercent maximum hedges as a percentage of reads
+     * @param minDelay lower bound of the hedge delay
+     * @param initialDelay hedge delay until enough latencies were observed for a shard
+     */
+    public ShardReadHedger(RoutingDataSource routingDataSource, double percentile, double budgetPercent,
+                           Duration minDelay, Duration initialDelay) {
+        if (budgetPercent < 0 || budgetPercent > 100) {
+            throw new IllegalArgumentException("Hedge budget must be between 0 and 100 percent");
+        }
+        this.routingDataSource = routingDataSource;
+        this.routingTemplate = new JdbcTemplate(routingDataSource);
+        this.percentile = percentile;
+        this.creditPerRead = Math.round(budgetPercent / 100 * CREDIT_UNIT);
+        this.minDelayNanos = minDelay.toNanos();
+        this.initialDelayNanos = initialDelay.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SimpleAsyncTaskExecutor hedgeExecutor = new SimpleAsyncTaskExecutor("shard-hedge-");
+        hedgeExecutor.setDaemon(true);
+        this.executor = hedgeExecutor;
+    }
+
+    /**
+     * Set executor running hedge attempts
+     * @param executor executor, one task per hedge
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public <T> T queryForObject(long shardKey, String sql, Class<T> requiredType, Object... args) {
+        return execute(shardKey, template -> template.queryForObject(sql, requiredType, args));
+    }
+
+    public <T> List<T> query(long shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
+        return execute(shardKey, template -> template.query(sql, rowMapper, args));
+    }
+
+    public List<Map<String, Object>> queryForList(long shardKey, String sql, Object... args) {
+        return execute(shardKey, template -> template.queryForList(sql, args));
+    }
+
+    /**
+     * Execute idempotent read with hedging
+     * Inside a transaction or shard session the read runs once on the bound connection
+     * @param shardKey the shard key
+     * @param read read against a template bound to one replica or the primary
+     * @return result of the first attempt to succeed
+     */
+    public <T> T execute(long shardKey, HedgedRead<T> read) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || ShardSession.getCurrentShard() != null) {
+            return executeBound(shardKey, read);
+        }
+        Shard shard = routingDataSource.getShardRouter().resolve(shardKey);
+        reads.increment();
+        credit.accumulateAndGet(creditPerRead, (current, add) -> Math.min(MAX_CREDIT, current + add));
+
+        IntPredicate eligible = routingDataSource.eligibleReplicas(shard);
+        Attempt<T> first = new Attempt<>(shard, shard.hasReplicas()
+            ? routingDataSource.getReplicaLoadBalancer().select(shard, eligible) : -1);
+        CompletableFuture<T> hedgeResult = new CompletableFuture<>();
+        AtomicReference<Attempt<T>> hedge = new AtomicReference<>();
+        ScheduledFuture<?> timer = first.replicaIndex >= 0
+            ? scheduler.schedule(() -> startHedge(shard, eligible, read, first, hedge, hedgeResult),
+                hedgeDelayNanos(shard), TimeUnit.NANOSECONDS)
+            : null;
+
+        long start = System.nanoTime();
+        try {
+            T result = first.run(read);
+            latency(shard).record(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            if (hedge.get() == null) {
+                throw e;
+            }
+            // The first attempt failed or was cancelled because the hedge answered first
+            try {
+                T result = hedgeResult.join();
+                hedgeWins.increment();
+                latency(shard).record(System.nanoTime() - start);
+                return result;
+            } catch (CompletionException hedgeFailure) {
+                e.addSuppressed(hedgeFailure.getCause());
+                throw e;
+            }
+        } finally {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            Attempt<T> hedgeAttempt = hedge.get();
+            if (hedgeAttempt != null) {
+                hedgeAttempt.cancel();
+            }
+        }
+    }
+
+    /**
+     * Get hedging metrics
+     * @return snapshot of read and hedge counters
+     */
+    public Stats getStats() {
+        return new Stats(reads.sum(), hedges.sum(), hedgeWins.sum(), budgetDenied.sum());
+    }
+
+    /**
+     * Get current hedge delay of a shard
+     * @param shardIndex shard index
+     * @return observed latency percentile, bounded below by minDelay
+     */
+    public Duration getHedgeDelay(int shardIndex) {
+        return Duration.ofNanos(hedgeDelayNanos(routingDataSource.getShardRouter().getShard(shardIndex)));
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private <T> void startHedge(Shard shard, IntPredicate eligible, HedgedRead<T> read, Attempt<T> first,
+                                AtomicReference<Attempt<T>> hedge, CompletableFuture<T> hedgeResult) {
+        if (first.done) {
+            return;
+        }
+        if (!acquireCredit()) {
+            budgetDenied.increment();
+            return;
+        }
+        ReplicaLoadBalancer balancer = routingDataSource.getReplicaLoadBalancer();
+        int replicaIndex = balancer.select(shard, index -> index != first.replicaIndex && eligible.test(index));
+        Attempt<T> attempt = new Attempt<>(shard, replicaIndex);
+        hedges.increment();
+        hedge.set(attempt);
+        try {
+            executor.execute(() -> {
+                try {
+                    if (hedgeResult.complete(attempt.run(read))) {
+                        first.cancel();
+                    }
+                } catch (RuntimeException e) {
+                    hedgeResult.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            attempt.release();
+            hedgeResult.completeExceptionally(e);
+        }
+    }
+
+    private boolean acquireCredit() {
+        long current;
+        do {
+            current = credit.get();
+            if (current < CREDIT_UNIT) {
+                return false;
+            }
+        } while (!credit.compareAndSet(current, current - CREDIT_UNIT));
+        return true;
+    }
+
+    private long hedgeDelayNanos(Shard shard) {
+        long observed = latency(shard).getPercentile();
+        return Math.max(minDelayNanos, observed < 0 ? initialDelayNanos : observed);
+    }
+
+    private LatencyTracker latency(Shard shard) {
+        return latencies.computeIfAbsent(shard.index(), index -> new LatencyTracker(LATENCY_WINDOW, percentile));
+    }
+
+    private <T> T executeBound(long shardKey, HedgedRead<T> read) {
+        Long previousKey = ShardContext.get();
+        try {
+            ShardContext.set(shardKey);
+            return read.read(routingTemplate);
+        } finally {
+            if (previousKey != null) {
+                ShardContext.set(previousKey);
+            } else {
+                ShardContext.clear();
+            }
+        }
+    }
+
+    /**
+     * Idempotent read executed against one target
+     */
+    @FunctionalInterface
+    public interface HedgedRead<T> {
+        T read(JdbcTemplate template);
+    }
+
+    /**
+     * One execution of a read on a replica (index >= 0) or the primary (-1)
+     */
+    private final class Attempt<T> {
+
+        private final Shard shard;
+        private final int replicaIndex;
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private Attempt(Shard shard, int replicaIndex) {
+            this.shard = shard;
+            this.replicaIndex = replicaIndex;
+        }
+
+        T run(HedgedRead<T> read) {
+            // The primary is reached through the routing data source so its breaker and limiter apply
+            DataSource target = replicaIndex >= 0
+                ? shard.replicas().get(replicaIndex)
+                : routingDataSource.getShardDataSource(shard.index());
+            JdbcTemplate template = new JdbcTemplate(target) {
+                @Override
+                protected void applyStatementSettings(Statement stmt) throws SQLException {
+                    super.applyStatementSettings(stmt);
+                    statement = stmt;
+                    if (cancelled) {
+                        stmt.cancel();
+                    }
+                }
+            };
+            try {
+                return read.read(template);
+            } finally {
+                done = true;
+                statement = null;
+                release();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Statement current = statement;
+            if (current != null && !done) {
+                try {
+                    current.cancel();
+                } catch (SQLException ignored) {
+                    // Statement already finished or closed
+                }
+            }
+        }
+
+        void release() {
+            ReplicaLoadBalancer balancer = routingDataSource.getReplicaLoadBalancer();
+            if (replicaIndex >= 0 && balancer.tracksOutstanding()) {
+                balancer.release(shard, replicaIndex);
+            }
+        }
+    }
+
+    /**
+     * Hedging statistics
+     */
+    public record Stats(long reads, long hedges, long hedgeWins, long budgetDenied) {
+
+        /**
+         * Fraction of reads that sent a hedge
+         */
+        public double hedgeRate() {
+            return reads == 0 ? 0 : (double) hedges / reads;
+        }
+
+        /**
+         * Fraction of hedges that answered before the first attempt
+         */
+        public double winRate() {
+            return hedges == 0 ? 0 : (double) hedgeWins / hedges;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily consumed query results backed by server-side cursors
+ * A cursor holds its connection until it is exhausted or the stream is closed.
+ * PostgreSQL only fetches in batches of the fetch size inside a transaction,
+ * so an autocommit connection is switched to manual commit for the cursor's
+ * lifetime and switched back on close
+ */
+final class ShardResultStream {
+
+    private ShardResultStream() {
+    }
+
+    /**
+     * Open cursor now on a connection from the data source, which may be bound to the current scope
+     */
+    static <T> Stream<T> open(DataSource dataSource, String sql, RowMapper<T> rowMapper, Object[] args,
+                              int fetchSize, SQLExceptionTranslator translator) {
+        Cursor<T> cursor = new Cursor<>(dataSource, sql, rowMapper, translator);
+        cursor.open(args, fetchSize);
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    /**
+     * Concatenate cursors opened one after the other
+     * Only the current cursor holds a connection; the next one is opened when it is exhausted
+     */
+    static <T> Stream<T> concat(Iterator<Supplier<Stream<T>>> cursors) {
+        ConcatSpliterator<T> spliterator = new ConcatSpliterator<>(cursors);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final DataSource dataSource;
+        private final String sql;
+        private final RowMapper<T> rowMapper;
+        private final SQLExceptionTranslator translator;
+        private Connection connection;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+        private boolean resetAutoCommit;
+        private boolean failed;
+        private int rowNum;
+
+        Cursor(DataSource dataSource, String sql, RowMapper<T> rowMapper, SQLExceptionTranslator translator) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.dataSource = dataSource;
+            this.sql = sql;
+            this.rowMapper = rowMapper;
+            this.translator = translator;
+        }
+
+        void open(Object[] args, int fetchSize) {
+            connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                if (connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
+                    resetAutoCommit = true;
+                }
+                statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                new ArgumentPreparedStatementSetter(args).setValues(statement);
+                resultSet = statement.executeQuery();
+            } catch (SQLException e) {
+                failed = true;
+                close();
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (resultSet == null) {
+                return false;
+            }
+            T row;
+            try {
+                if (!resultSet.next()) {
+                    // Exhausted: give the connection back without waiting for close()
+                    close();
+                    return false;
+                }
+                row = rowMapper.mapRow(resultSet, rowNum++);
+            } catch (SQLException e) {
+                failed = true;
+                close();
+                throw translate(e);
+            }
+            action.accept(row);
+            return true;
+        }
+
+        void close() {
+            if (connection == null) {
+                return;
+            }
+            JdbcUtils.closeResultSet(resultSet);
+            JdbcUtils.closeStatement(statement);
+            resultSet = null;
+            statement = null;
+            try {
+                if (resetAutoCommit) {
+                    // The cursor's transaction only read, end it before handing the connection back
+                    if (failed) {
+                        connection.rollback();
+                    } else {
+                        connection.commit();
+                    }
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw translate(e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+                connection = null;
+            }
+        }
+
+        private DataAccessException translate(SQLException e) {
+            DataAccessException translated = translator.translate("StreamQuery", sql, e);
+            return translated != null ? translated : new UncategorizedSQLException("StreamQuery", sql, e);
+        }
+    }
+
+    private static final class ConcatSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Iterator<Supplier<Stream<T>>> cursors;
+        private Stream<T> current;
+        private Spliterator<T> currentRows;
+
+        ConcatSpliterator(Iterator<Supplier<Stream<T>>> cursors) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.cursors = cursors;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                if (currentRows != null && currentRows.tryAdvance(action)) {
+                    return true;
+                }
+                close();
+                if (!cursors.hasNext()) {
+                    return false;
+                }
+                current = cursors.next().get();
+                currentRows = current.spliterator();
+            }
+        }
+
+        void close() {
+            if (current != null) {
+                Stream<T> closing = current;
+                current = null;
+                currentRows = null;
+                closing.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * Full-shard scan definition used by ShardScanner
+ * Rows are selected by ranges of a numeric key column, which should be the
+ * primary key or otherwise indexed so every chunk is an index range scan
+ */
+public final class ShardScan {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final String jobName;
+    private final String table;
+    private final String keyColumn;
+    private final String columns;
+    private final String filter;
+
+    private ShardScan(String jobName, String table, String keyColumn, String columns, String filter) {
+        this.jobName = jobName;
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.columns = columns;
+        this.filter = filter;
+    }
+
+    /**
+     * Create scan definition
+     * @param jobName name identifying the job's checkpoints, e.g. "interest-2026-10-18"
+     * @param table table to scan
+     * @param keyColumn numeric key column the shard's rows are chunked by
+     * @param columns select list handed to the row mapper
+     */
+    public static ShardScan of(String jobName, String table, String keyColumn, String columns) {
+        if (jobName == null || jobName.isBlank()) {
+            throw new IllegalArgumentException("Job name is required");
+        }
+        if (!IDENTIFIER.matcher(table).matches() || !IDENTIFIER.matcher(keyColumn).matches()) {
+            throw new IllegalArgumentException("Invalid table or key column name");
+        }
+        return new ShardScan(jobName, table, keyColumn, columns, null);
+    }
+
+    /**
+     * Restrict the scan to rows matching a predicate, e.g. {@code "balance > 0"}
+     * @param filter SQL predicate without bind parameters
+     * @return scan with the filter
+     */
+    public ShardScan where(String filter) {
+        return new ShardScan(jobName, table, keyColumn, columns, filter);
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    /**
+     * @return SQL selecting the lowest and highest key of a shard
+     */
+    String rangeSql() {
+        return "SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM " + table + filterClause(" WHERE ");
+    }
+
+    /**
+     * @return SQL selecting the rows of one chunk, bound to its first and last key
+     */
+    String chunkSql() {
+        return "SELECT " + columns + " FROM " + table + " WHERE " + keyColumn + " BETWEEN ? AND ?"
+            + filterClause(" AND ");
+    }
+
+    private String filterClause(String prefix) {
+        return filter == null ? "" : prefix + "(" + filter + ")";
+    }
+}
@@ -0,0 +1,76 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a ShardScanner run
+ * Failed chunks are not checkpointed, so running the job again retries them
+ */
+public class ShardScanResult {
+
+    private final Map<Integer, Long> rows = new TreeMap<>();
+    private final Map<Integer, Integer> completedChunks = new TreeMap<>();
+    private final Map<Integer, Integer> skippedChunks = new TreeMap<>();
+    private final List<ChunkFailure> failures = new ArrayList<>();
+
+    synchronized void recordChunk(int shardIndex, long chunkRows) {
+        rows.merge(shardIndex, chunkRows, Long::sum);
+        completedChunks.merge(shardIndex, 1, Integer::sum);
+    }
+
+    synchronized void recordSkipped(int shardIndex) {
+        skippedChunks.merge(shardIndex, 1, Integer::sum);
+    }
+
+    synchronized void recordFailure(int shardIndex, ScanChunk chunk, DataAccessException exception) {
+        failures.add(new ChunkFailure(shardIndex, chunk, exception));
+    }
+
+    /**
+     * Get rows handed to the consumer per shard, in completed chunks
+     * @return shard index -> rows
+     */
+    public synchronized Map<Integer, Long> getRows() {
+        return Collections.unmodifiableMap(new TreeMap<>(rows));
+    }
+
+    public synchronized long getTotalRows() {
+        return rows.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Get chunks scanned by this run per shard
+     * @return shard index -> chunk count
+     */
+    public synchronized Map<Integer, Integer> getCompletedChunks() {
+        return Collections.unmodifiableMap(new TreeMap<>(completedChunks));
+    }
+
+    /**
+     * Get chunks skipped because an earlier run completed them
+     * @return shard index -> chunk count
+     */
+    public synchronized Map<Integer, Integer> getSkippedChunks() {
+        return Collections.unmodifiableMap(new TreeMap<>(skippedChunks));
+    }
+
+    public synchronized List<ChunkFailure> getFailures() {
+        return List.copyOf(failures);
+    }
+
+    public synchronized boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Chunk that failed, or a shard that could not be planned (chunk is null)
+     */
+    public record ChunkFailure(int shardIndex, ScanChunk chunk, DataAccessException exception) {
+    }
+}
@@ -0,0 +1,224 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Parallel chunked scan of every row on every shard, for batch jobs
+ * Each shard's key range (MIN..MAX of the key column) is split into chunks that
+ * are stored in the ScanCheckpointStore; up to parallelismPerShard workers per
+ * shard take pending chunks and read them through server-side cursors, so the
+ * job runs shards x parallelismPerShard chunks at once. The consumer is called
+ * on the worker threads, and a worker only fetches more rows once the consumer
+ * returns (backpressure), so it must be thread-safe. A chunk is checkpointed
+ * after all its rows were consumed: a restarted job skips completed chunks and
+ * may hand the rows of an interrupted chunk to the consumer again.
+ * Keys above the planned range, inserted after the first run, are not visited
+ */
+public class ShardScanner {
+
+    private final RoutingDataSource routingDataSource;
+    private final ScanCheckpointStore checkpointStore;
+    private final String workload;
+    private final int parallelismPerShard;
+    private final int chunksPerShard;
+    private final Map<Integer, JdbcTemplate> templates = new ConcurrentHashMap<>();
+    private int fetchSize = 1000;
+    private Executor executor;
+
+    /**
+     * @param routingDataSource routing data source
+     * @param checkpointStore store of chunk plans and progress
+     * @param workload workload class whose pools are scanned, e.g. "batch", or null for the default pools
+     * @param parallelismPerShard chunks scanned concurrently per shard, at most the class's pool size
+     * @param chunksPerShard chunks a shard's key range is split into
+     */
+    public ShardScanner(RoutingDataSource routingDataSource, ScanCheckpointStore checkpointStore, String workload,
+                        int parallelismPerShard, int chunksPerShard) {
+        if (parallelismPerShard <= 0 || chunksPerShard <= 0) {
+            throw new IllegalArgumentException("Parallelism and chunks per shard must be positive");
+        }
+        this.routingDataSource = routingDataSource;
+        this.checkpointStore = checkpointStore;
+        this.workload = workload;
+        this.parallelismPerShard = parallelismPerShard;
+        this.chunksPerShard = chunksPerShard;
+        SimpleAsyncTaskExecutor scanExecutor = new SimpleAsyncTaskExecutor("shard-scan-");
+        scanExecutor.setDaemon(true);
+        this.executor = scanExecutor;
+    }
+
+    /**
+     * Set executor running the scan workers
+     * @param executor executor, parallelismPerShard tasks per shard
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set rows fetched per round trip within a chunk
+     * @param fetchSize cursor fetch size
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Scan every shard, resuming the job's earlier run if there was one
+     * A failed chunk does not stop the other chunks; it is reported and retried by the next run
+     * @param scan rows to scan and the job they belong to
+     * @param rowMapper maps the scan's select list
+     * @param consumer receives every row, concurrently from several threads
+     * @return per-shard row and chunk counts, and failed chunks
+     */
+    public <T> ShardScanResult scan(ShardScan scan, RowMapper<T> rowMapper, Consumer<? super T> consumer) {
+        ShardScanResult result = new ShardScanResult();
+        int shardCount = routingDataSource.getShardRouter().getShardCount();
+        List<CompletableFuture<Void>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shardIndex = i;
+            // Shards are planned concurrently, so a slow MIN/MAX query does not hold up the others
+            shards.add(CompletableFuture.runAsync(
+                () -> scanShard(scan, shardIndex, rowMapper, consumer, result), executor));
+        }
+        CompletableFuture.allOf(shards.toArray(CompletableFuture[]::new)).join();
+        return result;
+    }
+
+    /**
+     * Forget the job's checkpoints on every shard, so the next run scans everything again
+     * @param jobName job name
+     */
+    public void reset(String jobName) {
+        for (int i = 0; i < routingDataSource.getShardRouter().getShardCount(); i++) {
+            checkpointStore.clear(jobName, i);
+        }
+    }
+
+    private List<ScanChunk> plan(ShardScan scan, int shardIndex) {
+        List<ScanChunk> plan = checkpointStore.loadPlan(scan.getJobName(), shardIndex);
+        if (!plan.isEmpty()) {
+            return plan;
+        }
+        long[] range = template(shardIndex).query(scan.rangeSql(), rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+        if (range == null) {
+            // Nothing to scan; planned again by the next run
+            return List.of();
+        }
+        plan = split(range[0], range[1], chunksPerShard);
+        checkpointStore.savePlan(scan.getJobName(), shardIndex, plan);
+        return plan;
+    }
+
+    /**
+     * Split min..max into at most count chunks of equal key span
+     * Widths are unsigned: max - min wraps a long for ranges wider than Long.MAX_VALUE
+     */
+    static List<ScanChunk> split(long min, long max, int count) {
+        long step = Long.divideUnsigned(max - min, count);
+        List<ScanChunk> chunks = new ArrayList<>(count);
+        long start = min;
+        while (true) {
+            long end = Long.compareUnsigned(max - start, step) <= 0 ? max : start + step;
+            chunks.add(new ScanChunk(start, end, false));
+            if (end == max) {
+                return chunks;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Plan the shard's chunks, then drain them with parallelismPerShard workers,
+     * the planning thread being the first one
+     */
+    private <T> void scanShard(ShardScan scan, int shardIndex, RowMapper<T> rowMapper,
+                               Consumer<? super T> consumer, ShardScanResult result) {
+        List<ScanChunk> plan;
+        try {
+            plan = plan(scan, shardIndex);
+        } catch (RuntimeException e) {
+            result.recordFailure(shardIndex, null, wrap(shardIndex, e));
+            return;
+        }
+        Queue<ScanChunk> pending = new ConcurrentLinkedQueue<>();
+        for (ScanChunk chunk : plan) {
+            if (chunk.completed()) {
+                result.recordSkipped(shardIndex);
+            } else {
+                pending.add(chunk);
+            }
+        }
+        int shardWorkers = Math.min(parallelismPerShard, pending.size());
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int w = 1; w < shardWorkers; w++) {
+            workers.add(CompletableFuture.runAsync(
+                () -> drain(scan, shardIndex, pending, rowMapper, consumer, result), executor));
+        }
+        drain(scan, shardIndex, pending, rowMapper, consumer, result);
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private <T> void drain(ShardScan scan, int shardIndex, Queue<ScanChunk> pending, RowMapper<T> rowMapper,
+                           Consumer<? super T> consumer, ShardScanResult result) {
+        ScanChunk chunk;
+        while ((chunk = pending.poll()) != null) {
+            try {
+                long rows = scanChunk(scan, shardIndex, chunk, rowMapper, consumer);
+                checkpointStore.markCompleted(scan.getJobName(), shardIndex, chunk);
+                result.recordChunk(shardIndex, rows);
+            } catch (RuntimeException e) {
+                result.recordFailure(shardIndex, chunk, wrap(shardIndex, e));
+            }
+        }
+    }
+
+    private <T> long scanChunk(ShardScan scan, int shardIndex, ScanChunk chunk, RowMapper<T> rowMapper,
+                               Consumer<? super T> consumer) {
+        JdbcTemplate template = template(shardIndex);
+        long rows = 0;
+        try (Stream<T> stream = ShardResultStream.open(template.getDataSource(), scan.chunkSql(), rowMapper,
+                new Object[]{chunk.start(), chunk.end()}, fetchSize, template.getExceptionTranslator())) {
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private JdbcTemplate template(int shardIndex) {
+        return templates.computeIfAbsent(shardIndex,
+            index -> new JdbcTemplate(routingDataSource.getShardDataSource(index, workload)));
+    }
+
+    private static DataAccessException wrap(int shardIndex, RuntimeException e) {
+        if (e instanceof DataAccessException dataAccessException) {
+            return dataAccessException;
+        }
+        return new DataAccessException("Shard operation failed for shard index: " + shardIndex, e) {};
+    }
+}
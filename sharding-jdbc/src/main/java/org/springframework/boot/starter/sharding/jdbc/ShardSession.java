@@ -0,0 +1,72 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection-pinned scope for consecutive calls to one shard
+ * Every call made inside the scope (through the session or ShardJdbcTemplate)
+ * reuses the same autocommit connection, which is returned when the scope ends
+ *
+ * @see ShardJdbcTemplate#withShard(long, ShardSessionCallback)
+ */
+public class ShardSession {
+
+    private static final Object SESSION_SHARD = new Object();
+
+    private final ShardJdbcTemplate template;
+    private final long shardKey;
+
+    ShardSession(ShardJdbcTemplate template, long shardKey) {
+        this.template = template;
+        this.shardKey = shardKey;
+    }
+
+    /**
+     * Get shard pinned by the current session
+     * @return shard, or null if no session is active on this thread
+     */
+    public static Shard getCurrentShard() {
+        return (Shard) TransactionSynchronizationManager.getResource(SESSION_SHARD);
+    }
+
+    static void bind(Shard shard) {
+        TransactionSynchronizationManager.bindResource(SESSION_SHARD, shard);
+    }
+
+    static void unbind() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(SESSION_SHARD);
+    }
+
+    public long getShardKey() {
+        return shardKey;
+    }
+
+    public int update(String sql, Object... args) {
+        return template.update(shardKey, sql, args);
+    }
+
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+        return template.queryForObject(shardKey, sql, requiredType, args);
+    }
+
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        return template.queryForObject(shardKey, sql, rowMapper, args);
+    }
+
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+        return template.query(shardKey, sql, rowMapper, args);
+    }
+
+    public List<Map<String, Object>> queryForList(String sql, Object... args) {
+        return template.queryForList(shardKey, sql, args);
+    }
+
+    public Map<String, Object> queryForMap(String sql, Object... args) {
+        return template.queryForMap(shardKey, sql, args);
+    }
+}
@@ -0,0 +1,15 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+/**
+ * Callback for work executed inside a ShardSession
+ */
+@FunctionalInterface
+public interface ShardSessionCallback<T> {
+
+    /**
+     * Execute work using the pinned shard connection
+     * @param session the session bound to the shard key
+     * @return result of the work
+     */
+    T doInSession(ShardSession session);
+}
@@ -0,0 +1,89 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * AOP interceptor for {@link WithShardSession} methods
+ * Resolves the shard key argument and runs the invocation inside ShardJdbcTemplate#withShard
+ */
+public class ShardSessionInterceptor implements MethodInterceptor {
+
+    private final Supplier<ShardJdbcTemplate> shardJdbcTemplate;
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    public ShardSessionInterceptor(ShardJdbcTemplate shardJdbcTemplate) {
+        this(() -> shardJdbcTemplate);
+    }
+
+    /**
+     * @param shardJdbcTemplate lazy template lookup, avoids early initialization from advisor beans
+     */
+    public ShardSessionInterceptor(Supplier<ShardJdbcTemplate> shardJdbcTemplate) {
+        this.shardJdbcTemplate = shardJdbcTemplate;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long shardKey = resolveShardKey(invocation);
+        try {
+            return shardJdbcTemplate.get().withShard(shardKey, session -> {
+                try {
+                    return invocation.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedInvocationException(e);
+                }
+            });
+        } catch (CheckedInvocationException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long resolveShardKey(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        WithShardSession annotation = AnnotatedElementUtils.findMergedAnnotation(method, WithShardSession.class);
+        Object[] arguments = invocation.getArguments();
+        if (arguments.length == 0) {
+            throw new IllegalStateException("@WithShardSession method has no shard key parameter: " + method);
+        }
+
+        int index = 0;
+        if (annotation != null && !annotation.value().isEmpty()) {
+            index = -1;
+            String[] names = parameterNameDiscoverer.getParameterNames(method);
+            for (int i = 0; names != null && i < names.length; i++) {
+                if (names[i].equals(annotation.value())) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                throw new IllegalStateException("Shard key parameter '" + annotation.value()
+                    + "' not found on " + method + ". Compile with -parameters or use the first parameter.");
+            }
+        }
+
+        if (!(arguments[index] instanceof Number key)) {
+            throw new IllegalStateException("Shard key parameter must be a long: " + method);
+        }
+        return key.longValue();
+    }
+
+    /**
+     * Carries checked exceptions through the session callback
+     */
+    private static class CheckedInvocationException extends RuntimeException {
+
+        CheckedInvocationException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -1,68 +1,128 @@
 package org.springframework.boot.starter.sharding.jdbc;
 
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 
 /**
  * Shard-aware transaction manager
  * Extends DataSourceTransactionManager to work with RoutingDataSource
- * 
+ *
+ * The shard is resolved from ShardContext and the router when the transaction
+ * begins, without borrowing a connection. The single connection obtained by
+ * doBegin is bound for the whole transaction and reused by every
+ * ShardJdbcTemplate call inside it; calls for a key on another shard are rejected.
+ *
  * Note: This provides single-shard transactions only
  * Cross-shard transactions require distributed transaction coordinator
  */
 public class ShardTransactionManager extends DataSourceTransactionManager {
-    
+
+    private static final Object TRANSACTION_SHARD = new Object();
+
+    private final ShardRouter shardRouter;
+
     public ShardTransactionManager(DataSource routingDataSource) {
         super(routingDataSource);
         setNestedTransactionAllowed(true);
+        this.shardRouter = routingDataSource instanceof RoutingDataSource routing ? routing.getShardRouter() : null;
+    }
+
+    /**
+     * Get shard the current transaction is bound to
+     * @return shard, or null if no shard transaction is active on this thread
+     */
+    public static Shard getTransactionShard() {
+        return (Shard) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD);
     }
-    
+
     @Override
     protected void doBegin(Object transaction, TransactionDefinition definition) {
         // Ensure shard context is available before starting transaction
-        if (!isShardContextAvailable()) {
+        Shard shard = resolveCurrentShard();
+        if (shard == null) {
             throw new IllegalStateException(
                 "Shard context not available. Ensure shard key is set before starting transaction."
             );
         }
-        
-        super.doBegin(transaction, definition);
+
+        // Read-only transactions obtain their connection from a replica when the shard has one
+        boolean previousReadOnly = ShardContext.isReadOnly();
+        ShardContext.setReadOnly(previousReadOnly || definition.isReadOnly());
+        try {
+            super.doBegin(transaction, definition);
+        } finally {
+            ShardContext.setReadOnly(previousReadOnly);
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, shard);
     }
-    
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        Object shard = TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+        return new SuspendedShardResources(super.doSuspend(transaction), (Shard) shard);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        SuspendedShardResources resources = (SuspendedShardResources) suspendedResources;
+        super.doResume(transaction, resources.connectionResources());
+        if (resources.shard() != null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, resources.shard());
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+        super.doCleanupAfterCompletion(transaction);
+    }
+
     @Override
     protected void doCommit(DefaultTransactionStatus status) {
         try {
             super.doCommit(status);
         } catch (Exception e) {
             // Log shard context for debugging
-            logger.error("Transaction commit failed. Shard context available: " + 
-                isShardContextAvailable(), e);
+            logger.error("Transaction commit failed on shard: " + describeTransactionShard(), e);
             throw e;
         }
     }
-    
+
     @Override
     protected void doRollback(DefaultTransactionStatus status) {
         try {
             super.doRollback(status);
         } catch (Exception e) {
             // Log shard context for debugging
-            logger.error("Transaction rollback failed. Shard context available: " + 
-                isShardContextAvailable(), e);
+            logger.error("Transaction rollback failed on shard: " + describeTransactionShard(), e);
             throw e;
         }
     }
-    
-    private boolean isShardContextAvailable() {
-        try {
-            // Try to get a connection to verify shard context
-            getDataSource().getConnection().close();
-            return true;
-        } catch (Exception e) {
-            return false;
+
+    private Shard resolveCurrentShard() {
+        Long shardKey = ShardContext.get();
+        if (shardKey == null) {
+            return null;
         }
+        if (shardRouter == null) {
+            // Plain DataSource: no routing state to validate
+            return Shard.of("default", 0, obtainDataSource());
+        }
+        return shardRouter.resolve(shardKey);
+    }
+
+    private static String describeTransactionShard() {
+        Shard shard = getTransactionShard();
+        return shard != null ? shard.name() : "unknown";
+    }
+
+    private record SuspendedShardResources(Object connectionResources, Shard shard) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown without touching the database when a shard's circuit breaker is open
+ */
+public class ShardUnavailableException extends TransientDataAccessResourceException {
+    
+    private final String shardName;
+    
+    public ShardUnavailableException(String shardName) {
+        super("Shard " + shardName + " is unavailable (circuit breaker open)");
+        this.shardName = shardName;
+    }
+    
+    public String getShardName() {
+        return shardName;
+    }
+}
@@ -0,0 +1,293 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for single-row writes
+ * Concurrent writes to the same shard are queued and flushed by a per-shard
+ * flusher thread as JDBC batches in one transaction, once maxBatchSize rows
+ * are queued or maxDelay has elapsed since the oldest queued row.
+ * If a batch statement fails on a row's data, the rows are retried one by one so a bad
+ * row only fails its own caller. Connection, timeout and commit failures fail every row
+ * of the flush: after a failed commit the rows may already be applied
+ */
+public class ShardWriteCoalescer implements AutoCloseable {
+
+    private static final Log logger = LogFactory.getLog(ShardWriteCoalescer.class);
+
+    private final RoutingDataSource routingDataSource;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final int queueCapacity;
+    private final long enqueueTimeoutNanos;
+    private final Map<Integer, ShardQueue> queues = new ConcurrentHashMap<>();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * @param routingDataSource routing data source
+     * @param maxBatchSize flush when this many rows are queued for a shard
+     * @param maxDelayMicros flush when the oldest queued row waited this long
+     * @param queueCapacity bounded queue size per shard
+     * @param enqueueTimeoutMillis how long a caller blocks on a full queue before rejection
+     */
+    public ShardWriteCoalescer(RoutingDataSource routingDataSource, int maxBatchSize, long maxDelayMicros,
+                               int queueCapacity, long enqueueTimeoutMillis) {
+        if (maxBatchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive");
+        }
+        this.routingDataSource = routingDataSource;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.queueCapacity = queueCapacity;
+        this.enqueueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMillis);
+    }
+
+    /**
+     * Queue single-row write for group commit
+     * Blocks up to the enqueue timeout when the shard queue is full (backpressure)
+     * @param shardKey the shard key
+     * @param sql the SQL statement
+     * @param args statement arguments
+     * @return future completed with the row's update count after commit
+     * @throws TransientDataAccessResourceException if the shard queue stays full
+     */
+    public CompletableFuture<Integer> submit(long shardKey, String sql, Object... args) {
+        if (closed) {
+            throw new IllegalStateException("Write coalescer is closed");
+        }
+        Shard shard = routingDataSource.getShardRouter().resolve(shardKey);
+        ShardQueue queue = queues.computeIfAbsent(shard.index(), index -> new ShardQueue(shard));
+
+        PendingWrite write = new PendingWrite(sql, args, System.nanoTime(), new CompletableFuture<>());
+        try {
+            if (!queue.requests.offer(write, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new TransientDataAccessResourceException(
+                    "Write queue full for shard " + shard.name() + " (capacity " + queueCapacity + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientDataAccessResourceException("Interrupted while queuing write", e);
+        }
+        // close() may have run since the check above and the flusher may already have exited;
+        // a write still in the queue then is never flushed, so take it back and fail it
+        if (closed && queue.requests.remove(write)) {
+            write.future().completeExceptionally(
+                new TransientDataAccessResourceException("Write coalescer closed before flush"));
+        }
+        return write.future();
+    }
+
+    /**
+     * Get number of writes waiting for a shard
+     * @param shardIndex shard index
+     * @return queued writes
+     */
+    public int getQueueDepth(int shardIndex) {
+        ShardQueue queue = queues.get(shardIndex);
+        return queue == null ? 0 : queue.requests.size();
+    }
+
+    /**
+     * Get batch size metrics
+     * @return snapshot of flush statistics
+     */
+    public Stats getStats() {
+        return new Stats(flushes.sum(), rows.sum(), fallbacks.sum(), rejected.sum(), largestBatch.get());
+    }
+
+    /**
+     * Stop accepting writes, flush queued writes and stop flusher threads
+     * Writes a flusher did not reach in time are failed rather than left pending
+     */
+    @Override
+    public void close() {
+        closed = true;
+        boolean interrupted = false;
+        for (ShardQueue queue : queues.values()) {
+            if (!interrupted) {
+                try {
+                    queue.flusher.join(TimeUnit.NANOSECONDS.toMillis(maxDelayNanos) + 5000);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            List<PendingWrite> pending = new ArrayList<>();
+            queue.requests.drainTo(pending);
+            pending.forEach(write -> write.future().completeExceptionally(
+                new TransientDataAccessResourceException("Write coalescer closed before flush")));
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runFlusher(ShardQueue queue) {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed || !queue.requests.isEmpty()) {
+                PendingWrite first = queue.requests.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedAt() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0
+                        ? queue.requests.poll(remaining, TimeUnit.NANOSECONDS)
+                        : queue.requests.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(queue, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.addAll(queue.requests);
+            batch.forEach(write -> write.future().completeExceptionally(
+                new TransientDataAccessResourceException("Write coalescer stopped before flush")));
+        }
+    }
+
+    private void flush(ShardQueue queue, List<PendingWrite> batch) {
+        flushes.increment();
+        rows.add(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+
+        Map<String, List<PendingWrite>> bySql = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            bySql.computeIfAbsent(write.sql(), sql -> new ArrayList<>()).add(write);
+        }
+
+        List<PendingWrite> executed = new ArrayList<>(batch.size());
+        List<Integer> counts = new ArrayList<>(batch.size());
+        RuntimeException[] statementFailure = new RuntimeException[1];
+        try {
+            queue.transaction.executeWithoutResult(status -> bySql.forEach((sql, writes) -> {
+                int[] updated;
+                try {
+                    updated = queue.template.batchUpdate(sql, writes.stream().map(PendingWrite::args).toList());
+                } catch (RuntimeException e) {
+                    statementFailure[0] = e;
+                    throw e;
+                }
+                for (int i = 0; i < writes.size(); i++) {
+                    executed.add(writes.get(i));
+                    counts.add(updated[i]);
+                }
+            }));
+            // Complete only after commit so callers never observe uncommitted writes
+            for (int i = 0; i < executed.size(); i++) {
+                executed.get(i).future().complete(counts.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (e != statementFailure[0] || !isRowError(e)) {
+                // Commit failures leave the outcome unknown, a retry could apply rows twice;
+                // connection and timeout failures would make every row wait out the same outage
+                logger.debug("Coalesced flush failed for shard " + queue.shard.name(), e);
+                batch.forEach(write -> write.future().completeExceptionally(e));
+                return;
+            }
+            // Isolate the failing row(s): retry individually so other callers still succeed
+            fallbacks.increment();
+            logger.debug("Coalesced flush failed for shard " + queue.shard.name() + ", retrying rows individually", e);
+            for (PendingWrite write : batch) {
+                try {
+                    write.future().complete(queue.transaction.execute(status ->
+                        queue.template.update(write.sql(), write.args())));
+                } catch (RuntimeException rowFailure) {
+                    write.future().completeExceptionally(rowFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if a batch statement failed on the data of some row, e.g. a constraint violation,
+     * rather than on the connection or the server's resources
+     */
+    private static boolean isRowError(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return true;
+        }
+        if (e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException) {
+            return false;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchUpdateException batchFailure) {
+                SQLException next = batchFailure.getNextException();
+                return !ObservedConnection.isResourceFailure(batchFailure)
+                    && (next == null || !ObservedConnection.isResourceFailure(next));
+            }
+        }
+        return false;
+    }
+
+    private final class ShardQueue {
+
+        private final Shard shard;
+        private final BlockingQueue<PendingWrite> requests;
+        private final JdbcTemplate template;
+        private final TransactionTemplate transaction;
+        private final Thread flusher;
+
+        private ShardQueue(Shard shard) {
+            this.shard = shard;
+            this.requests = new ArrayBlockingQueue<>(queueCapacity);
+            DataSource dataSource = routingDataSource.getShardDataSource(shard.index());
+            this.template = new JdbcTemplate(dataSource);
+            this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            this.flusher = new Thread(() -> runFlusher(this), "shard-coalescer-" + shard.name());
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+    }
+
+    private record PendingWrite(String sql, Object[] args, long enqueuedAt, CompletableFuture<Integer> future) {
+    }
+
+    /**
+     * Coalescer statistics
+     */
+    public record Stats(long flushes, long rows, long fallbacks, long rejected, int largestBatch) {
+
+        public double averageBatchSize() {
+            return flushes == 0 ? 0 : (double) rows / flushes;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.SqlRoutePlanner;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JdbcTemplate-style API taking the shard key from the SQL itself
+ * Each statement is planned once by the SqlRoutePlanner, which finds its
+ * shard key predicate (e.g. {@code account_id = ?}); executions then route on
+ * that parameter's value through ShardJdbcTemplate, so callers never set the
+ * shard context by hand. Statements without a key predicate are scattered to
+ * every shard and their rows gathered; INSERTs without a key are rejected
+ */
+public class SqlRoutingJdbcTemplate {
+
+    private final ShardJdbcTemplate shardJdbc;
+    private final SqlRoutePlanner planner;
+    private final LongAdder routed;
+    private final LongAdder scattered;
+
+    /**
+     * @param shardJdbc template executing the statements
+     * @param planner planner finding and caching shard key positions
+     */
+    public SqlRoutingJdbcTemplate(ShardJdbcTemplate shardJdbc, SqlRoutePlanner planner) {
+        this.shardJdbc = shardJdbc;
+        this.planner = planner;
+        this.routed = new LongAdder();
+        this.scattered = new LongAdder();
+    }
+
+    private SqlRoutingJdbcTemplate(SqlRoutingJdbcTemplate primary, ShardJdbcTemplate shardJdbc) {
+        this.shardJdbc = shardJdbc;
+        this.planner = primary.planner;
+        this.routed = primary.routed;
+        this.scattered = primary.scattered;
+    }
+
+    /**
+     * Get view whose routed calls are read-only work, see {@link ShardJdbcTemplate#readOnly()}
+     */
+    public SqlRoutingJdbcTemplate readOnly() {
+        return new SqlRoutingJdbcTemplate(this, shardJdbc.readOnly());
+    }
+
+    /**
+     * Get view whose calls use a workload class's pools, see {@link ShardJdbcTemplate#workload(String)}
+     */
+    public SqlRoutingJdbcTemplate workload(String workload) {
+        return new SqlRoutingJdbcTemplate(this, shardJdbc.workload(workload));
+    }
+
+    /**
+     * Get view whose routed queries are served from the result cache, see {@link ShardJdbcTemplate#cached()}
+     * Scattered queries always read every shard
+     */
+    public SqlRoutingJdbcTemplate cached() {
+        return new SqlRoutingJdbcTemplate(this, shardJdbc.cached());
+    }
+
+    /**
+     * Execute update on the key's shard, or on every shard when the statement has no key
+     * @throws IllegalArgumentException for an INSERT without a shard key value
+     */
+    public int update(String sql, Object... args) {
+        Long shardKey = shardKey(sql, args);
+        return shardKey != null ? shardJdbc.update(shardKey, sql, args) : shardJdbc.updateAllShards(sql, args);
+    }
+
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+        Long shardKey = shardKey(sql, args);
+        if (shardKey != null) {
+            return shardJdbc.queryForObject(shardKey, sql, requiredType, args);
+        }
+        return DataAccessUtils.nullableSingleResult(
+            shardJdbc.queryAllShards(sql, new SingleColumnRowMapper<>(requiredType), args));
+    }
+
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        Long shardKey = shardKey(sql, args);
+        if (shardKey != null) {
+            return shardJdbc.queryForObject(shardKey, sql, rowMapper, args);
+        }
+        return DataAccessUtils.nullableSingleResult(shardJdbc.queryAllShards(sql, rowMapper, args));
+    }
+
+    /**
+     * Query the key's shard, or every shard when the statement has no key
+     * Scattered results are concatenated in shard order; ORDER BY, LIMIT and
+     * aggregates apply per shard
+     */
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+        Long shardKey = shardKey(sql, args);
+        return shardKey != null
+            ? shardJdbc.query(shardKey, sql, rowMapper, args)
+            : shardJdbc.queryAllShards(sql, rowMapper, args);
+    }
+
+    public List<Map<String, Object>> queryForList(String sql, Object... args) {
+        Long shardKey = shardKey(sql, args);
+        return shardKey != null
+            ? shardJdbc.queryForList(shardKey, sql, args)
+            : shardJdbc.queryAllShards(sql, new ColumnMapRowMapper(), args);
+    }
+
+    private Long shardKey(String sql, Object[] args) {
+        Long shardKey = planner.plan(sql).shardKey(args);
+        (shardKey != null ? routed : scattered).increment();
+        return shardKey;
+    }
+
+    /**
+     * Get routing metrics
+     * @return snapshot of routed and scattered calls and the plan cache
+     */
+    public Stats getStats() {
+        return new Stats(routed.sum(), scattered.sum(), planner.getStats());
+    }
+
+    public ShardJdbcTemplate getShardJdbcTemplate() {
+        return shardJdbc;
+    }
+
+    /**
+     * SQL routing statistics
+     * @param routed calls sent to one shard by their key
+     * @param scattered calls sent to every shard
+     * @param plans plan cache statistics
+     */
+    public record Stats(long routed, long scattered, SqlRoutePlanner.Stats plans) {
+    }
+}
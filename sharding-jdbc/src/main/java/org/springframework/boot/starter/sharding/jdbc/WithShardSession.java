@@ -0,0 +1,23 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run the annotated method inside a ShardSession
+ * All ShardJdbcTemplate calls made by the method for the shard reuse one pinned connection
+ *
+ * @see ShardJdbcTemplate#withShard(long, ShardSessionCallback)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WithShardSession {
+
+    /**
+     * The parameter name holding the shard key
+     * If empty, will use the first parameter as shard key
+     */
+    String value() default "";
+}
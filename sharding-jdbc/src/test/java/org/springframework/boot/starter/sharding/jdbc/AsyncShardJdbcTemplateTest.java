@@ -0,0 +1,187 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.starter.sharding.core.ShardContext;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AsyncShardJdbcTemplate
+ */
+class AsyncShardJdbcTemplateTest {
+
+    private static final long KEY_ON_SHARD_0 = 1L;
+    private static final long OTHER_KEY_ON_SHARD_0 = 3L;
+    private static final long KEY_ON_SHARD_1 = 2L;
+
+    private ShardJdbcTemplate shardJdbc;
+    private ManualExecutor executor;
+    private AsyncShardJdbcTemplate async;
+    private final List<String> ran = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        RoutingDataSource routingDataSource = MockShardDatabase.routing(
+            Map.of(KEY_ON_SHARD_0, 0, OTHER_KEY_ON_SHARD_0, 0, KEY_ON_SHARD_1, 1),
+            new MockShardDatabase(), new MockShardDatabase());
+        shardJdbc = new ShardJdbcTemplate(routingDataSource, Runnable::run);
+        executor = new ManualExecutor();
+        async = new AsyncShardJdbcTemplate(shardJdbc, executor, shardIndex -> 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.clear();
+        ShardContext.setReadOnly(false);
+    }
+
+    @Test
+    void shouldQueueCallsPerShardInFifoOrder() {
+        CompletableFuture<String> first = record(KEY_ON_SHARD_0, "first");
+        CompletableFuture<String> second = record(OTHER_KEY_ON_SHARD_0, "second");
+        CompletableFuture<String> third = record(KEY_ON_SHARD_0, "third");
+        CompletableFuture<String> other = record(KEY_ON_SHARD_1, "other");
+
+        // One running call per shard, the other shard is not held up by the queue
+        assertEquals(2, executor.tasks.size());
+        AsyncShardJdbcTemplate.Stats stats = async.getStats();
+        assertEquals(2, stats.running());
+        assertEquals(2, stats.waiting());
+        assertEquals(2, stats.queued());
+
+        executor.runAll();
+
+        assertEquals(List.of("first", "other", "second", "third"), ran);
+        assertEquals("third", third.join());
+        assertTrue(first.isDone() && second.isDone() && other.isDone());
+        stats = async.getStats();
+        assertEquals(4, stats.completed());
+        assertEquals(0, stats.running());
+        assertEquals(0, stats.waiting());
+    }
+
+    @Test
+    void shouldHandSlotToNextCallWhenExecutorRejects() {
+        CompletableFuture<String> first = record(KEY_ON_SHARD_0, "first");
+        CompletableFuture<String> rejected = record(KEY_ON_SHARD_0, "rejected");
+        CompletableFuture<String> last = record(KEY_ON_SHARD_0, "last");
+
+        executor.rejections = 1;
+        executor.runAll();
+
+        assertEquals("first", first.join());
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals("last", last.join());
+        assertEquals(List.of("first", "last"), ran);
+        AsyncShardJdbcTemplate.Stats stats = async.getStats();
+        assertEquals(3, stats.completed());
+        assertEquals(0, stats.running());
+    }
+
+    @Test
+    void shouldSkipCallCancelledWhileQueued() {
+        CompletableFuture<String> first = record(KEY_ON_SHARD_0, "first");
+        CompletableFuture<String> cancelled = record(KEY_ON_SHARD_0, "cancelled");
+        CompletableFuture<String> last = record(KEY_ON_SHARD_0, "last");
+
+        assertTrue(cancelled.cancel(false));
+        executor.runAll();
+
+        assertEquals("first", first.join());
+        assertEquals("last", last.join());
+        assertEquals(List.of("first", "last"), ran);
+        AsyncShardJdbcTemplate.Stats stats = async.getStats();
+        assertEquals(3, stats.completed());
+        assertEquals(0, stats.running());
+        assertEquals(0, stats.waiting());
+    }
+
+    @Test
+    void shouldFollowChangedConcurrencyLimit() {
+        AtomicInteger limit = new AtomicInteger(1);
+        async = new AsyncShardJdbcTemplate(shardJdbc, executor, shardIndex -> limit.get());
+        record(KEY_ON_SHARD_0, "first");
+        record(KEY_ON_SHARD_0, "second");
+        record(KEY_ON_SHARD_0, "third");
+        assertEquals(1, async.getStats().running());
+
+        // A pool grown at runtime admits another call, the oldest waiting one
+        limit.set(2);
+        record(KEY_ON_SHARD_0, "fourth");
+        assertEquals(2, async.getStats().running());
+        assertEquals(2, async.getStats().waiting());
+
+        // A shrunk pool keeps its running calls but does not refill the freed slot
+        limit.set(1);
+        executor.runOne();
+        assertEquals(1, async.getStats().running());
+        assertEquals(2, async.getStats().waiting());
+
+        executor.runAll();
+        assertEquals(List.of("first", "second", "third", "fourth"), ran);
+        assertEquals(0, async.getStats().running());
+    }
+
+    @Test
+    void shouldRestoreCallerContextWhenRunOnCallerThread() {
+        AsyncShardJdbcTemplate callerRuns = new AsyncShardJdbcTemplate(shardJdbc, Runnable::run, shardIndex -> 1);
+        ShardContext.set(KEY_ON_SHARD_1);
+        ShardContext.setReadOnly(true);
+
+        Long key = callerRuns.submit(KEY_ON_SHARD_0, template -> ShardContext.get()).join();
+
+        assertEquals(KEY_ON_SHARD_0, key);
+        assertEquals(KEY_ON_SHARD_1, ShardContext.get());
+        assertTrue(ShardContext.isReadOnly());
+    }
+
+    private CompletableFuture<String> record(long shardKey, String name) {
+        return async.submit(shardKey, template -> {
+            ran.add(name);
+            return name;
+        });
+    }
+
+    /**
+     * Executor running queued tasks on demand, optionally rejecting the next executions
+     */
+    private static final class ManualExecutor implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private int rejections;
+
+        @Override
+        public void execute(Runnable task) {
+            if (rejections > 0) {
+                rejections--;
+                throw new RejectedExecutionException("Executor saturated");
+            }
+            tasks.add(task);
+        }
+
+        void runOne() {
+            tasks.remove().run();
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CopyRowWriter
+ */
+class CopyRowWriterTest {
+
+    @Test
+    void shouldPlaceDecimalPointByScale() {
+        assertEncoded("1.23", writer -> writer.write(new BigDecimal("1.23")));
+        assertEncoded("0.05", writer -> writer.write(new BigDecimal("0.05")));
+        assertEncoded("0.000", writer -> writer.write(new BigDecimal("0.000")));
+        assertEncoded("100", writer -> writer.write(new BigDecimal("100")));
+        assertEncoded("-1.50", writer -> writer.write(new BigDecimal("-1.50")));
+        assertEncoded("-0.07", writer -> writer.write(new BigDecimal("-0.07")));
+        // Negative scale and more than 18 digits fall back to the plain string
+        assertEncoded("1200", writer -> writer.write(new BigDecimal("1.2E+3")));
+        assertEncoded("12345678901234567890.12", writer -> writer.write(new BigDecimal("12345678901234567890.12")));
+    }
+
+    @Test
+    void shouldWriteLongs() {
+        assertEncoded("0", writer -> writer.write(0L));
+        assertEncoded("-42", writer -> writer.write(-42L));
+        assertEncoded("9223372036854775807", writer -> writer.write(Long.MAX_VALUE));
+        assertEncoded("-9223372036854775808", writer -> writer.write(Long.MIN_VALUE));
+        assertEncoded("-9223372036854775808", writer -> writer.write(BigDecimal.valueOf(Long.MIN_VALUE)));
+    }
+
+    @Test
+    void shouldEscapeControlCharacters() {
+        assertEncoded("a\\\\b\\nc\\td\\re", writer -> writer.write("a\\b\nc\td\re"));
+    }
+
+    @Test
+    void shouldEncodeUtf8() {
+        assertEncoded(new byte[]{'a', (byte) 0xC3, (byte) 0xA9, (byte) 0xE2, (byte) 0x82, (byte) 0xAC},
+            writer -> writer.write("aé€"));
+        // U+1F600 as a surrogate pair is one 4-byte sequence
+        assertEncoded(new byte[]{(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80},
+            writer -> writer.write("😀"));
+    }
+
+    @Test
+    void shouldReplaceUnpairedSurrogates() {
+        assertEncoded("?x", writer -> writer.write("\uD83Dx"));
+        assertEncoded("x?", writer -> writer.write("x\uDE00"));
+        assertEncoded("?", writer -> writer.write("\uD83D"));
+        assertEncoded("??", writer -> writer.write("\uDE00\uD83D"));
+    }
+
+    @Test
+    void shouldSeparateFieldsAndRows() {
+        CopyRowWriter writer = new CopyRowWriter(new byte[4]);
+        writer.write(7L).writeNull().write(true).write((Object) null).write("x y");
+        writer.endRow();
+        writer.write(false);
+        writer.endRow();
+
+        assertArrayEquals("7\t\\N\tt\t\\N\tx y\nf\n".getBytes(StandardCharsets.UTF_8),
+            Arrays.copyOf(writer.buffer(), writer.length()));
+    }
+
+    private static void assertEncoded(String expected, Consumer<CopyRowWriter> field) {
+        assertEncoded(expected.getBytes(StandardCharsets.UTF_8), field);
+    }
+
+    private static void assertEncoded(byte[] expected, Consumer<CopyRowWriter> field) {
+        // A one-byte buffer forces every write through buffer growth
+        CopyRowWriter writer = new CopyRowWriter(new byte[1]);
+        field.accept(writer);
+        assertArrayEquals(expected, Arrays.copyOf(writer.buffer(), writer.length()));
+    }
+}
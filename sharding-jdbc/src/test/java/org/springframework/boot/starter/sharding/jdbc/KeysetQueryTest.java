@@ -0,0 +1,44 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KeysetQuery
+ */
+class KeysetQueryTest {
+
+    @Test
+    void shouldCombineSeekWithTopLevelWhere() {
+        KeysetQuery query = KeysetQuery.of("SELECT id, created_at FROM payments WHERE account_id = ?",
+            true, "created_at", "id");
+
+        assertEquals("SELECT id, created_at FROM payments WHERE account_id = ? AND (created_at, id) < (?, ?)"
+            + " ORDER BY created_at DESC, id DESC LIMIT ?", query.render(true));
+        assertEquals("SELECT id, created_at FROM payments WHERE account_id = ?"
+            + " ORDER BY created_at DESC, id DESC LIMIT ?", query.render(false));
+    }
+
+    @Test
+    void shouldIgnoreWhereInsideSubqueryOrCte() {
+        KeysetQuery subquery = KeysetQuery.of(
+            "SELECT p.id FROM payments p JOIN (SELECT id FROM accounts WHERE active) a ON a.id = p.account_id",
+            false, "p.id");
+        KeysetQuery cte = KeysetQuery.of(
+            "WITH recent AS (SELECT id FROM payments WHERE created_at > now() - interval '1 day') SELECT id FROM recent",
+            false, "id");
+
+        assertTrue(subquery.render(true).endsWith("ON a.id = p.account_id WHERE (p.id) > (?) ORDER BY p.id ASC LIMIT ?"));
+        assertTrue(cte.render(true).endsWith("SELECT id FROM recent WHERE (id) > (?) ORDER BY id ASC LIMIT ?"));
+    }
+
+    @Test
+    void shouldIgnoreWhereInLiteralsAndIdentifiers() {
+        KeysetQuery query = KeysetQuery.of(
+            "SELECT id, 'where' AS note, \"where\" /* where */ FROM payments -- where\nJOIN ledger USING (id)",
+            false, "id");
+
+        assertTrue(query.render(true).endsWith("JOIN ledger USING (id) WHERE (id) > (?) ORDER BY id ASC LIMIT ?"));
+    }
+}
@@ -0,0 +1,128 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.springframework.boot.starter.sharding.core.HashShardRouter;
+import org.springframework.boot.starter.sharding.core.Shard;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mocked shard database shared by the JDBC unit tests
+ * One DataSource handing out one Connection, which prepares one PreparedStatement for
+ * every SQL string. Batches are supported and rows added to the batch are counted;
+ * tests stub the statement's execute methods for the behavior they need
+ */
+class MockShardDatabase {
+
+    final DataSource dataSource = mock(DataSource.class);
+    final Connection connection = mock(Connection.class);
+    final PreparedStatement statement = mock(PreparedStatement.class);
+    final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+    private final AtomicInteger batchedRows = new AtomicInteger();
+
+    MockShardDatabase() throws SQLException {
+        doAnswer(invocation -> {
+            batchedRows.incrementAndGet();
+            return null;
+        }).when(statement).addBatch();
+        when(statement.getConnection()).thenReturn(connection);
+        when(statement.getParameterMetaData()).thenReturn(mock(ParameterMetaData.class));
+        when(metaData.supportsBatchUpdates()).thenReturn(true);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(dataSource.getConnection()).thenReturn(connection);
+    }
+
+    /**
+     * Take the rows added to the batch since the last call, as executeBatch does
+     * @return rows in the batch
+     */
+    int takeBatch() {
+        return batchedRows.getAndSet(0);
+    }
+
+    /**
+     * Update counts of a batch that changed one row per statement
+     */
+    static int[] oneRowEach(int rows) {
+        int[] counts = new int[rows];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    /**
+     * Shard backed by this database, named "shard-" + index
+     * @param replicas read replicas of the shard
+     */
+    Shard shard(int index, MockShardDatabase... replicas) {
+        return Shard.of("shard-" + index, index, dataSource,
+            Arrays.stream(replicas).map(replica -> replica.dataSource).toList());
+    }
+
+    /**
+     * Routing over one shard per database, indexed by position
+     */
+    static RoutingDataSource routing(MockShardDatabase... databases) {
+        return routing(Map.of(), databases);
+    }
+
+    /**
+     * Routing over one shard per database, indexed by position
+     * @param overrides shard key -> shard index, pinning test keys to known shards
+     */
+    static RoutingDataSource routing(Map<Long, Integer> overrides, MockShardDatabase... databases) {
+        Shard[] shards = new Shard[databases.length];
+        for (int i = 0; i < databases.length; i++) {
+            shards[i] = databases[i].shard(i);
+        }
+        return routing(overrides, shards);
+    }
+
+    static RoutingDataSource routing(Map<Long, Integer> overrides, Shard... shards) {
+        return new RoutingDataSource(new HashShardRouter(List.of(shards), overrides));
+    }
+
+    /**
+     * Result set over fixed rows, read by column index
+     */
+    static ResultSet resultSet(List<Object[]> rows) throws SQLException {
+        return resultSet(List.of(), rows);
+    }
+
+    /**
+     * Result set over fixed rows, read by column index or by one of the given labels
+     */
+    static ResultSet resultSet(List<String> columns, List<Object[]> rows) throws SQLException {
+        AtomicInteger cursor = new AtomicInteger(-1);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(rows.isEmpty() ? 0 : rows.get(0).length);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenAnswer(invocation -> cursor.incrementAndGet() < rows.size());
+        when(resultSet.getObject(anyInt())).thenAnswer(invocation ->
+            rows.get(cursor.get())[invocation.<Integer>getArgument(0) - 1]);
+        when(resultSet.getObject(anyString())).thenAnswer(invocation ->
+            rows.get(cursor.get())[columns.indexOf(invocation.<String>getArgument(0))]);
+        when(resultSet.getLong(anyInt())).thenAnswer(invocation ->
+            ((Number) rows.get(cursor.get())[invocation.<Integer>getArgument(0) - 1]).longValue());
+        when(resultSet.getString(anyInt())).thenAnswer(invocation ->
+            (String) rows.get(cursor.get())[invocation.<Integer>getArgument(0) - 1]);
+        return resultSet;
+    }
+}
@@ -0,0 +1,104 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.starter.sharding.core.AdaptiveConcurrencyLimiter;
+import org.springframework.boot.starter.sharding.core.CircuitBreaker;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardCircuitBreakers;
+import org.springframework.boot.starter.sharding.core.ShardConcurrencyLimiters;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RoutingDataSource
+ */
+class RoutingDataSourceTest {
+
+    private MockShardDatabase database;
+    private Shard shard;
+    private RoutingDataSource routingDataSource;
+    private ShardConcurrencyLimiters limiters;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new MockShardDatabase();
+        when(database.statement.executeUpdate()).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return 1;
+        });
+
+        shard = database.shard(0);
+        routingDataSource = MockShardDatabase.routing(Map.of(), shard);
+        limiters = new ShardConcurrencyLimiters(
+            new AdaptiveConcurrencyLimiter.Config(10, 1, 100, 0.9, 1.5, 10, Duration.ofMillis(100)));
+        routingDataSource.setConcurrencyLimiters(limiters);
+    }
+
+    @Test
+    void shouldSampleStatementTimeRatherThanLeaseTime() throws Exception {
+        try (Connection connection = routingDataSource.getShardDataSource(0).getConnection()) {
+            // Connection held idle far longer than its statements run
+            Thread.sleep(200);
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE accounts SET balance = 0")) {
+                    statement.executeUpdate();
+                }
+            }
+        }
+
+        AdaptiveConcurrencyLimiter.Stats stats = limiters.get(shard).getStats();
+        assertEquals(0, stats.inflight());
+        assertTrue(stats.longRtt().compareTo(Duration.ofMillis(100)) < 0, "Sampled " + stats.longRtt());
+        assertTrue(stats.longRtt().compareTo(Duration.ofMillis(5)) >= 0, "Sampled " + stats.longRtt());
+    }
+
+    @Test
+    void shouldReleaseSlotWithoutSampleWhenNoStatementRan() throws Exception {
+        try (Connection connection = routingDataSource.getShardDataSource(0).getConnection()) {
+            assertEquals(1, limiters.get(shard).getStats().inflight());
+        }
+
+        AdaptiveConcurrencyLimiter.Stats stats = limiters.get(shard).getStats();
+        assertEquals(0, stats.inflight());
+        assertEquals(Duration.ZERO, stats.longRtt());
+    }
+
+    @Test
+    void shouldNotReportCancelledStatementAsShardFailure() throws Exception {
+        ShardCircuitBreakers breakers = new ShardCircuitBreakers(
+            new CircuitBreaker.Config(10, 1, 50, 100, Duration.ofSeconds(2), Duration.ofMinutes(1), 1));
+        routingDataSource.setCircuitBreakers(breakers);
+        // Hedged read cancelled as the losing attempt, or a statement timeout
+        when(database.statement.executeQuery())
+            .thenThrow(new SQLException("canceling statement due to user request", "57014"))
+            .thenThrow(new SQLException("terminating connection due to administrator command", "57P01"));
+
+        assertThrows(SQLException.class, this::runQuery);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.get(shard).getState());
+        assertEquals(0.0, breakers.get(shard).getStats().failureRate());
+        assertEquals(0, limiters.get(shard).getStats().dropped());
+        assertEquals(10, limiters.get(shard).getStats().limit());
+
+        // Other operator intervention errors still count against the shard
+        assertThrows(SQLException.class, this::runQuery);
+
+        assertEquals(CircuitBreaker.State.OPEN, breakers.get(shard).getState());
+        assertEquals(1, limiters.get(shard).getStats().dropped());
+    }
+
+    private void runQuery() throws SQLException {
+        try (Connection connection = routingDataSource.getShardDataSource(0).getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT balance FROM accounts")) {
+            statement.executeQuery();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.starter.sharding.core.ConsistencyToken;
+import org.springframework.boot.starter.sharding.core.KeysetPage;
+import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.boot.starter.sharding.core.ShardCursor;
+import org.springframework.boot.starter.sharding.core.ShardResultCache;
+import org.springframework.dao.DataAccessException;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardJdbcTemplate
+ */
+class ShardJdbcTemplateTest {
+
+    private static final String INSERT = "INSERT INTO ledger (account_id, memo) VALUES (?, ?)";
+    private static final String DEBIT = "UPDATE accounts SET balance = balance - ? WHERE account_id = ?";
+    private static final String SELECT_NAME = "SELECT name FROM accounts WHERE account_id = ?";
+    private static final String SELECT_BY_KEYS = "SELECT account_id, name FROM accounts WHERE account_id = ANY(?)";
+    private static final KeysetQuery BY_ID = KeysetQuery.of("SELECT id FROM ledger", false, "id");
+
+    private MockShard shard0;
+    private MockShard shard1;
+    private ShardJdbcTemplate template;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        shard0 = new MockShard();
+        shard1 = new MockShard();
+        // Odd keys live on shard 0, even keys on shard 1
+        template = new ShardJdbcTemplate(
+            MockShardDatabase.routing(Map.of(1L, 0, 2L, 1, 3L, 0, 4L, 1), shard0, shard1), Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ShardContext.clear();
+    }
+
+    @Test
+    void shouldReportPartialBatchFailurePerShard() throws SQLException {
+        shard1.failBatch = true;
+        Object[] row1 = {1L, "a"};
+        Object[] row2 = {2L, "b"};
+        Object[] row3 = {3L, "c"};
+        Object[] row4 = {4L, "d"};
+
+        ShardBatchResult result = template.batchUpdate(INSERT, List.of(row1, row2, row3, row4),
+            args -> (Long) args[0]);
+
+        assertTrue(result.hasFailures());
+        assertEquals(List.of(0), List.copyOf(result.getUpdateCounts().keySet()));
+        assertArrayEquals(new int[]{1, 1}, result.getUpdateCounts().get(0));
+        assertEquals(2, result.getTotalUpdateCount());
+        assertEquals(List.of(1), List.copyOf(result.getFailures().keySet()));
+        assertEquals(List.of(row2, row4), result.getFailedArgs(1));
+        assertEquals(List.of(), result.getFailedArgs(0));
+
+        // Each shard batch ran in its own transaction
+        verify(shard0.connection).commit();
+        verify(shard1.connection).rollback();
+        verify(shard1.connection, never()).commit();
+    }
+
+    @Test
+    void shouldGroupBatchRowsByShard() throws SQLException {
+        ShardBatchResult result = template.batchUpdate(INSERT,
+            List.of(new Object[]{1L, "a"}, new Object[]{2L, "b"}, new Object[]{3L, "c"}), args -> (Long) args[0]);
+
+        assertFalse(result.hasFailures());
+        assertEquals(List.of(2), shard0.batches);
+        assertEquals(List.of(1), shard1.batches);
+        assertEquals(3, result.getTotalUpdateCount());
+    }
+
+    @Test
+    void shouldQueryKeysGroupedByShard() {
+        shard0.rows = List.<Object[]>of(new Object[]{1L, "alice"}, new Object[]{3L, "carol"});
+        shard1.rows = List.<Object[]>of(new Object[]{2L, "bob"});
+
+        Map<Long, List<String>> result = template.queryByKeys(new long[]{3L, 1L, 2L, 4L, 1L}, SELECT_BY_KEYS,
+            (rs, rowNum) -> rs.getString(2));
+
+        // One array round trip per shard, duplicates bound once
+        assertEquals(List.of(List.of(3L, 1L)), shard0.boundKeys);
+        assertEquals(List.of(List.of(2L, 4L)), shard1.boundKeys);
+        // Every requested key is present in request order, missing rows map to an empty list
+        assertEquals(List.of(3L, 1L, 2L, 4L), List.copyOf(result.keySet()));
+        assertEquals(List.of("carol"), result.get(3L));
+        assertEquals(List.of("alice"), result.get(1L));
+        assertEquals(List.of("bob"), result.get(2L));
+        assertEquals(List.of(), result.get(4L));
+    }
+
+    @Test
+    void shouldRejectQueryByKeysWhenFirstColumnIsNotShardKey() {
+        // Row whose first column holds something other than a requested key
+        shard0.rows = List.<Object[]>of(new Object[]{42L, "alice"});
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+            template.queryByKeys(new long[]{1L}, "SELECT balance, name FROM accounts WHERE account_id = ANY(?)",
+                (rs, rowNum) -> rs.getString(2)));
+
+        assertTrue(error.getMessage().contains("Select the shard key first"));
+    }
+
+    @Test
+    void shouldNotServeCachedReplicaRowsToPrimaryOrTokenReads() throws SQLException {
+        MockShardDatabase primary = new MockShardDatabase();
+        MockShardDatabase replica = new MockShardDatabase();
+        when(primary.statement.executeQuery()).thenAnswer(invocation ->
+            MockShardDatabase.resultSet(List.<Object[]>of(new Object[]{"fresh"})));
+        // Lagging replica still holds the row from before the last write
+        when(replica.statement.executeQuery()).thenAnswer(invocation ->
+            MockShardDatabase.resultSet(List.<Object[]>of(new Object[]{"stale"})));
+        ShardJdbcTemplate replicated =
+            new ShardJdbcTemplate(MockShardDatabase.routing(Map.of(), primary.shard(0, replica)), Runnable::run);
+        replicated.setResultCache(new ShardResultCache(100, Duration.ofMinutes(1)));
+        ShardJdbcTemplate cached = replicated.cached();
+
+        assertEquals("stale", cached.readOnly().queryForObject(1L, SELECT_NAME, String.class, 1L));
+        ConsistencyToken afterWrite = new ConsistencyToken(0, 5);
+        assertEquals("fresh", cached.readOnly(afterWrite).queryForObject(1L, SELECT_NAME, String.class, 1L));
+        assertEquals("fresh", cached.queryForObject(1L, SELECT_NAME, String.class, 1L));
+        assertEquals("stale", cached.readOnly().queryForObject(1L, SELECT_NAME, String.class, 1L));
+
+        verify(replica.statement, times(1)).executeQuery();
+        verify(primary.statement, times(2)).executeQuery();
+    }
+
+    @Test
+    void shouldTrackPositionPerShardAcrossPages() throws SQLException {
+        // Shard 0 has more rows than the page holds, shard 1 is drained by the first page
+        shard0.rows = List.<Object[]>of(new Object[]{1L}, new Object[]{3L}, new Object[]{5L});
+        shard1.rows = List.<Object[]>of(new Object[]{2L});
+
+        KeysetPage<Long> first = template.queryPageAllShards(BY_ID, (rs, rowNum) -> rs.getLong(1), 2, null);
+
+        assertEquals(List.of(1L, 2L), first.content());
+        ShardCursor cursor = ShardCursor.decode(first.nextToken());
+        assertEquals(Map.of("id", 1L), cursor.position(0));
+        assertFalse(cursor.isExhausted(0));
+        assertTrue(cursor.isExhausted(1));
+
+        shard0.rows = List.<Object[]>of(new Object[]{3L}, new Object[]{5L});
+        KeysetPage<Long> second = template.queryPageAllShards(BY_ID, (rs, rowNum) -> rs.getLong(1), 2,
+            first.nextToken());
+
+        assertEquals(List.of(3L, 5L), second.content());
+        assertNull(second.nextToken());
+        // The second page seeks past shard 0's last emitted key and skips the exhausted shard
+        verify(shard0.statement).setObject(1, 1L);
+        verify(shard1.statement, times(1)).executeQuery();
+    }
+
+    @Test
+    void shouldKeepPositionOfShardWithNoRowsOnPage() {
+        shard0.rows = List.<Object[]>of(new Object[]{1L}, new Object[]{2L}, new Object[]{3L});
+        shard1.rows = List.<Object[]>of(new Object[]{10L}, new Object[]{11L}, new Object[]{12L});
+
+        KeysetPage<Long> page = template.queryPageAllShards(BY_ID, (rs, rowNum) -> rs.getLong(1), 2, null);
+
+        assertEquals(List.of(1L, 2L), page.content());
+        ShardCursor cursor = ShardCursor.decode(page.nextToken());
+        assertEquals(Map.of("id", 2L), cursor.position(0));
+        // Shard 1 contributed nothing yet, so it restarts from the beginning
+        assertNull(cursor.position(1));
+        assertFalse(cursor.isExhausted(1));
+    }
+
+    @Test
+    void shouldEndSingleShardPagesWhenShardIsDrained() {
+        shard0.rows = List.<Object[]>of(new Object[]{1L}, new Object[]{3L});
+
+        KeysetPage<Long> page = template.queryPage(1L, BY_ID, (rs, rowNum) -> rs.getLong(1), 2, null);
+
+        assertEquals(List.of(1L, 3L), page.content());
+        assertNull(page.nextToken());
+    }
+
+    @Test
+    void shouldRejectNullSortKey() {
+        shard0.rows = List.<Object[]>of(new Object[]{1L}, new Object[]{null});
+
+        DataAccessException error = assertThrows(DataAccessException.class, () ->
+            template.queryPage(1L, BY_ID, (rs, rowNum) -> rs.getObject(1), 2, null));
+
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().contains("Sort column id is null"));
+    }
+
+    @Test
+    void shouldReuseOneConnectionWithinShardSession() throws SQLException {
+        ShardContext.set(7L);
+
+        template.withShard(1L, session -> {
+            assertEquals("shard-0", ShardSession.getCurrentShard().name());
+            session.update(DEBIT, 10, 1L);
+            // Another key on the same shard joins the pinned connection
+            template.update(3L, DEBIT, 10, 3L);
+            return session.update(DEBIT, 5, 1L);
+        });
+
+        verify(shard0.dataSource, times(1)).getConnection();
+        verify(shard0.statement, times(3)).executeUpdate();
+        verify(shard0.connection).close();
+        verify(shard1.dataSource, never()).getConnection();
+        assertNull(ShardSession.getCurrentShard());
+        assertEquals(7L, ShardContext.get());
+    }
+
+    @Test
+    void shouldRejectKeyOnOtherShardWithinShardSession() throws SQLException {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+            template.withShard(1L, session -> template.update(2L, DEBIT, 10, 2L)));
+        IllegalStateException nested = assertThrows(IllegalStateException.class, () ->
+            template.withShard(1L, session -> template.withShard(4L, other -> 0)));
+
+        assertTrue(error.getMessage().contains("bound to shard-0"));
+        assertTrue(nested.getMessage().contains("bound to shard-0"));
+        verify(shard1.dataSource, never()).getConnection();
+        verify(shard0.connection, times(2)).close();
+        assertNull(ShardSession.getCurrentShard());
+        assertNull(ShardContext.get());
+    }
+
+    @Test
+    void shouldPinConnectionForWithShardSessionMethod() throws SQLException {
+        ProxyFactory proxyFactory = new ProxyFactory(new LedgerServiceImpl(template));
+        proxyFactory.addAdvice(new ShardSessionInterceptor(template));
+        LedgerService ledger = (LedgerService) proxyFactory.getProxy();
+
+        assertEquals("shard-1", ledger.post(2L, 4L));
+
+        verify(shard1.dataSource, times(1)).getConnection();
+        verify(shard1.statement, times(2)).executeUpdate();
+        assertNull(ShardSession.getCurrentShard());
+        assertNull(ShardContext.get());
+
+        assertThrows(IllegalStateException.class, () -> ledger.post(2L, 3L));
+        verify(shard0.dataSource, never()).getConnection();
+        assertNull(ShardSession.getCurrentShard());
+        assertNull(ShardContext.get());
+    }
+
+    interface LedgerService {
+
+        @WithShardSession
+        String post(long accountId, long counterpartyId);
+    }
+
+    static class LedgerServiceImpl implements LedgerService {
+
+        private final ShardJdbcTemplate template;
+
+        LedgerServiceImpl(ShardJdbcTemplate template) {
+            this.template = template;
+        }
+
+        @Override
+        public String post(long accountId, long counterpartyId) {
+            template.update(accountId, DEBIT, 10, accountId);
+            template.update(counterpartyId, DEBIT, 10, counterpartyId);
+            return ShardSession.getCurrentShard().name();
+        }
+    }
+
+    /**
+     * Shard database answering batches with one row per statement and queries with fixed rows
+     */
+    private static final class MockShard extends MockShardDatabase {
+
+        private final List<Integer> batches = new CopyOnWriteArrayList<>();
+        private final List<List<Object>> boundKeys = new CopyOnWriteArrayList<>();
+        private volatile boolean failBatch;
+        private volatile List<Object[]> rows = List.of();
+
+        MockShard() throws SQLException {
+            when(statement.executeBatch()).thenAnswer(invocation -> {
+                int rows = takeBatch();
+                if (failBatch) {
+                    throw new SQLException("Batch rejected");
+                }
+                batches.add(rows);
+                return oneRowEach(rows);
+            });
+            when(statement.executeQuery()).thenAnswer(invocation -> resultSet(List.of("id"), rows));
+            when(connection.createArrayOf(eq("bigint"), any(Object[].class))).thenAnswer(invocation -> {
+                boundKeys.add(List.of((Object[]) invocation.getRawArguments()[1]));
+                return mock(Array.class);
+            });
+        }
+    }
+}
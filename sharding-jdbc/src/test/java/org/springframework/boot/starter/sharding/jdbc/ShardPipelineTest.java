@@ -0,0 +1,117 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardPipeline
+ */
+class ShardPipelineTest {
+
+    private static final String INSERT = "INSERT INTO payments (account_id, memo) VALUES (?, ?)";
+    private static final String SELECT = "SELECT name FROM accounts WHERE account_id = ?";
+    private static final String UPDATE = "UPDATE accounts SET balance = balance - ? WHERE account_id = ?;";
+
+    private DatabaseMetaData metaData;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private ShardJdbcTemplate template;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString("name")).thenReturn("alice");
+
+        MockShardDatabase database = new MockShardDatabase();
+        metaData = database.metaData;
+        connection = database.connection;
+        statement = database.statement;
+        template = new ShardJdbcTemplate(MockShardDatabase.routing(database), Runnable::run);
+    }
+
+    @Test
+    void shouldSendStatementsAsOneMultiStatementOnPostgres() throws SQLException {
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(statement.execute()).thenReturn(false);
+        when(statement.getUpdateCount()).thenReturn(1, 1);
+        when(statement.getMoreResults()).thenReturn(true, false, false);
+        when(statement.getResultSet()).thenReturn(resultSet);
+
+        ShardPipeline.PipelineResults results = template.pipeline(42L)
+            .update(INSERT, 42L, "rent")
+            .query(SELECT, (rs, rowNum) -> rs.getString("name"), 42L)
+            .update(UPDATE, 100, 42L)
+            .execute();
+
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(connection).prepareStatement(INSERT + ";\n" + SELECT + ";\n"
+            + "UPDATE accounts SET balance = balance - ? WHERE account_id = ?");
+        assertEquals(3, results.size());
+        assertEquals(1, results.getUpdateCount(0));
+        assertEquals(List.of("alice"), results.getRows(1));
+        assertEquals(1, results.getUpdateCount(2));
+        assertThrows(IllegalArgumentException.class, () -> results.getRows(0));
+        assertThrows(IllegalArgumentException.class, () -> results.getUpdateCount(1));
+    }
+
+    @Test
+    void shouldBindNullArgumentsInMultiStatement() throws SQLException {
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(statement.execute()).thenReturn(false);
+        when(statement.getUpdateCount()).thenReturn(1, 1);
+
+        ShardPipeline.PipelineResults results = template.pipeline(42L)
+            .update(INSERT, 42L, null)
+            .update(INSERT, 42L, null)
+            .execute();
+
+        assertEquals(2, results.size());
+        InOrder binds = inOrder(statement);
+        binds.verify(statement).setObject(1, 42L);
+        binds.verify(statement).setNull(anyInt(), anyInt());
+        binds.verify(statement).setObject(3, 42L);
+        verify(statement).setNull(2, 0);
+        verify(statement).setNull(4, 0);
+    }
+
+    @Test
+    void shouldRunStatementsBackToBackOnOtherDatabases() throws SQLException {
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+        when(statement.executeUpdate()).thenReturn(1, 2);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        ShardPipeline.PipelineResults results = template.pipeline(42L)
+            .update(INSERT, 42L, null)
+            .query(SELECT, (rs, rowNum) -> rs.getString("name"), 42L)
+            .update(UPDATE, 100, 42L)
+            .execute();
+
+        verify(connection).prepareStatement(INSERT);
+        verify(connection).prepareStatement(SELECT);
+        verify(connection).prepareStatement("UPDATE accounts SET balance = balance - ? WHERE account_id = ?");
+        verify(statement, never()).execute();
+        assertEquals(1, results.getUpdateCount(0));
+        assertEquals(List.of("alice"), results.getRows(1));
+        assertEquals(2, results.getUpdateCount(2));
+    }
+}
@@ -0,0 +1,61 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardPoolWarmer
+ */
+class ShardPoolWarmerTest {
+
+    @Test
+    void shouldWarmAllPools() throws SQLException {
+        MockShardDatabase primary = new MockShardDatabase();
+        MockShardDatabase replica = new MockShardDatabase();
+        ShardPoolWarmer warmer = new ShardPoolWarmer(
+            MockShardDatabase.routing(Map.of(), primary.shard(0, replica)).getShardRouter(),
+            List.of("SELECT 1"), 5, 2, dataSource -> 2);
+
+        ShardPoolWarmer.Result result = warmer.warmUp(Duration.ofSeconds(5));
+
+        assertTrue(result.complete());
+        assertEquals(2, result.warmedPools());
+        assertEquals(4, result.connections());
+        verify(primary.statement, times(10)).execute();
+        verify(replica.connection, times(2)).close();
+    }
+
+    @Test
+    void shouldFinishWarmingInBackgroundAfterBudget() throws SQLException {
+        MockShardDatabase slow = new MockShardDatabase();
+        CountDownLatch connected = new CountDownLatch(1);
+        when(slow.dataSource.getConnection()).thenAnswer(invocation -> {
+            // Connection establishment outlasting the warm-up budget
+            assertTrue(connected.await(5, TimeUnit.SECONDS));
+            return slow.connection;
+        });
+        ShardPoolWarmer warmer = new ShardPoolWarmer(MockShardDatabase.routing(slow).getShardRouter(),
+            List.of("SELECT 1"), 1, 1, dataSource -> 1);
+
+        ShardPoolWarmer.Result result = warmer.warmUp(Duration.ofMillis(50));
+        connected.countDown();
+
+        assertFalse(result.complete());
+        assertEquals(0, result.warmedPools());
+        // The pool is not interrupted: its connection is still opened, primed and returned
+        verify(slow.statement, timeout(5000)).execute();
+        verify(slow.connection, timeout(5000)).close();
+    }
+}
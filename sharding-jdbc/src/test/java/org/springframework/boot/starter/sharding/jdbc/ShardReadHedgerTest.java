@@ -0,0 +1,153 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.starter.sharding.core.CircuitBreaker;
+import org.springframework.boot.starter.sharding.core.Shard;
+import org.springframework.boot.starter.sharding.core.ShardCircuitBreakers;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardReadHedger
+ */
+class ShardReadHedgerTest {
+
+    private static final String BALANCE = "SELECT balance FROM accounts WHERE account_id = ?";
+    private static final long PRIMARY = 0L;
+    private static final long REPLICA_0 = 100L;
+    private static final long REPLICA_1 = 101L;
+
+    private ShardReadHedger hedger;
+
+    @AfterEach
+    void tearDown() {
+        if (hedger != null) {
+            hedger.close();
+        }
+    }
+
+    @Test
+    void shouldNotHedgeReadFasterThanDelay() throws SQLException {
+        FakeDatabase replica1 = new FakeDatabase(REPLICA_1, 0);
+        hedger = hedger(new FakeDatabase(PRIMARY, 0), new FakeDatabase(REPLICA_0, 20), replica1, 100, 500);
+
+        assertEquals(REPLICA_0, read());
+        assertEquals(0, hedger.getStats().hedges());
+        assertEquals(0, replica1.executions.get());
+    }
+
+    @Test
+    void shouldHedgeToSecondReplicaAfterDelayAndCancelSlowAttempt() throws Exception {
+        FakeDatabase replica0 = new FakeDatabase(REPLICA_0, 5000);
+        hedger = hedger(new FakeDatabase(PRIMARY, 0), replica0, new FakeDatabase(REPLICA_1, 0), 100, 100);
+
+        long start = System.nanoTime();
+        long result = read();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(REPLICA_1, result);
+        assertTrue(elapsedMillis >= 100, "Hedge sent before the delay: " + elapsedMillis + " ms");
+        assertTrue(elapsedMillis < 5000, "Slow attempt was not cancelled");
+        assertTrue(replica0.cancelled.await(1, TimeUnit.SECONDS));
+        assertEquals(1, hedger.getStats().hedges());
+        assertEquals(1, hedger.getStats().hedgeWins());
+    }
+
+    @Test
+    void shouldCancelHedgeWhenFirstAttemptWins() throws Exception {
+        FakeDatabase replica1 = new FakeDatabase(REPLICA_1, 5000);
+        hedger = hedger(new FakeDatabase(PRIMARY, 0), new FakeDatabase(REPLICA_0, 200), replica1, 100, 20);
+
+        assertEquals(REPLICA_0, read());
+        assertTrue(replica1.cancelled.await(1, TimeUnit.SECONDS));
+        assertEquals(1, hedger.getStats().hedges());
+        assertEquals(0, hedger.getStats().hedgeWins());
+    }
+
+    @Test
+    void shouldStopHedgingWhenBudgetIsSpent() throws SQLException {
+        // No budget accrues per read, only the initial burst credit of ten hedges is available
+        hedger = hedger(new FakeDatabase(PRIMARY, 0), new FakeDatabase(REPLICA_0, 50), new FakeDatabase(REPLICA_1, 50),
+            0, 10);
+
+        for (int i = 0; i < 12; i++) {
+            read();
+        }
+
+        assertEquals(12, hedger.getStats().reads());
+        assertEquals(10, hedger.getStats().hedges());
+        assertEquals(2, hedger.getStats().budgetDenied());
+    }
+
+    @Test
+    void shouldSendPrimaryHedgeThroughCircuitBreaker() throws SQLException {
+        FakeDatabase primary = new FakeDatabase(PRIMARY, 0);
+        Shard shard = primary.shard(0, new FakeDatabase(REPLICA_0, 200));
+        RoutingDataSource routingDataSource = MockShardDatabase.routing(Map.of(), shard);
+        ShardCircuitBreakers breakers = new ShardCircuitBreakers(
+            new CircuitBreaker.Config(10, 1, 50, 100, Duration.ofSeconds(2), Duration.ofMinutes(1), 1));
+        breakers.get(shard).onComplete(true, false);
+        routingDataSource.setCircuitBreakers(breakers);
+        hedger = new ShardReadHedger(routingDataSource, 95.0, 100, Duration.ofMillis(10), Duration.ofMillis(20));
+
+        // The only other target is the primary, whose open breaker rejects the hedge
+        assertEquals(REPLICA_0, read());
+        assertEquals(1, hedger.getStats().hedges());
+        assertEquals(0, primary.executions.get());
+    }
+
+    private long read() {
+        return hedger.queryForObject(1L, BALANCE, Long.class, 1L);
+    }
+
+    private static ShardReadHedger hedger(FakeDatabase primary, FakeDatabase replica0, FakeDatabase replica1,
+                                          double budgetPercent, long delayMillis) {
+        RoutingDataSource routingDataSource = MockShardDatabase.routing(Map.of(), primary.shard(0, replica0, replica1));
+        return new ShardReadHedger(routingDataSource, 95.0, budgetPercent, Duration.ofMillis(delayMillis),
+            Duration.ofMillis(delayMillis));
+    }
+
+    /**
+     * Database answering every query with a fixed value after a delay, unless the statement is cancelled
+     */
+    private static final class FakeDatabase extends MockShardDatabase {
+
+        private final AtomicInteger executions = new AtomicInteger();
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+
+        FakeDatabase(long value, long delayMillis) throws SQLException {
+            // A statement per call, so cancelling one attempt leaves the others running
+            when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+                CountDownLatch cancel = new CountDownLatch(1);
+                PreparedStatement statement = mock(PreparedStatement.class);
+                doAnswer(cancelInvocation -> {
+                    cancel.countDown();
+                    cancelled.countDown();
+                    return null;
+                }).when(statement).cancel();
+                when(statement.executeQuery()).thenAnswer(executeInvocation -> {
+                    executions.incrementAndGet();
+                    if (cancel.await(delayMillis, TimeUnit.MILLISECONDS)) {
+                        throw new SQLException("canceling statement due to user request", "57014");
+                    }
+                    return resultSet(List.<Object[]>of(new Object[]{value}));
+                });
+                return statement;
+            });
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardScanner
+ */
+class ShardScannerTest {
+
+    @Test
+    void shouldSplitRangeIntoContiguousChunks() {
+        assertEquals(List.of(
+            new ScanChunk(1, 25, false), new ScanChunk(26, 50, false),
+            new ScanChunk(51, 75, false), new ScanChunk(76, 100, false)),
+            ShardScanner.split(1, 100, 4));
+        // Uneven span: the last chunk takes the remainder
+        assertEquals(List.of(new ScanChunk(0, 3, false), new ScanChunk(4, 7, false), new ScanChunk(8, 9, false)),
+            ShardScanner.split(0, 9, 3));
+        assertEquals(List.of(new ScanChunk(-5, -3, false), new ScanChunk(-2, 0, false)),
+            ShardScanner.split(-5, 0, 2));
+    }
+
+    @Test
+    void shouldNotSplitNarrowRangeBeyondItsKeys() {
+        assertEquals(List.of(new ScanChunk(7, 7, false)), ShardScanner.split(7, 7, 4));
+        assertEquals(List.of(new ScanChunk(0, 0, false), new ScanChunk(1, 1, false), new ScanChunk(2, 2, false)),
+            ShardScanner.split(0, 2, 5));
+    }
+
+    @Test
+    void shouldSplitFullKeyRange() {
+        assertEquals(List.of(new ScanChunk(Long.MIN_VALUE, Long.MAX_VALUE, false)),
+            ShardScanner.split(Long.MIN_VALUE, Long.MAX_VALUE, 1));
+
+        List<ScanChunk> chunks = ShardScanner.split(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+        assertEquals(4, chunks.size());
+        assertEquals(Long.MIN_VALUE, chunks.get(0).start());
+        assertEquals(-4611686018427387905L, chunks.get(0).end());
+        for (int i = 1; i < chunks.size(); i++) {
+            assertEquals(chunks.get(i - 1).end() + 1, chunks.get(i).start());
+        }
+        assertEquals(Long.MAX_VALUE, chunks.get(3).end());
+    }
+
+    @Test
+    void shouldPlanShardsConcurrently() throws SQLException {
+        ScanCheckpointStore checkpointStore = mock(ScanCheckpointStore.class);
+        CountDownLatch planning = new CountDownLatch(2);
+        Set<Thread> planners = ConcurrentHashMap.newKeySet();
+        when(checkpointStore.loadPlan(eq("nightly"), anyInt())).thenAnswer(invocation -> {
+            planners.add(Thread.currentThread());
+            // Both shards must be planning at once for either one to proceed
+            planning.countDown();
+            assertTrue(planning.await(5, TimeUnit.SECONDS));
+            return List.of(new ScanChunk(1, 10, true));
+        });
+        ShardScanner scanner = new ShardScanner(
+            MockShardDatabase.routing(new MockShardDatabase(), new MockShardDatabase()), checkpointStore, null, 2, 4);
+
+        ShardScanResult result = scanner.scan(ShardScan.of("nightly", "payments", "id", "id"),
+            (rs, rowNum) -> rs.getLong(1), row -> { });
+
+        assertFalse(result.hasFailures());
+        assertEquals(Map.of(0, 1, 1, 1), result.getSkippedChunks());
+        assertEquals(2, planners.size());
+        assertFalse(planners.contains(Thread.currentThread()));
+    }
+}
@@ -0,0 +1,210 @@
+package org.springframework.boot.starter.sharding.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardWriteCoalescer
+ */
+class ShardWriteCoalescerTest {
+
+    private static final String INSERT = "INSERT INTO ledger (account_id) VALUES (?)";
+    private static final long BAD_ROW = -1L;
+
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch flushing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blockFlush;
+    private volatile SQLException batchFailure;
+    private volatile Object boundValue;
+
+    private MockShardDatabase database;
+    private RoutingDataSource routingDataSource;
+    private ShardWriteCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new MockShardDatabase();
+        PreparedStatement statement = database.statement;
+        doAnswer(invocation -> {
+            boundValue = invocation.getArgument(1);
+            return null;
+        }).when(statement).setObject(anyInt(), any());
+        when(statement.executeBatch()).thenAnswer(invocation -> {
+            flushing.countDown();
+            if (blockFlush) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            int rows = database.takeBatch();
+            batches.add(rows);
+            if (batchFailure != null) {
+                throw batchFailure;
+            }
+            return MockShardDatabase.oneRowEach(rows);
+        });
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            if (Long.valueOf(BAD_ROW).equals(boundValue)) {
+                throw new SQLException("Bad row");
+            }
+            return 1;
+        });
+
+        routingDataSource = MockShardDatabase.routing(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    @Test
+    void shouldFlushWhenBatchIsFull() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 3, TimeUnit.SECONDS.toMicros(30), 100, 1000);
+
+        List<CompletableFuture<Integer>> writes = List.of(
+            coalescer.submit(1L, INSERT, 1L),
+            coalescer.submit(2L, INSERT, 2L),
+            coalescer.submit(3L, INSERT, 3L));
+
+        for (CompletableFuture<Integer> write : writes) {
+            assertEquals(1, write.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(3), batches);
+        assertEquals(3, coalescer.getStats().largestBatch());
+    }
+
+    @Test
+    void shouldFlushPartialBatchAfterMaxDelay() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 100, TimeUnit.MILLISECONDS.toMicros(50), 100, 1000);
+
+        CompletableFuture<Integer> first = coalescer.submit(1L, INSERT, 1L);
+        CompletableFuture<Integer> second = coalescer.submit(2L, INSERT, 2L);
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(2), batches);
+        assertEquals(1, coalescer.getStats().flushes());
+    }
+
+    @Test
+    void shouldRejectWritesWhenQueueStaysFull() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 1, 0, 1, 50);
+        blockFlush = true;
+
+        CompletableFuture<Integer> inFlight = coalescer.submit(1L, INSERT, 1L);
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = coalescer.submit(2L, INSERT, 2L);
+
+        assertThrows(TransientDataAccessResourceException.class, () -> coalescer.submit(3L, INSERT, 3L));
+        assertEquals(1, coalescer.getStats().rejected());
+        assertEquals(1, coalescer.getQueueDepth(0));
+
+        release.countDown();
+        assertEquals(1, inFlight.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldRetryRowsIndividuallyWhenBatchFails() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 3, TimeUnit.SECONDS.toMicros(30), 100, 1000);
+        batchFailure = new BatchUpdateException("duplicate key value violates unique constraint", "23505", new int[0]);
+
+        CompletableFuture<Integer> good = coalescer.submit(1L, INSERT, 1L);
+        CompletableFuture<Integer> bad = coalescer.submit(2L, INSERT, BAD_ROW);
+        CompletableFuture<Integer> alsoGood = coalescer.submit(3L, INSERT, 3L);
+
+        assertEquals(1, good.get(5, TimeUnit.SECONDS));
+        assertEquals(1, alsoGood.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataAccessException.class, failure.getCause());
+        assertEquals(1, coalescer.getStats().fallbacks());
+    }
+
+    @Test
+    void shouldFailWholeBatchWhenConnectionFails() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 2, TimeUnit.SECONDS.toMicros(30), 100, 1000);
+        batchFailure = new BatchUpdateException("An I/O error occurred while sending to the backend", "08006",
+            new int[0]);
+
+        CompletableFuture<Integer> first = coalescer.submit(1L, INSERT, 1L);
+        CompletableFuture<Integer> second = coalescer.submit(2L, INSERT, 2L);
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        verify(database.statement, never()).executeUpdate();
+        assertEquals(0, coalescer.getStats().fallbacks());
+    }
+
+    @Test
+    void shouldNotRetryRowsWhenCommitFails() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 2, TimeUnit.SECONDS.toMicros(30), 100, 1000);
+        // Commit outcome unknown: the rows may be applied, retrying could insert them twice
+        doThrow(new SQLException("Connection reset", "08006")).when(database.connection).commit();
+
+        CompletableFuture<Integer> first = coalescer.submit(1L, INSERT, 1L);
+        CompletableFuture<Integer> second = coalescer.submit(2L, INSERT, 2L);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransactionSystemException.class, failure.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(2), batches);
+        verify(database.statement, never()).executeUpdate();
+        assertEquals(0, coalescer.getStats().fallbacks());
+    }
+
+    @Test
+    void shouldFlushQueuedWritesOnClose() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 100, TimeUnit.MILLISECONDS.toMicros(200), 100, 1000);
+
+        CompletableFuture<Integer> first = coalescer.submit(1L, INSERT, 1L);
+        CompletableFuture<Integer> second = coalescer.submit(2L, INSERT, 2L);
+        coalescer.close();
+
+        assertEquals(1, first.getNow(null));
+        assertEquals(1, second.getNow(null));
+        assertThrows(IllegalStateException.class, () -> coalescer.submit(3L, INSERT, 3L));
+    }
+
+    @Test
+    void shouldFailWritesLeftQueuedWhenCloseTimesOut() throws Exception {
+        coalescer = new ShardWriteCoalescer(routingDataSource, 1, 0, 10, 1000);
+        blockFlush = true;
+
+        CompletableFuture<Integer> inFlight = coalescer.submit(1L, INSERT, 1L);
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> pending = coalescer.submit(2L, INSERT, 2L);
+        coalescer.close();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> pending.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TransientDataAccessResourceException.class, failure.getCause());
+
+        release.countDown();
+        assertEquals(1, inFlight.get(5, TimeUnit.SECONDS));
+    }
+}
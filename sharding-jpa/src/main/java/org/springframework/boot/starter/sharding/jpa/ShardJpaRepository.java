@@ -1,14 +1,20 @@
 package org.springframework.boot.starter.sharding.jpa;
 
+import org.springframework.boot.starter.sharding.core.KeysetPage;
 import org.springframework.boot.starter.sharding.core.ShardContext;
+import org.springframework.boot.starter.sharding.core.ShardCursor;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.FluentQuery;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -135,6 +141,54 @@ public interface ShardJpaRepository<T, ID> extends JpaRepository<T, ID> {
         return executeWithShardKey(shardKey, () -> findBy(example, queryFunction));
     }
     
+    // Shard-aware keyset pagination
+    
+    /**
+     * Fetch one page using keyset pagination instead of OFFSET
+     * The sort should end with a unique property (e.g. the id) so the position is unambiguous
+     * @param shardKey the shard key
+     * @param example query by example probe
+     * @param sort page ordering
+     * @param pageSize maximum rows per page
+     * @param token continuation token from the previous page, null for the first page
+     * @return page with continuation token
+     */
+    default <S extends T> KeysetPage<S> findPage(long shardKey, Example<S> example, Sort sort, int pageSize, String token) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        ShardCursor cursor = ShardCursor.decode(token);
+        if (cursor.isExhausted(0)) {
+            return new KeysetPage<>(List.of(), null);
+        }
+        
+        Map<String, Object> keys = cursor.position(0);
+        KeysetScrollPosition position = keys == null ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+        Window<S> window = findBy(shardKey, example, query -> query.sortBy(sort).limit(pageSize).scroll(position));
+        if (window.isEmpty() || !window.hasNext()) {
+            return new KeysetPage<>(window.getContent(), null);
+        }
+        
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        cursor.advance(0, last.getKeys());
+        return new KeysetPage<>(window.getContent(), cursor.encode());
+    }
+    
+    // Workload class selection
+    
+    /**
+     * Execute repository operation on the shard's pool for a workload class
+     * e.g. {@code withWorkload("reporting", key, () -> findAll(key, example))}; a
+     * transaction started inside the operation takes its connection from that pool
+     * @param workload workload class configured under sharding.workloads
+     * @param shardKey the shard key
+     * @param operation repository calls to run
+     * @return operation result
+     */
+    default <R> R withWorkload(String workload, long shardKey, ShardOperation<R> operation) {
+        return ShardContext.executeWithWorkload(workload, () -> executeWithShardKey(shardKey, operation));
+    }
+    
     // Core execution method with shard context management
     
     default <R> R executeWithShardKey(long shardKey, ShardOperation<R> operation) {
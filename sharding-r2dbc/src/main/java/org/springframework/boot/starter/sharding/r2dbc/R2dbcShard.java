@@ -0,0 +1,12 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Shard served through a reactive connection factory, usually a pool
+ * @param name shard name
+ * @param index shard index, matching the JDBC shard of the same position
+ * @param connectionFactory connection factory of the shard
+ */
+public record R2dbcShard(String name, int index, ConnectionFactory connectionFactory) {
+}
@@ -0,0 +1,79 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.Closeable;
+import org.springframework.boot.starter.sharding.core.ShardRouter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Router over R2DBC shards
+ * Key resolution is delegated to the application's ShardRouter, overrides
+ * added at runtime included, and the R2DBC shard of the resolved index is
+ * served, so a key resolves to the same shard through JDBC and R2DBC
+ */
+public class R2dbcShardRouter implements AutoCloseable {
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ShardRouter shardRouter;
+    private final List<R2dbcShard> shards;
+
+    /**
+     * @param shardRouter router resolving shard keys, e.g. the JDBC shard router
+     * @param shards shards in index order, one per shard of the router
+     */
+    public R2dbcShardRouter(ShardRouter shardRouter, List<R2dbcShard> shards) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("Shards cannot be null or empty");
+        }
+        if (shards.size() != shardRouter.getShardCount()) {
+            throw new IllegalArgumentException("Expected " + shardRouter.getShardCount()
+                + " R2DBC shards to match the shard router, got " + shards.size());
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            if (shards.get(i).index() != i) {
+                throw new IllegalArgumentException("Shard " + shards.get(i).name() + " must have index " + i);
+            }
+        }
+        this.shardRouter = shardRouter;
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Resolve shard key to target shard
+     * @param shardKey the key to route
+     * @return target shard
+     */
+    public R2dbcShard resolve(long shardKey) {
+        return getShard(shardRouter.resolve(shardKey).index());
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public R2dbcShard getShard(int index) {
+        if (index < 0 || index >= shards.size()) {
+            throw new IllegalArgumentException("Invalid shard index: " + index);
+        }
+        return shards.get(index);
+    }
+
+    public List<R2dbcShard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Close shard connection factories that hold resources, e.g. pools
+     */
+    @Override
+    public void close() {
+        for (R2dbcShard shard : shards) {
+            if (shard.connectionFactory() instanceof Closeable closeable) {
+                Mono.from(closeable.close()).block(CLOSE_TIMEOUT);
+            }
+        }
+    }
+}
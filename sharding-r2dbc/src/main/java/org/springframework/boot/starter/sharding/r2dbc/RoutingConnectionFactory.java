@@ -0,0 +1,48 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routing ConnectionFactory that delegates to the shard's connection factory
+ * Based on the shard key in the Reactor Context of the subscription, see
+ * ShardReactorContext; the reactive counterpart of RoutingDataSource
+ */
+public class RoutingConnectionFactory implements ConnectionFactory {
+
+    private final R2dbcShardRouter shardRouter;
+
+    public RoutingConnectionFactory(R2dbcShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return ShardReactorContext.currentShardKey()
+            .flatMap(shardKey -> Mono.from(shardRouter.resolve(shardKey).connectionFactory().create()));
+    }
+
+    /**
+     * All shards run the same database product, so the first shard describes them
+     */
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return shardRouter.getShard(0).connectionFactory().getMetadata();
+    }
+
+    /**
+     * Get connection factory of a specific shard, bypassing shard key resolution
+     * Used for scatter-gather operations that visit every shard
+     * @param index shard index
+     * @return connection factory for the shard
+     */
+    public ConnectionFactory getShardConnectionFactory(int index) {
+        return shardRouter.getShard(index).connectionFactory();
+    }
+
+    public R2dbcShardRouter getShardRouter() {
+        return shardRouter;
+    }
+}
@@ -0,0 +1,166 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Shard-aware reactive client, the R2DBC counterpart of ShardJdbcTemplate
+ * Every call puts its shard key into the Reactor Context of its own
+ * subscription, so nothing is held per thread and concurrent requests never
+ * see each other's key. SQL uses the driver's bind markers, e.g. $1 for PostgreSQL
+ */
+public class ShardDatabaseClient {
+
+    private static final String TRANSACTION_SHARD = ShardDatabaseClient.class.getName() + ".TRANSACTION_SHARD";
+
+    private final RoutingConnectionFactory routingConnectionFactory;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Map<Integer, DatabaseClient> shardClients = new ConcurrentHashMap<>();
+
+    public ShardDatabaseClient(RoutingConnectionFactory routingConnectionFactory) {
+        this.routingConnectionFactory = routingConnectionFactory;
+        this.databaseClient = DatabaseClient.create(routingConnectionFactory);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(routingConnectionFactory));
+    }
+
+    // SINGLE SHARD operations
+
+    /**
+     * Execute update on the key's shard
+     * @return rows affected
+     */
+    public Mono<Long> update(long shardKey, String sql, Object... args) {
+        return withShardKey(shardKey, Mono.defer(() -> bind(databaseClient.sql(sql), args).fetch().rowsUpdated()));
+    }
+
+    public <T> Mono<T> queryForObject(long shardKey, String sql, Class<T> requiredType, Object... args) {
+        return withShardKey(shardKey, Mono.defer(() ->
+            bind(databaseClient.sql(sql), args).map(row -> row.get(0, requiredType)).one()));
+    }
+
+    public <T> Flux<T> query(long shardKey, String sql, BiFunction<Row, RowMetadata, T> rowMapper, Object... args) {
+        return withShardKey(shardKey, Flux.defer(() -> bind(databaseClient.sql(sql), args).map(rowMapper).all()));
+    }
+
+    public Flux<Map<String, Object>> queryForList(long shardKey, String sql, Object... args) {
+        return withShardKey(shardKey, Flux.defer(() -> bind(databaseClient.sql(sql), args).fetch().all()));
+    }
+
+    /**
+     * Execute custom work on the key's shard, e.g. statements binding null values
+     * @param shardKey the shard key
+     * @param action work against a client routed to the key's shard
+     * @return results of the action
+     */
+    public <T> Flux<T> execute(long shardKey, Function<DatabaseClient, ? extends Publisher<T>> action) {
+        return withShardKey(shardKey, Flux.defer(() -> action.apply(databaseClient)));
+    }
+
+    /**
+     * Execute work in a local transaction on the shard owning the key
+     * Calls for keys on the same shard inside the action, nested transactions included,
+     * join the transaction; keys on other shards are rejected
+     * @param shardKey the shard key
+     * @param action work using this client or the routed DatabaseClient
+     * @return results of the action, emitted after commit
+     */
+    public <T> Flux<T> executeInTransaction(long shardKey, Function<ShardDatabaseClient, ? extends Publisher<T>> action) {
+        int shardIndex = routingConnectionFactory.getShardRouter().resolve(shardKey).index();
+        Flux<T> transaction = withShardKey(shardKey,
+                transactionalOperator.transactional(Flux.defer(() -> action.apply(this))))
+            .contextWrite(context -> context.put(TRANSACTION_SHARD, shardIndex));
+        // A nested call joins the enclosing transaction's connection: check against its shard before rebinding
+        return Flux.deferContextual(context -> verifyTransactionShard(context, shardKey).thenMany(transaction));
+    }
+
+    // ALL SHARDS operations
+
+    /**
+     * Query every shard concurrently and merge the rows as they arrive
+     * @return rows of all shards, in no particular order
+     */
+    public <T> Flux<T> queryAllShards(String sql, BiFunction<Row, RowMetadata, T> rowMapper, Object... args) {
+        int shardCount = routingConnectionFactory.getShardRouter().getShardCount();
+        List<Flux<T>> results = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            DatabaseClient client = shardClient(i);
+            results.add(Flux.defer(() -> bind(client.sql(sql), args).map(rowMapper).all()));
+        }
+        return Flux.merge(results);
+    }
+
+    // Core execution method with shard context management
+
+    private <T> Mono<T> withShardKey(long shardKey, Mono<T> operation) {
+        return Mono.deferContextual(context -> verifyTransactionShard(context, shardKey))
+            .then(operation)
+            .contextWrite(ShardReactorContext.withShardKey(shardKey));
+    }
+
+    private <T> Flux<T> withShardKey(long shardKey, Flux<T> operation) {
+        return Mono.deferContextual(context -> verifyTransactionShard(context, shardKey))
+            .thenMany(operation)
+            .contextWrite(ShardReactorContext.withShardKey(shardKey));
+    }
+
+    /**
+     * Inside a transaction the bound connection is reused for every call,
+     * so a key that lives on another shard would silently hit the wrong database
+     */
+    private Mono<Void> verifyTransactionShard(ContextView context, long shardKey) {
+        Integer boundShard = context.<Integer>getOrEmpty(TRANSACTION_SHARD).orElse(null);
+        if (boundShard == null) {
+            return Mono.empty();
+        }
+        R2dbcShard target = routingConnectionFactory.getShardRouter().resolve(shardKey);
+        if (target.index() != boundShard) {
+            return Mono.error(new IllegalStateException("Shard key " + shardKey + " resolves to " + target.name()
+                + " but the current transaction is bound to "
+                + routingConnectionFactory.getShardRouter().getShard(boundShard).name()));
+        }
+        return Mono.empty();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == null) {
+                // R2DBC needs the type of a null value; bind it explicitly via execute()
+                throw new IllegalArgumentException("Null argument at index " + i + ": use execute() with bindNull");
+            }
+            spec = spec.bind(i, args[i]);
+        }
+        return spec;
+    }
+
+    private DatabaseClient shardClient(int shardIndex) {
+        return shardClients.computeIfAbsent(shardIndex,
+            index -> DatabaseClient.create(routingConnectionFactory.getShardConnectionFactory(index)));
+    }
+
+    public R2dbcShardRouter getShardRouter() {
+        return routingConnectionFactory.getShardRouter();
+    }
+
+    /**
+     * Get DatabaseClient over the routing connection factory for advanced operations
+     * Note: the shard key must be written to the Reactor Context when using this
+     */
+    public DatabaseClient getDatabaseClient() {
+        return databaseClient;
+    }
+}
@@ -0,0 +1,54 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Function;
+
+/**
+ * Shard key held in the Reactor Context instead of a ThreadLocal
+ * The key travels with the subscription across thread hops, so one request can
+ * be served by any event-loop thread. Apply with
+ * {@code mono.contextWrite(ShardReactorContext.withShardKey(key))}
+ */
+public final class ShardReactorContext {
+
+    /**
+     * Context key of the shard key
+     */
+    public static final String SHARD_KEY = ShardReactorContext.class.getName() + ".SHARD_KEY";
+
+    private ShardReactorContext() {
+    }
+
+    /**
+     * Create context modifier setting the shard key for the upstream publisher
+     * @param shardKey the shard key
+     * @return function for {@code contextWrite}
+     */
+    public static Function<Context, Context> withShardKey(long shardKey) {
+        return context -> context.put(SHARD_KEY, shardKey);
+    }
+
+    /**
+     * Get shard key of a subscriber context
+     * @param context subscriber context
+     * @return shard key or null if not set
+     */
+    public static Long getShardKey(ContextView context) {
+        return context.<Long>getOrEmpty(SHARD_KEY).orElse(null);
+    }
+
+    /**
+     * Get shard key of the current subscription
+     * @return shard key, or an error if not set
+     */
+    public static Mono<Long> currentShardKey() {
+        return Mono.deferContextual(context -> {
+            Long shardKey = getShardKey(context);
+            return shardKey != null ? Mono.just(shardKey) : Mono.error(new IllegalStateException(
+                "Shard key not set in Reactor context. Use ShardDatabaseClient or contextWrite(ShardReactorContext.withShardKey(key))."));
+        });
+    }
+}
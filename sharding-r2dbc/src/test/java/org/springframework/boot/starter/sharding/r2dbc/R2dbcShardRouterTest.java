@@ -0,0 +1,62 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.starter.sharding.core.HashShardRouter;
+import org.springframework.boot.starter.sharding.core.Shard;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for R2dbcShardRouter
+ */
+class R2dbcShardRouterTest {
+
+    private HashShardRouter shardRouter;
+    private List<R2dbcShard> shards;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = new HashShardRouter(List.of(
+            Shard.of("shard-0", 0, mock(DataSource.class)),
+            Shard.of("shard-1", 1, mock(DataSource.class))
+        ), Map.of(7L, 1));
+        shards = List.of(
+            new R2dbcShard("shard-0", 0, mock(ConnectionFactory.class)),
+            new R2dbcShard("shard-1", 1, mock(ConnectionFactory.class))
+        );
+    }
+
+    @Test
+    void shouldResolveSameShardIndexAsShardRouter() {
+        R2dbcShardRouter router = new R2dbcShardRouter(shardRouter, shards);
+
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(shardRouter.resolve(key).index(), router.resolve(key).index());
+        }
+        assertEquals(1, router.resolve(7L).index());
+    }
+
+    @Test
+    void shouldFollowOverridesAddedAtRuntime() {
+        R2dbcShardRouter router = new R2dbcShardRouter(shardRouter, shards);
+        long key = 42L;
+        int target = 1 - router.resolve(key).index();
+
+        shardRouter.addOverride(key, target);
+
+        assertEquals(target, router.resolve(key).index());
+    }
+
+    @Test
+    void shouldRejectShardCountMismatch() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new R2dbcShardRouter(shardRouter, shards.subList(0, 1)));
+    }
+}
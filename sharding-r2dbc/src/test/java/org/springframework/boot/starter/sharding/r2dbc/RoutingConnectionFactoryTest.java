@@ -0,0 +1,70 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.starter.sharding.core.HashShardRouter;
+import org.springframework.boot.starter.sharding.core.Shard;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RoutingConnectionFactory
+ */
+class RoutingConnectionFactoryTest {
+
+    private final Connection connection0 = mock(Connection.class);
+    private final Connection connection1 = mock(Connection.class);
+    private ConnectionFactory factory0;
+    private ConnectionFactory factory1;
+    private RoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        factory0 = mock(ConnectionFactory.class);
+        factory1 = mock(ConnectionFactory.class);
+        when(factory0.create()).thenAnswer(invocation -> Mono.just(connection0));
+        when(factory1.create()).thenAnswer(invocation -> Mono.just(connection1));
+
+        HashShardRouter shardRouter = new HashShardRouter(List.of(
+            Shard.of("shard-0", 0, mock(DataSource.class)),
+            Shard.of("shard-1", 1, mock(DataSource.class))
+        ), Map.of(1L, 0, 2L, 1));
+        routingConnectionFactory = new RoutingConnectionFactory(new R2dbcShardRouter(shardRouter, List.of(
+            new R2dbcShard("shard-0", 0, factory0),
+            new R2dbcShard("shard-1", 1, factory1)
+        )));
+    }
+
+    @Test
+    void shouldRouteByShardKeyInReactorContext() {
+        Connection onShard0 = routingConnectionFactory.create()
+            .contextWrite(ShardReactorContext.withShardKey(1L))
+            .block();
+        Connection onShard1 = routingConnectionFactory.create()
+            .contextWrite(ShardReactorContext.withShardKey(2L))
+            .block();
+
+        assertSame(connection0, onShard0);
+        assertSame(connection1, onShard1);
+    }
+
+    @Test
+    void shouldFailWithoutShardKeyInReactorContext() {
+        Mono<Connection> connection = routingConnectionFactory.create();
+
+        assertThrows(IllegalStateException.class, connection::block);
+        verify(factory0, never()).create();
+        verify(factory1, never()).create();
+    }
+}
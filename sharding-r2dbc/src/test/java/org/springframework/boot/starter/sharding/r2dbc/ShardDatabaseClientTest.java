@@ -0,0 +1,114 @@
+package org.springframework.boot.starter.sharding.r2dbc;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.TransactionDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.starter.sharding.core.HashShardRouter;
+import org.springframework.boot.starter.sharding.core.Shard;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardDatabaseClient
+ */
+class ShardDatabaseClientTest {
+
+    private static final long KEY_ON_SHARD_0 = 1L;
+    private static final long OTHER_KEY_ON_SHARD_0 = 3L;
+    private static final long KEY_ON_SHARD_1 = 2L;
+
+    private Connection connection;
+    private ConnectionFactory factory1;
+    private ShardDatabaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        // Every reactive SPI call completes empty: begin, commit, rollback, close
+        connection = mock(Connection.class, invocation ->
+            Publisher.class.isAssignableFrom(invocation.getMethod().getReturnType())
+                ? Mono.empty()
+                : Answers.RETURNS_DEFAULTS.answer(invocation));
+        ConnectionFactory factory0 = mock(ConnectionFactory.class);
+        when(factory0.create()).thenAnswer(invocation -> Mono.just(connection));
+        ConnectionFactoryMetadata metadata = mock(ConnectionFactoryMetadata.class);
+        when(metadata.getName()).thenReturn("PostgreSQL");
+        when(factory0.getMetadata()).thenReturn(metadata);
+
+        factory1 = mock(ConnectionFactory.class);
+
+        HashShardRouter shardRouter = new HashShardRouter(List.of(
+            Shard.of("shard-0", 0, mock(DataSource.class)),
+            Shard.of("shard-1", 1, mock(DataSource.class))
+        ), Map.of(KEY_ON_SHARD_0, 0, OTHER_KEY_ON_SHARD_0, 0, KEY_ON_SHARD_1, 1));
+        client = new ShardDatabaseClient(new RoutingConnectionFactory(new R2dbcShardRouter(shardRouter, List.of(
+            new R2dbcShard("shard-0", 0, factory0),
+            new R2dbcShard("shard-1", 1, factory1)
+        ))));
+    }
+
+    @Test
+    void shouldJoinTransactionForKeyOnSameShard() {
+        List<Integer> results = client.executeInTransaction(KEY_ON_SHARD_0, shardClient ->
+                shardClient.execute(OTHER_KEY_ON_SHARD_0, databaseClient -> Flux.just(1)))
+            .collectList()
+            .block();
+
+        assertEquals(List.of(1), results);
+        verify(connection).commitTransaction();
+    }
+
+    @Test
+    void shouldRejectKeyOnOtherShardInsideTransaction() {
+        Flux<Long> transaction = client.executeInTransaction(KEY_ON_SHARD_0, shardClient ->
+            shardClient.update(KEY_ON_SHARD_1, "UPDATE accounts SET balance = 0 WHERE account_id = $1", KEY_ON_SHARD_1));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, transaction::blockLast);
+        assertTrue(error.getMessage().contains("shard-1"));
+        verify(connection, never()).createStatement(anyString());
+        verify(connection).rollbackTransaction();
+        verify(connection, never()).commitTransaction();
+    }
+
+    @Test
+    void shouldRejectNestedTransactionOnOtherShard() {
+        Flux<Long> transaction = client.executeInTransaction(KEY_ON_SHARD_0, shardClient ->
+            shardClient.executeInTransaction(KEY_ON_SHARD_1, nested ->
+                nested.update(KEY_ON_SHARD_1, "UPDATE accounts SET balance = 0 WHERE account_id = $1", KEY_ON_SHARD_1)));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, transaction::blockLast);
+        assertTrue(error.getMessage().contains("shard-1"));
+        verify(factory1, never()).create();
+        verify(connection, never()).createStatement(anyString());
+        verify(connection).rollbackTransaction();
+        verify(connection, never()).commitTransaction();
+    }
+
+    @Test
+    void shouldJoinNestedTransactionOnSameShard() {
+        List<Integer> results = client.executeInTransaction(KEY_ON_SHARD_0, shardClient ->
+                shardClient.executeInTransaction(OTHER_KEY_ON_SHARD_0, nested -> Flux.just(1)))
+            .collectList()
+            .block();
+
+        assertEquals(List.of(1), results);
+        verify(connection).beginTransaction(any(TransactionDefinition.class));
+        verify(connection).commitTransaction();
+    }
+}